@@ -0,0 +1,130 @@
+package org.example.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.components.Detail;
+import org.example.components.Overview;
+import org.example.components.Search;
+import org.example.componentsinfo.PageableListInfo;
+import org.example.componentsinfo.SearchInfo;
+import org.example.search.DocumentProjection;
+import org.example.search.Pagination;
+import org.hippoecm.hst.container.ModifiableRequestContextProvider;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.mock.core.component.MockHstRequest;
+import org.hippoecm.hst.mock.core.request.MockComponentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parts of a page that every component request goes through: the {@link Detail} component, the
+ * resolution of the parameters info of the list components, the page list of a pageable list and the projection of a
+ * document on the properties a list shows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComponentBenchmark {
+
+    private MockHstRequest request;
+    private MockHstRequest detailRequest;
+    private HstResponse response;
+    private HippoBean document;
+    private List<String> projection;
+    private Detail detail;
+    private BenchmarkOverview overview;
+    private BenchmarkSearch search;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        final List<HippoBean> documents = Fixtures.createDocuments(10);
+        document = documents.get(0);
+        request = Fixtures.createRequest(Fixtures.createScope(), documents);
+        detailRequest = Fixtures.createRequest(document, documents);
+        response = Fixtures.createResponse();
+        ModifiableRequestContextProvider.set(request.getRequestContext());
+        projection = Arrays.asList("myhippoproject:title", "myhippoproject:summary", "myhippoproject:date");
+
+        detail = new Detail();
+        detail.init(null, new MockComponentConfiguration());
+        overview = new BenchmarkOverview();
+        overview.init(null, new MockComponentConfiguration());
+        search = new BenchmarkSearch();
+        search.init(null, new MockComponentConfiguration());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ModifiableRequestContextProvider.clear();
+    }
+
+    /**
+     * A detail page of a document that is found
+     */
+    @Benchmark
+    public Object detail() {
+        detail.doBeforeRender(detailRequest, response);
+        return detailRequest.getAttribute("document");
+    }
+
+    @Benchmark
+    public PageableListInfo overviewParametersInfo() {
+        return overview.getParametersInfo(request);
+    }
+
+    @Benchmark
+    public SearchInfo searchParametersInfo() {
+        return search.getParametersInfo(request);
+    }
+
+    /**
+     * The page list of a list of 1234 documents, for each of its pages in turn
+     */
+    @Benchmark
+    public Pagination pagination() {
+        page = page % 124 + 1;
+        return new Pagination(page, 10, 1234, 5, true);
+    }
+
+    /**
+     * Reading the properties a list shows from a document bean
+     */
+    @Benchmark
+    public DocumentProjection projection() {
+        return DocumentProjection.create(document, projection, "/news/2014/news-0.html");
+    }
+
+    static class BenchmarkOverview extends Overview {
+
+        PageableListInfo getParametersInfo(final HstRequest request) {
+            return getComponentParametersInfo(request);
+        }
+
+    }
+
+    static class BenchmarkSearch extends Search {
+
+        SearchInfo getParametersInfo(final HstRequest request) {
+            return getComponentParametersInfo(request);
+        }
+
+    }
+
+}
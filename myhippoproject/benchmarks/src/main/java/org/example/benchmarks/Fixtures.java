@@ -0,0 +1,285 @@
+package org.example.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import javax.jcr.Node;
+import javax.jcr.nodetype.NodeType;
+
+import org.easymock.IAnswer;
+import org.example.beans.BaseDocument;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManager;
+import org.hippoecm.hst.content.beans.manager.ObjectConverter;
+import org.hippoecm.hst.content.beans.manager.ObjectConverterImpl;
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.HstQueryManager;
+import org.hippoecm.hst.content.beans.query.HstQueryResult;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.hippoecm.hst.content.tool.ContentBeansTool;
+import org.hippoecm.hst.content.tool.DefaultContentBeansTool;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.mock.core.component.MockHstRequest;
+
+import static org.easymock.EasyMock.anyBoolean;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+
+/**
+ * Stubbed requests and repository for the benchmarks, in the way <code>DetailTest</code> of the site stubs them. The
+ * request context, query manager, query and query result are EasyMock mocks. The beans the query returns are plain
+ * proxies instead, because the benchmarks read them in their hot loops and the bookkeeping of a mock would dominate
+ * the time and allocations measured.
+ */
+public final class Fixtures {
+
+    public static final String SCOPE_PATH = "/content/documents/myhippoproject/news";
+    public static final String DOC_TYPE = "myhippoproject:basedocument";
+    public static final String MOUNT_IDENTIFIER = "benchmark-mount";
+
+    private static final String[] PROPERTY_NAMES = {"myhippoproject:title", "myhippoproject:summary", "myhippoproject:date",
+            "myhippoproject:body", "hippostdpubwf:lastModificationDate"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return <code>count</code> documents below {@link #SCOPE_PATH}, newest first, spread over a few folders
+     */
+    public static List<HippoBean> createDocuments(final int count) {
+        final List<HippoBean> documents = new ArrayList<HippoBean>(count);
+        final Calendar date = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        date.setTimeInMillis(1400000000000L);
+        for (int i = 0; i < count; i++) {
+            final Calendar documentDate = (Calendar) date.clone();
+            documentDate.add(Calendar.HOUR, -12 * i);
+            final Map<String, Object> properties = new HashMap<String, Object>();
+            properties.put(PROPERTY_NAMES[0], "News item " + i);
+            properties.put(PROPERTY_NAMES[1], "The summary of news item " + i + ", as it is shown on the overview.");
+            properties.put(PROPERTY_NAMES[2], documentDate);
+            properties.put(PROPERTY_NAMES[3], "<p>The body of news item " + i + " mentions hippo in its second sentence. "
+                    + "Hippo is what the search benchmark looks for.</p>");
+            properties.put(PROPERTY_NAMES[4], documentDate);
+            final String path = SCOPE_PATH + "/" + (2014 - i % 3) + "/news-" + i + "/news-" + i;
+            documents.add(createBean(String.format("00000000-0000-0000-0000-%012d", i), path, properties,
+                    createNode(DOC_TYPE)));
+        }
+        return documents;
+    }
+
+    /**
+     * @return the folder all documents are searched below
+     */
+    public static HippoBean createScope() {
+        return createBean("cafebabe-0000-0000-0000-000000000000", SCOPE_PATH, Collections.<String, Object>emptyMap(),
+                createNode("hippostd:folder"));
+    }
+
+    /**
+     * @return a request for the live site in a mount that does not use subject based sessions, of which every query
+     * returns <code>documents</code> in the order given
+     */
+    public static MockHstRequest createRequest(final HippoBean contentBean, final List<HippoBean> documents) {
+        final Mount mount = createNiceMock(Mount.class);
+        expect(mount.getIdentifier()).andStubReturn(MOUNT_IDENTIFIER);
+        expect(mount.isSubjectBasedSession()).andStubReturn(false);
+        final ResolvedMount resolvedMount = createNiceMock(ResolvedMount.class);
+        expect(resolvedMount.getMount()).andStubReturn(mount);
+
+        final HstRequestContext requestContext = createNiceMock(HstRequestContext.class);
+        expect(requestContext.getContentBean()).andStubReturn(contentBean);
+        expect(requestContext.getSiteContentBaseBean()).andStubReturn(contentBean);
+        expect(requestContext.getResolvedMount()).andStubReturn(resolvedMount);
+        expect(requestContext.getContentBeansTool()).andStubReturn(createContentBeansTool());
+        expect(requestContext.getQueryManager()).andStubReturn(createQueryManager(documents));
+        expect(requestContext.getObjectBeanManager()).andStubReturn(createObjectBeanManager(documents));
+        replay(mount, resolvedMount, requestContext);
+
+        final MockHstRequest request = new MockHstRequest();
+        request.setRequestContext(requestContext);
+        return request;
+    }
+
+    public static HstResponse createResponse() {
+        final HstResponse response = createNiceMock(HstResponse.class);
+        replay(response);
+        return response;
+    }
+
+    private static ContentBeansTool createContentBeansTool() {
+        final Map<String, Class<? extends HippoBean>> beanClasses = new HashMap<String, Class<? extends HippoBean>>();
+        beanClasses.put(DOC_TYPE, BaseDocument.class);
+        final ObjectConverter objectConverter = new ObjectConverterImpl(beanClasses, new String[0]);
+        return new DefaultContentBeansTool(null) {
+            @Override
+            public ObjectConverter getObjectConverter() {
+                return objectConverter;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HstQueryManager createQueryManager(final List<HippoBean> documents) {
+        final HstQueryResult queryResult = createNiceMock(HstQueryResult.class);
+        expect(queryResult.getTotalSize()).andStubReturn(documents.size());
+        expect(queryResult.getSize()).andStubReturn(documents.size());
+        expect(queryResult.getHippoBeans()).andStubAnswer(new IAnswer<HippoBeanIterator>() {
+            @Override
+            public HippoBeanIterator answer() throws Throwable {
+                return createIterator(documents);
+            }
+        });
+
+        final HstQuery query = createNiceMock(HstQuery.class);
+        final Filter filter = createNiceMock(Filter.class);
+        final HstQueryManager queryManager = createNiceMock(HstQueryManager.class);
+        try {
+            expect(query.createFilter()).andStubReturn(filter);
+            expect(query.execute()).andStubReturn(queryResult);
+            expect(query.getQueryAsString(anyBoolean())).andStubReturn("//element(*," + DOC_TYPE + ")");
+            expect(queryManager.createQuery((Node) anyObject(), (Class) anyObject(), anyBoolean())).andStubReturn(query);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot stub the query manager", e);
+        }
+        replay(queryResult, query, filter, queryManager);
+        return queryManager;
+    }
+
+    private static ObjectBeanManager createObjectBeanManager(final List<HippoBean> documents) {
+        final Map<String, HippoBean> documentsByIdentifier = new HashMap<String, HippoBean>();
+        for (HippoBean document : documents) {
+            documentsByIdentifier.put(document.getCanonicalUUID(), document);
+        }
+        final ObjectBeanManager objectBeanManager = createNiceMock(ObjectBeanManager.class);
+        try {
+            expect(objectBeanManager.getObjectByUuid((String) anyObject())).andStubAnswer(new IAnswer<Object>() {
+                @Override
+                public Object answer() throws Throwable {
+                    return documentsByIdentifier.get(getCurrentArguments()[0]);
+                }
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot stub the object bean manager", e);
+        }
+        replay(objectBeanManager);
+        return objectBeanManager;
+    }
+
+    /**
+     * @return a bean that answers its identifiers, path, node and properties, and the default value of the return type
+     * for anything else
+     */
+    public static HippoBean createBean(final String identifier, final String path, final Map<String, Object> properties,
+                                       final Node node) {
+        return (HippoBean) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class[]{HippoBean.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        final String name = method.getName();
+                        if ("getCanonicalUUID".equals(name) || "getIdentifier".equals(name)) {
+                            return identifier;
+                        } else if ("getPath".equals(name) || "getCanonicalPath".equals(name)) {
+                            return path;
+                        } else if ("getName".equals(name)) {
+                            return path.substring(path.lastIndexOf('/') + 1);
+                        } else if ("getNode".equals(name)) {
+                            return node;
+                        } else if ("getProperty".equals(name)) {
+                            final Object value = properties.get(args[0]);
+                            return value != null || args.length == 1 ? value : args[1];
+                        } else if ("getProperties".equals(name)) {
+                            return properties;
+                        } else if ("equals".equals(name)) {
+                            return proxy == args[0];
+                        } else if ("hashCode".equals(name)) {
+                            return System.identityHashCode(proxy);
+                        } else if ("toString".equals(name)) {
+                            return path;
+                        }
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Node createNode(final String primaryNodeTypeName) {
+        final NodeType nodeType = (NodeType) Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+                new Class[]{NodeType.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return "getName".equals(method.getName()) ? primaryNodeTypeName : defaultValue(method.getReturnType());
+                    }
+                });
+        return (Node) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class[]{Node.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return "getPrimaryNodeType".equals(method.getName()) ? nodeType : defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * @return an iterator over <code>beans</code>, which is what a query result of the repository returns
+     */
+    private static HippoBeanIterator createIterator(final List<HippoBean> beans) {
+        return (HippoBeanIterator) Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+                new Class[]{HippoBeanIterator.class}, new InvocationHandler() {
+                    private int position;
+
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        final String name = method.getName();
+                        if ("hasNext".equals(name)) {
+                            return position < beans.size();
+                        } else if ("next".equals(name) || "nextHippoBean".equals(name)) {
+                            return position < beans.size() ? beans.get(position++) : null;
+                        } else if ("skip".equals(name)) {
+                            position = Math.min(position + ((Number) args[0]).intValue(), beans.size());
+                            return null;
+                        } else if ("getSize".equals(name)) {
+                            return method.getReturnType() == int.class ? (Object) beans.size() : (Object) (long) beans.size();
+                        } else if ("getPosition".equals(name)) {
+                            return method.getReturnType() == int.class ? (Object) position : (Object) (long) position;
+                        }
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return Boolean.FALSE;
+        } else if (type == char.class) {
+            return (char) 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == double.class) {
+            return 0d;
+        }
+        return 0f;
+    }
+
+}
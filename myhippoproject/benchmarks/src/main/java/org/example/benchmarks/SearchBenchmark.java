@@ -0,0 +1,153 @@
+package org.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.components.Overview;
+import org.example.components.Search;
+import org.example.componentsinfo.GeneralListInfo;
+import org.example.search.SearchResultCache;
+import org.hippoecm.hst.container.ModifiableRequestContextProvider;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.mock.core.component.MockHstRequest;
+import org.hippoecm.hst.mock.core.request.MockComponentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the list and search paths of the components: the {@link Overview} and {@link Search} components
+ * preparing a page, and the search they share, against a query result of <code>hits</code> documents. The query
+ * result is stubbed, so what is measured is the work of the components around the repository: the parameters, the
+ * query, reading the hits, the page list and, for the search, the snippets and facets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int hits;
+
+    private MockHstRequest request;
+    private MockHstRequest searchRequest;
+    private HstResponse response;
+    private HippoBean scope;
+    private BenchmarkOverview overview;
+    private BenchmarkOverview cachedOverview;
+    private GeneralListInfo info;
+    private BenchmarkSearch search;
+
+    @Setup
+    public void setUp() {
+        final List<HippoBean> documents = Fixtures.createDocuments(hits);
+        scope = Fixtures.createScope();
+        request = Fixtures.createRequest(scope, documents);
+        searchRequest = Fixtures.createRequest(scope, documents);
+        searchRequest.setParameter("query", "hippo");
+        response = Fixtures.createResponse();
+        ModifiableRequestContextProvider.set(request.getRequestContext());
+
+        overview = new BenchmarkOverview(null);
+        overview.init(null, new MockComponentConfiguration());
+        cachedOverview = new BenchmarkOverview(new SearchResultCache(1000, 3600));
+        cachedOverview.init(null, new MockComponentConfiguration());
+        info = overview.getParametersInfo(request);
+        search = new BenchmarkSearch();
+        search.init(null, new MockComponentConfiguration());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ModifiableRequestContextProvider.clear();
+    }
+
+    /**
+     * An overview page, of which every request queries the repository
+     */
+    @Benchmark
+    public Object overview() {
+        overview.doBeforeRender(request, response);
+        return request.getAttribute("result");
+    }
+
+    /**
+     * An overview page, of which every request but the first is served from the {@link SearchResultCache}
+     */
+    @Benchmark
+    public Object overviewCached() {
+        cachedOverview.doBeforeRender(request, response);
+        return request.getAttribute("result");
+    }
+
+    /**
+     * The search of an overview page only, with parameters that were resolved before
+     */
+    @Benchmark
+    public Object createAndExecuteSearch() {
+        overview.search(request, info, scope);
+        return request.getAttribute("result");
+    }
+
+    /**
+     * A search page for text that all documents contain, with snippets and facets
+     */
+    @Benchmark
+    public Object search() {
+        search.doBeforeRender(searchRequest, response);
+        return searchRequest.getAttribute("facets");
+    }
+
+    /**
+     * An {@link Overview} with the search result cache given instead of the one of the HST component manager
+     */
+    static class BenchmarkOverview extends Overview {
+
+        private final SearchResultCache cache;
+
+        BenchmarkOverview(final SearchResultCache cache) {
+            this.cache = cache;
+        }
+
+        GeneralListInfo getParametersInfo(final HstRequest request) {
+            return getComponentParametersInfo(request);
+        }
+
+        void search(final HstRequest request, final GeneralListInfo info, final HippoBean scope) {
+            createAndExecuteSearch(request, info, scope, null);
+        }
+
+        @Override
+        protected SearchResultCache getSearchResultCache() {
+            return cache;
+        }
+
+    }
+
+    /**
+     * A {@link Search} that reads the query from the parameters of the stubbed request, which has no namespaces
+     */
+    static class BenchmarkSearch extends Search {
+
+        @Override
+        public String getPublicRequestParameter(final HstRequest request, final String parameterName) {
+            return request.getParameter(parameterName);
+        }
+
+    }
+
+}
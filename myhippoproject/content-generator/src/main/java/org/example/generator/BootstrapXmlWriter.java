@@ -0,0 +1,205 @@
+package org.example.generator;
+
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes news documents as a folder in the system view XML the repository bootstraps content from, in the same shape
+ * as <code>news.xml</code> of the bootstrap content. The folder is written while the documents are written, so the
+ * size of the file is not limited by memory. Its documents must arrive folder by folder, as the
+ * {@link NewsGenerator} makes them up.
+ */
+public class BootstrapXmlWriter implements NewsWriter {
+
+    private static final String SV = "http://www.jcp.org/jcr/sv/1.0";
+
+    private final XMLStreamWriter xml;
+    private final String locale;
+    private final SimpleDateFormat dateFormat;
+    private final List<String> openFolders = new ArrayList<String>();
+    private int depth;
+
+    /**
+     * Starts the XML with the folder <code>folderName</code>
+     */
+    public BootstrapXmlWriter(final Writer writer, final String folderName, final String locale) throws XMLStreamException {
+        this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+        this.locale = locale;
+        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ENGLISH);
+        this.dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        xml.writeStartDocument("UTF-8", "1.0");
+        newLine();
+        xml.writeStartElement("sv", "node", SV);
+        xml.writeNamespace("sv", SV);
+        xml.writeAttribute("sv", SV, "name", folderName);
+        depth++;
+        writeFolderProperties(folderName);
+    }
+
+    @Override
+    public void write(final GeneratedNews news) throws XMLStreamException {
+        final List<String> folders = Arrays.asList(news.getFolderPath().split("/"));
+        int shared = 0;
+        while (shared < openFolders.size() && shared < folders.size()
+                && openFolders.get(shared).equals(folders.get(shared))) {
+            shared++;
+        }
+        while (openFolders.size() > shared) {
+            openFolders.remove(openFolders.size() - 1);
+            endNode();
+        }
+        for (String folder : folders.subList(shared, folders.size())) {
+            openFolders.add(folder);
+            startNode(folder);
+            writeFolderProperties(join(openFolders));
+        }
+
+        startNode(news.getName());
+        writeProperty("jcr:primaryType", "Name", "hippo:handle");
+        writeProperty("jcr:mixinTypes", "Name", "hippo:hardhandle", "hippo:translated");
+        startNode("hippo:translation");
+        writeProperty("jcr:primaryType", "Name", "hippo:translation");
+        writeProperty("hippo:language", "String", "");
+        writeProperty("hippo:message", "String", news.getTitle());
+        endNode();
+
+        startNode(news.getName());
+        writeProperty("jcr:primaryType", "Name", "myhippoproject:newsdocument");
+        writeProperty("jcr:mixinTypes", "Name", "hippo:harddocument", "hippotranslation:translated");
+        writeProperty("hippo:availability", "String", "live", "preview");
+        writeProperty("hippostd:holder", "String", "admin");
+        writeProperty("hippostd:state", "String", "published");
+        writeProperty("hippostd:stateSummary", "String", "live");
+        writeProperty("hippostdpubwf:createdBy", "String", "admin");
+        writeProperty("hippostdpubwf:creationDate", "Date", format(news.getDate()));
+        writeProperty("hippostdpubwf:lastModificationDate", "Date", format(news.getDate()));
+        writeProperty("hippostdpubwf:lastModifiedBy", "String", "admin");
+        writeProperty("hippostdpubwf:publicationDate", "Date", format(news.getDate()));
+        writeProperty("hippotranslation:id", "String", news.getTranslationId());
+        writeProperty("hippotranslation:locale", "String", locale);
+        writeProperty("myhippoproject:date", "Date", format(news.getDate()));
+        writeProperty("myhippoproject:summary", "String", news.getSummary());
+        writeProperty("myhippoproject:title", "String", news.getTitle());
+        startNode("myhippoproject:body");
+        writeProperty("jcr:primaryType", "Name", "hippostd:html");
+        writeProperty("hippostd:content", "String", news.getBody());
+        endNode();
+        if (news.getImageDocbase() != null) {
+            startNode("myhippoproject:image");
+            writeProperty("jcr:primaryType", "Name", "hippogallerypicker:imagelink");
+            writeProperty("hippo:docbase", "String", news.getImageDocbase());
+            writeProperty("hippo:facets", "String");
+            writeProperty("hippo:modes", "String");
+            writeProperty("hippo:values", "String");
+            endNode();
+        }
+        endNode();
+        endNode();
+    }
+
+    /**
+     * Ends the open folders and the XML. The writer given is not closed.
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        while (depth > 0) {
+            endNode();
+        }
+        openFolders.clear();
+        newLine();
+        xml.writeEndDocument();
+        xml.flush();
+    }
+
+    /**
+     * Writes the properties of a folder like the year folders of the bootstrap content, with a translation id that
+     * is the same for the same <code>path</code>
+     */
+    private void writeFolderProperties(final String path) throws XMLStreamException {
+        writeProperty("jcr:primaryType", "Name", "hippostd:folder");
+        writeProperty("jcr:mixinTypes", "Name", "hippo:harddocument", "hippotranslation:translated");
+        writeProperty("hippostd:foldertype", "String", "new-translated-folder", "new-document");
+        writeProperty("hippotranslation:id", "String", UUID.nameUUIDFromBytes(("generated-folder-" + path).getBytes()).toString());
+        writeProperty("hippotranslation:locale", "String", locale);
+    }
+
+    private static String join(final List<String> folders) {
+        final StringBuilder path = new StringBuilder();
+        for (String folder : folders) {
+            if (path.length() > 0) {
+                path.append('/');
+            }
+            path.append(folder);
+        }
+        return path.toString();
+    }
+
+    private void startNode(final String name) throws XMLStreamException {
+        newLine();
+        xml.writeStartElement("sv", "node", SV);
+        xml.writeAttribute("sv", SV, "name", name);
+        depth++;
+    }
+
+    private void endNode() throws XMLStreamException {
+        depth--;
+        newLine();
+        xml.writeEndElement();
+    }
+
+    /**
+     * Writes a property with <code>values</code>, or a multiple property without values when there are none
+     */
+    private void writeProperty(final String name, final String type, final String... values) throws XMLStreamException {
+        newLine();
+        if (values.length == 0) {
+            xml.writeEmptyElement("sv", "property", SV);
+        } else {
+            xml.writeStartElement("sv", "property", SV);
+        }
+        xml.writeAttribute("sv", SV, "name", name);
+        xml.writeAttribute("sv", SV, "type", type);
+        if (values.length == 0) {
+            return;
+        }
+        depth++;
+        for (String value : values) {
+            newLine();
+            if (value.length() == 0) {
+                xml.writeEmptyElement("sv", "value", SV);
+            } else {
+                xml.writeStartElement("sv", "value", SV);
+                xml.writeCharacters(value);
+                xml.writeEndElement();
+            }
+        }
+        depth--;
+        newLine();
+        xml.writeEndElement();
+    }
+
+    private void newLine() throws XMLStreamException {
+        final StringBuilder indent = new StringBuilder("\n");
+        for (int i = 0; i < depth; i++) {
+            indent.append("  ");
+        }
+        xml.writeCharacters(indent.toString());
+    }
+
+    private String format(final Calendar date) {
+        return dateFormat.format(date.getTime());
+    }
+
+}
@@ -0,0 +1,156 @@
+package org.example.generator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Properties;
+import java.util.TimeZone;
+
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+
+import org.hippoecm.repository.HippoRepository;
+import org.hippoecm.repository.HippoRepositoryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates news documents as configured in <code>generator.properties</code>, overridden by the properties files
+ * given as arguments and by system properties. They are written to a bootstrap XML file or added to a running
+ * repository over RMI.
+ */
+public class ContentGeneratorApp {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentGeneratorApp.class);
+    private static final String DEFAULT_CONFIG_FILE = "generator.properties";
+
+    public static void main(String[] args) throws Exception {
+        final Properties config = parseConfig(args);
+
+        final NewsGenerator generator = new NewsGenerator();
+        generator.setCount(getInt(config, "generator.count"));
+        generator.setSeed(Long.parseLong(get(config, "generator.seed")));
+        generator.setEnd(parseEnd(config.getProperty("generator.end", "").trim()));
+        generator.setYears(getInt(config, "generator.years"));
+        generator.setFolderDepth(getInt(config, "generator.folder.depth"));
+        generator.setBodyParagraphs(getInt(config, "generator.body.paragraphs"));
+        generator.setImageRatio(Double.parseDouble(get(config, "generator.image.ratio")));
+        generator.setImageDocbases(get(config, "generator.image.docbases").split("\\s*,\\s*"));
+        final String locale = get(config, "generator.locale");
+        final String output = get(config, "generator.output");
+
+        final long start = System.currentTimeMillis();
+        if ("xml".equals(output)) {
+            writeXml(generator, new File(get(config, "generator.xml.file")), get(config, "generator.xml.folder"), locale);
+        } else if ("jcr".equals(output)) {
+            writeJcr(generator, config, locale);
+        } else {
+            log.error("Unknown output '{}', use xml or jcr", output);
+            System.exit(1);
+        }
+        log.info("Generated {} news documents in {} s", generator.getCount(), (System.currentTimeMillis() - start) / 1000L);
+    }
+
+    private static void writeXml(final NewsGenerator generator, final File file, final String folderName,
+                                 final String locale) throws Exception {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            final BootstrapXmlWriter xmlWriter = new BootstrapXmlWriter(writer, folderName, locale);
+            write(generator, xmlWriter);
+        } finally {
+            writer.close();
+        }
+        log.info("Wrote {}. Bootstrap it with a hippo:initializeitem of which the hippo:contentroot is the folder to "
+                + "add '{}' to, for instance /content/documents/myhippoproject/news", file.getAbsolutePath(), folderName);
+    }
+
+    private static void writeJcr(final NewsGenerator generator, final Properties config, final String locale) throws Exception {
+        final String url = get(config, "generator.repository.url");
+        log.info("Connecting to Hippo Repository at '{}'", url);
+        final HippoRepository repository = HippoRepositoryFactory.getHippoRepository(url);
+        final Session session = repository.login(new SimpleCredentials(get(config, "generator.repository.user"),
+                get(config, "generator.repository.password").toCharArray()));
+        try {
+            write(generator, new JcrNewsWriter(session, get(config, "generator.jcr.folder"), locale,
+                    getInt(config, "generator.jcr.batch.size")));
+        } finally {
+            session.logout();
+        }
+    }
+
+    private static void write(final NewsGenerator generator, final NewsWriter writer) throws Exception {
+        int written = 0;
+        for (GeneratedNews news : generator) {
+            writer.write(news);
+            if (++written % 10000 == 0) {
+                log.info("Generated {} of {} news documents", written, generator.getCount());
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * @return the default configuration, overridden by the files in <code>args</code> in order and by system properties
+     */
+    static Properties parseConfig(String[] args) throws IOException {
+        final Properties config = new Properties();
+        load(config, ContentGeneratorApp.class.getClassLoader().getResourceAsStream(DEFAULT_CONFIG_FILE));
+        if (args != null) {
+            for (String arg : args) {
+                load(config, new FileInputStream(arg));
+            }
+        }
+        for (String name : config.stringPropertyNames()) {
+            final String value = System.getProperty(name);
+            if (value != null) {
+                config.setProperty(name, value);
+            }
+        }
+        return config;
+    }
+
+    private static void load(final Properties config, final InputStream inputStream) throws IOException {
+        try {
+            config.load(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * @return the start of the day <code>end</code> in UTC, or now when it is empty
+     */
+    static Calendar parseEnd(final String end) throws ParseException {
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        if (end.length() > 0) {
+            final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            format.setLenient(false);
+            calendar.setTime(format.parse(end));
+        }
+        return calendar;
+    }
+
+    private static String get(final Properties config, final String name) {
+        final String value = config.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing property '" + name + "'");
+        }
+        return value.trim();
+    }
+
+    private static int getInt(final Properties config, final String name) {
+        return Integer.parseInt(get(config, name));
+    }
+
+}
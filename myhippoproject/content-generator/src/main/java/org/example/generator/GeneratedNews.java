@@ -0,0 +1,75 @@
+package org.example.generator;
+
+import java.util.Calendar;
+
+/**
+ * A news document made up by the {@link NewsGenerator}
+ */
+public final class GeneratedNews {
+
+    private final String translationId;
+    private final String folderPath;
+    private final String name;
+    private final String title;
+    private final String summary;
+    private final String body;
+    private final Calendar date;
+    private final String imageDocbase;
+
+    public GeneratedNews(final String translationId, final String folderPath, final String name, final String title,
+                         final String summary, final String body, final Calendar date, final String imageDocbase) {
+        this.translationId = translationId;
+        this.folderPath = folderPath;
+        this.name = name;
+        this.title = title;
+        this.summary = summary;
+        this.body = body;
+        this.date = date;
+        this.imageDocbase = imageDocbase;
+    }
+
+    public String getTranslationId() {
+        return translationId;
+    }
+
+    /**
+     * @return the path of the folder of the document relative to the generated folder, for instance <code>2014/05</code>
+     */
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    /**
+     * @return the node name of the handle and the document
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * @return the HTML of the body, including its <code>html</code> and <code>body</code> elements
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public Calendar getDate() {
+        return date;
+    }
+
+    /**
+     * @return the identifier of the handle of the image the document links to, or <code>null</code> when it has none
+     */
+    public String getImageDocbase() {
+        return imageDocbase;
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.example.generator;
+
+import java.util.UUID;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds news documents to a repository, with the same nodes as the {@link BootstrapXmlWriter} writes. The session is
+ * saved after every batch of documents, so that neither the session nor a single save grows with the number of
+ * documents.
+ */
+public class JcrNewsWriter implements NewsWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JcrNewsWriter.class);
+
+    private final Session session;
+    private final String rootPath;
+    private final String locale;
+    private final int batchSize;
+    private String folderPath;
+    private Node folder;
+    private int written;
+    private long batchStart = System.currentTimeMillis();
+
+    /**
+     * @param rootPath the path of the folder to add the documents to, which is added when it does not exist
+     */
+    public JcrNewsWriter(final Session session, final String rootPath, final String locale, final int batchSize) {
+        this.session = session;
+        this.rootPath = rootPath;
+        this.locale = locale;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Override
+    public void write(final GeneratedNews news) throws RepositoryException {
+        if (!news.getFolderPath().equals(folderPath)) {
+            folder = getFolder(rootPath + '/' + news.getFolderPath());
+            folderPath = news.getFolderPath();
+        }
+
+        final Node handle = folder.addNode(news.getName(), "hippo:handle");
+        handle.addMixin("hippo:hardhandle");
+        handle.addMixin("hippo:translated");
+        final Node translation = handle.addNode("hippo:translation", "hippo:translation");
+        translation.setProperty("hippo:language", "");
+        translation.setProperty("hippo:message", news.getTitle());
+
+        final Node document = handle.addNode(news.getName(), "myhippoproject:newsdocument");
+        document.addMixin("hippo:harddocument");
+        document.addMixin("hippotranslation:translated");
+        document.setProperty("hippo:availability", new String[] {"live", "preview"});
+        document.setProperty("hippostd:holder", "admin");
+        document.setProperty("hippostd:state", "published");
+        document.setProperty("hippostd:stateSummary", "live");
+        document.setProperty("hippostdpubwf:createdBy", "admin");
+        document.setProperty("hippostdpubwf:creationDate", news.getDate());
+        document.setProperty("hippostdpubwf:lastModificationDate", news.getDate());
+        document.setProperty("hippostdpubwf:lastModifiedBy", "admin");
+        document.setProperty("hippostdpubwf:publicationDate", news.getDate());
+        document.setProperty("hippotranslation:id", news.getTranslationId());
+        document.setProperty("hippotranslation:locale", locale);
+        document.setProperty("myhippoproject:date", news.getDate());
+        document.setProperty("myhippoproject:summary", news.getSummary());
+        document.setProperty("myhippoproject:title", news.getTitle());
+        document.addNode("myhippoproject:body", "hippostd:html").setProperty("hippostd:content", news.getBody());
+        if (news.getImageDocbase() != null) {
+            final Node image = document.addNode("myhippoproject:image", "hippogallerypicker:imagelink");
+            image.setProperty("hippo:docbase", news.getImageDocbase());
+            image.setProperty("hippo:facets", new String[0]);
+            image.setProperty("hippo:modes", new String[0]);
+            image.setProperty("hippo:values", new String[0]);
+        }
+
+        if (++written % batchSize == 0) {
+            save();
+        }
+    }
+
+    @Override
+    public void close() throws RepositoryException {
+        if (written % batchSize != 0) {
+            save();
+        }
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    private void save() throws RepositoryException {
+        session.save();
+        final long now = System.currentTimeMillis();
+        log.info("Saved {} documents, the last {} in {} ms", new Object[] {written,
+                written % batchSize == 0 ? batchSize : written % batchSize, now - batchStart});
+        batchStart = now;
+    }
+
+    /**
+     * @return the folder at <code>path</code>, after adding it and the folders above it that do not exist
+     */
+    private Node getFolder(final String path) throws RepositoryException {
+        if (session.nodeExists(path)) {
+            return session.getNode(path);
+        }
+        final int slash = path.lastIndexOf('/');
+        final Node parent = slash == 0 ? session.getRootNode() : getFolder(path.substring(0, slash));
+        final Node folder = parent.addNode(path.substring(slash + 1), "hippostd:folder");
+        folder.addMixin("hippo:harddocument");
+        folder.addMixin("hippotranslation:translated");
+        folder.setProperty("hippostd:foldertype", new String[] {"new-translated-folder", "new-document"});
+        folder.setProperty("hippotranslation:id", UUID.randomUUID().toString());
+        folder.setProperty("hippotranslation:locale", locale);
+        return folder;
+    }
+
+}
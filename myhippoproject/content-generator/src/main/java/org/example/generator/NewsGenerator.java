@@ -0,0 +1,223 @@
+package org.example.generator;
+
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.UUID;
+
+/**
+ * Makes up news documents that resemble a production repository: their dates are spread over a number of years,
+ * newest first, they are filed in folders by year, month and day down to a configurable depth, the sizes of their
+ * bodies vary around a median and most of them link to an image. The same seed always makes up the same documents,
+ * so runs against generated content can be compared.
+ */
+public class NewsGenerator implements Iterable<GeneratedNews> {
+
+    private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private static final String[] SUBJECTS = {"Solar power", "The city council", "A local startup", "Wind farm operator",
+            "The energy agency", "Researchers", "A car maker", "The water board", "Residents", "The port authority",
+            "An electric bus fleet", "The university", "Farmers", "A recycling plant", "The national railway"};
+
+    private static final String[] VERBS = {"doubles", "announces", "questions", "invests in", "reports on", "opens",
+            "rethinks", "tests", "cuts", "expands", "presents", "delays", "celebrates", "shares", "measures"};
+
+    private static final String[] OBJECTS = {"its carbon footprint", "a new charging network", "the harbour expansion",
+            "green roofs", "fuel consumption", "a heat network", "the yearly water report", "a pilot with hydrogen",
+            "the bicycle highway", "energy prices", "offshore capacity", "air quality", "insulation subsidies",
+            "battery storage", "the climate agreement"};
+
+    private static final String[] WORDS = {"the", "a", "energy", "project", "city", "which", "will", "and", "of",
+            "to", "in", "year", "plan", "new", "by", "more", "than", "percent", "people", "with", "on", "as", "its",
+            "has", "been", "said", "first", "that", "local", "for", "according", "report", "power", "water", "costs",
+            "from", "expected", "after", "market", "residents", "network", "council", "million", "results", "during",
+            "research", "sustainable", "next", "also", "about", "between", "within", "policy", "months", "data"};
+
+    private long seed = 1L;
+    private int count = 1000;
+    private Calendar end = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    private int years = 10;
+    private int folderDepth = 2;
+    private int bodyParagraphs = 5;
+    private double imageRatio = 0.7d;
+    private String[] imageDocbases = new String[0];
+
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param count the number of documents to make up
+     */
+    public void setCount(final int count) {
+        this.count = count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param end the date of the newest document
+     */
+    public void setEnd(final Calendar end) {
+        this.end = end;
+    }
+
+    /**
+     * @param years the number of years before the end the dates of the documents are spread over
+     */
+    public void setYears(final int years) {
+        this.years = years;
+    }
+
+    /**
+     * @param folderDepth 1 for folders by year, 2 by year and month and 3 by year, month and day
+     */
+    public void setFolderDepth(final int folderDepth) {
+        if (folderDepth < 1 || folderDepth > 3) {
+            throw new IllegalArgumentException("The folder depth must be 1, 2 or 3, not " + folderDepth);
+        }
+        this.folderDepth = folderDepth;
+    }
+
+    /**
+     * @param bodyParagraphs the median number of paragraphs of a body. Half of the bodies are shorter, and a few are
+     * many times longer
+     */
+    public void setBodyParagraphs(final int bodyParagraphs) {
+        this.bodyParagraphs = Math.max(bodyParagraphs, 1);
+    }
+
+    /**
+     * @param imageRatio the fraction of the documents that link to an image
+     */
+    public void setImageRatio(final double imageRatio) {
+        this.imageRatio = imageRatio;
+    }
+
+    /**
+     * @param imageDocbases the identifiers of the handles of the images documents link to, picked at random
+     */
+    public void setImageDocbases(final String[] imageDocbases) {
+        this.imageDocbases = imageDocbases.clone();
+    }
+
+    /**
+     * @return the documents, newest first, so that the documents of a folder follow each other
+     */
+    @Override
+    public Iterator<GeneratedNews> iterator() {
+        final Random random = new Random(seed);
+        final long endMillis = end.getTimeInMillis();
+        final long spanMillis = years * 365L * DAY_MILLIS;
+        return new Iterator<GeneratedNews>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            public GeneratedNews next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                // a random moment within the share of the span of this document keeps the dates descending
+                final double position = (index + random.nextDouble()) / count;
+                final Calendar date = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                date.setTimeInMillis(endMillis - (long) (position * spanMillis));
+                return create(random, index++, date);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private GeneratedNews create(final Random random, final int index, final Calendar date) {
+        final String title = pick(random, SUBJECTS) + ' ' + pick(random, VERBS) + ' ' + pick(random, OBJECTS);
+        final String name = toNodeName(title) + '-' + (index + 1);
+        final String translationId = UUID.nameUUIDFromBytes(("generated-news-" + seed + '-' + index).getBytes()).toString();
+        final String imageDocbase = imageDocbases.length > 0 && random.nextDouble() < imageRatio
+                ? pick(random, imageDocbases) : null;
+        return new GeneratedNews(translationId, getFolderPath(date), name, title, sentence(random, 12, 24),
+                body(random), date, imageDocbase);
+    }
+
+    private String getFolderPath(final Calendar date) {
+        final StringBuilder path = new StringBuilder();
+        path.append(date.get(Calendar.YEAR));
+        if (folderDepth > 1) {
+            path.append('/').append(twoDigits(date.get(Calendar.MONTH) + 1));
+        }
+        if (folderDepth > 2) {
+            path.append('/').append(twoDigits(date.get(Calendar.DAY_OF_MONTH)));
+        }
+        return path.toString();
+    }
+
+    /**
+     * @return a body of a log-normally distributed number of paragraphs, in the HTML the rich text editor stores
+     */
+    private String body(final Random random) {
+        final double paragraphs = Math.exp(Math.log(bodyParagraphs) + random.nextGaussian() * 0.6d);
+        final int paragraphCount = (int) Math.max(1L, Math.min(Math.round(paragraphs), bodyParagraphs * 10L));
+        final StringBuilder body = new StringBuilder("<html>\n<body>\n");
+        for (int i = 0; i < paragraphCount; i++) {
+            body.append("\n<p>");
+            final int sentences = 3 + random.nextInt(6);
+            for (int j = 0; j < sentences; j++) {
+                if (j > 0) {
+                    body.append(' ');
+                }
+                body.append(sentence(random, 8, 20));
+            }
+            body.append("</p>\n");
+        }
+        return body.append("\n</body>\n</html>").toString();
+    }
+
+    private static String sentence(final Random random, final int minWords, final int maxWords) {
+        final int words = minWords + random.nextInt(maxWords - minWords + 1);
+        final StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            final String word = pick(random, WORDS);
+            if (i == 0) {
+                sentence.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+            } else {
+                sentence.append(' ').append(word);
+            }
+        }
+        return sentence.append('.').toString();
+    }
+
+    /**
+     * @return <code>title</code> in lower case, with dashes in place of anything but letters and digits
+     */
+    static String toNodeName(final String title) {
+        final StringBuilder name = new StringBuilder(title.length());
+        for (char c : title.toLowerCase().toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                name.append(c);
+            } else if (name.length() > 0 && name.charAt(name.length() - 1) != '-') {
+                name.append('-');
+            }
+        }
+        return name.toString();
+    }
+
+    private static String twoDigits(final int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    private static String pick(final Random random, final String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+}
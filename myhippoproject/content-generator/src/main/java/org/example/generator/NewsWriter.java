@@ -0,0 +1,15 @@
+package org.example.generator;
+
+/**
+ * Stores generated news documents, in the order the {@link NewsGenerator} makes them up
+ */
+public interface NewsWriter {
+
+    void write(GeneratedNews news) throws Exception;
+
+    /**
+     * Stores what was not stored yet
+     */
+    void close() throws Exception;
+
+}
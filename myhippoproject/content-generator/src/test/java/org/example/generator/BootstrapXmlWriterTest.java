@@ -0,0 +1,102 @@
+package org.example.generator;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link BootstrapXmlWriter}
+ */
+public class BootstrapXmlWriterTest {
+
+    private static final String SV = "http://www.jcp.org/jcr/sv/1.0";
+
+    @Test
+    public void write_FoldersHandlesAndDocuments() throws Exception {
+        final StringWriter xml = new StringWriter();
+        final BootstrapXmlWriter writer = new BootstrapXmlWriter(xml, "generated", "en");
+        writer.write(news("2014/05", "first", "28dc4940-7562-48da-9c91-34711124462f"));
+        writer.write(news("2014/05", "second", null));
+        writer.write(news("2014/04", "third", null));
+        writer.write(news("2013/12", "fourth", null));
+        writer.close();
+
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml.toString())));
+        final Element root = document.getDocumentElement();
+        assertEquals("generated", root.getAttributeNS(SV, "name"));
+
+        final Element year2014 = child(root, "2014");
+        assertEquals(2, children(child(year2014, "05")));
+        assertEquals(1, children(child(year2014, "04")));
+        assertEquals(1, children(child(child(root, "2013"), "12")));
+
+        final Element handle = child(child(year2014, "05"), "first");
+        final Element variant = child(handle, "first");
+        assertEquals("myhippoproject:newsdocument", property(variant, "jcr:primaryType"));
+        assertEquals("2014-05-02T10:30:00.000Z", property(variant, "myhippoproject:date"));
+        assertEquals("<html>\n<body>\n\n<p>The body of first.</p>\n\n</body>\n</html>",
+                property(child(variant, "myhippoproject:body"), "hippostd:content"));
+        assertEquals("28dc4940-7562-48da-9c91-34711124462f",
+                property(child(variant, "myhippoproject:image"), "hippo:docbase"));
+        assertTrue(xml.toString().contains("&lt;p&gt;The body of first."));
+    }
+
+    private static GeneratedNews news(final String folderPath, final String name, final String imageDocbase) {
+        final Calendar date = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        date.clear();
+        date.set(2014, Calendar.MAY, 2, 10, 30);
+        return new GeneratedNews("id-" + name, folderPath, name, "Title of " + name, "Summary of " + name,
+                "<html>\n<body>\n\n<p>The body of " + name + ".</p>\n\n</body>\n</html>", date, imageDocbase);
+    }
+
+    private static Element child(final Element node, final String name) {
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element && "node".equals(children.item(i).getLocalName())
+                    && name.equals(((Element) children.item(i)).getAttributeNS(SV, "name"))) {
+                return (Element) children.item(i);
+            }
+        }
+        throw new AssertionError("No node " + name);
+    }
+
+    /**
+     * @return the number of child nodes of <code>node</code>
+     */
+    private static int children(final Element node) {
+        int count = 0;
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element && "node".equals(children.item(i).getLocalName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String property(final Element node, final String name) {
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element && "property".equals(children.item(i).getLocalName())
+                    && name.equals(((Element) children.item(i)).getAttributeNS(SV, "name"))) {
+                return ((Element) children.item(i)).getElementsByTagNameNS(SV, "value").item(0).getTextContent();
+            }
+        }
+        throw new AssertionError("No property " + name);
+    }
+
+}
@@ -0,0 +1,99 @@
+package org.example.generator;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link NewsGenerator}
+ */
+public class NewsGeneratorTest {
+
+    private static final Calendar END = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    static {
+        END.clear();
+        END.set(2014, Calendar.JUNE, 1);
+    }
+
+    @Test
+    public void generate_NewestFirstInFolders() throws Exception {
+        final NewsGenerator generator = createGenerator(3);
+        final List<GeneratedNews> documents = generate(generator);
+        assertEquals(500, documents.size());
+
+        final long end = END.getTimeInMillis();
+        assertTrue(documents.get(0).getDate().getTimeInMillis() <= end);
+        for (int i = 1; i < documents.size(); i++) {
+            final Calendar date = documents.get(i).getDate();
+            assertTrue(date.before(documents.get(i - 1).getDate()));
+            assertTrue(end - date.getTimeInMillis() <= 2 * 365L * 24L * 60L * 60L * 1000L);
+            final String folderPath = String.format("%d/%02d/%02d", date.get(Calendar.YEAR),
+                    date.get(Calendar.MONTH) + 1, date.get(Calendar.DAY_OF_MONTH));
+            assertEquals(folderPath, documents.get(i).getFolderPath());
+        }
+    }
+
+    @Test
+    public void generate_SameSeedSameDocuments() throws Exception {
+        final List<GeneratedNews> documents = generate(createGenerator(1));
+        final List<GeneratedNews> again = generate(createGenerator(1));
+        for (int i = 0; i < documents.size(); i++) {
+            assertEquals(documents.get(i).getName(), again.get(i).getName());
+            assertEquals(documents.get(i).getBody(), again.get(i).getBody());
+            assertEquals(documents.get(i).getFolderPath(), again.get(i).getFolderPath());
+        }
+        assertEquals("2014", documents.get(0).getFolderPath());
+    }
+
+    @Test
+    public void generate_VaryingBodiesAndImages() throws Exception {
+        int withImage = 0;
+        int shortest = Integer.MAX_VALUE;
+        int longest = 0;
+        for (GeneratedNews news : createGenerator(2)) {
+            if (news.getImageDocbase() != null) {
+                withImage++;
+            }
+            shortest = Math.min(shortest, news.getBody().length());
+            longest = Math.max(longest, news.getBody().length());
+            assertTrue(news.getBody().startsWith("<html>\n<body>\n\n<p>"));
+            assertFalse(news.getName().contains(" "));
+        }
+        assertTrue(withImage > 300 && withImage < 400);
+        assertTrue(longest > 4 * shortest);
+    }
+
+    @Test
+    public void toNodeName_LowerCaseWithDashes() throws Exception {
+        assertEquals("solar-power-doubles-its-carbon-footprint",
+                NewsGenerator.toNodeName("Solar power doubles its carbon footprint"));
+        assertEquals("a-b-c", NewsGenerator.toNodeName("A,  b & c"));
+    }
+
+    private static NewsGenerator createGenerator(final int folderDepth) {
+        final NewsGenerator generator = new NewsGenerator();
+        generator.setCount(500);
+        generator.setEnd(END);
+        generator.setYears(2);
+        generator.setFolderDepth(folderDepth);
+        generator.setImageDocbases(new String[] {"28dc4940-7562-48da-9c91-34711124462f"});
+        return generator;
+    }
+
+    private static List<GeneratedNews> generate(final NewsGenerator generator) {
+        final List<GeneratedNews> documents = new ArrayList<GeneratedNews>();
+        for (GeneratedNews news : generator) {
+            documents.add(news);
+        }
+        return documents;
+    }
+
+}
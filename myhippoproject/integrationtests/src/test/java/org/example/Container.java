@@ -0,0 +1,35 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The docker container the integration tests run against, as described by the file the start script writes
+ */
+public final class Container {
+
+    private Container() {
+    }
+
+    /**
+     * @return the URL of the site in the container, without a trailing slash
+     */
+    public static String getSiteUrl() throws IOException {
+        String containerIpFileName = System.getProperty("container_ip_file");
+        if (containerIpFileName == null) {
+            throw new IllegalStateException("No container_ip_file specified, can't resolve base URL");
+        }
+
+        Properties containerInfo = new Properties();
+        InputStream in = Files.newInputStream(Paths.get(containerIpFileName));
+        try {
+            containerInfo.load(in);
+        } finally {
+            in.close();
+        }
+        return "http://" + containerInfo.get("8080/tcp") + "/site";
+    }
+}
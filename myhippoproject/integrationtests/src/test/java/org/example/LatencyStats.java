@@ -0,0 +1,88 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * The latencies and errors of the requests to one URL of a load test. Thread safe.
+ */
+public class LatencyStats {
+
+    private final String name;
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a request that completed after <code>latencyMillis</code>, with an error when it failed or was
+     * answered with a status of 400 or higher
+     */
+    public synchronized void record(long latencyMillis, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyMillis;
+        if (error) {
+            errors++;
+        }
+    }
+
+    /**
+     * Adds the requests recorded by <code>other</code> to this
+     */
+    public synchronized void add(LatencyStats other) {
+        long[] otherLatencies;
+        int otherErrors;
+        synchronized (other) {
+            otherLatencies = Arrays.copyOf(other.latencies, other.count);
+            otherErrors = other.errors;
+        }
+        for (long latency : otherLatencies) {
+            record(latency, false);
+        }
+        errors += otherErrors;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the percentage of the requests that failed, or 0 when there were none
+     */
+    public synchronized double getErrorPercentage() {
+        return count == 0 ? 0d : errors * 100d / count;
+    }
+
+    /**
+     * @return the latency below which <code>percentile</code> percent of the requests completed, by the nearest rank,
+     * or 0 when there were no requests
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0L;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100d * count);
+        return sorted[Math.min(Math.max(rank, 1), count) - 1];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%-12s %7d requests %6.2f%% errors  p50 %5d ms  p95 %5d ms  p99 %5d ms  max %5d ms",
+                name, count, getErrorPercentage(), getPercentile(50), getPercentile(95), getPercentile(99),
+                getPercentile(100));
+    }
+}
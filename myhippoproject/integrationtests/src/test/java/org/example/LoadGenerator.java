@@ -0,0 +1,112 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends requests from a number of concurrent clients. Every client requests one URL after the other without pausing,
+ * each picked at random by its weight, and records the time until the whole response was read.
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final Map<String, String> urls;
+    private final Map<String, Integer> weights;
+    private final int clients;
+    private final int timeoutMillis;
+
+    /**
+     * @param urls the URLs to request by name, in the order they are reported
+     * @param weights the share of the requests each URL gets, relative to the others, by name
+     */
+    public LoadGenerator(Map<String, String> urls, Map<String, Integer> weights, int clients, int timeoutMillis) {
+        this.urls = urls;
+        this.weights = weights;
+        this.clients = clients;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Sends requests for <code>seconds</code> seconds
+     * @return the statistics of the requests by URL name, in the order of the URLs
+     */
+    public Map<String, LatencyStats> run(int seconds) throws InterruptedException {
+        final Map<String, LatencyStats> stats = new LinkedHashMap<String, LatencyStats>();
+        final List<String> names = new ArrayList<String>();
+        for (String name : urls.keySet()) {
+            stats.put(name, new LatencyStats(name));
+            Integer weight = weights.get(name);
+            for (int i = 0; i < (weight == null ? 1 : weight); i++) {
+                names.add(name);
+            }
+        }
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            final Random random = new Random(i);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                        String name = names.get(random.nextInt(names.size()));
+                        long start = System.nanoTime();
+                        boolean error = !request(urls.get(name));
+                        stats.get(name).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), error);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(seconds + 2L * timeoutMillis / 1000L + 10L, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Clients did not complete within the duration of the load test");
+        }
+        return stats;
+    }
+
+    /**
+     * Requests <code>url</code> and reads the response
+     * @return <code>true</code> when the response has a status below 400
+     */
+    private boolean request(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (in != null) {
+                try {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) != -1) {
+                        // the time measured includes reading the whole response
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            if (status >= 400) {
+                logger.debug("{} answered with status {}", url, status);
+            }
+            return status < 400;
+        } catch (IOException e) {
+            logger.debug("Request to {} failed: {}", url, e.toString());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends concurrent requests to the homepage, news overview, deep pages of it, search and detail pages of the site in
+ * the container, and fails when the latency percentiles or the error rate exceed their budgets. The traffic and the
+ * budgets are configured in <code>load-test.properties</code>.
+ */
+public class LoadIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadIT.class);
+
+    private static final String PREFIX = "load.";
+
+    /**
+     * A link of a page list, with the page number as the second group
+     */
+    private static final Pattern PAGE_LINK = Pattern.compile("href=\"([^\"]*[?&;][^\"=&]*page=)(\\d+)([^\"]*)\"");
+
+    private static String baseUrl;
+    private static Properties configuration;
+
+    @BeforeClass
+    public static void globalSetup() throws Exception {
+        baseUrl = Container.getSiteUrl();
+        configuration = new Properties();
+        InputStream in = LoadIT.class.getResourceAsStream("/load-test.properties");
+        try {
+            configuration.load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testThatLatenciesAndErrorsAreWithinBudget() throws Exception {
+        Map<String, String> urls = new LinkedHashMap<String, String>();
+        Map<String, Integer> weights = new HashMap<String, Integer>();
+        for (String name : getString("urls").split("\\s*,\\s*")) {
+            String url = getUrl(name);
+            if (url != null) {
+                urls.put(name, url);
+                weights.put(name, getInt("url." + name + ".weight", 1));
+            }
+        }
+        Assert.assertFalse("No urls to send requests to", urls.isEmpty());
+
+        LoadGenerator generator = new LoadGenerator(urls, weights, getInt("clients", 8), getInt("timeout.millis", 10000));
+        logger.info("Warming up for {} seconds", getInt("warmup.seconds", 0));
+        generator.run(getInt("warmup.seconds", 0));
+        logger.info("Sending requests from {} clients for {} seconds", getInt("clients", 8), getInt("duration.seconds", 60));
+        Map<String, LatencyStats> stats = generator.run(getInt("duration.seconds", 60));
+
+        LatencyStats total = new LatencyStats("total");
+        List<String> violations = new ArrayList<String>();
+        for (Map.Entry<String, LatencyStats> entry : stats.entrySet()) {
+            logger.info("{}", entry.getValue());
+            checkBudgets(entry.getValue(), "url." + entry.getKey() + ".", violations);
+            total.add(entry.getValue());
+        }
+        logger.info("{}", total);
+        checkBudgets(total, "", violations);
+
+        Assert.assertTrue("Budgets exceeded: " + violations, violations.isEmpty());
+    }
+
+    /**
+     * Adds a message to <code>violations</code> for every budget <code>stats</code> exceeds, of the budgets with
+     * <code>prefix</code> or else the default ones
+     */
+    private static void checkBudgets(LatencyStats stats, String prefix, List<String> violations) {
+        if (stats.getCount() == 0) {
+            violations.add(stats.getName() + ": no requests completed");
+            return;
+        }
+        for (int percentile : new int[] {95, 99}) {
+            String budget = "budget.p" + percentile + ".millis";
+            long budgetMillis = getInt(prefix + budget, getInt(budget, Integer.MAX_VALUE));
+            long latencyMillis = stats.getPercentile(percentile);
+            if (latencyMillis > budgetMillis) {
+                violations.add(stats.getName() + ": p" + percentile + " of " + latencyMillis + " ms exceeds "
+                        + budgetMillis + " ms");
+            }
+        }
+        String budget = "budget.error.percent";
+        double budgetPercentage = Double.parseDouble(getString(prefix + budget, getString(budget, "0")));
+        if (stats.getErrorPercentage() > budgetPercentage) {
+            violations.add(String.format("%s: %.2f%% errors exceeds %s%%", stats.getName(), stats.getErrorPercentage(),
+                    budgetPercentage));
+        }
+    }
+
+    /**
+     * @return the absolute url of <code>name</code>, or <code>null</code> when it is a page the overview does not have
+     */
+    private static String getUrl(String name) throws IOException {
+        String url = baseUrl + getString("url." + name);
+        int page = getInt("url." + name + ".page", 0);
+        if (page <= 1) {
+            return url;
+        }
+
+        Matcher matcher = PAGE_LINK.matcher(read(url));
+        int pages = 0;
+        String link = null;
+        while (matcher.find()) {
+            pages = Math.max(pages, Integer.parseInt(matcher.group(2)));
+            link = matcher.group(1) + page + matcher.group(3);
+        }
+        if (link == null || pages < page) {
+            logger.warn("Not requesting page {} of {}, because it has {} pages", page, url, pages);
+            return null;
+        }
+        return new URL(new URL(url), link.replace("&amp;", "&")).toString();
+    }
+
+    private static String read(String url) throws IOException {
+        InputStream in = new URL(url).openStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String getString(String key) {
+        String value = getString(key, null);
+        if (value == null) {
+            throw new IllegalStateException("Missing load test property '" + PREFIX + key + "'");
+        }
+        return value;
+    }
+
+    private static String getString(String key, String defaultValue) {
+        String value = System.getProperty(PREFIX + key, configuration.getProperty(PREFIX + key));
+        return value == null ? defaultValue : value.trim();
+    }
+
+    private static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
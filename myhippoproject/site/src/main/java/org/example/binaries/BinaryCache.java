@@ -0,0 +1,211 @@
+package org.example.binaries;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+import javax.jcr.Binary;
+import javax.jcr.Item;
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.example.cache.SingleFlight;
+import org.example.jcr.PooledSessionTemplate;
+import org.example.pagecache.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Materializes each version of a live binary below the root path once into a {@link DiskCache}, keyed by the
+ * identifier and last modification of its resource node, so that the {@link CachingBinariesServlet} can send it from
+ * local disk. Binaries larger than the maximum file size are not cached. Concurrent requests for the same version
+ * copy it once.
+ */
+public class BinaryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryCache.class);
+
+    private static final String DATA_PROPERTY = "jcr:data";
+    private static final String MIME_TYPE_PROPERTY = "jcr:mimeType";
+    private static final String FILE_NAME_PROPERTY = "hippo:filename";
+    private static final String LAST_MODIFIED_PROPERTY = "jcr:lastModified";
+    private static final String HANDLE_TYPE = "hippo:handle";
+
+    private final PooledSessionTemplate sessionTemplate;
+    private final DiskCache diskCache;
+    private final String rootPath;
+    private final long maxFileSize;
+    private final SingleFlight<String, File> copies = new SingleFlight<String, File>();
+    private volatile boolean enabled = true;
+    private int maxAge = 86400;
+
+    public BinaryCache(final PooledSessionTemplate sessionTemplate, final DiskCache diskCache, final String rootPath,
+                       final long maxFileSize) {
+        this.sessionTemplate = sessionTemplate;
+        this.diskCache = diskCache;
+        this.rootPath = rootPath;
+        this.maxFileSize = maxFileSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the number of seconds clients and proxies may use a binary requested by a versioned URL without
+     * revalidating it
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(final int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @param path the path of a binary resource or of the handle of a document with a binary as primary item, for
+     *             instance <code>/content/assets/myhippoproject/manual.pdf</code>
+     * @return the binary on local disk, or <code>null</code> when there is no live binary at <code>path</code> below
+     * the root path or it is too large to cache, in which case it should be streamed from the repository
+     */
+    public CachedBinary getBinary(final String path) throws Exception {
+        if (!path.startsWith(rootPath + "/") || path.contains("/.") || path.contains("[")) {
+            return null;
+        }
+        return sessionTemplate.execute(false, new PooledSessionTemplate.SessionCallback<CachedBinary>() {
+            @Override
+            public CachedBinary doInSession(final Session session) throws Exception {
+                if (!session.nodeExists(path)) {
+                    return null;
+                }
+                final Node resource = getResource(session.getNode(path));
+                if (resource == null || !resource.hasProperty(MIME_TYPE_PROPERTY)) {
+                    return null;
+                }
+                if (resource.getProperty(DATA_PROPERTY).getLength() > maxFileSize) {
+                    return null;
+                }
+                final long lastModified = resource.hasProperty(LAST_MODIFIED_PROPERTY)
+                        ? resource.getProperty(LAST_MODIFIED_PROPERTY).getDate().getTimeInMillis() : 0L;
+                final String version = resource.getIdentifier() + '-' + Long.toHexString(lastModified);
+
+                File file = diskCache.get(version);
+                if (file == null) {
+                    file = copy(resource, version);
+                }
+                final String fileName = resource.hasProperty(FILE_NAME_PROPERTY)
+                        ? resource.getProperty(FILE_NAME_PROPERTY).getString() : session.getNode(path).getName();
+                return new CachedBinary(file, resource.getProperty(MIME_TYPE_PROPERTY).getString(), fileName,
+                        Long.toHexString(lastModified), new Validator(version, lastModified, false));
+            }
+        });
+    }
+
+    /**
+     * @return the node with the binary data of <code>node</code>, following handles to their document and documents
+     * to their primary item, or <code>null</code> when there is none
+     */
+    private static Node getResource(final Node node) throws Exception {
+        Node current = node;
+        if (current.isNodeType(HANDLE_TYPE)) {
+            if (!current.hasNode(current.getName())) {
+                return null;
+            }
+            current = current.getNode(current.getName());
+        }
+        if (current.hasProperty(DATA_PROPERTY)) {
+            return current;
+        }
+        try {
+            final Item primaryItem = current.getPrimaryItem();
+            if (primaryItem.isNode() && ((Node) primaryItem).hasProperty(DATA_PROPERTY)) {
+                return (Node) primaryItem;
+            }
+        } catch (ItemNotFoundException e) {
+            log.debug("No primary item for {}", current.getPath());
+        }
+        return null;
+    }
+
+    private File copy(final Node resource, final String key) throws Exception {
+        return copies.execute(key, new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                final File cached = diskCache.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+                final long start = System.currentTimeMillis();
+                final Binary binary = resource.getProperty(DATA_PROPERTY).getBinary();
+                try {
+                    final InputStream in = binary.getStream();
+                    try {
+                        final File file = diskCache.put(key, in);
+                        log.debug("Copied {} bytes of {} in {} ms", new Object[]{file.length(), resource.getPath(),
+                                System.currentTimeMillis() - start});
+                        return file;
+                    } finally {
+                        in.close();
+                    }
+                } finally {
+                    binary.dispose();
+                }
+            }
+        });
+    }
+
+    /**
+     * A binary on local disk with its type, file name, version and validators
+     */
+    public static final class CachedBinary {
+
+        private final File file;
+        private final String mimeType;
+        private final String fileName;
+        private final String version;
+        private final Validator validator;
+
+        CachedBinary(final File file, final String mimeType, final String fileName, final String version,
+                     final Validator validator) {
+            this.file = file;
+            this.mimeType = mimeType;
+            this.fileName = fileName;
+            this.version = version;
+            this.validator = validator;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * @return the <code>hippo:filename</code> of the binary, or the name of the node it was requested by
+         */
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * @return the last modification of the binary in hexadecimal, which changes with every version of it
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        public Validator getValidator() {
+            return validator;
+        }
+
+    }
+
+}
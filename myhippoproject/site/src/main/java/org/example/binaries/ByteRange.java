@@ -0,0 +1,74 @@
+package org.example.binaries;
+
+/**
+ * A single range of bytes of a <code>Range</code> request header, for instance <code>bytes=0-499</code>,
+ * <code>bytes=500-</code> or the suffix range <code>bytes=-500</code>. Requests for several ranges are answered with
+ * the complete content, which HTTP allows.
+ */
+final class ByteRange {
+
+    /**
+     * The outcome of a range that lies outside of the content, answered with <code>416</code>
+     */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1L, -1L);
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param header the value of the <code>Range</code> header or <code>null</code>
+     * @param length the length of the content
+     * @return the range, {@link #UNSATISFIABLE} when it lies outside of the content, or <code>null</code> when the
+     * complete content must be sent because there is no single valid byte range
+     */
+    static ByteRange parse(final String header, final long length) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        final String spec = header.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            final String first = spec.substring(0, dash).trim();
+            final String last = spec.substring(dash + 1).trim();
+            if (first.length() == 0) {
+                final long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return suffix == 0 ? UNSATISFIABLE : null;
+                }
+                return length == 0 ? UNSATISFIABLE : new ByteRange(Math.max(0L, length - suffix), length - 1);
+            }
+            final long start = Long.parseLong(first);
+            final long end = last.length() == 0 ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start < 0 || (last.length() > 0 && Long.parseLong(last) < start)) {
+                return null;
+            }
+            return start >= length ? UNSATISFIABLE : new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the position of the last byte of the range, inclusive
+     */
+    long getEnd() {
+        return end;
+    }
+
+    long getLength() {
+        return end - start + 1;
+    }
+
+}
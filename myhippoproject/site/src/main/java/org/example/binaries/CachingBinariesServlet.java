@@ -0,0 +1,144 @@
+package org.example.binaries;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Locale;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.pagecache.Validator;
+import org.hippoecm.hst.servlet.BinariesServlet;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves binaries from local disk through the {@link BinaryCache}, with support for conditional and single range
+ * requests, so that clients seeking in large PDFs or video only download the part they need. Binaries the cache does
+ * not hold, for instance because they are too large or below another root path, are streamed from the repository by
+ * the HST {@link BinariesServlet} as before, as are all binaries when the cache is disabled.
+ * <p>
+ * Like the HST servlet, binaries of the types in the <code>contentDispositionContentTypes</code> init parameter, for
+ * instance <code>application/pdf, application/vnd.*</code>, are sent as attachment with their file name. Clients may use
+ * a cached binary for the max age of the {@link BinaryCache} only when it is requested by a versioned URL, which has
+ * the version of the binary, see {@link BinaryCache.CachedBinary#getVersion()}, in the <code>v</code> parameter, as
+ * such a URL changes with the binary. Binaries requested by any other URL are revalidated on every use.
+ */
+public class CachingBinariesServlet extends BinariesServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(CachingBinariesServlet.class);
+
+    private static final String CONTENT_DISPOSITION_CONTENT_TYPES = "contentDispositionContentTypes";
+    private static final String VERSION_PARAMETER = "v";
+
+    private String[] contentDispositionContentTypes = new String[0];
+
+    @Override
+    public void init(final ServletConfig config) throws ServletException {
+        super.init(config);
+        final String[] types = StringUtils.split(config.getInitParameter(CONTENT_DISPOSITION_CONTENT_TYPES), ", \t\r\n");
+        contentDispositionContentTypes = types == null ? new String[0] : types;
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+        final BinaryCache cache = getBinaryCache();
+        final String path = request.getPathInfo();
+        if (cache == null || !cache.isEnabled() || StringUtils.isEmpty(path)) {
+            super.doGet(request, response);
+            return;
+        }
+
+        final BinaryCache.CachedBinary binary;
+        try {
+            binary = cache.getBinary(path);
+        } catch (Exception e) {
+            log.warn("Cannot cache binary " + path + ", streaming it from the repository", e);
+            super.doGet(request, response);
+            return;
+        }
+        if (binary == null) {
+            super.doGet(request, response);
+            return;
+        }
+
+        final Validator validator = binary.getValidator();
+        validator.apply(response);
+        response.setHeader("Accept-Ranges", "bytes");
+        if (binary.getVersion().equals(request.getParameter(VERSION_PARAMETER))) {
+            response.setHeader("Cache-Control", "public, max-age=" + cache.getMaxAge());
+            response.setDateHeader("Expires", System.currentTimeMillis() + cache.getMaxAge() * 1000L);
+        } else {
+            // the URL stays the same when the binary changes
+            response.setHeader("Cache-Control", "no-cache");
+        }
+        if (validator.isNotModified(request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(binary.getMimeType());
+        if (isContentDispositionType(binary.getMimeType())) {
+            response.setHeader("Content-Disposition", getContentDisposition(binary.getFileName()));
+        }
+
+        final long length = binary.getFile().length();
+        final ByteRange range = validator.isRangeValid(request)
+                ? ByteRange.parse(request.getHeader("Range"), length) : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + range.getStart() + '-' + range.getEnd() + '/' + length);
+            FileSender.send(request, response, binary.getFile(), range.getStart(), range.getLength());
+            return;
+        }
+        FileSender.send(request, response, binary.getFile(), 0L, length);
+    }
+
+    private boolean isContentDispositionType(final String mimeType) {
+        final String type = mimeType.toLowerCase(Locale.ENGLISH);
+        for (String pattern : contentDispositionContentTypes) {
+            final String lowerCase = pattern.toLowerCase(Locale.ENGLISH);
+            if ("*".equals(lowerCase) || "*/*".equals(lowerCase) || type.equals(lowerCase)
+                    || (lowerCase.endsWith("*") && type.startsWith(lowerCase.substring(0, lowerCase.length() - 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return an attachment with <code>fileName</code> as ASCII for old clients and as UTF-8 for all others
+     */
+    static String getContentDisposition(final String fileName) {
+        final StringBuilder ascii = new StringBuilder(fileName.length());
+        for (int i = 0; i < fileName.length(); i++) {
+            final char c = fileName.charAt(i);
+            ascii.append(c < 0x20 || c > 0x7e || c == '"' || c == '\\' ? '_' : c);
+        }
+        try {
+            return "attachment; filename=\"" + ascii + "\"; filename*=UTF-8''"
+                    + URLEncoder.encode(fileName, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BinaryCache getBinaryCache() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().getComponent(BinaryCache.class.getName());
+    }
+
+}
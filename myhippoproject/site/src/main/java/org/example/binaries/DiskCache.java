@@ -0,0 +1,269 @@
+package org.example.binaries;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of files on local disk, evicting the least recently used files when their total size exceeds the
+ * maximum. A file is only visible in the cache once it is completely written, and callers must not modify it. The
+ * keys must identify the content of a file, for instance by including the version of the binary it is derived from,
+ * as files are never updated.
+ * <p>
+ * Files left by a previous run are kept, in the order of their last modification.
+ * <p>
+ * An evicted file is only deleted after a grace period, as a response may still be about to send it: the container
+ * opens a file it sends with <code>sendfile</code> only after the servlet returned. Until then the file is no longer
+ * returned by {@link #get(String)}, and the directory may hold more than the maximum size.
+ */
+public class DiskCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskCache.class);
+
+    private static final String TEMP_PREFIX = "tmp-";
+    private static final long DEFAULT_DELETE_GRACE_MILLIS = 60000L;
+
+    private final File directory;
+    private final long maxBytes;
+    // the sizes of the files by name, in the order of their last use
+    private final Map<String, Long> files = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    // the times the evicted files that are not deleted yet were evicted by name, in the order of their eviction
+    private final Map<String, Long> evicted = new LinkedHashMap<String, Long>();
+    private long totalBytes;
+    private long deleteGraceMillis = DEFAULT_DELETE_GRACE_MILLIS;
+
+    /**
+     * @param directory the directory of the files, relative to the temporary directory of the JVM unless it is absolute
+     * @param maxBytes  the maximum total size of the files
+     */
+    public DiskCache(final String directory, final long maxBytes) {
+        final File file = new File(directory);
+        this.directory = file.isAbsolute() ? file : new File(System.getProperty("java.io.tmpdir"), directory);
+        this.maxBytes = maxBytes;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @param deleteGraceMillis the time in milliseconds an evicted file is kept on disk before it is deleted
+     */
+    public void setDeleteGraceMillis(final long deleteGraceMillis) {
+        this.deleteGraceMillis = deleteGraceMillis;
+    }
+
+    public void start() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.error("Cannot create cache directory {}", directory);
+            return;
+        }
+        final File[] existing = directory.listFiles();
+        if (existing == null) {
+            return;
+        }
+        Arrays.sort(existing, new Comparator<File>() {
+            @Override
+            public int compare(final File file1, final File file2) {
+                final long modified1 = file1.lastModified();
+                final long modified2 = file2.lastModified();
+                return modified1 < modified2 ? -1 : (modified1 == modified2 ? 0 : 1);
+            }
+        });
+        synchronized (files) {
+            for (File file : existing) {
+                if (file.getName().startsWith(TEMP_PREFIX)) {
+                    delete(file);
+                } else if (file.isFile()) {
+                    files.put(file.getName(), file.length());
+                    totalBytes += file.length();
+                }
+            }
+            evict(null);
+        }
+        log.info("Cache directory {} holds {} files of {} bytes", new Object[]{directory, files.size(), totalBytes});
+    }
+
+    /**
+     * @return the file for <code>key</code> or <code>null</code> when it is not cached
+     */
+    public File get(final String key) {
+        final String name = toFileName(key);
+        synchronized (files) {
+            final Long size = files.get(name);
+            if (size == null) {
+                return null;
+            }
+            final File file = new File(directory, name);
+            if (!file.isFile()) {
+                // removed from disk by someone else
+                files.remove(name);
+                totalBytes -= size;
+                return null;
+            }
+            return file;
+        }
+    }
+
+    /**
+     * Writes the content of <code>in</code> to the file for <code>key</code>, replacing any file for the key
+     * @return the file
+     */
+    public File put(final String key, final InputStream in) throws IOException {
+        final File temp = createTempFile();
+        try {
+            final OutputStream out = new FileOutputStream(temp);
+            try {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+            return add(key, temp);
+        } finally {
+            if (temp.exists()) {
+                delete(temp);
+            }
+        }
+    }
+
+    /**
+     * Writes <code>content</code> to the file for <code>key</code>, replacing any file for the key
+     * @return the file
+     */
+    public File put(final String key, final byte[] content) throws IOException {
+        return put(key, new ByteArrayInputStream(content));
+    }
+
+    /**
+     * @return a new, empty file in the directory of the cache, to be written and then moved into the cache with
+     * {@link #put(String, File)}, or deleted. Files that were not moved are deleted on the next start.
+     */
+    public File createTempFile() throws IOException {
+        return File.createTempFile(TEMP_PREFIX, null, directory);
+    }
+
+    /**
+     * Moves <code>temp</code>, created with {@link #createTempFile()}, to the file for <code>key</code>, replacing
+     * any file for the key
+     * @return the file
+     */
+    public File put(final String key, final File temp) throws IOException {
+        try {
+            return add(key, temp);
+        } finally {
+            if (temp.exists()) {
+                delete(temp);
+            }
+        }
+    }
+
+    private File add(final String key, final File temp) throws IOException {
+        final String name = toFileName(key);
+        final File file = new File(directory, name);
+        synchronized (files) {
+            // the file written again is no longer to be deleted
+            evicted.remove(name);
+            final Long previous = files.remove(name);
+            if (previous != null) {
+                totalBytes -= previous;
+            }
+            if (!temp.renameTo(file)) {
+                // renaming onto an existing file fails on some platforms
+                delete(file);
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Cannot move " + temp + " to " + file);
+                }
+            }
+            final long size = file.length();
+            files.put(name, size);
+            totalBytes += size;
+            evict(name);
+        }
+        return file;
+    }
+
+    /**
+     * @return the number of cached files
+     */
+    public int size() {
+        synchronized (files) {
+            return files.size();
+        }
+    }
+
+    /**
+     * @return the total size of the cached files in bytes
+     */
+    public long getTotalBytes() {
+        synchronized (files) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * Evicts the least recently used files until the total size is within bounds, except for the file named
+     * <code>keep</code> which is about to be used, and deletes the files evicted more than the grace period ago
+     */
+    private void evict(final String keep) {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            evicted.put(eldest.getKey(), now);
+        }
+        final Iterator<Map.Entry<String, Long>> expired = evicted.entrySet().iterator();
+        while (expired.hasNext()) {
+            final Map.Entry<String, Long> eldest = expired.next();
+            if (now - eldest.getValue() < deleteGraceMillis) {
+                break;
+            }
+            expired.remove();
+            delete(new File(directory, eldest.getKey()));
+        }
+    }
+
+    private static void delete(final File file) {
+        if (!file.delete() && file.exists()) {
+            log.warn("Cannot delete {}", file);
+        }
+    }
+
+    static String toFileName(final String key) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            final StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.example.binaries;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Writes (a range of) a file as the body of a response without copying it through the heap. When the container
+ * supports it, as Tomcat does with its NIO and APR connectors, the container sends the file with
+ * <code>sendfile</code> after the servlet returned. Otherwise the file is transferred to the output stream with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+ */
+public final class FileSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileSender() {
+    }
+
+    /**
+     * Sends <code>length</code> bytes of <code>file</code> from <code>start</code>, or only the content length for a
+     * <code>HEAD</code> request. The content type and other headers must have been set.
+     */
+    public static void send(final HttpServletRequest request, final HttpServletResponse response, final File file,
+                     final long start, final long length) throws IOException {
+        if (length <= Integer.MAX_VALUE) {
+            response.setContentLength((int) length);
+        } else {
+            response.setHeader("Content-Length", Long.toString(length));
+        }
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final FileChannel channel = in.getChannel();
+            final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            final long end = start + length;
+            while (position < end) {
+                final long transferred = channel.transferTo(position, end - position, out);
+                if (transferred <= 0) {
+                    throw new IOException("Cannot transfer " + file + " from position " + position);
+                }
+                position += transferred;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package org.example.binaries;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A variant of an image: scaled down to fit within a width and height, or scaled and cropped around the center to fill
+ * them exactly, and recompressed. A width or height of <code>0</code> leaves that dimension unbounded. Images are never
+ * scaled up. Images with transparency are written as PNG, all others as JPEG with the quality of the rendition.
+ */
+public final class Rendition {
+
+    private static final Logger log = LoggerFactory.getLogger(Rendition.class);
+
+    private final int width;
+    private final int height;
+    private final boolean crop;
+    private final int quality;
+
+    /**
+     * @param width   the maximum width in pixels, or <code>0</code>
+     * @param height  the maximum height in pixels, or <code>0</code>
+     * @param crop    whether to crop the image to fill both the width and height
+     * @param quality the JPEG quality, from 1 to 100
+     */
+    public Rendition(final int width, final int height, final boolean crop, final int quality) {
+        if (width < 0 || height < 0 || quality < 1 || quality > 100) {
+            throw new IllegalArgumentException("Invalid rendition " + width + "x" + height + " quality " + quality);
+        }
+        this.width = width;
+        this.height = height;
+        this.crop = crop && width > 0 && height > 0;
+        this.quality = quality;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isCrop() {
+        return crop;
+    }
+
+    public int getQuality() {
+        return quality;
+    }
+
+    /**
+     * @return the part of cache keys that identifies this rendition
+     */
+    public String getKey() {
+        return width + "x" + height + (crop ? "c" : "") + "q" + quality;
+    }
+
+    /**
+     * Renders this rendition of the image in <code>source</code>
+     * @param maxSourcePixels the maximum number of pixels of the image, larger images are not decoded as they would
+     *                        take too much memory
+     * @return the rendered image, or <code>null</code> when <code>source</code> is not an image that can be read or
+     * it has more than <code>maxSourcePixels</code> pixels
+     */
+    public RenderedImage render(final InputStream source, final long maxSourcePixels) throws IOException {
+        final BufferedImage image = read(source, maxSourcePixels);
+        if (image == null) {
+            return null;
+        }
+        final boolean alpha = image.getColorModel().hasAlpha();
+        final BufferedImage scaled = scale(image, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(scaled, "png", out);
+            return new RenderedImage("image/png", out.toByteArray());
+        }
+        writeJpeg(scaled, out);
+        return new RenderedImage("image/jpeg", out.toByteArray());
+    }
+
+    private static BufferedImage read(final InputStream source, final long maxSourcePixels) throws IOException {
+        final ImageInputStream input = ImageIO.createImageInputStream(source);
+        if (input == null) {
+            return null;
+        }
+        try {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxSourcePixels) {
+                    log.warn("Not rendering image of {}x{} pixels", reader.getWidth(0), reader.getHeight(0));
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    private BufferedImage scale(final BufferedImage image, final int type) {
+        final int sourceWidth = image.getWidth();
+        final int sourceHeight = image.getHeight();
+        final double scaleX = width == 0 ? Double.MAX_VALUE : (double) width / sourceWidth;
+        final double scaleY = height == 0 ? Double.MAX_VALUE : (double) height / sourceHeight;
+        final double scale = Math.min(1.0d, crop ? Math.max(scaleX, scaleY) : Math.min(scaleX, scaleY));
+        final int scaledWidth = Math.max(1, (int) Math.round(sourceWidth * scale));
+        final int scaledHeight = Math.max(1, (int) Math.round(sourceHeight * scale));
+
+        BufferedImage result = image;
+        int currentWidth = sourceWidth;
+        int currentHeight = sourceHeight;
+        // halving in steps keeps bilinear interpolation from dropping pixels on large reductions
+        do {
+            currentWidth = Math.max(scaledWidth, currentWidth / 2);
+            currentHeight = Math.max(scaledHeight, currentHeight / 2);
+            result = draw(result, 0, 0, result.getWidth(), result.getHeight(), currentWidth, currentHeight, type);
+        } while (currentWidth > scaledWidth || currentHeight > scaledHeight);
+
+        if (crop && (scaledWidth > width || scaledHeight > height)) {
+            final int cropWidth = Math.min(width, scaledWidth);
+            final int cropHeight = Math.min(height, scaledHeight);
+            result = draw(result, (scaledWidth - cropWidth) / 2, (scaledHeight - cropHeight) / 2, cropWidth, cropHeight,
+                    cropWidth, cropHeight, type);
+        }
+        return result;
+    }
+
+    private static BufferedImage draw(final BufferedImage image, final int x, final int y, final int sourceWidth,
+                                      final int sourceHeight, final int targetWidth, final int targetHeight, final int type) {
+        final BufferedImage target = new BufferedImage(targetWidth, targetHeight, type);
+        final Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, x, y, x + sourceWidth, y + sourceHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(final BufferedImage image, final ByteArrayOutputStream out) throws IOException {
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG image writer available");
+        }
+        final ImageWriter writer = writers.next();
+        final ImageOutputStream output = ImageIO.createImageOutputStream(out);
+        try {
+            writer.setOutput(output);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality / 100f);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+            output.close();
+        }
+    }
+
+    /**
+     * The encoded result of a rendition
+     */
+    public static final class RenderedImage {
+
+        private final String mimeType;
+        private final byte[] data;
+
+        RenderedImage(final String mimeType, final byte[] data) {
+            this.mimeType = mimeType;
+            this.data = data;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+    }
+
+}
@@ -0,0 +1,284 @@
+package org.example.binaries;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import javax.jcr.Binary;
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.cache.SingleFlight;
+import org.example.jcr.PooledSessionTemplate;
+import org.example.pagecache.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Produces {@link Rendition}s of the live images below the root path on first request and keeps them in a
+ * {@link DiskCache}, keyed by the identifier and last modification of the image resource and the rendition. A new
+ * version of an image therefore gets new renditions, and the renditions of old versions are evicted in time. Concurrent
+ * requests for the same rendition render it once.
+ * <p>
+ * Only the configured sizes and qualities are rendered, so clients cannot fill the cache with arbitrary variants, and
+ * at most a configured number of renditions are rendered at the same time, as decoding an image takes a lot of memory.
+ */
+public class RenditionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionService.class);
+
+    private static final String DATA_PROPERTY = "jcr:data";
+    private static final String MIME_TYPE_PROPERTY = "jcr:mimeType";
+    private static final String LAST_MODIFIED_PROPERTY = "jcr:lastModified";
+
+    private final PooledSessionTemplate sessionTemplate;
+    private final DiskCache diskCache;
+    private final String rootPath;
+    private final SingleFlight<String, File> renderings = new SingleFlight<String, File>();
+    private volatile boolean enabled = true;
+    private Set<Integer> sizes = parse("100, 200, 400, 800, 1200, 1600");
+    private Set<Integer> qualities = parse("60, 80, 90");
+    private Semaphore renderPermits = new Semaphore(2);
+    private long maxSourcePixels = 40000000L;
+    private int defaultQuality = 80;
+    private int maxAge = 604800;
+
+    public RenditionService(final PooledSessionTemplate sessionTemplate, final DiskCache diskCache, final String rootPath) {
+        this.sessionTemplate = sessionTemplate;
+        this.diskCache = diskCache;
+        this.rootPath = rootPath;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the widths and heights in pixels renditions may have, in ascending order
+     */
+    public Set<Integer> getSizes() {
+        return sizes;
+    }
+
+    /**
+     * @param sizes comma separated widths and heights in pixels renditions may have
+     */
+    public void setSizes(final String sizes) {
+        this.sizes = parse(sizes);
+    }
+
+    /**
+     * @return the JPEG qualities renditions may have, in ascending order
+     */
+    public Set<Integer> getQualities() {
+        return qualities;
+    }
+
+    /**
+     * @param qualities comma separated JPEG qualities renditions may have
+     */
+    public void setQualities(final String qualities) {
+        this.qualities = parse(qualities);
+    }
+
+    /**
+     * @param maxConcurrentRenders the number of renditions rendered at the same time, more requests for renditions
+     *                             that are not on disk yet are refused with a {@link BusyException}
+     */
+    public void setMaxConcurrentRenders(final int maxConcurrentRenders) {
+        this.renderPermits = new Semaphore(maxConcurrentRenders);
+    }
+
+    public void setMaxSourcePixels(final long maxSourcePixels) {
+        this.maxSourcePixels = maxSourcePixels;
+    }
+
+    public int getDefaultQuality() {
+        return defaultQuality;
+    }
+
+    public void setDefaultQuality(final int defaultQuality) {
+        this.defaultQuality = defaultQuality;
+    }
+
+    /**
+     * @return the number of seconds clients and proxies may use a rendition without revalidating it
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(final int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @return whether <code>rendition</code> has a configured width, height and quality, an unbounded width or height
+     * is always allowed
+     */
+    public boolean isAllowed(final Rendition rendition) {
+        return (rendition.getWidth() == 0 || sizes.contains(rendition.getWidth()))
+                && (rendition.getHeight() == 0 || sizes.contains(rendition.getHeight()))
+                && (rendition.getQuality() == defaultQuality || qualities.contains(rendition.getQuality()));
+    }
+
+    /**
+     * @param path the path of an image resource, for instance
+     *             <code>/content/gallery/myhippoproject/image.jpg/image.jpg/hippogallery:original</code>
+     * @return the rendition of the image, or <code>null</code> when there is no live image at <code>path</code> below
+     * the root path or it cannot be rendered
+     * @throws BusyException when the rendition is not on disk and the maximum number of renditions are being rendered
+     */
+    public RenditionFile getRendition(final String path, final Rendition rendition) throws Exception {
+        if (!isAllowed(rendition)) {
+            throw new IllegalArgumentException("Rendition " + rendition.getKey() + " is not allowed");
+        }
+        if (!path.startsWith(rootPath + "/") || path.contains("/.") || path.contains("[")) {
+            return null;
+        }
+        return sessionTemplate.execute(false, new PooledSessionTemplate.SessionCallback<RenditionFile>() {
+            @Override
+            public RenditionFile doInSession(final Session session) throws Exception {
+                if (!session.nodeExists(path)) {
+                    return null;
+                }
+                final Node resource = session.getNode(path);
+                if (!resource.hasProperty(DATA_PROPERTY) || !resource.hasProperty(MIME_TYPE_PROPERTY)
+                        || !resource.getProperty(MIME_TYPE_PROPERTY).getString().startsWith("image/")) {
+                    return null;
+                }
+                final long lastModified = resource.hasProperty(LAST_MODIFIED_PROPERTY)
+                        ? resource.getProperty(LAST_MODIFIED_PROPERTY).getDate().getTimeInMillis() : 0L;
+                final String version = resource.getIdentifier() + '-' + Long.toHexString(lastModified) + '-'
+                        + rendition.getKey();
+
+                File file = diskCache.get(version);
+                if (file == null) {
+                    file = render(resource, version, rendition);
+                }
+                if (file == null) {
+                    return null;
+                }
+                return new RenditionFile(file, getMimeType(file), new Validator(version, lastModified));
+            }
+        });
+    }
+
+    private File render(final Node resource, final String key, final Rendition rendition) throws Exception {
+        return renderings.execute(key, new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                final File cached = diskCache.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+                // waiting for a permit would hold the thread of the request and the pooled session, refuse instead
+                if (!renderPermits.tryAcquire()) {
+                    throw new BusyException();
+                }
+                final long start = System.currentTimeMillis();
+                final Rendition.RenderedImage image;
+                try {
+                    final Binary binary = resource.getProperty(DATA_PROPERTY).getBinary();
+                    try {
+                        final InputStream in = binary.getStream();
+                        try {
+                            image = rendition.render(in, maxSourcePixels);
+                        } finally {
+                            in.close();
+                        }
+                    } finally {
+                        binary.dispose();
+                    }
+                } finally {
+                    renderPermits.release();
+                }
+                if (image == null) {
+                    log.info("Cannot render {} of {}", rendition.getKey(), resource.getPath());
+                    return null;
+                }
+                final File file = diskCache.put(key, image.getData());
+                log.debug("Rendered {} of {} in {} ms", new Object[]{rendition.getKey(), resource.getPath(),
+                        System.currentTimeMillis() - start});
+                return file;
+            }
+        });
+    }
+
+    private static Set<Integer> parse(final String values) {
+        final Set<Integer> result = new TreeSet<Integer>();
+        final String[] fields = StringUtils.split(values, ", ");
+        if (fields != null) {
+            for (String field : fields) {
+                result.add(Integer.valueOf(field));
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return the type of a rendered file from its first byte, as renditions are either PNG or JPEG
+     */
+    private static String getMimeType(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            return in.read() == 0x89 ? "image/png" : "image/jpeg";
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Thrown when a rendition has to be rendered while the maximum number of renditions are being rendered
+     */
+    public static final class BusyException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        BusyException() {
+            super("Too many renditions are being rendered");
+        }
+
+    }
+
+    /**
+     * A rendition on disk with its type and validators
+     */
+    public static final class RenditionFile {
+
+        private final File file;
+        private final String mimeType;
+        private final Validator validator;
+
+        RenditionFile(final File file, final String mimeType, final Validator validator) {
+            this.file = file;
+            this.mimeType = mimeType;
+            this.validator = validator;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public Validator getValidator() {
+            return validator;
+        }
+
+    }
+
+}
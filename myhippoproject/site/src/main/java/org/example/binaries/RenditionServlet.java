@@ -0,0 +1,108 @@
+package org.example.binaries;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves renditions of gallery images from the {@link RenditionService}, for instance
+ * <code>/renditions/content/gallery/myhippoproject/image.jpg/image.jpg/hippogallery:original?w=400&amp;h=300&amp;crop=true</code>
+ * for the original image scaled and cropped to 400 by 300 pixels. The parameters are
+ * <ul>
+ *     <li><code>w</code> and <code>h</code>: the maximum width and height, one of the sizes of the service, either may
+ *     be left out</li>
+ *     <li><code>crop</code>: <code>true</code> to fill both the width and the height by cropping</li>
+ *     <li><code>q</code>: the JPEG quality, one of the qualities of the service</li>
+ * </ul>
+ * Other sizes and qualities are refused. When too many renditions are being rendered, a rendition that is not on disk
+ * yet is answered with 503 Service Unavailable. Like the <code>SuggestServlet</code> it is mapped outside of the HST request processing.
+ */
+public class RenditionServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(RenditionServlet.class);
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+        final RenditionService service = getRenditionService();
+        if (service == null || !service.isEnabled()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        final String path = request.getPathInfo();
+        if (StringUtils.isEmpty(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final Rendition rendition;
+        try {
+            rendition = new Rendition(getIntParameter(request, "w", 0), getIntParameter(request, "h", 0),
+                    Boolean.parseBoolean(request.getParameter("crop")),
+                    getIntParameter(request, "q", service.getDefaultQuality()));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (!service.isAllowed(rendition)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Renditions have a width and height of "
+                    + service.getSizes() + " pixels and a quality of " + service.getQualities());
+            return;
+        }
+
+        final RenditionService.RenditionFile file;
+        try {
+            file = service.getRendition(path, rendition);
+        } catch (RenditionService.BusyException e) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        } catch (Exception e) {
+            log.warn("Cannot render " + rendition.getKey() + " of " + path, e);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        file.getValidator().apply(response);
+        response.setHeader("Cache-Control", "public, max-age=" + service.getMaxAge());
+        if (file.getValidator().isNotModified(request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(file.getMimeType());
+        FileSender.send(request, response, file.getFile(), 0L, file.getFile().length());
+    }
+
+    private static int getIntParameter(final HttpServletRequest request, final String name, final int defaultValue) {
+        final String value = request.getParameter(name);
+        if (StringUtils.isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    private RenditionService getRenditionService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().getComponent(RenditionService.class.getName());
+    }
+
+}
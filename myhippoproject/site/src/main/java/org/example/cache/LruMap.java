@@ -0,0 +1,30 @@
+package org.example.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Access ordered {@link LinkedHashMap} that evicts its least recently used entry once it holds more than
+ * <code>maxSize</code> entries. Not thread safe: callers synchronize on the map themselves.
+ */
+public class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    public LruMap(final int maxSize) {
+        super(16, 0.75f, true);
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+        return size() > maxSize;
+    }
+
+}
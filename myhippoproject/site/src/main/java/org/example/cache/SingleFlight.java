@@ -0,0 +1,63 @@
+package org.example.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Coalesces concurrent executions of the same work: while the work for a key is in flight, callers with an equal key
+ * wait for it and share its outcome instead of executing the work again. Once the work completed, the next caller
+ * executes it anew, so results are never reused beyond the callers that overlapped with the execution.
+ * <p>
+ * The shared result is handed to all waiting callers, it must therefore be immutable or otherwise safe to share.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, FutureTask<V>> flights = new ConcurrentHashMap<K, FutureTask<V>>();
+
+    /**
+     * Executes <code>work</code> on the calling thread, unless work for <code>key</code> is already in flight, in
+     * which case it waits for that work to complete.
+     * @return the outcome of the work for <code>key</code>
+     * @throws Exception the exception of the work for <code>key</code>, or an {@link InterruptedException} when the
+     * caller was interrupted while waiting
+     */
+    public V execute(final K key, final Callable<V> work) throws Exception {
+        final FutureTask<V> task = new FutureTask<V>(work);
+        final FutureTask<V> inFlight = flights.putIfAbsent(key, task);
+        if (inFlight != null) {
+            return get(inFlight);
+        }
+        try {
+            task.run();
+        } finally {
+            flights.remove(key, task);
+        }
+        return get(task);
+    }
+
+    /**
+     * @return the number of keys with work in flight
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private V get(final FutureTask<V> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -1,33 +1,60 @@
 package org.example.components;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 import org.example.componentsinfo.GeneralListInfo;
 import org.example.componentsinfo.PageableListInfo;
+import org.example.componentsinfo.SearchInfo;
+import org.example.index.DateIndex;
+import org.example.search.DateRange;
+import org.example.search.DeferredSearchResult;
+import org.example.search.DocumentProjection;
+import org.example.search.FacetCounter;
+import org.example.search.FacetCounts;
+import org.example.search.JsonListWriter;
+import org.example.search.Pagination;
+import org.example.search.SearchExecutor;
+import org.example.search.SearchParameters;
+import org.example.search.SearchResult;
+import org.example.search.SearchResultCache;
+import org.example.search.SearchService;
 
-import org.apache.commons.lang.StringUtils;
 import org.hippoecm.hst.component.support.bean.BaseHstComponent;
-import org.hippoecm.hst.content.beans.query.HstQuery;
-import org.hippoecm.hst.content.beans.query.HstQueryResult;
-import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
-import org.hippoecm.hst.content.beans.query.filter.Filter;
 import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.request.HstRequestContext;
 import org.hippoecm.hst.core.component.HstRequest;
-import org.hippoecm.hst.util.SearchInputParsingUtils;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.site.HstServices;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Base of the components that list and search documents. The searching itself is done by the {@link SearchService},
+ * {@link FacetCounter} and {@link JsonListWriter} configured in the HST component manager, this class puts their
+ * results on the request.
+ */
 public abstract class BaseComponent extends BaseHstComponent {
 
     public static final Logger log = LoggerFactory.getLogger(BaseComponent.class);
 
+    // used when the HST component manager configures none, so searches still coalesce
+    private static final SearchService DEFAULT_SEARCH_SERVICE = new SearchService();
+    private static final FacetCounter DEFAULT_FACET_COUNTER = new FacetCounter();
+    private static final JsonListWriter DEFAULT_JSON_LIST_WRITER = new JsonListWriter(DEFAULT_SEARCH_SERVICE);
+
     /**
-     * Creates and executes a search, and puts a {@link HstQueryResult}, {@link PageableListInfo}, crPage, query and optionally a {@link List<Integer>} of pages on the
-     * request
+     * Creates and executes a search, and puts a {@link SearchResult}, {@link PageableListInfo}, crPage and query on the
+     * request. When pages are visible, the result holds a {@link Pagination} for the pager. The hits of the search are
+     * served from the {@link SearchResultCache} when available and not specific to the user, or from the
+     * {@link DateIndex} when it holds the scope, type and sort property of the search. A pageable list is filtered on the {@link DateRange} in the <code>from</code>
+     * and <code>to</code> parameters, and with {@link PageableListInfo#isArchiveVisible()} the documents of the list per
+     * month are put on the request as <code>archive</code>. With cursor paging the search resumes after the cursor
+     * in the <code>cursor</code> parameter and the result holds the next and previous cursor tokens instead of pages.
+     * The total size of the result is only counted as far as the count mode of <code>info</code> asks for. When
+     * <code>info</code> declares a projection, the result holds {@link DocumentProjection}s instead of beans. When
+     * <code>info</code> declares a snippet source, the beans of the visible page get a snippet around their first match
+     * of the query in the highlights of the result.
      * @param request
      * @param info
      * @param scope the scope to search below.
@@ -35,82 +62,127 @@ public abstract class BaseComponent extends BaseHstComponent {
      */
 
     protected void createAndExecuteSearch(final HstRequest request, final GeneralListInfo info, final HippoBean scope, final String query) throws HstComponentException {
-        if (scope == null) {
-            throw new HstComponentException("Scope is not allowed to be null for a search");
+        search(request, info, scope, query, false);
+    }
+
+    /**
+     * Starts the same search as {@link #createAndExecuteSearch(HstRequest, GeneralListInfo, HippoBean, String)} on the
+     * {@link SearchExecutor} and puts a {@link DeferredSearchResult} on the request, which completes when the template
+     * renders it. Components that call this from <code>doBeforeRender</code> search in parallel, because the HST
+     * renders a page only after all of its components prepared it. Cached searches, searches that need the session of
+     * the request (channel manager requests and subject based sessions) and searches that find the executor saturated
+     * are executed right away.
+     * @param request
+     * @param info
+     * @param scope the scope to search below.
+     * @param query the free text query to search for. If <code>null</code> or empty, it will be ignored
+     */
+    protected void startSearch(final HstRequest request, final GeneralListInfo info, final HippoBean scope, final String query) throws HstComponentException {
+        search(request, info, scope, query, true);
+    }
+
+    /**
+     * Counts the facets of <code>info</code> for the hits of the same search as
+     * {@link #createAndExecuteSearch(HstRequest, GeneralListInfo, HippoBean, String)} and puts the {@link FacetCounts}
+     * on the request as <code>facets</code>. All facets are counted in a single pass over the hits of one query, which
+     * stops after {@link SearchInfo#getFacetMaxHits()} hits or {@link SearchInfo#getFacetTimeBudget()} milliseconds,
+     * in which case the counts are partial. Counts are served from the {@link SearchResultCache} when available.
+     * @param request
+     * @param info
+     * @param scope the scope to search below.
+     * @param query the free text query to search for. If <code>null</code> or empty, it will be ignored
+     */
+    protected void countFacets(final HstRequest request, final SearchInfo info, final HippoBean scope, final String query) throws HstComponentException {
+        final List<String> facets = FacetCounter.getFacets(info);
+        if (facets.isEmpty()) {
+            return;
         }
-        int pageSize = info.getPageSize();
-        if (pageSize == 0) {
-            log.warn("Empty pageSize or set to null. This is not a valid size. Use default size");
+        final SearchParameters search = createSearchParameters(request, info, scope, query);
+        request.setAttribute("facets", getFacetCounter().countFacets(request.getRequestContext(), scope, search, info, facets));
+    }
+
+    /**
+     * Writes the page of the same search as {@link #createAndExecuteSearch(HstRequest, GeneralListInfo, HippoBean, String)}
+     * to <code>response</code> as JSON, for instance
+     * <code>{"page":1,"pageSize":10,"items":[{"id":"...","link":"/news/item.html","title":"..."}],"more":true,"total":42}</code>.
+     * Hits are written while they are read from the query result, so the memory used does not depend on the page
+     * size, and neither the {@link SearchResultCache} nor projections are involved. Every item holds the local names
+     * and values of the projection of <code>info</code>, or of the title, summary and date when it declares none.
+     * Cursor paged lists are paged by page number. The total is only written for an exact count mode, while
+     * <code>more</code> tells whether there is a page beyond this one.
+     * @param request
+     * @param response
+     * @param info
+     * @param scope the scope to search below.
+     * @param query the free text query to search for. If <code>null</code> or empty, it will be ignored
+     */
+    protected void serveJson(final HstRequest request, final HstResponse response, final GeneralListInfo info,
+                             final HippoBean scope, final String query) throws HstComponentException {
+        final SearchParameters search = createSearchParameters(request, info, scope, query);
+        getJsonListWriter().write(request.getRequestContext(), response, info, scope, search);
+    }
+
+    private void search(final HstRequest request, final GeneralListInfo info, final HippoBean scope, final String query,
+                        final boolean background) throws HstComponentException {
+        final HstRequestContext requestContext = request.getRequestContext();
+        final SearchParameters search = createSearchParameters(request, info, scope, query);
+        final SearchResult result = getSearchService().search(requestContext, scope, search, background);
+
+        request.setAttribute("result", result);
+        request.setAttribute("info", info);
+        request.setAttribute("page", search.getCrPage());
+        request.setAttribute("query", search.getParsedQuery());
+        if (search.getDateRange() != null) {
+            request.setAttribute("dateFrom", request.getParameter("from"));
+            request.setAttribute("dateTo", request.getParameter("to"));
         }
-        String docType = info.getDocType();
-        String sortBy = info.getSortBy();
-        String sortOrder = info.getSortOrder();
-        String crPageStr = request.getParameter("page");
-
-        int crPage = 1;
-        if (crPageStr != null) {
-            try {
-                crPage = Integer.parseInt(crPageStr);
-            } catch (NumberFormatException e) {
-                throw new HstComponentException("Invalid page number '" + crPage + '\'');
-            }
+        if (info instanceof PageableListInfo && Boolean.TRUE.equals(((PageableListInfo) info).isArchiveVisible())
+                && search.getDateRangeProperty() != null) {
+            request.setAttribute("archive", getFacetCounter().countMonths(requestContext, scope, search));
         }
+    }
 
-        final HstRequestContext requestContext = request.getRequestContext();
+    private SearchParameters createSearchParameters(final HstRequest request, final GeneralListInfo info,
+                                                    final HippoBean scope, final String query) throws HstComponentException {
+        return SearchParameters.create(getClass().getName(), request, info, scope, query,
+                getSearchService().getComponentMetrics());
+    }
 
-        @SuppressWarnings("rawtypes")
-        Class filterClass = requestContext.getContentBeansTool().getObjectConverter().getAnnotatedClassFor(docType);
-        if (filterClass == null) {
-            throw new HstComponentException("There is no bean for docType '"+docType+"'. Cannot use '"+docType+"' as in this search");
-        }
-        try {
-            @SuppressWarnings("unchecked")
-            HstQuery hstQuery = requestContext.getQueryManager().createQuery(scope, filterClass, true);
-            hstQuery.setLimit(pageSize);
-            hstQuery.setOffset(pageSize * (crPage - 1));
-            if (sortBy != null && !sortBy.isEmpty()) {
-                if (sortOrder == null || sortOrder.isEmpty() || "descending".equals(sortOrder)) {
-                    hstQuery.addOrderByDescending(sortBy);
-                } else {
-                    hstQuery.addOrderByAscending(sortBy);
-                }
-            }
-
-            String parsedQuery = SearchInputParsingUtils.parse(query, false);
-            if (parsedQuery != null && !parsedQuery.equals(query)) {
-                log.debug("Replaced query '{}' with '{}' because it contained invalid chars.", query, parsedQuery);
-            }
-            if (!StringUtils.isEmpty(parsedQuery)) {
-                Filter f = hstQuery.createFilter();
-                f.addContains(".", parsedQuery);
-                hstQuery.setFilter(f);
-            }
-
-            HstQueryResult result = hstQuery.execute();
-
-            request.setAttribute("result", result);
-            request.setAttribute("info", info);
-            request.setAttribute("page", crPage);
-            request.setAttribute("query", parsedQuery);
-
-
-            if (info instanceof PageableListInfo && ((PageableListInfo)info).isPagesVisible()) {
-                // add pages
-                if (result.getTotalSize() > pageSize) {
-                    Collection<Integer> pages = new ArrayList<Integer>();
-                    int numberOfPages = result.getTotalSize() / pageSize ;
-                    if (result.getTotalSize() % pageSize != 0) {
-                        numberOfPages++;
-                    }
-                    for (int i = 0; i < numberOfPages; i++) {
-                        pages.add(i + 1);
-                    }
-                    request.setAttribute("pages", pages);
-                }
-            }
-
-        } catch (QueryException e) {
-            throw new HstComponentException("Exception occurred during creation or execution of HstQuery. ", e);
+    /**
+     * @return the {@link SearchService} configured in the HST component manager, or one without collaborators when
+     * there is none, in which case every search is executed against the repository
+     */
+    protected SearchService getSearchService() {
+        final SearchService searchService = getComponent(SearchService.class);
+        return searchService == null ? DEFAULT_SEARCH_SERVICE : searchService;
+    }
+
+    /**
+     * @return the {@link FacetCounter} configured in the HST component manager, or one without collaborators when
+     * there is none, in which case all counts are collected from the repository
+     */
+    protected FacetCounter getFacetCounter() {
+        final FacetCounter facetCounter = getComponent(FacetCounter.class);
+        return facetCounter == null ? DEFAULT_FACET_COUNTER : facetCounter;
+    }
+
+    /**
+     * @return the {@link JsonListWriter} configured in the HST component manager, or one that queries the repository
+     * when there is none
+     */
+    protected JsonListWriter getJsonListWriter() {
+        final JsonListWriter jsonListWriter = getComponent(JsonListWriter.class);
+        return jsonListWriter == null ? DEFAULT_JSON_LIST_WRITER : jsonListWriter;
+    }
+
+    /**
+     * @return the component of <code>type</code> configured in the HST component manager under its class name, or
+     * <code>null</code> when there is none
+     */
+    private static <T> T getComponent(final Class<T> type) {
+        if (!HstServices.isAvailable()) {
+            return null;
         }
+        return HstServices.getComponentManager().<T>getComponent(type.getName());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package org.example.components;
+
+import org.example.pagecache.Fragment;
+import org.example.pagecache.FragmentCache;
+import org.hippoecm.hst.component.support.bean.BaseHstComponent;
+import org.hippoecm.hst.core.component.HstComponentException;
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
+
+/**
+ * Base class of components whose markup only depends on the HST configuration and a key of their own, such as the
+ * mount or the current sitemap item. It puts a {@link Fragment} on the request as <code>fragment</code>, which the
+ * template passes to the <code>fragment</code> tag around its cacheable markup. When the markup is cached,
+ * {@link #doBeforeRenderFragment(HstRequest, HstResponse)} is not called and the tag writes the cached markup.
+ * <p>
+ * Fragments are not cached in preview and in the channel manager, and are dropped on every HST configuration change.
+ * Head contributions must stay outside of the <code>fragment</code> tag, they are not part of the cached markup.
+ */
+public abstract class CacheableComponent extends BaseHstComponent {
+
+    @Override
+    public final void doBeforeRender(final HstRequest request, final HstResponse response) throws HstComponentException {
+        final Fragment fragment = getFragment(request);
+        request.setAttribute("fragment", fragment);
+        if (fragment == null || !fragment.isCached()) {
+            doBeforeRenderFragment(request, response);
+        }
+    }
+
+    /**
+     * Prepares the request for rendering the markup, which is only called when the markup is not cached
+     */
+    protected abstract void doBeforeRenderFragment(HstRequest request, HstResponse response) throws HstComponentException;
+
+    /**
+     * @return the part of the cache key that is specific to this component, for instance the path of the current
+     * sitemap item for a menu that marks the selected item, or an empty string when the markup is the same for all
+     * pages of a mount
+     */
+    protected abstract String getFragmentKey(HstRequest request);
+
+    private Fragment getFragment(final HstRequest request) {
+        final HstRequestContext requestContext = request.getRequestContext();
+        if (requestContext.isPreview() || requestContext.isCmsRequest()) {
+            return null;
+        }
+        final FragmentCache cache = getFragmentCache();
+        if (cache == null) {
+            return null;
+        }
+        // the page and the window in it identify the component and its template, templates contain resource bundle
+        // messages
+        final String key = getClass().getName() + ' ' + requestContext.getResolvedMount().getMount().getIdentifier()
+                + ' ' + requestContext.getResolvedSiteMapItem().getHstComponentConfiguration().getId()
+                + ' ' + request.getReferenceNamespace() + ' ' + requestContext.getPreferredLocale()
+                + ' ' + getFragmentKey(request);
+        return cache.getFragment(key);
+    }
+
+    /**
+     * @return the {@link FragmentCache} configured in the HST component manager or <code>null</code> when there is
+     * none, in which case the markup is rendered on every request
+     */
+    protected FragmentCache getFragmentCache() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().getComponent(FragmentCache.class.getName());
+    }
+
+}
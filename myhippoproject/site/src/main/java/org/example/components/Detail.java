@@ -1,10 +1,17 @@
 package org.example.components;
 
+import java.util.Calendar;
+
+import org.example.pagecache.ConfigurationVersion;
+import org.example.pagecache.Validator;
 import org.hippoecm.hst.component.support.bean.BaseHstComponent;
 import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoDocumentBean;
 import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +19,9 @@ public class Detail extends BaseHstComponent {
 
     public static final Logger log = LoggerFactory.getLogger(Detail.class);
 
+    public static final String MODIFICATION_DATE_PROPERTY = "hippostdpubwf:lastModificationDate";
+    public static final String PUBLICATION_DATE_PROPERTY = "hippostdpubwf:publicationDate";
+
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) throws HstComponentException {
 
@@ -24,8 +34,36 @@ public class Detail extends BaseHstComponent {
             response.setStatus(404);
             return;
         }
+
+        // conditional requests are answered before the page is rendered, by the ConditionalGetFilter
+        final Validator validator = getValidator(request, doc);
+        if (validator != null) {
+            validator.apply(response);
+        }
         request.setAttribute("document",doc);
 
     }
 
+    /**
+     * @return the validator of the live page of <code>doc</code>, from its modification and publication dates and the
+     * {@link ConfigurationVersion}, or <code>null</code> when the page must always be rendered
+     */
+    protected Validator getValidator(final HstRequest request, final HippoBean doc) {
+        final HstRequestContext requestContext = request.getRequestContext();
+        if (requestContext.isPreview() || requestContext.isCmsRequest() || !HstServices.isAvailable()
+                || !(doc instanceof HippoDocumentBean)) {
+            return null;
+        }
+        final Object modified = doc.getProperty(MODIFICATION_DATE_PROPERTY);
+        final Object published = doc.getProperty(PUBLICATION_DATE_PROPERTY);
+        final ConfigurationVersion configuration =
+                HstServices.getComponentManager().getComponent(ConfigurationVersion.class.getName());
+        if (!(modified instanceof Calendar) || configuration == null) {
+            return null;
+        }
+        return configuration.createValidator(((HippoDocumentBean) doc).getCanonicalHandleUUID(),
+                ((Calendar) modified).getTimeInMillis(),
+                published instanceof Calendar ? ((Calendar) published).getTimeInMillis() : 0L);
+    }
+
 }
@@ -1,21 +1,24 @@
 package org.example.components;
 
 import org.example.channels.WebsiteInfo;
-import org.hippoecm.hst.component.support.bean.BaseHstComponent;
 import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.core.request.ResolvedMount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class Header extends BaseHstComponent {
+public class Header extends CacheableComponent {
 
     public static final Logger log = LoggerFactory.getLogger(Header.class);
 
     @Override
-    public void doBeforeRender(final HstRequest request, final HstResponse response) throws HstComponentException {
-        final Mount mount = request.getRequestContext().getResolvedMount().getMount();
+    protected void doBeforeRenderFragment(final HstRequest request, final HstResponse response) throws HstComponentException {
+        final ResolvedMount resolvedMount = request.getRequestContext().getResolvedMount();
+        final Mount mount = resolvedMount.getMount();
+        // suggestions are limited to the documents of this mount
+        request.setAttribute("suggestMountPath", resolvedMount.getResolvedMountPath());
         final WebsiteInfo info = mount.getChannelInfo();
 
         if (info != null) {
@@ -25,4 +28,10 @@ public class Header extends BaseHstComponent {
         }
     }
 
+    @Override
+    protected String getFragmentKey(final HstRequest request) {
+        // the header is the same on all pages of a mount
+        return "";
+    }
+
 }
@@ -1,15 +1,36 @@
 package org.example.components;
 
-import org.hippoecm.hst.component.support.bean.BaseHstComponent;
 import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.core.sitemenu.HstSiteMenu;
+import org.hippoecm.hst.core.sitemenu.HstSiteMenuItem;
 
-public class LeftMenu  extends BaseHstComponent{
+public class LeftMenu extends CacheableComponent {
 
     @Override
-    public void doBeforeRender(final HstRequest request, final HstResponse response) throws HstComponentException {
-        request.setAttribute("menu",request.getRequestContext().getHstSiteMenus().getSiteMenu("main"));
+    protected void doBeforeRenderFragment(final HstRequest request, final HstResponse response) throws HstComponentException {
+        request.setAttribute("menu", getMenu(request));
+    }
+
+    @Override
+    protected String getFragmentKey(final HstRequest request) {
+        // the selected item and the expanded items above it are all that differs between pages, so all the pages
+        // below a menu item, such as the news documents, share its markup
+        final HstSiteMenu menu = getMenu(request);
+        final HstSiteMenuItem selected = menu == null ? null : menu.getSelectSiteMenuItem();
+        if (selected == null) {
+            return "";
+        }
+        final StringBuilder key = new StringBuilder();
+        for (HstSiteMenuItem item = selected; item != null; item = item.getParentItem()) {
+            key.insert(0, item.getName()).insert(0, '/');
+        }
+        return key.toString();
+    }
+
+    private HstSiteMenu getMenu(final HstRequest request) {
+        return request.getRequestContext().getHstSiteMenus().getSiteMenu("main");
     }
 
 }
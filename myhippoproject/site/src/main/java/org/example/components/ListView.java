@@ -19,6 +19,20 @@ public class ListView extends BaseComponent {
     public void doBeforeRender(final HstRequest request, final HstResponse response) throws HstComponentException {
 
        ListViewInfo info = getComponentParametersInfo(request);
+       startSearch(request, info, getScopeBean(request, info), null);
+    }
+
+    /**
+     * Serves the list as JSON, see {@link #serveJson}
+     */
+    @Override
+    public void doBeforeServeResource(final HstRequest request, final HstResponse response) throws HstComponentException {
+
+       ListViewInfo info = getComponentParametersInfo(request);
+       serveJson(request, response, info, getScopeBean(request, info), null);
+    }
+
+    private HippoBean getScopeBean(final HstRequest request, final ListViewInfo info) throws HstComponentException {
        HippoBean scopeBean = null;
 
        String scope = info.getScope();
@@ -40,12 +54,7 @@ public class ListView extends BaseComponent {
                        + "'. Cannot create a list");
            }
        }
-
-       if (scope == null) {
-           response.setStatus(404);
-           throw new HstComponentException("For an Overview component there must be a content bean available to search below. Cannot create an overview");
-       }
-       createAndExecuteSearch(request, info, scopeBean, null);
+       return scopeBean;
     }
 
 }
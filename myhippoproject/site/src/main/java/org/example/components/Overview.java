@@ -24,7 +24,23 @@ public class Overview extends BaseComponent {
            response.setStatus(404);
            throw new HstComponentException("For an Overview component there must be a content bean available to search below. Cannot create an overview");
        }
-       createAndExecuteSearch(request, info, scope, null);
+       startSearch(request, info, scope, null);
+    }
+
+    /**
+     * Serves the overview as JSON, see {@link #serveJson}
+     */
+    @Override
+    public void doBeforeServeResource(final HstRequest request, final HstResponse response) throws HstComponentException {
+
+       PageableListInfo info = getComponentParametersInfo(request);
+       HippoBean scope = request.getRequestContext().getContentBean();
+
+       if (scope == null) {
+           response.setStatus(404);
+           throw new HstComponentException("For an Overview component there must be a content bean available to search below. Cannot create an overview");
+       }
+       serveJson(request, response, info, scope, null);
     }
 
 }
@@ -22,7 +22,21 @@ public class Search extends BaseComponent {
 
        String query = getPublicRequestParameter(request, "query");
 
-       createAndExecuteSearch(request, info, scope, query);
+       startSearch(request, info, scope, query);
+       // the facets are counted on the request thread while the search runs in the background
+       countFacets(request, info, scope, query);
+    }
+
+    /**
+     * Serves the search results as JSON, see {@link #serveJson}. Facets are not counted.
+     */
+    @Override
+    public void doBeforeServeResource(final HstRequest request, final HstResponse response) throws HstComponentException {
+
+       SearchInfo info = getComponentParametersInfo(request);
+       HippoBean scope = request.getRequestContext().getSiteContentBaseBean();
+
+       serveJson(request, response, info, scope, getPublicRequestParameter(request, "query"));
     }
 
 }
@@ -1,7 +1,7 @@
 package org.example.components.subsite;
 
 import org.example.channels.SubsiteInfo;
-import org.hippoecm.hst.component.support.bean.BaseHstComponent;
+import org.example.components.CacheableComponent;
 import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.component.HstRequest;
@@ -9,12 +9,12 @@ import org.hippoecm.hst.core.component.HstResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class SubsiteHeader extends BaseHstComponent {
+public class SubsiteHeader extends CacheableComponent {
 
     public static final Logger log = LoggerFactory.getLogger(SubsiteHeader.class);
 
     @Override
-    public void doBeforeRender(final HstRequest request, final HstResponse response) throws HstComponentException {
+    protected void doBeforeRenderFragment(final HstRequest request, final HstResponse response) throws HstComponentException {
         final Mount mount = request.getRequestContext().getResolvedMount().getMount();
         final SubsiteInfo info = mount.getChannelInfo();
 
@@ -25,4 +25,10 @@ public class SubsiteHeader extends BaseHstComponent {
         }
     }
 
+    @Override
+    protected String getFragmentKey(final HstRequest request) {
+        // the header is the same on all pages of a mount
+        return "";
+    }
+
 }
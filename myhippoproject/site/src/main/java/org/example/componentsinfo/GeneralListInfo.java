@@ -1,5 +1,6 @@
 package org.example.componentsinfo;
 
+import org.hippoecm.hst.core.parameters.DropDownList;
 import org.hippoecm.hst.core.parameters.FieldGroup;
 import org.hippoecm.hst.core.parameters.FieldGroupList;
 import org.hippoecm.hst.core.parameters.Parameter;
@@ -7,7 +8,7 @@ import org.hippoecm.hst.core.parameters.Parameter;
 @FieldGroupList({
         @FieldGroup(
                 titleKey = "group.content",
-                value = {"title", "pageSize", "docType"}
+                value = {"title", "pageSize", "docType", "countMode", "countLimit", "projection"}
         ),
         @FieldGroup(
                 titleKey = "group.sorting",
@@ -16,6 +17,10 @@ import org.hippoecm.hst.core.parameters.Parameter;
 })
 public interface GeneralListInfo  {
 
+    String COUNT_MODE_EXACT = "exact";
+    String COUNT_MODE_ESTIMATED = "estimated";
+    String COUNT_MODE_NONE = "none";
+
     @Parameter(name = "title", displayName = "The title of the page", defaultValue="Overview")
     String getTitle();
 
@@ -31,4 +36,33 @@ public interface GeneralListInfo  {
     @Parameter(name = "sortOrder", displayName = "Sort Order", defaultValue="descending")
     String getSortOrder();
 
+    /**
+     * Returns how the total number of results is counted. <code>exact</code> counts all matches,
+     * <code>estimated</code> counts up to {@link #getCountLimit()} matches and reports a larger result as that limit
+     * plus more, <code>none</code> does not count at all. Without an exact count, pagers only know the pages up to
+     * the one after the current page. Cursor paged lists are never counted.
+     * @return the count mode, either <code>exact</code>, <code>estimated</code> or <code>none</code>
+     */
+    @Parameter(name = "countMode", defaultValue=COUNT_MODE_EXACT, displayName = "Count mode")
+    @DropDownList({COUNT_MODE_EXACT, COUNT_MODE_ESTIMATED, COUNT_MODE_NONE})
+    String getCountMode();
+
+    /**
+     * @return the number of matches up to which an <code>estimated</code> count is exact
+     */
+    @Parameter(name = "countLimit", defaultValue="1000", displayName = "Count limit")
+    int getCountLimit();
+
+    /**
+     * Returns the properties to project the hits on, for instance
+     * <code>myhippoproject:title,myhippoproject:summary,myhippoproject:date</code>. With a projection the templates
+     * get a {@link org.example.search.DocumentProjection} with these properties and the link of every hit instead of
+     * its bean, which can be cached across requests. Lists that show images add the image link, for instance
+     * <code>myhippoproject:image</code>, to project its thumbnail. Projections are not used in preview, for subject
+     * based sessions and with cursor paging.
+     * @return the comma separated names of the properties to project on, or an empty string to render beans
+     */
+    @Parameter(name = "projection", defaultValue="", displayName = "Projected properties")
+    String getProjection();
+
 }
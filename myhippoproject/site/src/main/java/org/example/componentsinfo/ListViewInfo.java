@@ -2,6 +2,7 @@ package org.example.componentsinfo;
 
 import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.core.parameters.Color;
+import org.hippoecm.hst.core.parameters.DropDownList;
 import org.hippoecm.hst.core.parameters.FieldGroup;
 import org.hippoecm.hst.core.parameters.FieldGroupList;
 import org.hippoecm.hst.core.parameters.Parameter;
@@ -33,7 +34,15 @@ public interface ListViewInfo extends GeneralListInfo {
     @Override
     @Parameter(name = "title", defaultValue="List")
     String getTitle();
-    
+
+    /**
+     * Lists do not show a total, so they are not counted by default
+     */
+    @Override
+    @Parameter(name = "countMode", defaultValue=COUNT_MODE_NONE, displayName = "Count mode")
+    @DropDownList({COUNT_MODE_EXACT, COUNT_MODE_ESTIMATED, COUNT_MODE_NONE})
+    String getCountMode();
+
     @Parameter(name = "cssClass", defaultValue="lightgrey")
     String getCssClass();
 
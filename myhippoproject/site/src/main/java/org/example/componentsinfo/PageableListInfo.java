@@ -1,5 +1,6 @@
 package org.example.componentsinfo;
 
+import org.hippoecm.hst.core.parameters.DropDownList;
 import org.hippoecm.hst.core.parameters.FieldGroup;
 import org.hippoecm.hst.core.parameters.FieldGroupList;
 import org.hippoecm.hst.core.parameters.Parameter;
@@ -7,12 +8,48 @@ import org.hippoecm.hst.core.parameters.Parameter;
 @FieldGroupList({
         @FieldGroup(
                 titleKey = "group.content",
-                value = {"pagesVisible"}
+                value = {"pagesVisible", "pagesWindow", "pagingMode", "dateRangeProperty", "archiveVisible"}
         )
 })
 public interface PageableListInfo extends GeneralListInfo {
 
+    String PAGING_MODE_OFFSET = "offset";
+    String PAGING_MODE_CURSOR = "cursor";
+
     @Parameter(name = "pagesVisible", defaultValue="true", displayName = "Show pages")
     Boolean isPagesVisible();
 
+    /**
+     * @return the maximum number of page numbers shown around the current page
+     */
+    @Parameter(name = "pagesWindow", defaultValue="10", displayName = "Number of visible pages")
+    int getPagesWindow();
+
+    /**
+     * Returns how the list is paged. With <code>offset</code> paging every page number can be requested directly.
+     * With <code>cursor</code> paging the list is walked with next and previous links that resume after the sort
+     * value of the last seen document, which keeps deep pages fast on large scopes. Cursor paging requires a sort
+     * property and falls back to offset paging without one.
+     * @return the paging mode, either <code>offset</code> or <code>cursor</code>
+     */
+    @Parameter(name = "pagingMode", defaultValue=PAGING_MODE_OFFSET, displayName = "Paging mode")
+    @DropDownList({PAGING_MODE_OFFSET, PAGING_MODE_CURSOR})
+    String getPagingMode();
+
+    /**
+     * Returns the date property the list is filtered on by the <code>from</code> and <code>to</code> request
+     * parameters, for instance <code>from=2013-03&amp;to=2013-03</code> for the documents of March 2013. Both take a
+     * year, month or day and include all of it. With an empty property these parameters are ignored.
+     * @return the date property of the date range
+     */
+    @Parameter(name = "dateRangeProperty", defaultValue="myhippoproject:date", displayName = "Date range property")
+    String getDateRangeProperty();
+
+    /**
+     * @return <code>true</code> to count the documents of the list per month of the date range property, for an
+     * archive navigation
+     */
+    @Parameter(name = "archiveVisible", defaultValue="false", displayName = "Show archive")
+    Boolean isArchiveVisible();
+
 }
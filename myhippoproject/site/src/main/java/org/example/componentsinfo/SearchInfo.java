@@ -1,11 +1,100 @@
 package org.example.componentsinfo;
 
+import org.hippoecm.hst.core.parameters.DropDownList;
+import org.hippoecm.hst.core.parameters.FieldGroup;
+import org.hippoecm.hst.core.parameters.FieldGroupList;
 import org.hippoecm.hst.core.parameters.Parameter;
 
+@FieldGroupList({
+        @FieldGroup(
+                titleKey = "group.content",
+                value = {"searchBackend"}
+        ),
+        @FieldGroup(
+                titleKey = "group.snippets",
+                value = {"snippetSource", "snippetScanChars", "snippetLength"}
+        ),
+        @FieldGroup(
+                titleKey = "group.facets",
+                value = {"facets", "facetValues", "facetDateProperty", "facetMaxHits", "facetTimeBudget"}
+        )
+})
 public interface SearchInfo extends PageableListInfo {
-    
+
+    String SEARCH_BACKEND_REPOSITORY = "repository";
+    String SEARCH_BACKEND_INDEX = "index";
+
+    String FACET_DOC_TYPE = "docType";
+    String FACET_YEAR = "year";
+    String FACET_MONTH = "month";
+    String FACET_FOLDER = "folder";
+
     @Override
     @Parameter(name = "title", displayName = "The title of the page", defaultValue="Search Result")
     String getTitle();
-    
+
+    /**
+     * Returns where free text searches are executed. <code>repository</code> executes them as a repository query,
+     * <code>index</code> on the full text index of the site, which ranks the hits by relevance instead of the sort
+     * property and highlights the matched terms. Searches without query text, preview searches, subject based
+     * searches, cursor paged searches and searches while the index is not available always query the repository.
+     * @return the search backend, either <code>repository</code> or <code>index</code>
+     */
+    @Parameter(name = "searchBackend", defaultValue=SEARCH_BACKEND_REPOSITORY, displayName = "Search backend")
+    @DropDownList({SEARCH_BACKEND_REPOSITORY, SEARCH_BACKEND_INDEX})
+    String getSearchBackend();
+
+    /**
+     * Returns the HTML or string property the snippets of the hits are taken from. Snippets show the text around the
+     * first match of the query, with the matched terms highlighted. Only the hits on the visible page get a snippet.
+     * @return the name of the HTML or string property of the snippets, or an empty string for no snippets
+     */
+    @Parameter(name = "snippetSource", defaultValue="myhippoproject:body", displayName = "Snippet source")
+    String getSnippetSource();
+
+    /**
+     * @return the maximum number of characters of a document that are scanned for a snippet
+     */
+    @Parameter(name = "snippetScanChars", defaultValue="10000", displayName = "Snippet scan limit")
+    int getSnippetScanChars();
+
+    /**
+     * @return the maximum number of characters of text in a snippet
+     */
+    @Parameter(name = "snippetLength", defaultValue="200", displayName = "Snippet length")
+    int getSnippetLength();
+
+    /**
+     * Returns the facets to count next to the search result: <code>docType</code> counts the hits per document type,
+     * <code>year</code> and <code>month</code> per year and month of {@link #getFacetDateProperty()} and
+     * <code>folder</code> per folder directly below the scope of the search.
+     * @return the comma separated names of the facets to count, or an empty string to count none
+     */
+    @Parameter(name = "facets", defaultValue="docType,year,month,folder", displayName = "Facets")
+    String getFacets();
+
+    /**
+     * @return the maximum number of values shown per facet, the values with the most hits are shown
+     */
+    @Parameter(name = "facetValues", defaultValue="10", displayName = "Values per facet")
+    int getFacetValues();
+
+    /**
+     * @return the date property the <code>year</code> and <code>month</code> facets are counted on
+     */
+    @Parameter(name = "facetDateProperty", defaultValue="myhippoproject:date", displayName = "Facet date property")
+    String getFacetDateProperty();
+
+    /**
+     * @return the maximum number of hits the facets are counted on, beyond which the counts are partial
+     */
+    @Parameter(name = "facetMaxHits", defaultValue="1000", displayName = "Facet hit limit")
+    int getFacetMaxHits();
+
+    /**
+     * @return the time in milliseconds after which counting the facets stops, with partial counts
+     */
+    @Parameter(name = "facetTimeBudget", defaultValue="200", displayName = "Facet time budget (ms)")
+    int getFacetTimeBudget();
+
 }
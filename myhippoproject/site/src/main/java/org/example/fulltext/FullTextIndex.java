@@ -0,0 +1,439 @@
+package org.example.fulltext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.nodetype.NodeType;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryParser.MultiFieldQueryParser;
+import org.apache.lucene.queryParser.ParseException;
+import org.apache.lucene.queryParser.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+import org.example.index.DocumentIndexer;
+import org.example.jcr.PooledSessionTemplate;
+import org.example.search.SearchHits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Full text index of the published documents below a root path, in a Lucene index on the local disk of the site. It
+ * answers free text searches with relevance ranking and highlighted fragments, without a query on the repository.
+ * <p>
+ * When there is no index on disk, the crawl on start builds it from scratch and searches go to the repository until
+ * it completes. When there is one, it is searched right away and the crawl on start only indexes the documents that
+ * were modified since they were indexed and removes the documents that no longer exist, which catches up with the
+ * changes made while the site was down. After that, the index keeps up with content changes.
+ */
+public class FullTextIndex extends DocumentIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(FullTextIndex.class);
+
+    private static final Version VERSION = Version.LUCENE_36;
+
+    static final String FIELD_PATH = "path";
+    static final String FIELD_IDENTIFIER = "identifier";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_TITLE = "title";
+    static final String FIELD_TEXT = "text";
+    static final String FIELD_MODIFIED = "modified";
+
+    private static final String MODIFICATION_DATE_PROPERTY = "hippostdpubwf:lastModificationDate";
+    private static final String HTML_PROPERTY = "hippostd:content";
+    private static final String[] SKIPPED_NAMESPACES = {"jcr:", "hippo:", "hippostd:", "hippostdpubwf:", "hippotranslation:"};
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+
+    private static final int MAX_TEXT_LENGTH = 100000;
+    private static final int MAX_DEPTH = 3;
+    private static final int FRAGMENT_SIZE = 150;
+    private static final int MAX_FRAGMENTS = 2;
+
+    private final File indexDirectory;
+    private final String titleProperty;
+    private final Analyzer analyzer = new StandardAnalyzer(VERSION);
+
+    private Directory directory;
+    private IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private volatile boolean available;
+
+    // modification dates of the indexed documents by handle path, only during the crawl on start
+    private Map<String, Long> indexed;
+    private Set<String> crawled;
+
+    /**
+     * @param indexPath the directory of the index on disk, relative to the temporary directory of the JVM unless it
+     *                  is absolute
+     */
+    public FullTextIndex(final PooledSessionTemplate sessionTemplate, final String rootPath, final String indexPath,
+                         final String titleProperty) {
+        super(sessionTemplate, rootPath);
+        final File file = new File(indexPath);
+        this.indexDirectory = file.isAbsolute() ? file : new File(System.getProperty("java.io.tmpdir"), indexPath);
+        this.titleProperty = titleProperty;
+    }
+
+    /**
+     * @return <code>true</code> when the index can be searched, which is not the case while it is built from scratch
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Opens the index on disk, creating it when it does not exist, and starts the crawl that builds or updates it
+     */
+    @Override
+    public synchronized void start() {
+        if (!isEnabled() || writer != null) {
+            return;
+        }
+        try {
+            directory = FSDirectory.open(indexDirectory);
+            final boolean exists = IndexReader.indexExists(directory);
+            final IndexWriterConfig config = new IndexWriterConfig(VERSION, analyzer);
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            writer = new IndexWriter(directory, config);
+            searcherManager = new SearcherManager(writer, true, null);
+            available = exists;
+            log.info("{} full text index at '{}'", exists ? "Updating" : "Building", indexDirectory);
+        } catch (IOException e) {
+            log.error("Cannot open the full text index at '" + indexDirectory + "', searching the repository instead", e);
+            close();
+            return;
+        }
+        super.start();
+    }
+
+    /**
+     * Stops the indexer and closes the index once it stopped. An indexer that is still writing keeps the index open,
+     * its uncommitted changes are lost but the index on disk stays intact for the next start.
+     */
+    @Override
+    public synchronized boolean stop() {
+        available = false;
+        if (!super.stop()) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    /**
+     * Searches the index
+     * @param scopePath the path to search below
+     * @param docType the document type to search for, which includes its subtypes
+     * @param queryText the free text query, as parsed by {@link org.hippoecm.hst.util.SearchInputParsingUtils}
+     * @param offset the number of hits to skip
+     * @param maxHits the maximum number of hits to return
+     * @return the hits ordered by relevance, with an exact total size and a highlighted fragment per hit
+     */
+    public SearchHits search(final String scopePath, final String docType, final String queryText, final int offset,
+                             final int maxHits) throws IOException {
+        final SearcherManager manager = searcherManager;
+        if (manager == null) {
+            throw new IOException("Full text index is not open");
+        }
+        final Query query = parse(queryText);
+        final BooleanQuery filter = new BooleanQuery();
+        filter.add(new PrefixQuery(new Term(FIELD_PATH, scopePath + "/")), BooleanClause.Occur.MUST);
+        if (StringUtils.isNotEmpty(docType)) {
+            filter.add(new TermQuery(new Term(FIELD_TYPE, docType)), BooleanClause.Occur.MUST);
+        }
+
+        final IndexSearcher searcher = manager.acquire();
+        try {
+            final TopDocs topDocs = searcher.search(query, new QueryWrapperFilter(filter), Math.max(offset + maxHits, 1));
+            final Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<strong>", "</strong>"),
+                    new SimpleHTMLEncoder(), new QueryScorer(query, FIELD_TEXT));
+            highlighter.setTextFragmenter(new SimpleSpanFragmenter(new QueryScorer(query, FIELD_TEXT), FRAGMENT_SIZE));
+
+            final List<String> identifiers = new ArrayList<String>(maxHits);
+            final Map<String, String> highlights = new HashMap<String, String>();
+            for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                final ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                final Document document = searcher.doc(scoreDoc.doc);
+                final String identifier = document.get(FIELD_IDENTIFIER);
+                identifiers.add(identifier);
+                final String highlight = highlight(highlighter, document.get(FIELD_TEXT));
+                if (highlight != null) {
+                    highlights.put(identifier, highlight);
+                }
+            }
+            return new SearchHits(identifiers, topDocs.totalHits, true, null, highlights);
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    @Override
+    protected void crawling() {
+        if (!available) {
+            return;
+        }
+        indexed = readModificationDates();
+        crawled = new HashSet<String>();
+    }
+
+    @Override
+    protected void crawled(final long millis) {
+        if (indexed != null) {
+            int removed = 0;
+            for (String handlePath : indexed.keySet()) {
+                if (!crawled.contains(handlePath)) {
+                    remove(handlePath);
+                    removed++;
+                }
+            }
+            log.info("Removed {} documents from the full text index that no longer exist", removed);
+        }
+        indexed = null;
+        crawled = null;
+        commit();
+        available = searcherManager != null;
+        super.crawled(millis);
+    }
+
+    @Override
+    protected void updated() {
+        commit();
+    }
+
+    @Override
+    protected void index(final Node handle, final Node document) throws RepositoryException {
+        final String handlePath = handle.getPath();
+        final long modified = document.hasProperty(MODIFICATION_DATE_PROPERTY)
+                ? document.getProperty(MODIFICATION_DATE_PROPERTY).getDate().getTimeInMillis() : -1L;
+        if (crawled != null) {
+            crawled.add(handlePath);
+            final Long indexedModified = indexed.get(handlePath);
+            if (modified >= 0 && indexedModified != null && indexedModified == modified) {
+                return;
+            }
+        }
+
+        final Document doc = new Document();
+        doc.add(new Field(FIELD_PATH, handlePath, Field.Store.YES, Field.Index.NOT_ANALYZED_NO_NORMS));
+        doc.add(new Field(FIELD_IDENTIFIER, document.getIdentifier(), Field.Store.YES, Field.Index.NO));
+        doc.add(new Field(FIELD_MODIFIED, String.valueOf(modified), Field.Store.YES, Field.Index.NO));
+        final NodeType type = document.getPrimaryNodeType();
+        doc.add(new Field(FIELD_TYPE, type.getName(), Field.Store.NO, Field.Index.NOT_ANALYZED_NO_NORMS));
+        for (NodeType supertype : type.getSupertypes()) {
+            doc.add(new Field(FIELD_TYPE, supertype.getName(), Field.Store.NO, Field.Index.NOT_ANALYZED_NO_NORMS));
+        }
+        if (document.hasProperty(titleProperty)) {
+            final Field title = new Field(FIELD_TITLE, document.getProperty(titleProperty).getString(),
+                    Field.Store.YES, Field.Index.ANALYZED);
+            title.setBoost(2.0f);
+            doc.add(title);
+        }
+        final StringBuilder text = new StringBuilder();
+        appendText(document, text, 0);
+        doc.add(new Field(FIELD_TEXT, text.toString(), Field.Store.YES, Field.Index.ANALYZED));
+
+        try {
+            writer.updateDocument(new Term(FIELD_PATH, handlePath), doc);
+        } catch (IOException e) {
+            throw new RepositoryException("Cannot index '" + handlePath + "'", e);
+        }
+    }
+
+    @Override
+    protected void remove(final String handlePath) {
+        try {
+            writer.deleteDocuments(new Term(FIELD_PATH, handlePath));
+        } catch (IOException e) {
+            log.warn("Cannot remove '{}' from the full text index: {}", handlePath, e.toString());
+        }
+    }
+
+    @Override
+    protected void removeBelow(final String path) {
+        try {
+            writer.deleteDocuments(new Term(FIELD_PATH, path));
+            writer.deleteDocuments(new PrefixQuery(new Term(FIELD_PATH, path + "/")));
+        } catch (IOException e) {
+            log.warn("Cannot remove '{}' from the full text index: {}", path, e.toString());
+        }
+    }
+
+    /**
+     * Appends the text of the string properties of <code>node</code> and its descendants to <code>text</code>, with
+     * the markup removed from HTML, up to a maximum length
+     */
+    private void appendText(final Node node, final StringBuilder text, final int depth) throws RepositoryException {
+        for (PropertyIterator properties = node.getProperties(); properties.hasNext(); ) {
+            final Property property = properties.nextProperty();
+            if (text.length() >= MAX_TEXT_LENGTH || property.getType() != PropertyType.STRING || !isText(property.getName())) {
+                continue;
+            }
+            final boolean html = HTML_PROPERTY.equals(property.getName());
+            if (property.isMultiple()) {
+                for (Value value : property.getValues()) {
+                    appendValue(text, value.getString(), html);
+                }
+            } else {
+                appendValue(text, property.getString(), html);
+            }
+        }
+        if (depth < MAX_DEPTH) {
+            for (NodeIterator children = node.getNodes(); children.hasNext() && text.length() < MAX_TEXT_LENGTH; ) {
+                final Node child = children.nextNode();
+                if (child != null) {
+                    appendText(child, text, depth + 1);
+                }
+            }
+        }
+    }
+
+    private static void appendValue(final StringBuilder text, final String value, final boolean html) {
+        final String plain = html ? StringEscapeUtils.unescapeHtml(TAGS.matcher(value).replaceAll(" ")) : value;
+        if (text.length() > 0) {
+            text.append('\n');
+        }
+        text.append(plain, 0, Math.min(plain.length(), MAX_TEXT_LENGTH - text.length()));
+    }
+
+    private static boolean isText(final String propertyName) {
+        if (HTML_PROPERTY.equals(propertyName)) {
+            return true;
+        }
+        for (String namespace : SKIPPED_NAMESPACES) {
+            if (propertyName.startsWith(namespace)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Query parse(final String queryText) throws IOException {
+        final Map<String, Float> boosts = new LinkedHashMap<String, Float>();
+        boosts.put(FIELD_TITLE, 2.0f);
+        boosts.put(FIELD_TEXT, 1.0f);
+        final MultiFieldQueryParser parser = new MultiFieldQueryParser(VERSION, new String[]{FIELD_TITLE, FIELD_TEXT},
+                analyzer, boosts);
+        parser.setDefaultOperator(QueryParser.AND_OPERATOR);
+        try {
+            return parser.parse(queryText);
+        } catch (ParseException e) {
+            try {
+                return parser.parse(QueryParser.escape(queryText));
+            } catch (ParseException e2) {
+                throw new IOException("Cannot parse full text query '" + queryText + "'", e2);
+            }
+        }
+    }
+
+    private String highlight(final Highlighter highlighter, final String text) {
+        if (StringUtils.isEmpty(text)) {
+            return null;
+        }
+        try {
+            final String fragments = highlighter.getBestFragments(analyzer.tokenStream(FIELD_TEXT, new StringReader(text)),
+                    text, MAX_FRAGMENTS, " &hellip; ");
+            return StringUtils.isEmpty(fragments) ? null : fragments;
+        } catch (IOException e) {
+            log.debug("Cannot highlight hit: {}", e.toString());
+        } catch (InvalidTokenOffsetsException e) {
+            log.debug("Cannot highlight hit: {}", e.toString());
+        }
+        return null;
+    }
+
+    private Map<String, Long> readModificationDates() {
+        final Map<String, Long> dates = new HashMap<String, Long>();
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final IndexReader reader = searcher.getIndexReader();
+                for (int i = 0; i < reader.maxDoc(); i++) {
+                    if (!reader.isDeleted(i)) {
+                        final Document document = reader.document(i);
+                        dates.put(document.get(FIELD_PATH), Long.valueOf(document.get(FIELD_MODIFIED)));
+                    }
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read the full text index, indexing all documents again: {}", e.toString());
+        }
+        return dates;
+    }
+
+    private void commit() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.error("Cannot commit the full text index", e);
+        }
+    }
+
+    private void close() {
+        try {
+            if (searcherManager != null) {
+                searcherManager.close();
+            }
+            if (writer != null) {
+                writer.close();
+            }
+            if (directory != null) {
+                directory.close();
+            }
+        } catch (IOException e) {
+            log.warn("Cannot close the full text index: {}", e.toString());
+        } finally {
+            searcherManager = null;
+            writer = null;
+            directory = null;
+        }
+    }
+
+}
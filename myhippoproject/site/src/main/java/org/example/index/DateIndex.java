@@ -0,0 +1,364 @@
+package org.example.index;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.example.jcr.PooledSessionTemplate;
+import org.example.search.DateRange;
+import org.example.search.FacetCounts;
+import org.example.search.SearchHits;
+
+/**
+ * In-memory index of the published documents of one type below a root path, ordered by a date property, newest first.
+ * It answers searches of the root path for that type, sorted by that date and without a query, as a slice of a sorted
+ * array instead of a repository query that sorts all documents of the scope on every request.
+ * <p>
+ * The dates, identifiers and handle paths are held in parallel arrays of an immutable snapshot. Changes are collected
+ * by the indexer thread and merged into a new snapshot once per batch of content changes, so readers never lock and
+ * always see a consistent index. Documents without a date are ordered after all others, as the repository does. Until
+ * the crawl on start completed, the index is not available.
+ * <p>
+ * As the dates are sorted, the documents of a {@link DateRange} are a contiguous slice that is found by binary search,
+ * and the number of documents per month is counted in one pass over a snapshot, once.
+ */
+public class DateIndex extends DocumentIndexer {
+
+    private static final Snapshot EMPTY = new Snapshot(new long[0], new String[0], new String[0], 0);
+
+    private static final Comparator<Entry> NEWEST_FIRST = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry entry1, final Entry entry2) {
+            return DateIndex.compare(entry1.date, entry1.identifier, entry2.date, entry2.identifier);
+        }
+    };
+
+    private final String docType;
+    private final String dateProperty;
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean available;
+
+    // the changes since the last snapshot, only used on the indexer thread
+    private final Map<String, Entry> added = new HashMap<String, Entry>();
+    private final Set<String> removed = new HashSet<String>();
+    private final List<String> removedBelow = new ArrayList<String>();
+    private boolean rebuilding;
+
+    /**
+     * @param sessionTemplate the template for the live sessions the documents are read with
+     * @param rootPath        the scope of the searches the index answers
+     * @param docType         the type of the indexed documents, including its subtypes
+     * @param dateProperty    the date property the documents are ordered by
+     */
+    public DateIndex(final PooledSessionTemplate sessionTemplate, final String rootPath, final String docType,
+                     final String dateProperty) {
+        super(sessionTemplate, rootPath);
+        this.docType = docType;
+        this.dateProperty = dateProperty;
+    }
+
+    /**
+     * @return <code>true</code> when the index is enabled and complete
+     */
+    public boolean isAvailable() {
+        return isEnabled() && available;
+    }
+
+    /**
+     * @return <code>true</code> when the index holds the documents below <code>scopePath</code> of
+     * <code>docType</code> by <code>dateProperty</code>, as a search sorted or filtered on that property needs
+     */
+    public boolean matches(final String scopePath, final String docType, final String dateProperty) {
+        return getRootPath().equals(scopePath) && this.docType.equals(docType) && this.dateProperty.equals(dateProperty);
+    }
+
+    public String getDateProperty() {
+        return dateProperty;
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * @param offset     the number of documents to skip
+     * @param limit      the maximum number of documents to return
+     * @param descending <code>true</code> for the newest documents first
+     * @return the identifiers of the documents from <code>offset</code>, with the exact number of indexed documents
+     */
+    public SearchHits getHits(final int offset, final int limit, final boolean descending) {
+        final Snapshot current = snapshot;
+        return getHits(current, 0, current.size, offset, limit, descending);
+    }
+
+    /**
+     * @param range      the range the dates of the documents lie in, documents without a date are never in a range
+     * @param offset     the number of documents in the range to skip
+     * @param limit      the maximum number of documents to return
+     * @param descending <code>true</code> for the newest documents first
+     * @return the identifiers of the documents in <code>range</code> from <code>offset</code>, with the exact number of
+     * documents in the range
+     */
+    public SearchHits getHits(final DateRange range, final int offset, final int limit, final boolean descending) {
+        final Snapshot current = snapshot;
+        // the documents before 'start' are newer than the range, from 'end' on they are older or have no date
+        final int start = indexOfFirstBefore(current, range.getTo());
+        final int end = indexOfFirstBefore(current, Math.max(range.getFrom(), Long.MIN_VALUE + 1));
+        return getHits(current, start, end, offset, limit, descending);
+    }
+
+    /**
+     * Returns the number of indexed documents per month of their date, newest month first, as the values of the
+     * <code>month</code> facet. Documents without a date are not counted. The counts are computed once per snapshot.
+     * @return the counts with values like <code>2013-03</code>
+     */
+    public List<FacetCounts.Value> getMonthCounts() {
+        final Snapshot current = snapshot;
+        List<FacetCounts.Value> months = current.months;
+        if (months == null) {
+            months = countMonths(current);
+            current.months = months;
+        }
+        return months;
+    }
+
+    private static SearchHits getHits(final Snapshot current, final int start, final int end, final int offset,
+                                      final int limit, final boolean descending) {
+        final int size = Math.max(end - start, 0);
+        final int from = Math.min(Math.max(offset, 0), size);
+        final int to = (int) Math.min((long) from + Math.max(limit, 0), size);
+        final List<String> identifiers = new ArrayList<String>(to - from);
+        for (int i = from; i < to; i++) {
+            identifiers.add(current.identifiers[descending ? start + i : end - 1 - i]);
+        }
+        return new SearchHits(identifiers, size, true, null);
+    }
+
+    /**
+     * @return the index of the first document with a date before <code>date</code>, or the size of the snapshot when
+     * there is none
+     */
+    private static int indexOfFirstBefore(final Snapshot current, final long date) {
+        int low = 0;
+        int high = current.size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (current.dates[middle] < date) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Counts the documents per month in one pass, only computing the start of a month when a date passes it
+     */
+    private static List<FacetCounts.Value> countMonths(final Snapshot current) {
+        final List<FacetCounts.Value> months = new ArrayList<FacetCounts.Value>();
+        final Calendar calendar = Calendar.getInstance(DateRange.getTimeZone());
+        String month = null;
+        long monthStart = Long.MAX_VALUE;
+        int count = 0;
+        for (int i = 0; i < current.size && current.dates[i] != Long.MIN_VALUE; i++) {
+            final long date = current.dates[i];
+            if (date < monthStart) {
+                if (month != null) {
+                    months.add(new FacetCounts.Value(month, count));
+                }
+                calendar.setTimeInMillis(date);
+                month = String.format("%04d-%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                calendar.set(Calendar.MINUTE, 0);
+                calendar.set(Calendar.SECOND, 0);
+                calendar.set(Calendar.MILLISECOND, 0);
+                monthStart = calendar.getTimeInMillis();
+                count = 0;
+            }
+            count++;
+        }
+        if (month != null) {
+            months.add(new FacetCounts.Value(month, count));
+        }
+        return Collections.unmodifiableList(months);
+    }
+
+    @Override
+    protected void index(final Node handle, final Node document) throws RepositoryException {
+        final String path = handle.getPath();
+        if (!document.isNodeType(docType)) {
+            remove(path);
+            return;
+        }
+        final long date = document.hasProperty(dateProperty)
+                ? document.getProperty(dateProperty).getDate().getTimeInMillis() : Long.MIN_VALUE;
+        add(path, date, document.getIdentifier());
+    }
+
+    /**
+     * Indexes the document with handle <code>handlePath</code>, replacing its previous entry once the changes are
+     * published. Must be called on the indexer thread.
+     * @param date the date of the document in milliseconds, or {@link Long#MIN_VALUE} when it has none
+     */
+    public void add(final String handlePath, final long date, final String identifier) {
+        added.put(handlePath, new Entry(handlePath, date, identifier));
+    }
+
+    @Override
+    protected void remove(final String handlePath) {
+        added.remove(handlePath);
+        removed.add(handlePath);
+    }
+
+    @Override
+    protected void removeBelow(final String path) {
+        for (Iterator<String> iterator = added.keySet().iterator(); iterator.hasNext(); ) {
+            if (isAtOrBelow(iterator.next(), path)) {
+                iterator.remove();
+            }
+        }
+        removedBelow.add(path);
+    }
+
+    @Override
+    protected void crawling() {
+        rebuilding = true;
+        added.clear();
+        removed.clear();
+        removedBelow.clear();
+    }
+
+    @Override
+    protected void crawled(final long millis) {
+        publish();
+        available = true;
+        super.crawled(millis);
+    }
+
+    @Override
+    protected void updated() {
+        publish();
+    }
+
+    /**
+     * Merges the changes into a new snapshot: the documents of the current snapshot that were not changed are already
+     * in order, the changed documents are sorted and merged in
+     */
+    private void publish() {
+        final Snapshot current = rebuilding ? EMPTY : snapshot;
+        final List<Entry> changes = new ArrayList<Entry>(added.values());
+        Collections.sort(changes, NEWEST_FIRST);
+
+        final int capacity = current.size + changes.size();
+        final long[] dates = new long[capacity];
+        final String[] identifiers = new String[capacity];
+        final String[] paths = new String[capacity];
+        int size = 0;
+        int change = 0;
+        for (int i = 0; i < current.size; i++) {
+            final String path = current.paths[i];
+            if (removed.contains(path) || added.containsKey(path) || isRemovedBelow(path)) {
+                continue;
+            }
+            while (change < changes.size() && compare(changes.get(change).date, changes.get(change).identifier,
+                    current.dates[i], current.identifiers[i]) < 0) {
+                final Entry entry = changes.get(change++);
+                dates[size] = entry.date;
+                identifiers[size] = entry.identifier;
+                paths[size++] = entry.path;
+            }
+            dates[size] = current.dates[i];
+            identifiers[size] = current.identifiers[i];
+            paths[size++] = path;
+        }
+        while (change < changes.size()) {
+            final Entry entry = changes.get(change++);
+            dates[size] = entry.date;
+            identifiers[size] = entry.identifier;
+            paths[size++] = entry.path;
+        }
+
+        snapshot = new Snapshot(dates, identifiers, paths, size);
+        rebuilding = false;
+        added.clear();
+        removed.clear();
+        removedBelow.clear();
+    }
+
+    private boolean isRemovedBelow(final String path) {
+        for (String removedPath : removedBelow) {
+            if (isAtOrBelow(path, removedPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAtOrBelow(final String path, final String ancestor) {
+        return path.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
+    /**
+     * Orders by date, newest first, and then by identifier
+     */
+    private static int compare(final long date1, final String identifier1, final long date2, final String identifier2) {
+        if (date1 != date2) {
+            return date1 > date2 ? -1 : 1;
+        }
+        return identifier1.compareTo(identifier2);
+    }
+
+    /**
+     * The indexed documents in order, in arrays that are never modified once published, and their month counts
+     */
+    private static final class Snapshot {
+
+        private final long[] dates;
+        private final String[] identifiers;
+        private final String[] paths;
+        private final int size;
+        // computed on first use, computing it twice does no harm
+        private volatile List<FacetCounts.Value> months;
+
+        private Snapshot(final long[] dates, final String[] identifiers, final String[] paths, final int size) {
+            this.dates = dates;
+            this.identifiers = identifiers;
+            this.paths = paths;
+            this.size = size;
+        }
+
+    }
+
+    /**
+     * A changed document that is not yet in the snapshot
+     */
+    private static final class Entry {
+
+        private final String path;
+        private final long date;
+        private final String identifier;
+
+        private Entry(final String path, final long date, final String identifier) {
+            this.path = path;
+            this.date = date;
+            this.identifier = identifier;
+        }
+
+    }
+
+}
@@ -0,0 +1,290 @@
+package org.example.index;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Item;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.example.jcr.ContentChangeSubscriber;
+import org.example.jcr.PooledSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for in-memory indexes of the published documents below a root path. When started it crawls all document
+ * handles below the root on a thread of its own, after which it keeps up with the changes it receives as a
+ * {@link ContentChangeSubscriber}: handles that changed are indexed again, handles that disappeared are removed and
+ * folders that appeared are crawled.
+ * <p>
+ * The indexer reads with a session from the live pool, so only published documents are indexed. All calls to
+ * {@link #index(Node, Node)}, {@link #remove(String)} and {@link #removeBelow(String)} are made from the single
+ * thread of the indexer, subclasses only need to make their index safe for concurrent readers.
+ */
+public abstract class DocumentIndexer implements ContentChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentIndexer.class);
+
+    protected static final String NT_HANDLE = "hippo:handle";
+    private static final String[] FOLDER_TYPES = {"hippostd:folder", "hippostd:directory"};
+    private static final long STOP_TIMEOUT_SECONDS = 30L;
+
+    private final PooledSessionTemplate sessionTemplate;
+    private final String rootPath;
+    private volatile boolean enabled = true;
+    private volatile boolean stopping;
+    private ExecutorService executor;
+
+    protected DocumentIndexer(final PooledSessionTemplate sessionTemplate, final String rootPath) {
+        this.sessionTemplate = sessionTemplate;
+        this.rootPath = rootPath;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the absolute path below which documents are indexed
+     */
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    /**
+     * Starts the indexer thread and crawls all documents below the root path
+     */
+    public synchronized void start() {
+        if (!enabled || executor != null) {
+            return;
+        }
+        stopping = false;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, DocumentIndexer.this.getClass().getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        submit(new PooledSessionTemplate.SessionCallback<Void>() {
+            @Override
+            public Void doInSession(final Session session) throws Exception {
+                final long start = System.currentTimeMillis();
+                crawling();
+                if (session.nodeExists(rootPath)) {
+                    crawl(session.getNode(rootPath));
+                } else {
+                    log.warn("Root path '{}' of {} does not exist, nothing to index", rootPath, getClass().getSimpleName());
+                }
+                if (stopping) {
+                    log.info("{} stopped before its crawl completed", getClass().getSimpleName());
+                    return null;
+                }
+                crawled(System.currentTimeMillis() - start);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Stops the indexer thread. Work that has not started yet is dropped and the crawl on start gives up at the next
+     * node, but the thread is not interrupted: interrupting it in the middle of writing an index on disk may corrupt
+     * that index.
+     * @return <code>true</code> when the indexer thread has stopped, <code>false</code> when it is still busy after
+     * waiting for it, in which case the index must not be closed
+     */
+    public synchronized boolean stop() {
+        if (executor == null) {
+            return true;
+        }
+        stopping = true;
+        executor.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!terminated) {
+            log.warn("{} did not stop within {} s", getClass().getSimpleName(), STOP_TIMEOUT_SECONDS);
+        }
+        executor = null;
+        return terminated;
+    }
+
+    @Override
+    public void contentChanged(final Set<String> paths) {
+        final Set<String> changed = new HashSet<String>();
+        for (String path : paths) {
+            if (path.equals(rootPath) || path.startsWith(rootPath + "/")) {
+                changed.add(path);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        submit(new PooledSessionTemplate.SessionCallback<Void>() {
+            @Override
+            public Void doInSession(final Session session) throws Exception {
+                session.refresh(false);
+                update(session, changed);
+                updated();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Indexes the published variant of a document
+     * @param handle the handle of the document
+     * @param document the published variant of the document
+     */
+    protected abstract void index(Node handle, Node document) throws RepositoryException;
+
+    /**
+     * Removes the document with handle <code>handlePath</code> from the index, if it is indexed
+     */
+    protected abstract void remove(String handlePath);
+
+    /**
+     * Removes the documents with a handle at or below <code>path</code> from the index
+     */
+    protected abstract void removeBelow(String path);
+
+    /**
+     * Called on the indexer thread before the crawl on start
+     */
+    protected void crawling() {
+    }
+
+    /**
+     * Called on the indexer thread when the crawl on start completed
+     * @param millis the duration of the crawl
+     */
+    protected void crawled(final long millis) {
+        log.info("{} crawled '{}' in {} ms", new Object[]{getClass().getSimpleName(), rootPath, millis});
+    }
+
+    /**
+     * Called on the indexer thread when a batch of content changes has been applied to the index
+     */
+    protected void updated() {
+    }
+
+    private synchronized void submit(final PooledSessionTemplate.SessionCallback<Void> work) {
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (stopping) {
+                        return;
+                    }
+                    try {
+                        sessionTemplate.execute(false, work);
+                    } catch (Exception e) {
+                        log.error(getClass().getSimpleName() + " failed to update its index", e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("{} is stopped, ignoring changes", getClass().getSimpleName());
+        }
+    }
+
+    private void crawl(final Node folder) throws RepositoryException {
+        for (NodeIterator children = folder.getNodes(); children.hasNext() && !stopping; ) {
+            final Node child = children.nextNode();
+            if (child == null) {
+                continue;
+            }
+            if (child.isNodeType(NT_HANDLE)) {
+                indexHandle(child);
+            } else if (isFolder(child)) {
+                crawl(child);
+            }
+        }
+    }
+
+    private void update(final Session session, final Set<String> paths) throws RepositoryException {
+        final Set<String> handled = new HashSet<String>();
+        for (String path : paths) {
+            Node node = findNearestNode(session, path);
+            final Node handle = findHandle(node);
+            if (handle != null) {
+                if (handled.add(handle.getPath())) {
+                    indexHandle(handle);
+                }
+            } else if (node == null || !node.getPath().equals(path)) {
+                // the changed node no longer exists: it was removed or moved away
+                removeBelow(path);
+            } else if (isFolder(node)) {
+                // a folder that was added or moved in
+                crawl(node);
+            }
+        }
+    }
+
+    private void indexHandle(final Node handle) throws RepositoryException {
+        if (handle.hasNode(handle.getName())) {
+            index(handle, handle.getNode(handle.getName()));
+        } else {
+            remove(handle.getPath());
+        }
+    }
+
+    /**
+     * @return the node at <code>path</code>, the parent node of the property at <code>path</code>, or the nearest
+     * existing ancestor node
+     */
+    private Node findNearestNode(final Session session, final String path) throws RepositoryException {
+        String current = path;
+        while (current.startsWith(rootPath)) {
+            if (session.itemExists(current)) {
+                final Item item = session.getItem(current);
+                return item.isNode() ? (Node) item : item.getParent();
+            }
+            current = current.substring(0, Math.max(current.lastIndexOf('/'), 0));
+        }
+        return null;
+    }
+
+    private Node findHandle(final Node node) throws RepositoryException {
+        Node current = node;
+        while (current != null && current.getPath().startsWith(rootPath)) {
+            if (current.isNodeType(NT_HANDLE)) {
+                return current;
+            }
+            if (current.getDepth() == 0) {
+                return null;
+            }
+            current = current.getParent();
+        }
+        return null;
+    }
+
+    private boolean isFolder(final Node node) throws RepositoryException {
+        for (String folderType : FOLDER_TYPES) {
+            if (node.isNodeType(folderType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
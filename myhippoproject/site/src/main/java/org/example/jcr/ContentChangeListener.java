@@ -0,0 +1,55 @@
+package org.example.jcr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JCR {@link EventListener} that collects the paths of a batch of observation events and hands them to all
+ * configured {@link ContentChangeSubscriber}s in a single call. It is registered below the content root in
+ * <code>META-INF/hst-assembly/overrides/content-events.xml</code>.
+ */
+public class ContentChangeListener implements EventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentChangeListener.class);
+
+    private List<ContentChangeSubscriber> subscribers = Collections.emptyList();
+
+    public void setSubscribers(final List<ContentChangeSubscriber> subscribers) {
+        this.subscribers = new ArrayList<ContentChangeSubscriber>(subscribers);
+    }
+
+    @Override
+    public void onEvent(final EventIterator events) {
+        final Set<String> paths = new HashSet<String>();
+        while (events.hasNext()) {
+            try {
+                paths.add(events.nextEvent().getPath());
+            } catch (RepositoryException e) {
+                log.warn("Could not read the path of an observation event", e);
+            }
+        }
+        if (paths.isEmpty()) {
+            return;
+        }
+
+        final Set<String> changed = Collections.unmodifiableSet(paths);
+        for (ContentChangeSubscriber subscriber : subscribers) {
+            try {
+                subscriber.contentChanged(changed);
+            } catch (RuntimeException e) {
+                log.error("Content change subscriber '" + subscriber + "' failed to process " + changed.size() + " changes", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.example.jcr;
+
+import java.util.Set;
+
+/**
+ * Receives the paths touched by a batch of JCR observation events, as collected by the {@link ContentChangeListener}.
+ */
+public interface ContentChangeSubscriber {
+
+    /**
+     * Called once per batch of observation events. Implementations are invoked on the JCR observation thread and
+     * should return quickly.
+     * @param paths the absolute node or property paths that were added, changed or removed
+     */
+    void contentChanged(Set<String> paths);
+
+}
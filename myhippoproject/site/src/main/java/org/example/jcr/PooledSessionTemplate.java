@@ -0,0 +1,47 @@
+package org.example.jcr;
+
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.Session;
+
+/**
+ * Borrows a session from the HST session pools for the duration of a callback and always returns it, for work that
+ * runs outside of a request and therefore cannot use the session of the request context. The live and preview
+ * credentials select the pool, see <code>META-INF/hst-assembly/overrides/search.xml</code>.
+ */
+public class PooledSessionTemplate {
+
+    /**
+     * Work done with a pooled session. The session must not be used after the callback returned.
+     */
+    public interface SessionCallback<T> {
+
+        T doInSession(Session session) throws Exception;
+
+    }
+
+    private final Repository repository;
+    private final Credentials liveCredentials;
+    private final Credentials previewCredentials;
+
+    public PooledSessionTemplate(final Repository repository, final Credentials liveCredentials, final Credentials previewCredentials) {
+        this.repository = repository;
+        this.liveCredentials = liveCredentials;
+        this.previewCredentials = previewCredentials;
+    }
+
+    /**
+     * Executes <code>callback</code> with a session from the live or preview pool
+     * @return the result of <code>callback</code>
+     */
+    public <T> T execute(final boolean preview, final SessionCallback<T> callback) throws Exception {
+        final Session session = repository.login(preview ? previewCredentials : liveCredentials);
+        try {
+            return callback.doInSession(session);
+        } finally {
+            // returns the session to its pool
+            session.logout();
+        }
+    }
+
+}
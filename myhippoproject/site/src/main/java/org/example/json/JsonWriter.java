@@ -0,0 +1,202 @@
+package org.example.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Streaming JSON generator that writes values to a {@link Writer} as they are produced, so that a response of any size
+ * takes constant memory. The writer only keeps track of whether the current object or array already has members. It
+ * does not check that names and values alternate properly, callers must produce well formed output.
+ * <p>
+ * Strings are escaped so that the output can be embedded in HTML: <code>&lt;</code>, <code>&gt;</code> and
+ * <code>&amp;</code> are written as unicode escapes.
+ */
+public class JsonWriter {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final Writer writer;
+    // whether the object or array at each depth already has a member
+    private final boolean[] hasMembers = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object
+     */
+    public JsonWriter name(final String name) throws IOException {
+        separate();
+        writeString(name);
+        writer.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(final String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separate();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(final long value) throws IOException {
+        separate();
+        writer.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(final double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        separate();
+        writer.write(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(final boolean value) throws IOException {
+        separate();
+        writer.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a date as an ISO 8601 string in UTC, for instance <code>2013-05-14T09:30:00.000Z</code>
+     */
+    public JsonWriter value(final Calendar value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return value(format.format(value.getTime()));
+    }
+
+    /**
+     * Writes a string, number, boolean, date or array of those, and <code>null</code> for other values
+     */
+    public JsonWriter value(final Object value) throws IOException {
+        if (value instanceof String) {
+            return value((String) value);
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return value(((Number) value).longValue());
+        }
+        if (value instanceof Number) {
+            return value(((Number) value).doubleValue());
+        }
+        if (value instanceof Boolean) {
+            return value(((Boolean) value).booleanValue());
+        }
+        if (value instanceof Calendar) {
+            return value((Calendar) value);
+        }
+        if (value instanceof Object[]) {
+            beginArray();
+            for (Object element : (Object[]) value) {
+                value(element);
+            }
+            return endArray();
+        }
+        return nullValue();
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separate();
+        writer.write("null");
+        return this;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private JsonWriter open(final char bracket) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested deeper than " + MAX_DEPTH + " levels");
+        }
+        separate();
+        writer.write(bracket);
+        hasMembers[depth++] = false;
+        return this;
+    }
+
+    private JsonWriter close(final char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No JSON object or array to close");
+        }
+        depth--;
+        writer.write(bracket);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasMembers[depth - 1]) {
+                writer.write(',');
+            }
+            hasMembers[depth - 1] = true;
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == '\u2028' || c == '\u2029') {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+}
@@ -0,0 +1,247 @@
+package org.example.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+
+/**
+ * Histograms of the render phases of the HST components, per component class and sitemap item: the time spent in
+ * <code>doBeforeRender</code> and in the dispatch to the template, as recorded by the
+ * {@link InstrumentedComponentInvoker}, and the time to build and execute the query and the size of the result of
+ * the list components. Durations are in microseconds.
+ * <p>
+ * Whether a page request is recorded is decided once for all its components: with a sample interval of
+ * <code>n</code>, one in every <code>n</code> requests is. With a sample interval of 0 nothing is recorded and the
+ * instrumentation costs a single read per component. The number of histograms is bounded, beyond the maximum the
+ * values of new sitemap items are recorded under the sitemap item <code>_other</code>.
+ * <p>
+ * The metrics are exposed through JMX as <code>org.example:type=ComponentMetrics</code> and as plain text by the
+ * {@link MetricsServlet}.
+ */
+public class ComponentMetrics implements ComponentMetricsMXBean {
+
+    public static final String METRIC_BEFORE_RENDER = "beforeRender";
+    public static final String METRIC_RENDER = "render";
+    public static final String METRIC_QUERY_BUILD = "queryBuild";
+    public static final String METRIC_QUERY_EXECUTE = "queryExecute";
+    public static final String METRIC_RESULT_SIZE = "resultSize";
+
+    static final String OTHER_SITEMAP_ITEM = "_other";
+
+    private static final String OBJECT_NAME = "org.example:type=ComponentMetrics";
+    private static final String SAMPLED_ATTRIBUTE = ComponentMetrics.class.getName() + ".sampled";
+
+    // the names of the metrics in the plain text format, in the order they are written
+    private static final Map<String, String> EXPORTED_NAMES = new LinkedHashMap<String, String>();
+    static {
+        EXPORTED_NAMES.put(METRIC_BEFORE_RENDER, "hst_component_before_render_microseconds");
+        EXPORTED_NAMES.put(METRIC_RENDER, "hst_component_render_microseconds");
+        EXPORTED_NAMES.put(METRIC_QUERY_BUILD, "hst_component_query_build_microseconds");
+        EXPORTED_NAMES.put(METRIC_QUERY_EXECUTE, "hst_component_query_execute_microseconds");
+        EXPORTED_NAMES.put(METRIC_RESULT_SIZE, "hst_component_result_size");
+    }
+
+    private static final Comparator<MetricSummary> BY_NAME = new Comparator<MetricSummary>() {
+        @Override
+        public int compare(final MetricSummary summary1, final MetricSummary summary2) {
+            int result = summary1.getComponent().compareTo(summary2.getComponent());
+            if (result == 0) {
+                result = summary1.getSitemapItem().compareTo(summary2.getSitemapItem());
+            }
+            return result != 0 ? result : summary1.getMetric().compareTo(summary2.getMetric());
+        }
+    };
+
+    private final ConcurrentMap<String, Entry> histograms = new ConcurrentHashMap<String, Entry>();
+    private final int maxHistograms;
+    private final AtomicLong requests = new AtomicLong();
+    private volatile int sampleInterval;
+    private volatile Set<String> allowedAddresses = Collections.emptySet();
+    private ObjectName objectName;
+
+    /**
+     * @param maxHistograms the maximum number of histograms, which take a few kilobytes each
+     */
+    public ComponentMetrics(final int maxHistograms) {
+        this.maxHistograms = maxHistograms;
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    @Override
+    public void setSampleInterval(final int sampleInterval) {
+        this.sampleInterval = Math.max(sampleInterval, 0);
+    }
+
+    /**
+     * @return the remote addresses the {@link MetricsServlet} answers
+     */
+    public Set<String> getAllowedAddresses() {
+        return allowedAddresses;
+    }
+
+    /**
+     * @param allowedAddresses comma separated remote addresses the {@link MetricsServlet} answers
+     */
+    public void setAllowedAddresses(final String allowedAddresses) {
+        final String[] addresses = StringUtils.split(allowedAddresses, ", ");
+        this.allowedAddresses = addresses == null ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(addresses)));
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server
+     */
+    public void register() {
+        objectName = MBeans.register(this, OBJECT_NAME);
+    }
+
+    public void unregister() {
+        MBeans.unregister(objectName);
+        objectName = null;
+    }
+
+    /**
+     * @return <code>true</code> when the metrics of the request of <code>requestContext</code> are recorded, which is
+     * decided on the first call for a request
+     */
+    public boolean isSampled(final HstRequestContext requestContext) {
+        final int interval = sampleInterval;
+        if (interval <= 0) {
+            return false;
+        }
+        Boolean sampled = (Boolean) requestContext.getAttribute(SAMPLED_ATTRIBUTE);
+        if (sampled == null) {
+            sampled = interval == 1 || requests.incrementAndGet() % interval == 0;
+            requestContext.setAttribute(SAMPLED_ATTRIBUTE, sampled);
+        }
+        return sampled;
+    }
+
+    /**
+     * @return the id of the sitemap item the request of <code>requestContext</code> matched, or <code>-</code> when it
+     * matched none
+     */
+    public static String getSitemapItem(final HstRequestContext requestContext) {
+        final ResolvedSiteMapItem item = requestContext.getResolvedSiteMapItem();
+        return item == null || item.getHstSiteMapItem() == null ? "-" : item.getHstSiteMapItem().getId();
+    }
+
+    /**
+     * Records <code>value</code> in the histogram of <code>metric</code> for <code>component</code> on
+     * <code>sitemapItem</code>
+     */
+    public void record(final String component, final String sitemapItem, final String metric, final long value) {
+        Entry entry = histograms.get(key(component, sitemapItem, metric));
+        if (entry == null) {
+            entry = createEntry(component, histograms.size() < maxHistograms ? sitemapItem : OTHER_SITEMAP_ITEM, metric);
+        }
+        entry.histogram.record(value);
+    }
+
+    private Entry createEntry(final String component, final String sitemapItem, final String metric) {
+        final String key = key(component, sitemapItem, metric);
+        final Entry entry = new Entry(component, sitemapItem, metric);
+        final Entry existing = histograms.putIfAbsent(key, entry);
+        return existing == null ? entry : existing;
+    }
+
+    private static String key(final String component, final String sitemapItem, final String metric) {
+        return component + ' ' + sitemapItem + ' ' + metric;
+    }
+
+    @Override
+    public int getHistogramCount() {
+        return histograms.size();
+    }
+
+    @Override
+    public List<MetricSummary> getMetrics() {
+        final List<MetricSummary> metrics = new ArrayList<MetricSummary>(histograms.size());
+        for (Entry entry : histograms.values()) {
+            final Histogram histogram = entry.histogram;
+            metrics.add(new MetricSummary(entry.component, entry.sitemapItem, entry.metric, histogram.getCount(),
+                    histogram.getSum(), histogram.getMax(), histogram.getQuantile(0.5d), histogram.getQuantile(0.9d),
+                    histogram.getQuantile(0.99d)));
+        }
+        Collections.sort(metrics, BY_NAME);
+        return metrics;
+    }
+
+    @Override
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Writes the metrics in the plain text format of Prometheus, as a summary per metric with the median, 90th and
+     * 99th percentile, and the maximum as a separate gauge
+     */
+    public void writeText(final Writer writer) throws IOException {
+        final List<MetricSummary> metrics = getMetrics();
+        for (Map.Entry<String, String> exported : EXPORTED_NAMES.entrySet()) {
+            final String name = exported.getValue();
+            boolean typeWritten = false;
+            for (MetricSummary summary : metrics) {
+                if (!summary.getMetric().equals(exported.getKey())) {
+                    continue;
+                }
+                if (!typeWritten) {
+                    writer.write("# TYPE " + name + " summary\n");
+                    typeWritten = true;
+                }
+                final String labels = "component=\"" + escape(summary.getComponent()) + "\",sitemapitem=\""
+                        + escape(summary.getSitemapItem()) + '"';
+                writer.write(name + '{' + labels + ",quantile=\"0.5\"} " + summary.getMedian() + '\n');
+                writer.write(name + '{' + labels + ",quantile=\"0.9\"} " + summary.getP90() + '\n');
+                writer.write(name + '{' + labels + ",quantile=\"0.99\"} " + summary.getP99() + '\n');
+                writer.write(name + "_sum{" + labels + "} " + summary.getSum() + '\n');
+                writer.write(name + "_count{" + labels + "} " + summary.getCount() + '\n');
+                writer.write(name + "_max{" + labels + "} " + summary.getMax() + '\n');
+            }
+        }
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * A histogram and what it records
+     */
+    private static final class Entry {
+
+        private final String component;
+        private final String sitemapItem;
+        private final String metric;
+        private final Histogram histogram = new Histogram();
+
+        private Entry(final String component, final String sitemapItem, final String metric) {
+            this.component = component;
+            this.sitemapItem = sitemapItem;
+            this.metric = metric;
+        }
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package org.example.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface of the {@link ComponentMetrics}, registered as <code>org.example:type=ComponentMetrics</code>
+ */
+public interface ComponentMetricsMXBean {
+
+    /**
+     * @return 0 when nothing is recorded, otherwise the metrics of one in every so many page requests are recorded
+     */
+    int getSampleInterval();
+
+    void setSampleInterval(int sampleInterval);
+
+    /**
+     * @return the number of histograms recorded into
+     */
+    int getHistogramCount();
+
+    /**
+     * @return the summaries of all histograms, ordered by component, sitemap item and metric
+     */
+    List<MetricSummary> getMetrics();
+
+    /**
+     * Drops all recorded values
+     */
+    void reset();
+
+}
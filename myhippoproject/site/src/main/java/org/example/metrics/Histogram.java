@@ -0,0 +1,101 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values, such as durations in microseconds, that is recorded into by many threads without
+ * locking. Values are counted in buckets that grow with the value: every power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so a quantile is off by at most an eighth of its value while the histogram takes a
+ * fixed few kilobytes whatever it records. Values of 2<sup>40</sup> and more are counted in the last bucket.
+ */
+public class Histogram {
+
+    private static final int SUB_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 39;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records <code>value</code>, negative values are recorded as 0
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(value, 0L);
+        buckets.incrementAndGet(indexOf(Math.min(recorded, MAX_VALUE)));
+        count.incrementAndGet();
+        sum.addAndGet(recorded);
+        long current = max.get();
+        while (recorded > current && !max.compareAndSet(current, recorded)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile the quantile between 0 and 1, for instance 0.99 for the 99th percentile
+     * @return the value below which <code>quantile</code> of the recorded values lie, as the middle of its bucket, or
+     * 0 when nothing was recorded
+     */
+    public long getQuantile(final double quantile) {
+        // the buckets are read one by one while others record, which can only make the result slightly stale
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        if (quantile >= 1d) {
+            return getMax();
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(Math.min(Math.max(quantile, 0d), 1d) * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(middleOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * The first {@value #SUB_BUCKETS} * 2 values have a bucket each, from there on every power of two has
+     * {@value #SUB_BUCKETS} buckets of equal width
+     */
+    static int indexOf(final long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long middleOf(final int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lower = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.example.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registers the management beans of the metrics with the platform MBean server. Failures are logged, the metrics keep
+ * working without JMX.
+ */
+final class MBeans {
+
+    private static final Logger log = LoggerFactory.getLogger(MBeans.class);
+
+    private MBeans() {
+    }
+
+    /**
+     * @return the name <code>bean</code> is registered with, or <code>null</code> when it is not registered, for
+     * instance because another web application registered the name first
+     */
+    static ObjectName register(final Object bean, final String name) {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                log.warn("Not registering {}: the name is already registered", name);
+                return null;
+            }
+            server.registerMBean(bean, objectName);
+            return objectName;
+        } catch (JMException e) {
+            log.warn("Cannot register " + name, e);
+            return null;
+        }
+    }
+
+    /**
+     * Unregisters the bean registered as <code>objectName</code>, if any
+     */
+    static void unregister(final ObjectName objectName) {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            log.warn("Cannot unregister " + objectName, e);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.example.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The summary of one {@link Histogram} of the {@link ComponentMetrics}, as shown through JMX and the metrics servlet
+ */
+public final class MetricSummary {
+
+    private final String component;
+    private final String sitemapItem;
+    private final String metric;
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long median;
+    private final long p90;
+    private final long p99;
+
+    @ConstructorProperties({"component", "sitemapItem", "metric", "count", "sum", "max", "median", "p90", "p99"})
+    public MetricSummary(final String component, final String sitemapItem, final String metric, final long count,
+                         final long sum, final long max, final long median, final long p90, final long p99) {
+        this.component = component;
+        this.sitemapItem = sitemapItem;
+        this.metric = metric;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.median = median;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    /**
+     * @return the class name of the component
+     */
+    public String getComponent() {
+        return component;
+    }
+
+    /**
+     * @return the id of the sitemap item the component rendered for
+     */
+    public String getSitemapItem() {
+        return sitemapItem;
+    }
+
+    /**
+     * @return the name of the metric, one of the <code>METRIC_*</code> constants of {@link ComponentMetrics}
+     */
+    public String getMetric() {
+        return metric;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMedian() {
+        return median;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+}
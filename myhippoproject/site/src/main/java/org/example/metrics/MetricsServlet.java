@@ -0,0 +1,70 @@
+package org.example.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.site.HstServices;
+
+/**
+ * Writes the {@link ComponentMetrics} as plain text at <code>/metrics</code>, in the format Prometheus scrapes, and
+ * the {@link SlowQueryLog} at <code>/metrics/slowqueries</code>. Only the remote addresses allowed by the metrics are
+ * answered. Like the <code>SitemapServlet</code> it is mapped outside of the HST request processing, so reading the
+ * metrics is not recorded in them.
+ */
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+        final ComponentMetrics metrics = getComponent(ComponentMetrics.class);
+        if (metrics == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        if (!metrics.getAllowedAddresses().contains(request.getRemoteAddr())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        final String pathInfo = StringUtils.defaultString(request.getPathInfo());
+        final SlowQueryLog slowQueryLog;
+        if (pathInfo.length() <= 1) {
+            slowQueryLog = null;
+        } else if ("/slowqueries".equals(pathInfo)) {
+            slowQueryLog = getComponent(SlowQueryLog.class);
+            if (slowQueryLog == null) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentType(slowQueryLog == null ? "text/plain; version=0.0.4" : "text/plain");
+        response.setCharacterEncoding("UTF-8");
+        final Writer writer = response.getWriter();
+        if (slowQueryLog == null) {
+            metrics.writeText(writer);
+        } else {
+            slowQueryLog.writeText(writer);
+        }
+        writer.flush();
+    }
+
+    private <T> T getComponent(final Class<T> componentClass) {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().<T>getComponent(componentClass.getName());
+    }
+
+}
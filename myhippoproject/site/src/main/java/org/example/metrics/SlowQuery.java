@@ -0,0 +1,106 @@
+package org.example.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A query that took longer than the threshold of the {@link SlowQueryLog}, with what is needed to run it again
+ */
+public final class SlowQuery {
+
+    private final long time;
+    private final long elapsedMillis;
+    private final String component;
+    private final String statement;
+    private final String scopePath;
+    private final String docType;
+    private final String sortBy;
+    private final String sortOrder;
+    private final int offset;
+    private final int limit;
+    private final int totalSize;
+
+    @ConstructorProperties({"time", "elapsedMillis", "component", "statement", "scopePath", "docType", "sortBy",
+            "sortOrder", "offset", "limit", "totalSize"})
+    public SlowQuery(final long time, final long elapsedMillis, final String component, final String statement,
+                     final String scopePath, final String docType, final String sortBy, final String sortOrder,
+                     final int offset, final int limit, final int totalSize) {
+        this.time = time;
+        this.elapsedMillis = elapsedMillis;
+        this.component = component;
+        this.statement = statement;
+        this.scopePath = scopePath;
+        this.docType = docType;
+        this.sortBy = sortBy;
+        this.sortOrder = sortOrder;
+        this.offset = offset;
+        this.limit = limit;
+        this.totalSize = totalSize;
+    }
+
+    /**
+     * @return the time the query completed, in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the time spent executing the query and reading its hits
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the class name of the component that executed the query
+     */
+    public String getComponent() {
+        return component;
+    }
+
+    /**
+     * @return the XPath statement the query was executed as
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    public String getScopePath() {
+        return scopePath;
+    }
+
+    public String getDocType() {
+        return docType;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getSortOrder() {
+        return sortOrder;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the total number of hits, or -1 when the search did not count them
+     */
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public String toString() {
+        return elapsedMillis + " ms " + component + " scope=" + scopePath + " docType=" + docType + " sortBy=" + sortBy
+                + ' ' + sortOrder + " offset=" + offset + " limit=" + limit + " totalSize=" + totalSize
+                + " statement=" + statement;
+    }
+
+}
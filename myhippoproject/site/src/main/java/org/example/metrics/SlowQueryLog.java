@@ -0,0 +1,140 @@
+package org.example.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Log of the search queries that take longer than a threshold. Every slow query is logged as a warning by the logger
+ * of this class, which the log4j configuration writes to a log of its own, and the most recent ones are kept in a ring
+ * buffer of fixed capacity. The buffer can be read through JMX as <code>org.example:type=SlowQueryLog</code>, where the
+ * threshold can be changed as well, and as plain text by the {@link MetricsServlet}, slowest first.
+ */
+public class SlowQueryLog implements SlowQueryLogMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String OBJECT_NAME = "org.example:type=SlowQueryLog";
+
+    private static final Comparator<SlowQuery> SLOWEST_FIRST = new Comparator<SlowQuery>() {
+        @Override
+        public int compare(final SlowQuery query1, final SlowQuery query2) {
+            if (query1.getElapsedMillis() != query2.getElapsedMillis()) {
+                return query1.getElapsedMillis() > query2.getElapsedMillis() ? -1 : 1;
+            }
+            return query1.getTime() > query2.getTime() ? -1 : query1.getTime() == query2.getTime() ? 0 : 1;
+        }
+    };
+
+    private final SlowQuery[] queries;
+    private int next;
+    private volatile boolean enabled = true;
+    private volatile long thresholdMillis;
+    private ObjectName objectName;
+
+    /**
+     * @param capacity the number of recent slow queries that are kept
+     */
+    public SlowQueryLog(final int capacity) {
+        this.queries = new SlowQuery[Math.max(capacity, 1)];
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    @Override
+    public void setThresholdMillis(final long thresholdMillis) {
+        this.thresholdMillis = Math.max(thresholdMillis, 0L);
+    }
+
+    /**
+     * Registers this log with the platform MBean server
+     */
+    public void register() {
+        objectName = MBeans.register(this, OBJECT_NAME);
+    }
+
+    public void unregister() {
+        MBeans.unregister(objectName);
+        objectName = null;
+    }
+
+    /**
+     * @return <code>true</code> when a query that took <code>elapsedMillis</code> must be {@link #add(SlowQuery) added}
+     */
+    public boolean isSlow(final long elapsedMillis) {
+        return enabled && elapsedMillis >= thresholdMillis;
+    }
+
+    /**
+     * Logs <code>query</code> and keeps it, in place of the oldest query kept when the buffer is full
+     */
+    public void add(final SlowQuery query) {
+        log.warn("Slow query: {}", query);
+        synchronized (queries) {
+            queries[next] = query;
+            next = (next + 1) % queries.length;
+        }
+    }
+
+    @Override
+    public List<SlowQuery> getQueries() {
+        final List<SlowQuery> result = new ArrayList<SlowQuery>(queries.length);
+        synchronized (queries) {
+            for (SlowQuery query : queries) {
+                if (query != null) {
+                    result.add(query);
+                }
+            }
+        }
+        Collections.sort(result, SLOWEST_FIRST);
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (queries) {
+            for (int i = 0; i < queries.length; i++) {
+                queries[i] = null;
+            }
+            next = 0;
+        }
+    }
+
+    /**
+     * Writes the queries kept, slowest first, one per line, prefixed by the time they completed
+     */
+    public void writeText(final Writer writer) throws IOException {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ENGLISH);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        writer.write("# queries of at least " + thresholdMillis + " ms, slowest first\n");
+        for (SlowQuery query : getQueries()) {
+            writer.write(format.format(new Date(query.getTime())) + ' ' + query.toString().replace('\n', ' ') + '\n');
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.example.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface of the {@link SlowQueryLog}, registered as <code>org.example:type=SlowQueryLog</code>
+ */
+public interface SlowQueryLogMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return the duration in milliseconds from which on a query is logged
+     */
+    long getThresholdMillis();
+
+    void setThresholdMillis(long thresholdMillis);
+
+    /**
+     * @return the most recent slow queries the log keeps, slowest first
+     */
+    List<SlowQuery> getQueries();
+
+    /**
+     * Drops the slow queries kept so far
+     */
+    void clear();
+
+}
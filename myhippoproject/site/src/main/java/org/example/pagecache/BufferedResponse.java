@@ -0,0 +1,226 @@
+package org.example.pagecache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper that keeps the body of a response in memory, so it can be stored in the {@link PageCache} before it
+ * is written to the client. Headers, cookies, redirects and errors go to the wrapped response right away. A response
+ * that sets a cookie, redirects, fails or forbids caching is not cacheable.
+ */
+class BufferedResponse extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private int status = SC_OK;
+    private boolean cacheable = true;
+    private boolean passedThrough;
+    private String entityTag;
+    private long lastModified = -1L;
+
+    BufferedResponse(final HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * @return <code>true</code> when the response is a successful HTML page without cookies that allows caching
+     */
+    boolean isCacheable() {
+        final String contentType = getContentType();
+        return cacheable && !passedThrough && status == SC_OK
+                && contentType != null && contentType.toLowerCase(Locale.ENGLISH).startsWith("text/html");
+    }
+
+    /**
+     * @return <code>true</code> when the response tells the client its copy of the page is still current, which leaves
+     * no body to write
+     */
+    boolean isNotModified() {
+        return status == SC_NOT_MODIFIED;
+    }
+
+    /**
+     * @return the validator from the <code>ETag</code> and <code>Last-Modified</code> headers of the response, or
+     * <code>null</code> when it has neither
+     */
+    Validator getValidator() {
+        return Validator.fromHeaders(entityTag, lastModified);
+    }
+
+    /**
+     * @return <code>true</code> when the response was already sent as an error or redirect, which leaves no body to
+     * write
+     */
+    boolean isPassedThrough() {
+        return passedThrough;
+    }
+
+    /**
+     * @return the body written so far
+     */
+    byte[] getBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return buffer.toByteArray();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(final int b) throws IOException {
+                    buffer.write(b);
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    buffer.write(b, off, len);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called on this response");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(buffer, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        // committing the wrapped response would send it without its body
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        resetBuffer();
+        status = SC_OK;
+        cacheable = true;
+        entityTag = null;
+        lastModified = -1L;
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return passedThrough || super.isCommitted();
+    }
+
+    @Override
+    public void setContentLength(final int len) {
+        // the filter sets the length of the buffered body
+    }
+
+    @Override
+    public void setStatus(final int sc) {
+        super.setStatus(sc);
+        status = sc;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setStatus(final int sc, final String sm) {
+        super.setStatus(sc, sm);
+        status = sc;
+    }
+
+    @Override
+    public void sendError(final int sc) throws IOException {
+        passedThrough = true;
+        status = sc;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(final int sc, final String msg) throws IOException {
+        passedThrough = true;
+        status = sc;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(final String location) throws IOException {
+        passedThrough = true;
+        status = SC_FOUND;
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void setDateHeader(final String name, final long date) {
+        if ("Last-Modified".equalsIgnoreCase(name)) {
+            lastModified = date;
+        }
+        super.setDateHeader(name, date);
+    }
+
+    @Override
+    public void addDateHeader(final String name, final long date) {
+        if ("Last-Modified".equalsIgnoreCase(name)) {
+            lastModified = date;
+        }
+        super.addDateHeader(name, date);
+    }
+
+    @Override
+    public void addCookie(final Cookie cookie) {
+        cacheable = false;
+        super.addCookie(cookie);
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        checkHeader(name, value);
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        checkHeader(name, value);
+        super.addHeader(name, value);
+    }
+
+    private void checkHeader(final String name, final String value) {
+        if ("Set-Cookie".equalsIgnoreCase(name)) {
+            cacheable = false;
+        } else if ("ETag".equalsIgnoreCase(name)) {
+            entityTag = value;
+        } else if ("Cache-Control".equalsIgnoreCase(name) && value != null) {
+            final String directives = value.toLowerCase(Locale.ENGLISH);
+            if (directives.contains("private") || directives.contains("no-store") || directives.contains("no-cache")) {
+                cacheable = false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.example.pagecache;
+
+/**
+ * A rendered page as stored in the {@link PageCache}: its content type, body and validator. A page turns stale when the content
+ * or configuration it may show changes, or when it outlives the time to live of the cache.
+ */
+public final class CachedPage {
+
+    private final String contentType;
+    private final byte[] body;
+    private final Validator validator;
+    private final long created;
+    private volatile long staleSince;
+
+    public CachedPage(final String contentType, final byte[] body) {
+        this(contentType, body, null);
+    }
+
+    public CachedPage(final String contentType, final byte[] body, final Validator validator) {
+        this(contentType, body, validator, System.currentTimeMillis());
+    }
+
+    CachedPage(final String contentType, final byte[] body, final long created) {
+        this(contentType, body, null, created);
+    }
+
+    CachedPage(final String contentType, final byte[] body, final Validator validator, final long created) {
+        this.contentType = contentType;
+        this.body = body;
+        this.validator = validator;
+        this.created = created;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the body of the page, which callers must not modify
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return the <code>ETag</code> and <code>Last-Modified</code> date of the page, or <code>null</code> when it has
+     * neither
+     */
+    public Validator getValidator() {
+        return validator;
+    }
+
+    /**
+     * @return the time in milliseconds at which the page was rendered
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return the time in milliseconds since which the page is stale because of a change, or <code>0</code> when no
+     * change made it stale
+     */
+    long getStaleSince() {
+        return staleSince;
+    }
+
+    /**
+     * Marks the page stale as of <code>time</code>, unless it already is
+     */
+    void markStale(final long time) {
+        if (staleSince == 0) {
+            staleSince = time;
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package org.example.pagecache;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.components.Detail;
+import org.example.jcr.PooledSessionTemplate;
+import org.hippoecm.hst.configuration.components.HstComponentConfiguration;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.hippoecm.hst.site.HstServices;
+import org.hippoecm.hst.util.HstRequestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers conditional GETs for the live pages of documents shown by a {@link Detail} component with
+ * <code>304 Not Modified</code> before the HST renders them, so none of the components of the page run. The validator
+ * of the page is the one {@link Detail} sets on the full page, from the document and the {@link ConfigurationVersion},
+ * with the document read from a pooled live session. Requests without <code>If-None-Match</code> or
+ * <code>If-Modified-Since</code> header, requests below the excluded paths and requests for preview, authenticated or
+ * subject based mounts always go to the HST.
+ */
+public class ConditionalGetFilter implements Filter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConditionalGetFilter.class);
+
+    private static final String HANDLE_TYPE = "hippo:handle";
+
+    private List<String> excludedPaths;
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        excludedPaths = PageCacheFilter.split(filterConfig.getInitParameter("excludedPaths"),
+                PageCacheFilter.DEFAULT_EXCLUDED_PATHS);
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void doFilter(final ServletRequest req, final ServletResponse res, final FilterChain chain) throws IOException, ServletException {
+        if (req instanceof HttpServletRequest && isConditional((HttpServletRequest) req) && HstServices.isAvailable()) {
+            final HttpServletRequest request = (HttpServletRequest) req;
+            final Validator validator = getValidator(request);
+            if (validator != null && validator.isNotModified(request)) {
+                final HttpServletResponse response = (HttpServletResponse) res;
+                validator.apply(response);
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        chain.doFilter(req, res);
+    }
+
+    private static boolean isConditional(final HttpServletRequest request) {
+        return ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+                && (request.getHeader("If-None-Match") != null || request.getHeader("If-Modified-Since") != null);
+    }
+
+    /**
+     * @return the validator of the page <code>request</code> asks for, or <code>null</code> when it is not the live
+     * page of a document shown by a {@link Detail} component
+     */
+    Validator getValidator(final HttpServletRequest request) {
+        final String requestPath = HstRequestUtils.getRequestPath(request);
+        if (requestPath.contains("_hn:")) {
+            // component rendering, resource and action urls
+            return null;
+        }
+        for (String excludedPath : excludedPaths) {
+            if (requestPath.startsWith(excludedPath)) {
+                return null;
+            }
+        }
+        try {
+            final HstManager hstManager = HstServices.getComponentManager().getComponent(HstManager.class.getName());
+            final ResolvedMount resolvedMount = hstManager.getVirtualHosts().matchMount(
+                    HstRequestUtils.getFarthestRequestHost(request), request.getContextPath(), requestPath);
+            if (resolvedMount == null) {
+                return null;
+            }
+            final Mount mount = resolvedMount.getMount();
+            if (mount.isPreview() || mount.isAuthenticated() || mount.isSubjectBasedSession()) {
+                return null;
+            }
+            final ResolvedSiteMapItem item = resolvedMount.matchSiteMapItem(
+                    requestPath.substring(resolvedMount.getResolvedMountPath().length()));
+            if (item == null || StringUtils.isEmpty(item.getRelativeContentPath())
+                    || !hasDetail(item.getHstComponentConfiguration())) {
+                return null;
+            }
+            final ConfigurationVersion configuration =
+                    HstServices.getComponentManager().getComponent(ConfigurationVersion.class.getName());
+            final PooledSessionTemplate sessionTemplate =
+                    HstServices.getComponentManager().getComponent(PooledSessionTemplate.class.getName());
+            if (configuration == null || sessionTemplate == null) {
+                return null;
+            }
+            return getValidator(sessionTemplate, configuration,
+                    mount.getContentPath() + '/' + item.getRelativeContentPath());
+        } catch (Exception e) {
+            log.debug("Not answering conditional request for '{}': {}", requestPath, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return the validator of the live document of the handle at <code>path</code>, or <code>null</code> when there
+     * is none
+     */
+    private static Validator getValidator(final PooledSessionTemplate sessionTemplate,
+                                          final ConfigurationVersion configuration, final String path) throws Exception {
+        return sessionTemplate.execute(false, new PooledSessionTemplate.SessionCallback<Validator>() {
+            @Override
+            public Validator doInSession(final Session session) throws Exception {
+                if (!session.nodeExists(path)) {
+                    return null;
+                }
+                final Node handle = session.getNode(path);
+                if (!handle.isNodeType(HANDLE_TYPE) || !handle.hasNode(handle.getName())) {
+                    return null;
+                }
+                // a live session only sees the live variant
+                final Node document = handle.getNode(handle.getName());
+                if (!document.hasProperty(Detail.MODIFICATION_DATE_PROPERTY)) {
+                    return null;
+                }
+                final Calendar modified = document.getProperty(Detail.MODIFICATION_DATE_PROPERTY).getDate();
+                final long published = document.hasProperty(Detail.PUBLICATION_DATE_PROPERTY)
+                        ? document.getProperty(Detail.PUBLICATION_DATE_PROPERTY).getDate().getTimeInMillis() : 0L;
+                return configuration.createValidator(handle.getIdentifier(), modified.getTimeInMillis(), published);
+            }
+        });
+    }
+
+    /**
+     * @return whether <code>component</code> or one of its descendants is a {@link Detail} component
+     */
+    private static boolean hasDetail(final HstComponentConfiguration component) {
+        if (component == null) {
+            return false;
+        }
+        if (Detail.class.getName().equals(component.getComponentClassName())) {
+            return true;
+        }
+        for (HstComponentConfiguration child : component.getChildren().values()) {
+            if (hasDetail(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
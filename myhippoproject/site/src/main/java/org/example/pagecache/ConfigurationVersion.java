@@ -0,0 +1,298 @@
+package org.example.pagecache;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.jcr.Binary;
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.example.jcr.ContentChangeSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the version of the HST configuration, which changes the menus, channel info and templates of every page, so
+ * that {@link Validator}s of pages can take it into account. The version is a digest of the nodes and properties of
+ * the configuration, and its time is the latest date found in them, for instance the last modification of a container
+ * in the channel manager. Both only depend on the configuration itself, so they are the same on every node of a cluster
+ * and across restarts.
+ * <p>
+ * The version is read on a thread of its own when started and again after every change of the live configuration.
+ * Until a new version is read the previous one is served, and until the first one is read no validators are created,
+ * so requests never wait for the configuration to be read. Preview configurations and the properties the channel
+ * manager keeps about locks and editors are left out, so editing in the channel manager does not change the version
+ * until the changes are published. A change without a date only changes the digest, so clients that revalidate with
+ * <code>If-Modified-Since</code> alone may keep their copy until the document changes.
+ */
+public class ConfigurationVersion implements ContentChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationVersion.class);
+
+    private static final String PREVIEW_SUFFIX = "-preview";
+    private static final Set<String> IGNORED_PROPERTIES = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "hst:lockedby", "hst:lockedon", "hst:lastmodifiedby", "jcr:lockOwner", "jcr:lockIsDeep")));
+
+    private final Repository repository;
+    private final Credentials credentials;
+    private final String rootPath;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean changed = true;
+    // the tag and date of the last version read, null until the first one is read
+    private volatile Version version;
+    private volatile ExecutorService executor;
+
+    /**
+     * @param credentials the credentials of a session that can read the configuration below <code>rootPath</code>
+     */
+    public ConfigurationVersion(final Repository repository, final Credentials credentials, final String rootPath) {
+        this.repository = repository;
+        this.credentials = credentials;
+        this.rootPath = rootPath;
+    }
+
+    /**
+     * Starts the thread of the version and reads the first version on it
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, ConfigurationVersion.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        schedule();
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * @return the digest of the configuration in hexadecimal, or <code>null</code> when it has not been read yet
+     */
+    public String getTag() {
+        final Version version = this.version;
+        return version == null ? null : version.tag;
+    }
+
+    /**
+     * @return the latest date in milliseconds in the configuration, or <code>0</code> when it has none or has not been
+     * read yet
+     */
+    public long getLastModified() {
+        final Version version = this.version;
+        return version == null ? 0L : version.lastModified;
+    }
+
+    /**
+     * @param documentId the identifier of the handle of the document a page shows
+     * @param modified   the time in milliseconds the document was last modified
+     * @param published  the time in milliseconds the document was last published, or <code>0</code>
+     * @return the validator of the live page of the document with the current configuration, or <code>null</code>
+     * when the configuration has not been read yet
+     */
+    public Validator createValidator(final String documentId, final long modified, final long published) {
+        final Version version = this.version;
+        if (version == null) {
+            return null;
+        }
+        final String tag = documentId + '-' + Long.toHexString(modified) + '-' + Long.toHexString(published) + '-'
+                + version.tag;
+        return new Validator(tag, Math.max(modified, Math.max(published, version.lastModified)));
+    }
+
+    @Override
+    public void contentChanged(final Set<String> paths) {
+        for (String path : paths) {
+            if (!isIgnored(path)) {
+                log.debug("Configuration changed at {} paths", paths.size());
+                changed = true;
+                schedule();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return whether <code>path</code> is in a preview configuration or is a property left out of the version
+     */
+    static boolean isIgnored(final String path) {
+        final String[] names = path.split("/");
+        for (String name : names) {
+            if (name.endsWith(PREVIEW_SUFFIX)) {
+                return true;
+            }
+        }
+        return names.length > 0 && IGNORED_PROPERTIES.contains(names[names.length - 1]);
+    }
+
+    /**
+     * Reads the version on the thread of the version, unless a read is already waiting for it
+     */
+    private void schedule() {
+        final ExecutorService executor = this.executor;
+        if (executor == null || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // a change while reading schedules the next read
+                    scheduled.set(false);
+                    update();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+        }
+    }
+
+    /**
+     * Reads the version when the configuration changed since it was last read. Only called from the thread of the
+     * version, or from tests.
+     */
+    void update() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        try {
+            read();
+        } catch (RepositoryException e) {
+            // read again on the next change
+            changed = true;
+            log.warn("Cannot read the configuration version below " + rootPath + ", keeping version " + getTag(), e);
+        }
+    }
+
+    private void read() throws RepositoryException {
+        final long start = System.currentTimeMillis();
+        final MessageDigest digest = createDigest();
+        final long[] latest = new long[1];
+        final Session session = repository.login(credentials);
+        try {
+            if (session.nodeExists(rootPath)) {
+                read(session.getNode(rootPath), digest, latest);
+            }
+        } finally {
+            session.logout();
+        }
+        final StringBuilder hex = new StringBuilder();
+        final byte[] bytes = digest.digest();
+        // half of the digest is plenty to tell versions apart and keeps entity tags short
+        for (int i = 0; i < bytes.length / 2; i++) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16)).append(Character.forDigit(bytes[i] & 0xf, 16));
+        }
+        version = new Version(hex.toString(), latest[0]);
+        log.info("Read configuration version {} in {} ms", hex, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Adds the path and the properties of <code>node</code> and its descendants, in document order, to
+     * <code>digest</code> and keeps the latest date in <code>latest</code>. Preview configurations and ignored
+     * properties are skipped.
+     */
+    private static void read(final Node node, final MessageDigest digest, final long[] latest) throws RepositoryException {
+        update(digest, node.getPath());
+        // the order of properties is not defined, names are unique
+        final SortedMap<String, Property> properties = new TreeMap<String, Property>();
+        for (PropertyIterator iterator = node.getProperties(); iterator.hasNext(); ) {
+            final Property property = iterator.nextProperty();
+            if (!IGNORED_PROPERTIES.contains(property.getName())) {
+                properties.put(property.getName(), property);
+            }
+        }
+        for (Property property : properties.values()) {
+            update(digest, property.getName());
+            if (property.isMultiple()) {
+                for (Value value : property.getValues()) {
+                    read(value, digest, latest);
+                }
+            } else {
+                read(property.getValue(), digest, latest);
+            }
+        }
+        for (NodeIterator iterator = node.getNodes(); iterator.hasNext(); ) {
+            final Node child = iterator.nextNode();
+            if (!child.getName().endsWith(PREVIEW_SUFFIX)) {
+                read(child, digest, latest);
+            }
+        }
+    }
+
+    private static void read(final Value value, final MessageDigest digest, final long[] latest) throws RepositoryException {
+        if (value.getType() == PropertyType.BINARY) {
+            final Binary binary = value.getBinary();
+            try {
+                update(digest, Long.toString(binary.getSize()));
+            } finally {
+                binary.dispose();
+            }
+            return;
+        }
+        if (value.getType() == PropertyType.DATE) {
+            latest[0] = Math.max(latest[0], value.getDate().getTimeInMillis());
+        }
+        update(digest, value.getString());
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        try {
+            digest.update(value.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Version {
+
+        private final String tag;
+        private final long lastModified;
+
+        private Version(final String tag, final long lastModified) {
+            this.tag = tag;
+            this.lastModified = lastModified;
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.example.pagecache;
+
+/**
+ * The markup of a cacheable component for one request, as put on the request for the <code>fragment</code> tag. When
+ * the markup is {@link #isCached() cached} the tag writes it instead of rendering its body, otherwise it renders its
+ * body and stores the result with {@link #setMarkup(String)}.
+ */
+public final class Fragment {
+
+    private final FragmentCache cache;
+    private final String key;
+    private final long generation;
+    private String markup;
+
+    Fragment(final FragmentCache cache, final String key, final String markup, final long generation) {
+        this.cache = cache;
+        this.key = key;
+        this.markup = markup;
+        this.generation = generation;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return <code>true</code> when the markup was cached when the request started
+     */
+    public boolean isCached() {
+        return markup != null;
+    }
+
+    /**
+     * @return the markup, or <code>null</code> when it is not rendered yet
+     */
+    public String getMarkup() {
+        return markup;
+    }
+
+    /**
+     * Stores the rendered markup in the cache
+     */
+    public void setMarkup(final String markup) {
+        this.markup = markup;
+        if (markup != null) {
+            cache.put(key, markup, generation);
+        }
+    }
+
+}
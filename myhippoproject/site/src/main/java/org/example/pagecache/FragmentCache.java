@@ -0,0 +1,84 @@
+package org.example.pagecache;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.example.cache.LruMap;
+import org.example.jcr.ContentChangeSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of the rendered markup of components whose output only depends on the HST configuration, such as
+ * headers and menus. The cache is subscribed to HST configuration changes and cleared on every change, which is when
+ * the HST reloads its model.
+ */
+public class FragmentCache implements ContentChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(FragmentCache.class);
+
+    private final Map<String, String> entries;
+    private volatile boolean enabled = true;
+    private long generation;
+
+    public FragmentCache(final int maxSize) {
+        this.entries = new LruMap<String, String>(maxSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the fragment for <code>key</code>, which holds the cached markup or receives the markup once it is
+     * rendered, or <code>null</code> when the cache is disabled
+     */
+    public Fragment getFragment(final String key) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            return new Fragment(this, key, entries.get(key), generation);
+        }
+    }
+
+    /**
+     * Stores <code>markup</code> unless the cache has been cleared since <code>generation</code> was obtained
+     */
+    void put(final String key, final String markup, final long generation) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation != this.generation) {
+                log.debug("Not caching fragment {} because the configuration changed while it rendered", key);
+                return;
+            }
+            entries.put(key, markup);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void contentChanged(final Set<String> paths) {
+        log.debug("Clearing cached fragments for {} changed configuration paths", paths.size());
+        clear();
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.example.pagecache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.example.cache.LruMap;
+import org.example.jcr.ContentChangeSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of rendered pages, used by the {@link PageCacheFilter}. Since any page may show any content, for
+ * instance in a menu or a list, every content or configuration change makes all pages stale rather than only the pages
+ * of the changed documents.
+ * <p>
+ * A stale page is not dropped right away. For <code>graceSeconds</code> after it turned stale, one request at a time
+ * renders it again while the other requests for it get the stale page, so a change does not send all traffic to the
+ * renderer at once.
+ */
+public class PageCache implements ContentChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(PageCache.class);
+
+    private final Map<String, CachedPage> entries;
+    private final ConcurrentMap<String, Boolean> rendering = new ConcurrentHashMap<String, Boolean>();
+    private final long timeToLiveMillis;
+    private final long graceMillis;
+    private volatile boolean enabled = true;
+    private long generation;
+
+    public PageCache(final int maxSize, final int timeToLiveSeconds, final int graceSeconds) {
+        this.entries = new LruMap<String, CachedPage>(maxSize);
+        this.timeToLiveMillis = timeToLiveSeconds * 1000L;
+        this.graceMillis = graceSeconds * 1000L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the cached page for <code>key</code>, fresh or stale, or <code>null</code> when there is none or it has
+     * been stale for longer than the grace period
+     */
+    public CachedPage get(final String key) {
+        if (!enabled) {
+            return null;
+        }
+        final long now = System.currentTimeMillis();
+        synchronized (entries) {
+            final CachedPage page = entries.get(key);
+            if (page == null) {
+                return null;
+            }
+            if (now - getStaleSince(page) > graceMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return page;
+        }
+    }
+
+    /**
+     * @return <code>true</code> when no change made <code>page</code> stale and it is within its time to live
+     */
+    public boolean isFresh(final CachedPage page) {
+        return getStaleSince(page) > System.currentTimeMillis();
+    }
+
+    /**
+     * Claims the rendering of the page for <code>key</code>. Callers that get <code>true</code> must call
+     * {@link #endRendering(String)} when they are done.
+     * @return <code>true</code> when no other request is rendering the page
+     */
+    public boolean startRendering(final String key) {
+        return rendering.putIfAbsent(key, Boolean.TRUE) == null;
+    }
+
+    public void endRendering(final String key) {
+        rendering.remove(key);
+    }
+
+    /**
+     * Returns a counter that is incremented on every change. Capture it before rendering a page and pass it to
+     * {@link #put(String, CachedPage, long)}, so a page rendered during a change is stored as stale.
+     */
+    public long getGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    public void put(final String key, final CachedPage page, final long generation) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation != this.generation) {
+                log.debug("Storing page {} as stale because content changed while it rendered", key);
+                page.markStale(System.currentTimeMillis());
+            }
+            entries.put(key, page);
+        }
+    }
+
+    /**
+     * Marks all pages stale
+     */
+    public void invalidate() {
+        final long now = System.currentTimeMillis();
+        synchronized (entries) {
+            generation++;
+            for (CachedPage page : entries.values()) {
+                page.markStale(now);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void contentChanged(final Set<String> paths) {
+        log.debug("Marking all cached pages stale for {} changed paths", paths.size());
+        invalidate();
+    }
+
+    /**
+     * @return the time at which <code>page</code> turned or turns stale
+     */
+    private long getStaleSince(final CachedPage page) {
+        final long expires = page.getCreated() + timeToLiveMillis;
+        final long staleSince = page.getStaleSince();
+        return staleSince == 0 ? expires : Math.min(staleSince, expires);
+    }
+
+}
@@ -0,0 +1,222 @@
+package org.example.pagecache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.hippoecm.hst.site.HstServices;
+import org.hippoecm.hst.util.HstRequestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves rendered pages of the live site from the {@link PageCache} to anonymous visitors, in front of the HST. Pages
+ * are cached per mount, sitemap item, host, path and the values of the whitelisted request parameters; requests with
+ * other parameters are not cached. Parameters are whitelisted by their local name, so <code>page</code> also allows the
+ * namespaced <code>r1_r2_r1:page</code> of a component. Requests for a preview, authenticated or subject based mount, requests with a
+ * session or credentials, which includes the channel manager, and requests below the excluded paths always go to the
+ * HST.
+ * <p>
+ * Responses tell whether they came from the cache in the <code>X-Page-Cache</code> header. A fresh page answers a
+ * conditional GET that matches its <code>ETag</code> or <code>Last-Modified</code> headers with
+ * <code>304 Not Modified</code>.
+ */
+public class PageCacheFilter implements Filter {
+
+    private static final Logger log = LoggerFactory.getLogger(PageCacheFilter.class);
+
+    static final String CACHE_HEADER = "X-Page-Cache";
+
+    private static final String DEFAULT_PARAMETERS = "page, query, from, to, cursor";
+    static final String DEFAULT_EXCLUDED_PATHS = "/ping/, /binaries/, /renditions/, /suggest/, /sitemap.xml, /sitemaps/, "
+            + "/feed.xml, /metrics, /login/, /hst/, /resources/, /_cmsinternal, /_cmsrest, /_cmssessioncontext, /_rp/";
+
+    private Set<String> parameters;
+    private List<String> excludedPaths;
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        parameters = new HashSet<String>(split(filterConfig.getInitParameter("parameters"), DEFAULT_PARAMETERS));
+        excludedPaths = split(filterConfig.getInitParameter("excludedPaths"), DEFAULT_EXCLUDED_PATHS);
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void doFilter(final ServletRequest req, final ServletResponse res, final FilterChain chain) throws IOException, ServletException {
+        final PageCache cache = getPageCache();
+        if (cache == null || !cache.isEnabled() || !(req instanceof HttpServletRequest)) {
+            chain.doFilter(req, res);
+            return;
+        }
+        final HttpServletRequest request = (HttpServletRequest) req;
+        final HttpServletResponse response = (HttpServletResponse) res;
+        final String key = createKey(request);
+        if (key == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final CachedPage page = cache.get(key);
+        if (page != null && cache.isFresh(page)) {
+            if (page.getValidator() != null && page.getValidator().isNotModified(request)) {
+                page.getValidator().apply(response);
+                response.setHeader(CACHE_HEADER, "HIT");
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            write(response, page, "HIT");
+            return;
+        }
+        final boolean renderer = cache.startRendering(key);
+        if (page != null && !renderer) {
+            // another request is rendering this page again
+            write(response, page, "STALE");
+            return;
+        }
+        try {
+            render(request, response, chain, cache, key);
+        } finally {
+            if (renderer) {
+                cache.endRendering(key);
+            }
+        }
+    }
+
+    private void render(final HttpServletRequest request, final HttpServletResponse response, final FilterChain chain,
+                        final PageCache cache, final String key) throws IOException, ServletException {
+        final long generation = cache.getGeneration();
+        final BufferedResponse buffered = new BufferedResponse(response);
+        response.setHeader(CACHE_HEADER, "MISS");
+        chain.doFilter(request, buffered);
+        if (buffered.isPassedThrough() || buffered.isNotModified()) {
+            return;
+        }
+        final byte[] body = buffered.getBody();
+        // a request that created a session may have rendered for that session
+        if (buffered.isCacheable() && request.getSession(false) == null) {
+            cache.put(key, new CachedPage(buffered.getContentType(), body, buffered.getValidator()), generation);
+        }
+        if (!response.isCommitted()) {
+            response.setContentLength(body.length);
+        }
+        response.getOutputStream().write(body);
+    }
+
+    private void write(final HttpServletResponse response, final CachedPage page, final String state) throws IOException {
+        if (page.getValidator() != null) {
+            page.getValidator().apply(response);
+        }
+        response.setContentType(page.getContentType());
+        response.setContentLength(page.getBody().length);
+        response.setHeader(CACHE_HEADER, state);
+        response.getOutputStream().write(page.getBody());
+    }
+
+    /**
+     * @return the cache key of <code>request</code>, or <code>null</code> when it must not be served from the cache
+     */
+    String createKey(final HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || request.getUserPrincipal() != null
+                || request.getHeader("Authorization") != null || request.getSession(false) != null) {
+            return null;
+        }
+        final String requestPath = HstRequestUtils.getRequestPath(request);
+        if (requestPath.contains("_hn:")) {
+            // component rendering, resource and action urls
+            return null;
+        }
+        for (String excludedPath : excludedPaths) {
+            if (requestPath.startsWith(excludedPath)) {
+                return null;
+            }
+        }
+        final List<String> names = new ArrayList<String>();
+        for (Enumeration<?> e = request.getParameterNames(); e.hasMoreElements(); ) {
+            final String name = (String) e.nextElement();
+            if (!parameters.contains(getLocalName(name))) {
+                return null;
+            }
+            names.add(name);
+        }
+
+        final String hostName = HstRequestUtils.getFarthestRequestHost(request);
+        final Mount mount;
+        final String siteMapItemId;
+        try {
+            final HstManager hstManager = HstServices.getComponentManager().getComponent(HstManager.class.getName());
+            final ResolvedMount resolvedMount = hstManager.getVirtualHosts().matchMount(hostName, request.getContextPath(), requestPath);
+            if (resolvedMount == null) {
+                return null;
+            }
+            mount = resolvedMount.getMount();
+            if (mount.isPreview() || mount.isAuthenticated() || mount.isSubjectBasedSession()) {
+                return null;
+            }
+            final ResolvedSiteMapItem item = resolvedMount.matchSiteMapItem(
+                    requestPath.substring(resolvedMount.getResolvedMountPath().length()));
+            if (item == null) {
+                return null;
+            }
+            siteMapItemId = item.getHstSiteMapItem().getId();
+        } catch (Exception e) {
+            log.debug("Not caching '{}': {}", requestPath, e.toString());
+            return null;
+        }
+
+        final StringBuilder key = new StringBuilder();
+        key.append(mount.getIdentifier()).append(' ').append(siteMapItemId).append(' ')
+                .append(hostName).append(request.getRequestURI());
+        Collections.sort(names);
+        char separator = '?';
+        for (String name : names) {
+            for (String value : request.getParameterValues(name)) {
+                key.append(separator).append(name).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the name of the request parameter <code>name</code> without the namespace of the component it is for, for
+     * instance <code>page</code> for <code>r1_r2_r1:page</code>
+     */
+    static String getLocalName(final String name) {
+        return name.substring(name.lastIndexOf(':') + 1);
+    }
+
+    private PageCache getPageCache() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().getComponent(PageCache.class.getName());
+    }
+
+    static List<String> split(final String value, final String defaultValue) {
+        final String[] values = StringUtils.split(value == null ? defaultValue : value, ", \t\r\n");
+        return values == null ? Collections.<String>emptyList() : Arrays.asList(values);
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.example.pagecache;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * The validators of a rendered page or binary: an <code>ETag</code> and a <code>Last-Modified</code> date, with which
+ * clients and caches in front of the site can revalidate their copy with a conditional GET. As pages are aggregated
+ * from several components their entity tags are weak, binaries have strong entity tags, which allow range requests to
+ * be conditional with <code>If-Range</code>.
+ */
+public final class Validator {
+
+    private final String entityTag;
+    private final long lastModified;
+
+    /**
+     * @param tag          the opaque value of the weak entity tag, which must not contain quotes
+     * @param lastModified the time in milliseconds at which the page last changed
+     */
+    public Validator(final String tag, final long lastModified) {
+        this(tag, lastModified, true);
+    }
+
+    /**
+     * @param tag          the opaque value of the entity tag, which must not contain quotes
+     * @param lastModified the time in milliseconds at which the page or binary last changed
+     * @param weak         <code>false</code> when the entity tag identifies the exact bytes of the response
+     */
+    public Validator(final String tag, final long lastModified, final boolean weak) {
+        this(lastModified, (weak ? "W/\"" : "\"") + tag + '"');
+    }
+
+    private Validator(final long lastModified, final String entityTag) {
+        this.entityTag = entityTag;
+        // HTTP dates have a precision of seconds
+        this.lastModified = lastModified < 0 ? -1L : lastModified - lastModified % 1000L;
+    }
+
+    /**
+     * @return the validator of a response with the headers <code>ETag</code>, which may be <code>null</code>, and
+     * <code>Last-Modified</code>, or <code>null</code> when it has neither
+     */
+    static Validator fromHeaders(final String entityTag, final long lastModified) {
+        if (entityTag == null && lastModified < 0) {
+            return null;
+        }
+        return new Validator(lastModified, entityTag);
+    }
+
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Sets the <code>ETag</code> and <code>Last-Modified</code> headers
+     */
+    public void apply(final HttpServletResponse response) {
+        if (entityTag != null) {
+            response.setHeader("ETag", entityTag);
+        }
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+    }
+
+    /**
+     * @return <code>true</code> when <code>request</code> is a conditional GET for the page as it is now
+     */
+    public boolean isNotModified(final HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            ifModifiedSince = -1L;
+        }
+        return isNotModified(request.getHeader("If-None-Match"), ifModifiedSince);
+    }
+
+    /**
+     * @param ifNoneMatch     the value of the <code>If-None-Match</code> header or <code>null</code>
+     * @param ifModifiedSince the value of the <code>If-Modified-Since</code> header or <code>-1</code>
+     * @return <code>true</code> when the page is not modified according to the headers. <code>If-None-Match</code>
+     * takes precedence over <code>If-Modified-Since</code>, and is compared weakly.
+     */
+    boolean isNotModified(final String ifNoneMatch, final long ifModifiedSince) {
+        if (ifNoneMatch != null) {
+            if (entityTag == null) {
+                return false;
+            }
+            final String[] tags = StringUtils.split(ifNoneMatch, ',');
+            if (tags == null) {
+                return false;
+            }
+            final String opaqueTag = opaqueTag(entityTag);
+            for (String tag : tags) {
+                final String trimmed = tag.trim();
+                if ("*".equals(trimmed) || opaqueTag.equals(opaqueTag(trimmed))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * @return <code>true</code> unless <code>request</code> has an <code>If-Range</code> header that does not match,
+     * in which case its <code>Range</code> header must be ignored
+     */
+    public boolean isRangeValid(final HttpServletRequest request) {
+        final String ifRange = request.getHeader("If-Range");
+        if (ifRange == null || ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")) {
+            return isRangeValid(ifRange, -1L);
+        }
+        long ifRangeDate;
+        try {
+            ifRangeDate = request.getDateHeader("If-Range");
+        } catch (IllegalArgumentException e) {
+            ifRangeDate = -1L;
+        }
+        return isRangeValid(ifRange, ifRangeDate);
+    }
+
+    /**
+     * @param ifRange     the value of the <code>If-Range</code> header or <code>null</code>
+     * @param ifRangeDate the value of the header as a date or <code>-1</code> when it is an entity tag
+     * @return <code>true</code> when there is no <code>If-Range</code> header, or when it is the strong entity tag or
+     * the last modification date of the response. A weak entity tag never matches.
+     */
+    boolean isRangeValid(final String ifRange, final long ifRangeDate) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRangeDate >= 0) {
+            return lastModified >= 0 && lastModified == ifRangeDate;
+        }
+        return entityTag != null && !entityTag.startsWith("W/") && entityTag.equals(ifRange.trim());
+    }
+
+    private static String opaqueTag(final String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+}
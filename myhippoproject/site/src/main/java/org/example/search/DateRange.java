@@ -0,0 +1,166 @@
+package org.example.search;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * A range of dates from the <code>from</code> and <code>to</code> request parameters of a list, for instance
+ * <code>from=2013-03&amp;to=2013-03</code> for March 2013. Both parameters take a year (<code>2013</code>), a month
+ * (<code>2013-03</code>) or a day (<code>2013-03-14</code>) and include all of it, either may be left out for an
+ * open range. Instances are immutable and can be part of a {@link SearchKey}.
+ */
+public final class DateRange {
+
+    private final long from;
+    private final long to;
+
+    /**
+     * @param from the first millisecond of the range, or {@link Long#MIN_VALUE} for no lower bound
+     * @param to   the first millisecond after the range, or {@link Long#MAX_VALUE} for no upper bound
+     */
+    public DateRange(final long from, final long to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return the time zone in which the dates of lists are parsed, counted per year and month and shown: the default
+     * time zone, whatever the offset a date was stored with
+     */
+    public static TimeZone getTimeZone() {
+        return TimeZone.getDefault();
+    }
+
+    /**
+     * @param from     the value of the <code>from</code> parameter or <code>null</code>
+     * @param to       the value of the <code>to</code> parameter or <code>null</code>
+     * @param timeZone the time zone of the dates
+     * @return the range, or <code>null</code> when both parameters are empty
+     * @throws IllegalArgumentException when a parameter is not a year, month or day
+     */
+    public static DateRange parse(final String from, final String to, final TimeZone timeZone) {
+        final boolean hasFrom = from != null && from.trim().length() > 0;
+        final boolean hasTo = to != null && to.trim().length() > 0;
+        if (!hasFrom && !hasTo) {
+            return null;
+        }
+        return new DateRange(hasFrom ? parseStart(from.trim(), timeZone, false) : Long.MIN_VALUE,
+                hasTo ? parseStart(to.trim(), timeZone, true) : Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the first millisecond of the year, month or day in <code>value</code>, or of the next one when
+     * <code>next</code> is <code>true</code>
+     */
+    private static long parseStart(final String value, final TimeZone timeZone, final boolean next) {
+        final String[] fields = value.split("-", -1);
+        if (fields.length > 3) {
+            throw new IllegalArgumentException("Invalid date '" + value + "'");
+        }
+        final Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.clear();
+        calendar.setLenient(false);
+        try {
+            calendar.set(Calendar.YEAR, parseField(fields[0], 4, value));
+            if (fields.length > 1) {
+                calendar.set(Calendar.MONTH, parseField(fields[1], 2, value) - 1);
+            }
+            if (fields.length > 2) {
+                calendar.set(Calendar.DAY_OF_MONTH, parseField(fields[2], 2, value));
+            }
+            // validates the fields
+            calendar.getTimeInMillis();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid date '" + value + "'", e);
+        }
+        if (next) {
+            calendar.setLenient(true);
+            calendar.add(fields.length == 1 ? Calendar.YEAR : fields.length == 2 ? Calendar.MONTH : Calendar.DAY_OF_MONTH, 1);
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    private static int parseField(final String field, final int length, final String value) {
+        if (field.length() != length) {
+            throw new IllegalArgumentException("Invalid date '" + value + "'");
+        }
+        for (int i = 0; i < field.length(); i++) {
+            if (!Character.isDigit(field.charAt(i))) {
+                throw new IllegalArgumentException("Invalid date '" + value + "'");
+            }
+        }
+        return Integer.parseInt(field);
+    }
+
+    /**
+     * @return the first millisecond of the range, or {@link Long#MIN_VALUE} when it has no lower bound
+     */
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * @return the first millisecond after the range, or {@link Long#MAX_VALUE} when it has no upper bound
+     */
+    public long getTo() {
+        return to;
+    }
+
+    public boolean hasFrom() {
+        return from != Long.MIN_VALUE;
+    }
+
+    public boolean hasTo() {
+        return to != Long.MAX_VALUE;
+    }
+
+    /**
+     * @return <code>true</code> when <code>date</code> lies in the range
+     */
+    public boolean contains(final long date) {
+        return date >= from && date < to;
+    }
+
+    /**
+     * @return the first moment of the range as a calendar, or <code>null</code> when it has no lower bound
+     */
+    public Calendar getFromCalendar() {
+        return hasFrom() ? toCalendar(from) : null;
+    }
+
+    /**
+     * @return the first moment after the range as a calendar, or <code>null</code> when it has no upper bound
+     */
+    public Calendar getToCalendar() {
+        return hasTo() ? toCalendar(to) : null;
+    }
+
+    private static Calendar toCalendar(final long millis) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DateRange)) {
+            return false;
+        }
+        final DateRange other = (DateRange) o;
+        return from == other.from && to == other.to;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (from ^ (from >>> 32)) + (int) (to ^ (to >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + ")";
+    }
+
+}
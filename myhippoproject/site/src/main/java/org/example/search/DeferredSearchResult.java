@@ -0,0 +1,105 @@
+package org.example.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.component.HstComponentException;
+
+/**
+ * {@link SearchResult} of a search that is still running. It is put on the request in <code>doBeforeRender</code>
+ * and completes on first access, which is when the template renders it. Because the HST calls
+ * <code>doBeforeRender</code> of all components of a page before it renders any of them, the searches of a page run
+ * in parallel and the page waits for the slowest one instead of for all of them in turn.
+ * <p>
+ * Instances belong to a single request and are not thread safe.
+ */
+public class DeferredSearchResult extends SearchResult {
+
+    private Callable<SearchResult> completion;
+    private SearchResult result;
+
+    /**
+     * @param completion completes the search on the request thread, for instance by waiting for a background search
+     *                   and resolving its hits against the session of the request
+     */
+    public DeferredSearchResult(final Callable<SearchResult> completion) {
+        this.completion = completion;
+    }
+
+    /**
+     * @return the completed result, waiting for the search when it has not completed yet
+     * @throws HstComponentException when the search failed
+     */
+    public SearchResult get() throws HstComponentException {
+        if (result == null) {
+            try {
+                result = completion.call();
+            } catch (HstComponentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new HstComponentException("Search failed to complete", e);
+            } finally {
+                completion = null;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<HippoBean> getHippoBeans() {
+        return get().getHippoBeans();
+    }
+
+    @Override
+    public List<DocumentProjection> getProjections() {
+        return get().getProjections();
+    }
+
+    @Override
+    public boolean isProjected() {
+        return get().isProjected();
+    }
+
+    @Override
+    public List<?> getItems() {
+        return get().getItems();
+    }
+
+    @Override
+    public int getSize() {
+        return get().getSize();
+    }
+
+    @Override
+    public int getTotalSize() {
+        return get().getTotalSize();
+    }
+
+    @Override
+    public boolean isTotalSizeExact() {
+        return get().isTotalSizeExact();
+    }
+
+    @Override
+    public Pagination getPagination() {
+        return get().getPagination();
+    }
+
+    @Override
+    public String getPreviousCursor() {
+        return get().getPreviousCursor();
+    }
+
+    @Override
+    public String getNextCursor() {
+        return get().getNextCursor();
+    }
+
+    @Override
+    public Map<String, String> getHighlights() {
+        return get().getHighlights();
+    }
+
+}
@@ -0,0 +1,206 @@
+package org.example.search;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+
+/**
+ * Compact, immutable copy of the properties of a document that a list renders. The declared properties are read from
+ * the bean once, after which the projection no longer refers to the bean or its node. Projections can therefore be
+ * cached and shared between requests, as opposed to beans which belong to the session of the request that created
+ * them.
+ * <p>
+ * Properties are available by their local name, so <code>myhippoproject:title</code> is read with
+ * <code>${item.properties.title}</code> or, for the properties lists commonly show, <code>${item.title}</code>.
+ * Dates are kept as milliseconds and handed out as new {@link Calendar} instances. A declared property that links to
+ * an image set, such as <code>myhippoproject:image</code>, is kept as the url of its thumbnail and its file name, read
+ * with <code>${item.image.thumbnail}</code> and <code>${item.image.fileName}</code>.
+ */
+public final class DocumentProjection {
+
+    private final String identifier;
+    private final String link;
+    private final Map<String, Object> values;
+    private final Image image;
+
+    private DocumentProjection(final String identifier, final String link, final Map<String, Object> values,
+                               final Image image) {
+        this.identifier = identifier;
+        this.link = link;
+        this.values = values;
+        this.image = image;
+    }
+
+    /**
+     * @param bean the bean to project
+     * @param propertyNames the names of the properties to read from <code>bean</code>
+     * @param link the url of <code>bean</code>, created for the mount the projection is rendered in
+     * @return the projection of <code>propertyNames</code> of <code>bean</code>
+     */
+    public static DocumentProjection create(final HippoBean bean, final List<String> propertyNames, final String link) {
+        return create(bean, propertyNames, link, null);
+    }
+
+    /**
+     * @param bean the bean to project
+     * @param propertyNames the names of the properties to read from <code>bean</code>
+     * @param link the url of <code>bean</code>, created for the mount the projection is rendered in
+     * @param image the image <code>bean</code> links to, or <code>null</code>
+     * @return the projection of <code>propertyNames</code> and <code>image</code> of <code>bean</code>
+     */
+    public static DocumentProjection create(final HippoBean bean, final List<String> propertyNames, final String link,
+                                            final Image image) {
+        final Map<String, Object> values = new HashMap<String, Object>(propertyNames.size() * 2);
+        for (String propertyName : propertyNames) {
+            final Object value = bean.getProperty(propertyName);
+            if (value != null) {
+                values.put(getLocalName(propertyName), copyIn(value));
+            }
+        }
+        return new DocumentProjection(bean.getCanonicalUUID(), link, values, image);
+    }
+
+    /**
+     * @return the canonical identifier of the projected document
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the url of the projected document
+     */
+    public String getLink() {
+        return link;
+    }
+
+    /**
+     * @param name the local name of a projected property
+     * @return the value of the property, or <code>null</code> when it was not projected or the document has no value
+     */
+    public Object getProperty(final String name) {
+        return copyOut(values.get(name));
+    }
+
+    /**
+     * @return a copy of the projected properties by local name
+     */
+    public Map<String, Object> getProperties() {
+        final Map<String, Object> properties = new HashMap<String, Object>(values.size() * 2);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            properties.put(entry.getKey(), copyOut(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    public String getTitle() {
+        return asString(getProperty("title"));
+    }
+
+    public String getSummary() {
+        return asString(getProperty("summary"));
+    }
+
+    public Calendar getDate() {
+        final Object date = getProperty("date");
+        return date instanceof Calendar ? (Calendar) date : null;
+    }
+
+    /**
+     * @return the image the projected document links to, or <code>null</code> when it was not projected or the
+     * document has none
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    private static String asString(final Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static String getLocalName(final String propertyName) {
+        final int colon = propertyName.indexOf(':');
+        return colon < 0 ? propertyName : propertyName.substring(colon + 1);
+    }
+
+    private static Object copyIn(final Object value) {
+        if (value instanceof Calendar) {
+            return new Dates(new long[]{((Calendar) value).getTimeInMillis()}, false);
+        }
+        if (value instanceof Calendar[]) {
+            final Calendar[] calendars = (Calendar[]) value;
+            final long[] millis = new long[calendars.length];
+            for (int i = 0; i < calendars.length; i++) {
+                millis[i] = calendars[i].getTimeInMillis();
+            }
+            return new Dates(millis, true);
+        }
+        if (value instanceof Object[]) {
+            return ((Object[]) value).clone();
+        }
+        return value;
+    }
+
+    private static Object copyOut(final Object value) {
+        if (value instanceof Dates) {
+            return ((Dates) value).toCalendars();
+        }
+        if (value instanceof Object[]) {
+            return ((Object[]) value).clone();
+        }
+        return value;
+    }
+
+    /**
+     * The url of the thumbnail and the file name of an image set
+     */
+    public static final class Image {
+
+        private final String thumbnail;
+        private final String fileName;
+
+        public Image(final String thumbnail, final String fileName) {
+            this.thumbnail = thumbnail;
+            this.fileName = fileName;
+        }
+
+        /**
+         * @return the url of the thumbnail
+         */
+        public String getThumbnail() {
+            return thumbnail;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    /**
+     * One or more date values, kept as milliseconds
+     */
+    private static final class Dates {
+
+        private final long[] millis;
+        private final boolean multiple;
+
+        private Dates(final long[] millis, final boolean multiple) {
+            this.millis = millis;
+            this.multiple = multiple;
+        }
+
+        private Object toCalendars() {
+            final Calendar[] calendars = new Calendar[millis.length];
+            for (int i = 0; i < millis.length; i++) {
+                calendars[i] = Calendar.getInstance();
+                calendars[i].setTimeInMillis(millis[i]);
+            }
+            return multiple ? calendars : calendars[0];
+        }
+    }
+
+}
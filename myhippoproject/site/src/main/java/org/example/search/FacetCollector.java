@@ -0,0 +1,111 @@
+package org.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts facet values while the hits of a search are iterated once, instead of executing a query per facet value.
+ * Not thread safe, a collector belongs to a single search.
+ */
+public final class FacetCollector {
+
+    private static final Comparator<FacetCounts.Value> BY_COUNT = new Comparator<FacetCounts.Value>() {
+        @Override
+        public int compare(final FacetCounts.Value value1, final FacetCounts.Value value2) {
+            if (value1.getCount() != value2.getCount()) {
+                return value1.getCount() > value2.getCount() ? -1 : 1;
+            }
+            return value1.getValue().compareTo(value2.getValue());
+        }
+    };
+
+    private final Map<String, Map<String, int[]>> counts = new LinkedHashMap<String, Map<String, int[]>>();
+    private int scanned;
+
+    /**
+     * @param facets the names of the facets to count
+     */
+    public FacetCollector(final List<String> facets) {
+        for (String facet : facets) {
+            counts.put(facet, new HashMap<String, int[]>());
+        }
+    }
+
+    /**
+     * @return <code>true</code> when <code>facet</code> is counted by this collector
+     */
+    public boolean isCollecting(final String facet) {
+        return counts.containsKey(facet);
+    }
+
+    /**
+     * Counts one hit with <code>value</code> for <code>facet</code>. Facets that are not counted and
+     * <code>null</code> values are ignored.
+     */
+    public void add(final String facet, final String value) {
+        final Map<String, int[]> values = counts.get(facet);
+        if (values == null || value == null) {
+            return;
+        }
+        final int[] count = values.get(value);
+        if (count == null) {
+            values.put(value, new int[]{1});
+        } else {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Marks the end of the values of a hit
+     */
+    public void hitDone() {
+        scanned++;
+    }
+
+    public int getScanned() {
+        return scanned;
+    }
+
+    /**
+     * @param complete whether all hits of the search were collected
+     * @param maxValues the maximum number of values per facet, the values with the highest counts are kept
+     * @return the counts collected so far
+     */
+    public FacetCounts toFacetCounts(final boolean complete, final int maxValues) {
+        final Map<String, List<FacetCounts.Value>> facets = new LinkedHashMap<String, List<FacetCounts.Value>>();
+        for (Map.Entry<String, Map<String, int[]>> facet : counts.entrySet()) {
+            final List<FacetCounts.Value> values = new ArrayList<FacetCounts.Value>(facet.getValue().size());
+            for (Map.Entry<String, int[]> value : facet.getValue().entrySet()) {
+                values.add(new FacetCounts.Value(value.getKey(), value.getValue()[0]));
+            }
+            Collections.sort(values, BY_COUNT);
+            facets.put(facet.getKey(), values.size() > maxValues ? values.subList(0, Math.max(maxValues, 0)) : values);
+        }
+        return new FacetCounts(facets, scanned, complete);
+    }
+
+    /**
+     * @param documentPath the path of a document variant, below its handle
+     * @param scopePath the path of the scope the document was found below
+     * @return the name of the folder directly below <code>scopePath</code> that holds the document, or
+     * <code>null</code> when the document is not in a folder below the scope
+     */
+    public static String getFolder(final String documentPath, final String scopePath) {
+        if (documentPath == null || !documentPath.startsWith(scopePath + "/")) {
+            return null;
+        }
+        final String relativePath = documentPath.substring(scopePath.length() + 1);
+        final int slash = relativePath.indexOf('/');
+        // the document itself takes the last two segments, its handle and its variant
+        if (slash < 0 || relativePath.indexOf('/', slash + 1) < 0) {
+            return null;
+        }
+        return relativePath.substring(0, slash);
+    }
+
+}
@@ -0,0 +1,245 @@
+package org.example.search;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.componentsinfo.SearchInfo;
+import org.example.index.DateIndex;
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.HstQueryManager;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.hippoecm.hst.core.component.HstComponentException;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the facets of searches and the documents of lists per month for their archive. Counts come from the
+ * {@link SearchResultCache} or the {@link DateIndex} when they can answer them, both of which are optional.
+ */
+public class FacetCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetCounter.class);
+
+    private SearchResultCache searchResultCache;
+    private DateIndex dateIndex;
+
+    public void setSearchResultCache(final SearchResultCache searchResultCache) {
+        this.searchResultCache = searchResultCache;
+    }
+
+    public void setDateIndex(final DateIndex dateIndex) {
+        this.dateIndex = dateIndex;
+    }
+
+    /**
+     * Counts <code>facets</code> for the hits of <code>search</code>. All facets are counted in a single pass over the
+     * hits of one query, which stops after {@link SearchInfo#getFacetMaxHits()} hits or
+     * {@link SearchInfo#getFacetTimeBudget()} milliseconds, in which case the counts are partial. Counts are served
+     * from the {@link SearchResultCache} when available.
+     * @param facets the facets to count, see {@link #getFacets(SearchInfo)}
+     */
+    public FacetCounts countFacets(final HstRequestContext requestContext, final HippoBean scope,
+                                   final SearchParameters search, final SearchInfo info, final List<String> facets)
+            throws HstComponentException {
+        final int maxHits = Math.max(info.getFacetMaxHits(), 0);
+        final SearchKey key = new SearchKey(requestContext.getResolvedMount().getMount().getIdentifier(),
+                requestContext.isPreview(), search.scopePath, "facets", info.getDocType(), search.parsedQuery, facets,
+                info.getFacetDateProperty(), maxHits, info.getFacetValues(), search.dateRangeProperty, search.dateRange);
+
+        // counts are not resolved against the session of the request, so they cannot be shared between users
+        final SearchResultCache cache = search.shared ? searchResultCache : null;
+        final long generation = cache == null ? 0 : cache.getGeneration();
+        FacetCounts counts = cache == null ? null : cache.getFacets(key);
+        if (counts == null) {
+            try {
+                counts = collectFacets(requestContext.getQueryManager(), scope.getNode(), search, facets, info, maxHits);
+            } catch (QueryException e) {
+                throw new HstComponentException("Exception occurred during creation or execution of facet HstQuery. ", e);
+            }
+            if (cache != null) {
+                cache.putFacets(key, counts, generation);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the documents of <code>search</code> per month of its date range property, ignoring its date range so
+     * that every month of the archive can be navigated to. The counts come from the {@link DateIndex} when it holds the
+     * documents of the search, otherwise they are collected in one pass over the hits of a query, up to the count limit
+     * of the search, and cached in the {@link SearchResultCache}.
+     * @return the counts with the months newest first as the values of the <code>month</code> facet
+     */
+    public FacetCounts countMonths(final HstRequestContext requestContext, final HippoBean scope,
+                                   final SearchParameters search) throws HstComponentException {
+        final DateIndex index = dateIndex;
+        if (index != null && SearchService.isIndexed(index, search)
+                && index.matches(search.scopePath, search.docType, search.dateRangeProperty)) {
+            return new FacetCounts(Collections.singletonMap(SearchInfo.FACET_MONTH, index.getMonthCounts()),
+                    index.size(), true);
+        }
+
+        final SearchKey key = new SearchKey(requestContext.getResolvedMount().getMount().getIdentifier(),
+                requestContext.isPreview(), search.scopePath, "archive", search.docType, search.parsedQuery,
+                search.dateRangeProperty, search.countLimit);
+        final SearchResultCache cache = search.shared ? searchResultCache : null;
+        final long generation = cache == null ? 0 : cache.getGeneration();
+        FacetCounts counts = cache == null ? null : cache.getFacets(key);
+        if (counts != null) {
+            return counts;
+        }
+
+        final Map<String, Integer> months = new TreeMap<String, Integer>(Collections.reverseOrder());
+        // months in the time zone the date range is parsed in, whatever the offset a date was stored with
+        final Calendar calendar = Calendar.getInstance(DateRange.getTimeZone());
+        int scanned = 0;
+        boolean complete = true;
+        try {
+            @SuppressWarnings("unchecked")
+            HstQuery hstQuery = requestContext.getQueryManager().createQuery(scope.getNode(), search.filterClass, true);
+            // one hit beyond the limit tells whether the counts are complete
+            hstQuery.setLimit(search.countLimit + 1);
+            if (!StringUtils.isEmpty(search.parsedQuery)) {
+                Filter f = hstQuery.createFilter();
+                f.addContains(".", search.parsedQuery);
+                hstQuery.setFilter(f);
+            }
+            final HippoBeanIterator it = hstQuery.execute().getHippoBeans();
+            while (it.hasNext()) {
+                if (scanned >= search.countLimit) {
+                    complete = false;
+                    break;
+                }
+                final HippoBean bean = it.nextHippoBean();
+                if (bean == null) {
+                    continue;
+                }
+                scanned++;
+                final Object date = bean.getProperty(search.dateRangeProperty);
+                if (date instanceof Calendar) {
+                    calendar.setTimeInMillis(((Calendar) date).getTimeInMillis());
+                    final String month = String.format("%04d-%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+                    final Integer count = months.get(month);
+                    months.put(month, count == null ? 1 : count + 1);
+                }
+            }
+        } catch (QueryException e) {
+            throw new HstComponentException("Exception occurred during creation or execution of archive HstQuery. ", e);
+        }
+
+        final List<FacetCounts.Value> values = new ArrayList<FacetCounts.Value>(months.size());
+        for (Map.Entry<String, Integer> entry : months.entrySet()) {
+            values.add(new FacetCounts.Value(entry.getKey(), entry.getValue()));
+        }
+        counts = new FacetCounts(Collections.singletonMap(SearchInfo.FACET_MONTH, values), scanned, complete);
+        if (cache != null) {
+            cache.putFacets(key, counts, generation);
+        }
+        return counts;
+    }
+
+    /**
+     * Executes the query of a search without sorting or paging and counts the facets of its hits, until the hits run
+     * out, <code>maxHits</code> hits are counted or the time budget of <code>info</code> is spent
+     */
+    private FacetCounts collectFacets(final HstQueryManager queryManager, final Node scope, final SearchParameters search,
+                                      final List<String> facets, final SearchInfo info, final int maxHits) throws QueryException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(info.getFacetTimeBudget());
+        @SuppressWarnings("unchecked")
+        HstQuery hstQuery = queryManager.createQuery(scope, search.filterClass, true);
+        // one hit beyond the maximum tells whether the counts are complete
+        hstQuery.setLimit(maxHits + 1);
+        if (!StringUtils.isEmpty(search.parsedQuery) || search.dateRange != null) {
+            Filter f = hstQuery.createFilter();
+            if (!StringUtils.isEmpty(search.parsedQuery)) {
+                f.addContains(".", search.parsedQuery);
+            }
+            search.addDateRange(f);
+            hstQuery.setFilter(f);
+        }
+
+        final FacetCollector collector = new FacetCollector(facets);
+        // years and months in the time zone of the archive and the date range, whatever the offset a date was stored with
+        final Calendar calendar = Calendar.getInstance(DateRange.getTimeZone());
+        final HippoBeanIterator it = hstQuery.execute().getHippoBeans();
+        boolean complete = true;
+        while (it.hasNext()) {
+            if (collector.getScanned() >= maxHits || System.nanoTime() - deadline > 0) {
+                complete = false;
+                break;
+            }
+            final HippoBean bean = it.nextHippoBean();
+            if (bean != null) {
+                collectFacetValues(collector, bean, search.scopePath, info.getFacetDateProperty(), calendar);
+                collector.hitDone();
+            }
+        }
+        if (!complete) {
+            log.debug("Counted facets for '{}' on the first {} hits only", search.parsedQuery, collector.getScanned());
+        }
+        return collector.toFacetCounts(complete, info.getFacetValues());
+    }
+
+    /**
+     * Adds the values of <code>bean</code> for the facets <code>collector</code> counts
+     * @param calendar the calendar to read the year and month of dates with
+     */
+    static void collectFacetValues(final FacetCollector collector, final HippoBean bean, final String scopePath,
+                                    final String dateProperty, final Calendar calendar) {
+        if (collector.isCollecting(SearchInfo.FACET_DOC_TYPE)) {
+            try {
+                collector.add(SearchInfo.FACET_DOC_TYPE, bean.getNode().getPrimaryNodeType().getName());
+            } catch (RepositoryException e) {
+                log.debug("Cannot read the document type of '{}': {}", bean.getPath(), e.toString());
+            }
+        }
+        if (collector.isCollecting(SearchInfo.FACET_YEAR) || collector.isCollecting(SearchInfo.FACET_MONTH)) {
+            final Object date = bean.getProperty(dateProperty);
+            if (date instanceof Calendar) {
+                calendar.setTimeInMillis(((Calendar) date).getTimeInMillis());
+                final int year = calendar.get(Calendar.YEAR);
+                collector.add(SearchInfo.FACET_YEAR, String.valueOf(year));
+                collector.add(SearchInfo.FACET_MONTH, String.format("%04d-%02d", year, calendar.get(Calendar.MONTH) + 1));
+            }
+        }
+        if (collector.isCollecting(SearchInfo.FACET_FOLDER)) {
+            collector.add(SearchInfo.FACET_FOLDER, FacetCollector.getFolder(bean.getPath(), scopePath));
+        }
+    }
+
+    /**
+     * @return the known facets <code>info</code> asks to count, in the order it asks for them
+     */
+    public static List<String> getFacets(final SearchInfo info) {
+        final String[] facetNames = StringUtils.split(info.getFacets(), ", ");
+        if (facetNames == null) {
+            return Collections.emptyList();
+        }
+        final List<String> facets = new ArrayList<String>(facetNames.length);
+        for (String facetName : facetNames) {
+            if (SearchInfo.FACET_DOC_TYPE.equals(facetName) || SearchInfo.FACET_YEAR.equals(facetName)
+                    || SearchInfo.FACET_MONTH.equals(facetName) || SearchInfo.FACET_FOLDER.equals(facetName)) {
+                if (!facets.contains(facetName)) {
+                    facets.add(facetName);
+                }
+            } else {
+                log.warn("Unknown facet '{}'. Not counting it.", facetName);
+            }
+        }
+        return facets;
+    }
+
+}
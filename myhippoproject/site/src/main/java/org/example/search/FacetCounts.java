@@ -0,0 +1,89 @@
+package org.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The hit counts per value of the facets of a search, as collected by a {@link FacetCollector}. When the collector
+ * stopped before it saw all hits, because it reached its maximum number of hits or ran out of time, the counts are
+ * not {@link #isComplete() complete} and only cover the first {@link #getScanned() scanned} hits. Instances are
+ * immutable and safe to share between requests.
+ */
+public final class FacetCounts {
+
+    /**
+     * A facet value and the number of hits that have it
+     */
+    public static final class Value {
+
+        private final String value;
+        private final int count;
+
+        public Value(final String value, final int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return value + '=' + count;
+        }
+    }
+
+    private final Map<String, List<Value>> facets;
+    private final int scanned;
+    private final boolean complete;
+    private final long created;
+
+    public FacetCounts(final Map<String, List<Value>> facets, final int scanned, final boolean complete) {
+        final Map<String, List<Value>> copy = new LinkedHashMap<String, List<Value>>();
+        for (Map.Entry<String, List<Value>> entry : facets.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<Value>(entry.getValue())));
+        }
+        this.facets = Collections.unmodifiableMap(copy);
+        this.scanned = scanned;
+        this.complete = complete;
+        this.created = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the values of every facet by facet name, in the order the facets were asked for, with the values in
+     * descending order of their count
+     */
+    public Map<String, List<Value>> getFacets() {
+        return facets;
+    }
+
+    /**
+     * @return the number of hits the counts were collected from
+     */
+    public int getScanned() {
+        return scanned;
+    }
+
+    /**
+     * @return <code>true</code> when the counts cover all hits of the search
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the time in milliseconds at which these counts were created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+}
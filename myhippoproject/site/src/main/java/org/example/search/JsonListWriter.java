@@ -0,0 +1,140 @@
+package org.example.search;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.componentsinfo.GeneralListInfo;
+import org.example.json.JsonWriter;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManager;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManagerException;
+import org.hippoecm.hst.content.beans.query.HstQueryResult;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.hippoecm.hst.core.component.HstComponentException;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.core.request.HstRequestContext;
+
+/**
+ * Writes the page of a search as JSON, for instance
+ * <code>{"page":1,"pageSize":10,"items":[{"id":"...","link":"/news/item.html","title":"..."}],"more":true,"total":42}</code>.
+ * Hits are written while they are read from the query result, so the memory used does not depend on the page size,
+ * and neither the {@link SearchResultCache} nor projections are involved.
+ */
+public class JsonListWriter {
+
+    private static final String JSON_RESOURCE_PATH = "/WEB-INF/jsp/json/empty.jsp";
+    private static final List<String> DEFAULT_JSON_PROPERTIES = Arrays.asList("myhippoproject:title",
+            "myhippoproject:summary", "myhippoproject:date");
+    // the number of items after which the JSON written so far is flushed to the client
+    private static final int JSON_FLUSH_INTERVAL = 50;
+
+    private final SearchService searchService;
+
+    /**
+     * @param searchService the service whose full text index and queries the hits are read with
+     */
+    public JsonListWriter(final SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Writes the page of <code>search</code> to <code>response</code>. Every item holds the local names and values of
+     * the projection of <code>info</code>, or of the title, summary and date when it declares none. Cursor paged lists
+     * are paged by page number. The total is only written for an exact count mode, while <code>more</code> tells
+     * whether there is a page beyond this one.
+     */
+    public void write(final HstRequestContext requestContext, final HstResponse response, final GeneralListInfo info,
+                      final HippoBean scope, final SearchParameters search) throws HstComponentException {
+        search.cursorPaging = false;
+        search.cursor = null;
+        search.countToLimit = false;
+        // one extra hit tells whether there is a page beyond this one
+        search.maxHits = search.pageSize + 1;
+        final String[] projection = StringUtils.split(info.getProjection(), ", ");
+        final List<String> propertyNames = projection == null || projection.length == 0
+                ? DEFAULT_JSON_PROPERTIES : Arrays.asList(projection);
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        // the JSON is complete once this returns, the resource path renders nothing
+        response.setServeResourcePath(JSON_RESOURCE_PATH);
+        try {
+            final JsonWriter json = new JsonWriter(response.getWriter());
+            json.beginObject();
+            json.name("page").value(search.crPage);
+            json.name("pageSize").value(search.pageSize);
+            json.name("items").beginArray();
+            final SearchHits indexHits = search.fullText ? searchService.searchFullTextIndex(search) : null;
+            int written = 0;
+            boolean more = false;
+            int totalSize = -1;
+            if (indexHits != null) {
+                final ObjectBeanManager objectBeanManager = requestContext.getObjectBeanManager();
+                for (String identifier : indexHits.getIdentifiers()) {
+                    final Object bean = objectBeanManager.getObjectByUuid(identifier);
+                    if (!(bean instanceof HippoBean)) {
+                        continue;
+                    }
+                    if (written == search.pageSize) {
+                        more = true;
+                        break;
+                    }
+                    writeItem(json, requestContext, (HippoBean) bean, propertyNames);
+                    written++;
+                }
+                totalSize = indexHits.isTotalSizeExact() ? indexHits.getTotalSize() : -1;
+            } else {
+                final HstQueryResult queryResult = searchService.createQuery(requestContext.getQueryManager(),
+                        scope.getNode(), search).execute();
+                final HippoBeanIterator it = queryResult.getHippoBeans();
+                while (it.hasNext()) {
+                    final HippoBean bean = it.nextHippoBean();
+                    if (bean == null) {
+                        continue;
+                    }
+                    if (written == search.pageSize) {
+                        more = true;
+                        break;
+                    }
+                    writeItem(json, requestContext, bean, propertyNames);
+                    if (++written % JSON_FLUSH_INTERVAL == 0) {
+                        json.flush();
+                    }
+                }
+                totalSize = search.exactCount ? queryResult.getTotalSize() : -1;
+            }
+            json.endArray();
+            json.name("more").value(more);
+            if (totalSize >= 0) {
+                json.name("total").value(totalSize);
+            }
+            json.endObject();
+            json.flush();
+        } catch (QueryException e) {
+            throw new HstComponentException("Exception occurred during creation or execution of HstQuery. ", e);
+        } catch (ObjectBeanManagerException e) {
+            throw new HstComponentException("Exception occurred while resolving the hits of the full text index. ", e);
+        } catch (IOException e) {
+            throw new HstComponentException("Exception occurred while writing JSON. ", e);
+        }
+    }
+
+    private void writeItem(final JsonWriter json, final HstRequestContext requestContext, final HippoBean bean,
+                           final List<String> propertyNames) throws IOException {
+        json.beginObject();
+        json.name("id").value(bean.getCanonicalUUID());
+        json.name("link").value(SearchService.createLink(requestContext, bean));
+        for (String propertyName : propertyNames) {
+            final Object value = bean.getProperty(propertyName);
+            if (value != null) {
+                final int colon = propertyName.indexOf(':');
+                json.name(colon < 0 ? propertyName : propertyName.substring(colon + 1)).value(value);
+            }
+        }
+        json.endObject();
+    }
+
+}
@@ -0,0 +1,209 @@
+package org.example.search;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Calendar;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.exceptions.FilterException;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+
+/**
+ * Position in a sorted result for keyset (cursor) paging. A cursor holds the sort value and identifier of the last
+ * (or first) document of a page, and selects the documents after (or before) it with a range filter instead of an
+ * offset, so deep pages cost the same as the first one. The identifier breaks ties between equal sort values.
+ * <p>
+ * Cursors travel through request parameters as opaque, URL safe tokens, see {@link #toToken()} and {@link #parse(String)}.
+ */
+public final class PageCursor {
+
+    /**
+     * The property used as tie-breaker, in addition to the sort property
+     */
+    public static final String IDENTIFIER_PROPERTY = "jcr:uuid";
+
+    public enum Direction {
+        AFTER('A'), BEFORE('B');
+
+        private final char code;
+
+        Direction(final char code) {
+            this.code = code;
+        }
+    }
+
+    private static final String ENCODING = "UTF-8";
+
+    private final Direction direction;
+    private final Object sortValue;
+    private final String identifier;
+
+    public PageCursor(final Direction direction, final Object sortValue, final String identifier) {
+        if (direction == null || sortValue == null || identifier == null) {
+            throw new IllegalArgumentException("Direction, sort value and identifier are required for a cursor");
+        }
+        this.direction = direction;
+        this.sortValue = sortValue;
+        this.identifier = identifier;
+    }
+
+    /**
+     * @return a cursor selecting the documents after <code>bean</code>, or <code>null</code> when <code>bean</code> has
+     * no value for <code>sortBy</code>
+     */
+    public static PageCursor after(final HippoBean bean, final String sortBy) {
+        return create(Direction.AFTER, bean, sortBy);
+    }
+
+    /**
+     * @return a cursor selecting the documents before <code>bean</code>, or <code>null</code> when <code>bean</code>
+     * has no value for <code>sortBy</code>
+     */
+    public static PageCursor before(final HippoBean bean, final String sortBy) {
+        return create(Direction.BEFORE, bean, sortBy);
+    }
+
+    private static PageCursor create(final Direction direction, final HippoBean bean, final String sortBy) {
+        final Object value = bean.getProperty(sortBy);
+        if (value == null) {
+            return null;
+        }
+        return new PageCursor(direction, value, bean.getCanonicalUUID());
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public boolean isBefore() {
+        return direction == Direction.BEFORE;
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Creates the filter that selects the documents beyond this cursor. The query must be ordered on
+     * <code>sortBy</code> and on {@link #IDENTIFIER_PROPERTY}, both reversed for {@link Direction#BEFORE} cursors.
+     * @param query the query to create the filter for
+     * @param sortBy the property the result is sorted on
+     * @param descending whether the result is sorted descending on <code>sortBy</code>
+     */
+    public Filter createFilter(final HstQuery query, final String sortBy, final boolean descending) throws FilterException {
+        final Filter beyond = query.createFilter();
+        if (descending != isBefore()) {
+            beyond.addLessThan(sortBy, sortValue);
+        } else {
+            beyond.addGreaterThan(sortBy, sortValue);
+        }
+
+        final Filter tie = query.createFilter();
+        tie.addEqualTo(sortBy, sortValue);
+        if (isBefore()) {
+            tie.addLessThan(IDENTIFIER_PROPERTY, identifier);
+        } else {
+            tie.addGreaterThan(IDENTIFIER_PROPERTY, identifier);
+        }
+
+        final Filter filter = query.createFilter();
+        filter.addOrFilter(beyond);
+        filter.addOrFilter(tie);
+        return filter;
+    }
+
+    /**
+     * @return the opaque, URL safe representation of this cursor
+     */
+    public String toToken() {
+        final StringBuilder plain = new StringBuilder();
+        plain.append(direction.code);
+        final String value;
+        if (sortValue instanceof Calendar) {
+            plain.append('D');
+            value = String.valueOf(((Calendar) sortValue).getTimeInMillis());
+        } else if (sortValue instanceof Long || sortValue instanceof Integer) {
+            plain.append('L');
+            value = sortValue.toString();
+        } else if (sortValue instanceof Double) {
+            plain.append('F');
+            value = sortValue.toString();
+        } else if (sortValue instanceof Boolean) {
+            plain.append('B');
+            value = sortValue.toString();
+        } else {
+            plain.append('S');
+            value = sortValue.toString();
+        }
+        plain.append(identifier).append('|').append(value);
+        try {
+            final String base64 = DatatypeConverter.printBase64Binary(plain.toString().getBytes(ENCODING));
+            return base64.replace('+', '-').replace('/', '_').replace("=", "");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param token a token as created by {@link #toToken()}
+     * @return the cursor for <code>token</code>
+     * @throws IllegalArgumentException when <code>token</code> is not a valid cursor token
+     */
+    public static PageCursor parse(final String token) {
+        final String plain;
+        try {
+            final StringBuilder base64 = new StringBuilder(token.replace('-', '+').replace('_', '/'));
+            while (base64.length() % 4 != 0) {
+                base64.append('=');
+            }
+            plain = new String(DatatypeConverter.parseBase64Binary(base64.toString()), ENCODING);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final int separator = plain.indexOf('|');
+        if (plain.length() < 3 || separator < 3) {
+            throw new IllegalArgumentException("Invalid cursor '" + token + "'");
+        }
+        final Direction direction;
+        switch (plain.charAt(0)) {
+            case 'A':
+                direction = Direction.AFTER;
+                break;
+            case 'B':
+                direction = Direction.BEFORE;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid cursor direction in '" + token + "'");
+        }
+        final String identifier = plain.substring(2, separator);
+        final String value = plain.substring(separator + 1);
+        try {
+            switch (plain.charAt(1)) {
+                case 'D':
+                    final Calendar calendar = Calendar.getInstance();
+                    calendar.setTimeInMillis(Long.parseLong(value));
+                    return new PageCursor(direction, calendar, identifier);
+                case 'L':
+                    return new PageCursor(direction, Long.valueOf(value), identifier);
+                case 'F':
+                    return new PageCursor(direction, Double.valueOf(value), identifier);
+                case 'B':
+                    return new PageCursor(direction, Boolean.valueOf(value), identifier);
+                case 'S':
+                    return new PageCursor(direction, value, identifier);
+                default:
+                    throw new IllegalArgumentException("Invalid cursor value type in '" + token + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor value in '" + token + "'", e);
+        }
+    }
+
+}
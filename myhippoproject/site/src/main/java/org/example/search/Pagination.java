@@ -0,0 +1,110 @@
+package org.example.search;
+
+/**
+ * Pager model for offset paged results: the current, first and last page and a window of page numbers around the
+ * current page. It holds a fixed number of ints regardless of the size of the result, templates iterate the window
+ * with <code>&lt;c:forEach begin="${pagination.windowStart}" end="${pagination.windowEnd}"&gt;</code>.
+ * <p>
+ * When the result was not counted exactly, the pagination is created with the number of hits known so far and the
+ * last page is not {@link #isLastKnown() known}.
+ */
+public final class Pagination {
+
+    private final int current;
+    private final int last;
+    private final int windowStart;
+    private final int windowEnd;
+    private final boolean lastKnown;
+
+    /**
+     * @param current the current page, starting at 1
+     * @param pageSize the number of hits per page
+     * @param totalSize the total number of hits
+     * @param window the maximum number of page numbers in the window around the current page
+     */
+    public Pagination(final int current, final int pageSize, final int totalSize, final int window) {
+        this(current, pageSize, totalSize, window, true);
+    }
+
+    /**
+     * @param current the current page, starting at 1
+     * @param pageSize the number of hits per page
+     * @param totalSize the total number of hits, or the number of hits known so far when <code>lastKnown</code> is
+     *                  <code>false</code>
+     * @param window the maximum number of page numbers in the window around the current page
+     * @param lastKnown whether <code>totalSize</code> is the exact number of hits
+     */
+    public Pagination(final int current, final int pageSize, final int totalSize, final int window, final boolean lastKnown) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive for a pagination");
+        }
+        this.last = Math.max(1, (totalSize + pageSize - 1) / pageSize);
+        this.current = Math.min(Math.max(1, current), last);
+
+        final int size = Math.min(Math.max(1, window), last);
+        int start = Math.max(1, this.current - size / 2);
+        final int end = Math.min(last, start + size - 1);
+        start = Math.max(1, end - size + 1);
+        this.windowStart = start;
+        this.windowEnd = end;
+        this.lastKnown = lastKnown;
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public int getFirst() {
+        return 1;
+    }
+
+    /**
+     * @return the last page, or the last page known so far when the last page is not {@link #isLastKnown() known}
+     */
+    public int getLast() {
+        return last;
+    }
+
+    /**
+     * @return <code>true</code> when {@link #getLast()} is the last page of the result
+     */
+    public boolean isLastKnown() {
+        return lastKnown;
+    }
+
+    /**
+     * @return the first page number of the window around the current page
+     */
+    public int getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * @return the last page number of the window around the current page
+     */
+    public int getWindowEnd() {
+        return windowEnd;
+    }
+
+    /**
+     * @return the previous page, or <code>0</code> on the first page
+     */
+    public int getPrevious() {
+        return current > 1 ? current - 1 : 0;
+    }
+
+    /**
+     * @return the next page, or <code>0</code> on the last page
+     */
+    public int getNext() {
+        return current < last ? current + 1 : 0;
+    }
+
+    /**
+     * @return <code>true</code> when there is more than one page
+     */
+    public boolean isVisible() {
+        return last > 1;
+    }
+
+}
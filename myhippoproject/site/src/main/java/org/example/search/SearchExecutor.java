@@ -0,0 +1,92 @@
+package org.example.search;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.jcr.PooledSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of threads that execute searches ahead of rendering, each with its own session from the HST session
+ * pools. When all threads are busy and the queue is full, or the executor is disabled, {@link #submit} returns
+ * <code>null</code> and the caller executes the search itself, so a saturated executor degrades to sequential
+ * searches instead of piling up requests.
+ */
+public class SearchExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchExecutor.class);
+
+    private final PooledSessionTemplate sessionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private volatile boolean enabled = true;
+
+    public SearchExecutor(final PooledSessionTemplate sessionTemplate, final int threads, final int queueSize, final long timeoutMillis) {
+        this.sessionTemplate = sessionTemplate;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new SearchThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the time in milliseconds a request waits for a submitted search before executing it itself
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Submits <code>callback</code> for execution with a pooled live or preview session
+     * @return the future result of <code>callback</code>, or <code>null</code> when the executor is disabled or
+     * saturated and the caller has to do the work itself
+     */
+    public <T> Future<T> submit(final boolean preview, final PooledSessionTemplate.SessionCallback<T> callback) {
+        if (!enabled || executor.isShutdown()) {
+            return null;
+        }
+        try {
+            return executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    return sessionTemplate.execute(preview, callback);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Search executor is saturated, searching on the request thread");
+            return null;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class SearchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "search-executor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The session independent outcome of a search: the identifiers of the matched documents of the requested page and the
+ * total number of matches, as far as it was counted. Instances are immutable and safe to share between requests.
+ */
+public final class SearchHits {
+
+    private final List<String> identifiers;
+    private final int totalSize;
+    private final boolean totalSizeExact;
+    private final List<DocumentProjection> projections;
+    private final Map<String, String> highlights;
+    private final long created;
+
+    public SearchHits(final List<String> identifiers, final int totalSize) {
+        this(identifiers, totalSize, true, null);
+    }
+
+    /**
+     * @param projections the projections of the matched documents, in result order, or <code>null</code> when the hits
+     *                    are not projected
+     */
+    public SearchHits(final List<String> identifiers, final int totalSize, final boolean totalSizeExact,
+                      final List<DocumentProjection> projections) {
+        this(identifiers, totalSize, totalSizeExact, projections, null);
+    }
+
+    /**
+     * @param projections the projections of the matched documents, in result order, or <code>null</code> when the hits
+     *                    are not projected
+     * @param highlights HTML fragments of the matched documents with the matched terms highlighted, by identifier, or
+     *                   <code>null</code> when there are none
+     */
+    public SearchHits(final List<String> identifiers, final int totalSize, final boolean totalSizeExact,
+                      final List<DocumentProjection> projections, final Map<String, String> highlights) {
+        this.identifiers = Collections.unmodifiableList(new ArrayList<String>(identifiers));
+        this.totalSize = totalSize;
+        this.totalSizeExact = totalSizeExact;
+        this.projections = projections == null ? null
+                : Collections.unmodifiableList(new ArrayList<DocumentProjection>(projections));
+        this.highlights = highlights == null ? Collections.<String, String>emptyMap()
+                : Collections.unmodifiableMap(new HashMap<String, String>(highlights));
+        this.created = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the canonical identifiers of the matched documents, in result order
+     */
+    public List<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    /**
+     * @return the total number of matches, a lower bound of it when it is not {@link #isTotalSizeExact() exact}, or
+     * <code>-1</code> when the matches were not counted
+     */
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * @return <code>true</code> when {@link #getTotalSize()} is the exact number of matches
+     */
+    public boolean isTotalSizeExact() {
+        return totalSizeExact;
+    }
+
+    /**
+     * @return the projections of the matched documents, in result order, or <code>null</code> when the hits are not
+     * projected
+     */
+    public List<DocumentProjection> getProjections() {
+        return projections;
+    }
+
+    /**
+     * @return HTML fragments of the matched documents with the matched terms highlighted, by identifier, which is
+     * empty when the search does not highlight
+     */
+    public Map<String, String> getHighlights() {
+        return highlights;
+    }
+
+    /**
+     * @return the time in milliseconds at which these hits were created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+}
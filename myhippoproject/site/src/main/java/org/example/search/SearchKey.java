@@ -0,0 +1,84 @@
+package org.example.search;
+
+import java.util.Arrays;
+
+/**
+ * Immutable key of a search as executed by the list and search components. Two searches with an equal key return the
+ * same hits, so the key covers everything that influences the query: the mount and preview/live state, the scope
+ * path and the component and request parameters.
+ */
+public final class SearchKey {
+
+    private final String mountIdentifier;
+    private final boolean preview;
+    private final String scopePath;
+    private final Object[] parameters;
+    private final int hashCode;
+
+    public SearchKey(final String mountIdentifier, final boolean preview, final String scopePath, final Object... parameters) {
+        if (scopePath == null) {
+            throw new IllegalArgumentException("Scope path is not allowed to be null for a search key");
+        }
+        this.mountIdentifier = mountIdentifier;
+        this.preview = preview;
+        this.scopePath = scopePath;
+        this.parameters = parameters.clone();
+        int result = mountIdentifier == null ? 0 : mountIdentifier.hashCode();
+        result = 31 * result + (preview ? 1 : 0);
+        result = 31 * result + scopePath.hashCode();
+        result = 31 * result + Arrays.hashCode(this.parameters);
+        this.hashCode = result;
+    }
+
+    public String getMountIdentifier() {
+        return mountIdentifier;
+    }
+
+    public boolean isPreview() {
+        return preview;
+    }
+
+    /**
+     * @return the absolute path of the scope the search was executed below
+     */
+    public String getScopePath() {
+        return scopePath;
+    }
+
+    /**
+     * @param path an absolute node or property path
+     * @return <code>true</code> when a change at <code>path</code> can change the hits for this key, which is the case
+     * for the scope itself, anything below it and any of its ancestors
+     */
+    public boolean isAffectedBy(final String path) {
+        return path.equals(scopePath) || path.startsWith(scopePath + "/") || scopePath.startsWith(path + "/");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchKey)) {
+            return false;
+        }
+        final SearchKey other = (SearchKey) o;
+        return hashCode == other.hashCode
+                && preview == other.preview
+                && scopePath.equals(other.scopePath)
+                && (mountIdentifier == null ? other.mountIdentifier == null : mountIdentifier.equals(other.mountIdentifier))
+                && Arrays.equals(parameters, other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchKey[mount=" + mountIdentifier + ", preview=" + preview + ", scope=" + scopePath
+                + ", parameters=" + Arrays.toString(parameters) + "]";
+    }
+
+}
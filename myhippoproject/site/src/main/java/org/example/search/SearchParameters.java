@@ -0,0 +1,314 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.componentsinfo.GeneralListInfo;
+import org.example.componentsinfo.PageableListInfo;
+import org.example.componentsinfo.SearchInfo;
+import org.example.metrics.ComponentMetrics;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.component.HstComponentException;
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.util.SearchInputParsingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The parameters of a search of a list or search component, derived from the component parameters and the request on
+ * the request thread, so a search can execute on another thread. Instances are created with
+ * {@link #create(String, HstRequest, GeneralListInfo, HippoBean, String, ComponentMetrics)} and read by the other
+ * classes of this package.
+ */
+public final class SearchParameters {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchParameters.class);
+
+    String component;
+    String scopePath;
+    String docType;
+    @SuppressWarnings("rawtypes")
+    Class filterClass;
+    String sortBy;
+    boolean descending;
+    int pageSize;
+    int crPage;
+    int offset;
+    boolean cursorPaging;
+    PageCursor cursor;
+    String parsedQuery;
+    String dateRangeProperty;
+    DateRange dateRange;
+    String countMode;
+    boolean exactCount;
+    int countLimit;
+    boolean countToLimit;
+    int fetchLimit;
+    int maxHits;
+    int pagesWindow;
+    List<String> projection;
+    SearchKey key;
+    boolean shared;
+    boolean preview;
+    boolean fullText;
+    // set when the request is sampled, the query of the search is then timed
+    ComponentMetrics metrics;
+    String sitemapItem;
+    String snippetSource;
+    int snippetScanChars;
+    int snippetLength;
+
+    SearchParameters() {
+    }
+
+    /**
+     * @param component the class name of the component that searches, for metrics and the slow query log
+     * @param request the request the component renders
+     * @param info the parameters of the component
+     * @param scope the scope to search below
+     * @param query the free text query to search for. If <code>null</code> or empty, it will be ignored
+     * @param metrics the metrics to time the query of the search with when the request is sampled, or
+     *                <code>null</code>
+     * @return the parameters of the search <code>info</code> asks for on <code>request</code>
+     */
+    public static SearchParameters create(final String component, final HstRequest request, final GeneralListInfo info,
+                                          final HippoBean scope, final String query, final ComponentMetrics metrics)
+            throws HstComponentException {
+        if (scope == null) {
+            throw new HstComponentException("Scope is not allowed to be null for a search");
+        }
+        int pageSize = info.getPageSize();
+        if (pageSize == 0) {
+            log.warn("Empty pageSize or set to null. This is not a valid size. Use default size");
+        }
+        String docType = info.getDocType();
+        String sortBy = info.getSortBy();
+        String sortOrder = info.getSortOrder();
+        String crPageStr = request.getParameter("page");
+
+        int crPage = 1;
+        if (crPageStr != null) {
+            try {
+                crPage = Integer.parseInt(crPageStr);
+            } catch (NumberFormatException e) {
+                throw new HstComponentException("Invalid page number '" + crPage + '\'');
+            }
+        }
+
+        final boolean cursorPaging = isCursorPaging(info);
+        PageCursor cursor = null;
+        String cursorToken = null;
+        if (cursorPaging) {
+            cursorToken = request.getParameter("cursor");
+            if (cursorToken != null) {
+                try {
+                    cursor = PageCursor.parse(cursorToken);
+                } catch (IllegalArgumentException e) {
+                    throw new HstComponentException("Invalid cursor '" + cursorToken + '\'', e);
+                }
+            }
+        }
+
+        final HstRequestContext requestContext = request.getRequestContext();
+
+        @SuppressWarnings("rawtypes")
+        Class filterClass = requestContext.getContentBeansTool().getObjectConverter().getAnnotatedClassFor(docType);
+        if (filterClass == null) {
+            throw new HstComponentException("There is no bean for docType '"+docType+"'. Cannot use '"+docType+"' as in this search");
+        }
+
+        String parsedQuery = SearchInputParsingUtils.parse(query, false);
+        if (parsedQuery != null && !parsedQuery.equals(query)) {
+            log.debug("Replaced query '{}' with '{}' because it contained invalid chars.", query, parsedQuery);
+        }
+
+        String dateRangeProperty = null;
+        DateRange dateRange = null;
+        if (info instanceof PageableListInfo && !StringUtils.isEmpty(((PageableListInfo) info).getDateRangeProperty())) {
+            dateRangeProperty = ((PageableListInfo) info).getDateRangeProperty();
+            try {
+                dateRange = DateRange.parse(request.getParameter("from"), request.getParameter("to"), DateRange.getTimeZone());
+            } catch (IllegalArgumentException e) {
+                throw new HstComponentException("Invalid date range: " + e.getMessage(), e);
+            }
+        }
+
+        final SearchParameters search = new SearchParameters();
+        search.component = component;
+        search.scopePath = scope.getPath();
+        search.filterClass = filterClass;
+        search.sortBy = sortBy;
+        search.descending = sortOrder == null || sortOrder.isEmpty() || "descending".equals(sortOrder);
+        search.pageSize = pageSize;
+        search.crPage = crPage;
+        search.offset = pageSize * (crPage - 1);
+        search.cursorPaging = cursorPaging;
+        search.cursor = cursor;
+        search.parsedQuery = parsedQuery;
+        search.countMode = getCountMode(info);
+        search.exactCount = GeneralListInfo.COUNT_MODE_EXACT.equals(search.countMode);
+        search.countLimit = info.getCountLimit();
+        // an estimated count reads the hits up to the count limit and takes the page from there
+        search.countToLimit = !cursorPaging && GeneralListInfo.COUNT_MODE_ESTIMATED.equals(search.countMode)
+                && search.offset < search.countLimit;
+        search.fetchLimit = Math.max(search.countLimit, search.offset + pageSize);
+        // without an exact count, one extra hit tells whether there is a page beyond this one
+        search.maxHits = cursorPaging || (!search.exactCount && isPagesVisible(info)) ? pageSize + 1 : pageSize;
+        search.pagesWindow = isPagesVisible(info) ? ((PageableListInfo) info).getPagesWindow() : 0;
+        search.projection = getProjection(info, requestContext, cursorPaging);
+        search.shared = !requestContext.getResolvedMount().getMount().isSubjectBasedSession();
+        search.preview = requestContext.isPreview();
+        search.docType = docType;
+        search.dateRangeProperty = dateRangeProperty;
+        search.dateRange = dateRange;
+        // the full text index holds no dates to filter on
+        search.fullText = dateRange == null && isFullTextSearch(info, requestContext, cursorPaging, parsedQuery);
+        if (info instanceof SearchInfo && !StringUtils.isEmpty(((SearchInfo) info).getSnippetSource())
+                && !StringUtils.isEmpty(parsedQuery)) {
+            final SearchInfo searchInfo = (SearchInfo) info;
+            search.snippetSource = searchInfo.getSnippetSource();
+            search.snippetScanChars = searchInfo.getSnippetScanChars();
+            search.snippetLength = searchInfo.getSnippetLength();
+        }
+        if (metrics != null && metrics.isSampled(requestContext)) {
+            search.metrics = metrics;
+            search.sitemapItem = ComponentMetrics.getSitemapItem(requestContext);
+        }
+        search.key = new SearchKey(requestContext.getResolvedMount().getMount().getIdentifier(),
+                requestContext.isPreview(), search.scopePath, docType, sortBy, sortOrder, pageSize,
+                cursorPaging ? cursorToken : crPage, parsedQuery, search.countMode, search.countLimit, search.projection,
+                search.fullText, dateRangeProperty, dateRange);
+        return search;
+    }
+
+    /**
+     * @return the key the hits of this search are cached with
+     */
+    public SearchKey getKey() {
+        return key;
+    }
+
+    /**
+     * @return the number of the requested page, starting at 1
+     */
+    public int getCrPage() {
+        return crPage;
+    }
+
+    /**
+     * @return the free text query without invalid characters, or <code>null</code>
+     */
+    public String getParsedQuery() {
+        return parsedQuery;
+    }
+
+    /**
+     * @return the date property the hits are filtered on, or <code>null</code> when the list has none
+     */
+    public String getDateRangeProperty() {
+        return dateRangeProperty;
+    }
+
+    /**
+     * @return the range of dates the hits are filtered on, or <code>null</code> when the request asks for none
+     */
+    public DateRange getDateRange() {
+        return dateRange;
+    }
+
+    /**
+     * @return <code>true</code> when the hits do not depend on the user, so they can be shared between requests
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Restricts <code>f</code> to the date range of this search, if it has one
+     */
+    void addDateRange(final Filter f) throws QueryException {
+        if (dateRange == null) {
+            return;
+        }
+        if (dateRange.hasFrom()) {
+            f.addGreaterOrEqualThan(dateRangeProperty, dateRange.getFromCalendar());
+        }
+        if (dateRange.hasTo()) {
+            f.addLessThan(dateRangeProperty, dateRange.getToCalendar());
+        }
+    }
+
+    /**
+     * @return <code>true</code> when <code>info</code> is pageable and shows pages
+     */
+    static boolean isPagesVisible(final GeneralListInfo info) {
+        return info instanceof PageableListInfo && Boolean.TRUE.equals(((PageableListInfo) info).isPagesVisible());
+    }
+
+    /**
+     * @return the count mode of <code>info</code>, where an unknown count mode counts exactly
+     */
+    static String getCountMode(final GeneralListInfo info) {
+        final String countMode = info.getCountMode();
+        if (GeneralListInfo.COUNT_MODE_ESTIMATED.equals(countMode) || GeneralListInfo.COUNT_MODE_NONE.equals(countMode)) {
+            return countMode;
+        }
+        if (!StringUtils.isEmpty(countMode) && !GeneralListInfo.COUNT_MODE_EXACT.equals(countMode)) {
+            log.warn("Unknown count mode '{}'. Counting exactly.", countMode);
+        }
+        return GeneralListInfo.COUNT_MODE_EXACT;
+    }
+
+    /**
+     * @return the names of the properties to project the hits on, or <code>null</code> when <code>info</code> does not
+     * ask for a projection or beans are required: in preview, where templates render edit links, for subject based
+     * sessions, where readable documents differ per user, and with cursor paging, which reads its cursors from beans
+     */
+    static List<String> getProjection(final GeneralListInfo info, final HstRequestContext requestContext, final boolean cursorPaging) {
+        final String[] propertyNames = StringUtils.split(info.getProjection(), ", ");
+        if (propertyNames == null || propertyNames.length == 0) {
+            return null;
+        }
+        if (requestContext.isPreview() || cursorPaging
+                || requestContext.getResolvedMount().getMount().isSubjectBasedSession()) {
+            log.debug("Not projecting hits on {}: beans are required for this request", info.getProjection());
+            return null;
+        }
+        return Arrays.asList(propertyNames);
+    }
+
+    /**
+     * @return <code>true</code> when <code>info</code> asks to search the full text index and the search can be
+     * answered from it: it has query text, it is not cursor paged and it searches published documents that everybody
+     * can read, as the index holds
+     */
+    static boolean isFullTextSearch(final GeneralListInfo info, final HstRequestContext requestContext,
+                                    final boolean cursorPaging, final String parsedQuery) {
+        if (!(info instanceof SearchInfo)
+                || !SearchInfo.SEARCH_BACKEND_INDEX.equals(((SearchInfo) info).getSearchBackend())) {
+            return false;
+        }
+        return !StringUtils.isEmpty(parsedQuery) && !cursorPaging && !requestContext.isPreview()
+                && !requestContext.getResolvedMount().getMount().isSubjectBasedSession();
+    }
+
+    /**
+     * @return <code>true</code> when <code>info</code> asks for cursor paging and has a sort property to page on
+     */
+    static boolean isCursorPaging(final GeneralListInfo info) {
+        if (!(info instanceof PageableListInfo)
+                || !PageableListInfo.PAGING_MODE_CURSOR.equals(((PageableListInfo) info).getPagingMode())) {
+            return false;
+        }
+        if (StringUtils.isEmpty(info.getSortBy())) {
+            log.warn("Cursor paging requires a sort property. Falling back to offset paging.");
+            return false;
+        }
+        return true;
+    }
+
+}
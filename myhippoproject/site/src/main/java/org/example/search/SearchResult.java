@@ -0,0 +1,164 @@
+package org.example.search;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+
+/**
+ * The result of a search as put on the request for the templates, with the beans of the requested page resolved
+ * against the current request session. Exposes the same <code>hippoBeans</code> and <code>totalSize</code> properties
+ * the templates used to read from the {@link org.hippoecm.hst.content.beans.query.HstQueryResult}.
+ * <p>
+ * A projected result holds {@link DocumentProjection}s instead of beans. Templates that support both iterate
+ * <code>items</code> and take the link from <code>item.link</code> when the result is <code>projected</code>.
+ */
+public class SearchResult {
+
+    private final List<HippoBean> hippoBeans;
+    private final List<DocumentProjection> projections;
+    private final int totalSize;
+    private final boolean totalSizeExact;
+    private final Pagination pagination;
+    private final String previousCursor;
+    private final String nextCursor;
+    private final Map<String, String> highlights;
+
+    /**
+     * Creates an empty result, for subclasses that override all getters
+     */
+    protected SearchResult() {
+        this(Collections.<HippoBean>emptyList(), -1);
+    }
+
+    public SearchResult(final List<HippoBean> hippoBeans, final int totalSize) {
+        this(hippoBeans, totalSize, totalSize >= 0, null, null, null);
+    }
+
+    public SearchResult(final List<HippoBean> hippoBeans, final int totalSize, final boolean totalSizeExact,
+                        final Pagination pagination, final String previousCursor, final String nextCursor) {
+        this(hippoBeans, totalSize, totalSizeExact, pagination, previousCursor, nextCursor,
+                Collections.<String, String>emptyMap());
+    }
+
+    public SearchResult(final List<HippoBean> hippoBeans, final int totalSize, final boolean totalSizeExact,
+                        final Pagination pagination, final String previousCursor, final String nextCursor,
+                        final Map<String, String> highlights) {
+        this.hippoBeans = Collections.unmodifiableList(hippoBeans);
+        this.projections = null;
+        this.totalSize = totalSize;
+        this.totalSizeExact = totalSizeExact;
+        this.pagination = pagination;
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+        this.highlights = highlights;
+    }
+
+    /**
+     * Creates a projected result
+     */
+    public SearchResult(final List<DocumentProjection> projections, final int totalSize, final boolean totalSizeExact,
+                        final Pagination pagination) {
+        this(projections, totalSize, totalSizeExact, pagination, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Creates a projected result with highlights
+     */
+    public SearchResult(final List<DocumentProjection> projections, final int totalSize, final boolean totalSizeExact,
+                        final Pagination pagination, final Map<String, String> highlights) {
+        this.hippoBeans = Collections.emptyList();
+        this.projections = Collections.unmodifiableList(projections);
+        this.totalSize = totalSize;
+        this.totalSizeExact = totalSizeExact;
+        this.pagination = pagination;
+        this.previousCursor = null;
+        this.nextCursor = null;
+        this.highlights = highlights;
+    }
+
+    /**
+     * @return the beans in this page of the result, which is empty for a projected result
+     */
+    public List<HippoBean> getHippoBeans() {
+        return hippoBeans;
+    }
+
+    /**
+     * @return the projections in this page of the result, or <code>null</code> when the result is not projected
+     */
+    public List<DocumentProjection> getProjections() {
+        return projections;
+    }
+
+    /**
+     * @return <code>true</code> when this result holds projections instead of beans
+     */
+    public boolean isProjected() {
+        return projections != null;
+    }
+
+    /**
+     * @return the projections when the result is projected and the beans otherwise
+     */
+    public List<?> getItems() {
+        return isProjected() ? projections : hippoBeans;
+    }
+
+    /**
+     * @return the number of items in this page of the result
+     */
+    public int getSize() {
+        return getItems().size();
+    }
+
+    /**
+     * @return the total number of matches, the count limit when there are more matches than an estimated count
+     * counts, or <code>-1</code> when the total is not known, as is the case with cursor paging or without counting
+     */
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * @return <code>true</code> when {@link #getTotalSize()} is the exact number of matches, <code>false</code> when
+     * there are more matches or the total is not known
+     */
+    public boolean isTotalSizeExact() {
+        return totalSizeExact;
+    }
+
+    /**
+     * @return the pager model for this result, or <code>null</code> when pages are not shown or the result is cursor
+     * paged
+     */
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    /**
+     * @return the token of the cursor for the previous page, or <code>null</code> when there is no previous page or
+     * the result is not cursor paged
+     */
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    /**
+     * @return the token of the cursor for the next page, or <code>null</code> when there is no next page or the
+     * result is not cursor paged
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return HTML fragments of the items in this page with the matched terms highlighted, by the canonical identifier
+     * of the item, which is empty when the search does not highlight
+     */
+    public Map<String, String> getHighlights() {
+        return highlights;
+    }
+
+}
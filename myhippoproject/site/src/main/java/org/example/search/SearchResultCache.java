@@ -0,0 +1,164 @@
+package org.example.search;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.example.cache.LruMap;
+import org.example.jcr.ContentChangeSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of {@link SearchHits} and {@link FacetCounts} per {@link SearchKey}. Entries are dropped as soon as a
+ * JCR observation event below (or above) their scope path arrives, and in any case after
+ * <code>timeToLiveSeconds</code> as a safety net for missed events.
+ */
+public class SearchResultCache implements ContentChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private final Map<SearchKey, SearchHits> entries;
+    private final Map<SearchKey, FacetCounts> facetEntries;
+    private final long timeToLiveMillis;
+    private volatile boolean enabled = true;
+    private long generation;
+
+    public SearchResultCache(final int maxSize, final int timeToLiveSeconds) {
+        this.entries = new LruMap<SearchKey, SearchHits>(maxSize);
+        this.facetEntries = new LruMap<SearchKey, FacetCounts>(maxSize);
+        this.timeToLiveMillis = timeToLiveSeconds * 1000L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the cached hits for <code>key</code> or <code>null</code> when there are none or they expired
+     */
+    public SearchHits get(final SearchKey key) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            final SearchHits hits = entries.get(key);
+            if (hits == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - hits.getCreated() > timeToLiveMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * @return the cached facet counts for <code>key</code> or <code>null</code> when there are none or they expired
+     */
+    public FacetCounts getFacets(final SearchKey key) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            final FacetCounts facets = facetEntries.get(key);
+            if (facets == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - facets.getCreated() > timeToLiveMillis) {
+                facetEntries.remove(key);
+                return null;
+            }
+            return facets;
+        }
+    }
+
+    /**
+     * Returns a counter that is incremented on every invalidation. Capture it before executing a query and pass it to
+     * {@link #put(SearchKey, SearchHits, long)} so that hits computed concurrently with an invalidation are not cached.
+     */
+    public long getGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Stores <code>hits</code> unless the cache has been invalidated since <code>generation</code> was obtained.
+     */
+    public void put(final SearchKey key, final SearchHits hits, final long generation) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation != this.generation) {
+                log.debug("Not caching hits for {} because the cache was invalidated during the search", key);
+                return;
+            }
+            entries.put(key, hits);
+        }
+    }
+
+    /**
+     * Stores <code>facets</code> unless the cache has been invalidated since <code>generation</code> was obtained.
+     */
+    public void putFacets(final SearchKey key, final FacetCounts facets, final long generation) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation != this.generation) {
+                log.debug("Not caching facets for {} because the cache was invalidated during the search", key);
+                return;
+            }
+            facetEntries.put(key, facets);
+        }
+    }
+
+    /**
+     * Removes all entries whose scope is affected by any of the <code>paths</code>.
+     */
+    public void invalidate(final Set<String> paths) {
+        int removed = 0;
+        synchronized (entries) {
+            generation++;
+            removed += invalidate(entries, paths);
+            removed += invalidate(facetEntries, paths);
+        }
+        log.debug("Invalidated {} cached searches for {} changed paths", removed, paths.size());
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            facetEntries.clear();
+        }
+    }
+
+    private static int invalidate(final Map<SearchKey, ?> map, final Set<String> paths) {
+        int removed = 0;
+        for (Iterator<SearchKey> keys = map.keySet().iterator(); keys.hasNext(); ) {
+            final SearchKey key = keys.next();
+            for (String path : paths) {
+                if (key.isAffectedBy(path)) {
+                    keys.remove();
+                    removed++;
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void contentChanged(final Set<String> paths) {
+        invalidate(paths);
+    }
+
+}
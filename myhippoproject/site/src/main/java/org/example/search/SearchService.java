@@ -0,0 +1,619 @@
+package org.example.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.cache.SingleFlight;
+import org.example.componentsinfo.GeneralListInfo;
+import org.example.fulltext.FullTextIndex;
+import org.example.index.DateIndex;
+import org.example.jcr.PooledSessionTemplate;
+import org.example.metrics.ComponentMetrics;
+import org.example.metrics.SlowQuery;
+import org.example.metrics.SlowQueryLog;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManager;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManagerException;
+import org.hippoecm.hst.content.beans.manager.ObjectConverter;
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.HstQueryManager;
+import org.hippoecm.hst.content.beans.query.HstQueryManagerFactory;
+import org.hippoecm.hst.content.beans.query.HstQueryResult;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.hippoecm.hst.content.beans.standard.HippoGalleryImageSetBean;
+import org.hippoecm.hst.content.beans.standard.HippoHtml;
+import org.hippoecm.hst.content.beans.standard.HippoMirrorBean;
+import org.hippoecm.hst.core.component.HstComponentException;
+import org.hippoecm.hst.core.linking.HstLink;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the searches of the list and search components. The hits of a search come from the first source that can
+ * answer it:
+ * <ol>
+ * <li>the {@link SearchResultCache}, unless the hits depend on the user;</li>
+ * <li>the {@link DateIndex}, when it holds the scope, type and sort property of the search;</li>
+ * <li>the {@link FullTextIndex}, for searches with the index search backend;</li>
+ * <li>a query on a pooled session on the {@link SearchExecutor}, for searches started in the background, with a
+ * query manager of the {@link HstQueryManagerFactory};</li>
+ * <li>a query on the session of the request.</li>
+ * </ol>
+ * Equal queries that execute at the same time are executed once. All collaborators are optional, without them every
+ * search queries the session of the request.
+ */
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    private static final String MODIFICATION_DATE_PROPERTY = "hippostdpubwf:lastModificationDate";
+
+    private final SingleFlight<SearchKey, SearchHits> searchesInFlight = new SingleFlight<SearchKey, SearchHits>();
+
+    private SearchResultCache searchResultCache;
+    private SearchExecutor searchExecutor;
+    private HstQueryManagerFactory hstQueryManagerFactory;
+    private SnippetCache snippetCache;
+    private DateIndex dateIndex;
+    private FullTextIndex fullTextIndex;
+    private SlowQueryLog slowQueryLog;
+    private ComponentMetrics componentMetrics;
+
+    public void setSearchResultCache(final SearchResultCache searchResultCache) {
+        this.searchResultCache = searchResultCache;
+    }
+
+    public void setSearchExecutor(final SearchExecutor searchExecutor) {
+        this.searchExecutor = searchExecutor;
+    }
+
+    public void setHstQueryManagerFactory(final HstQueryManagerFactory hstQueryManagerFactory) {
+        this.hstQueryManagerFactory = hstQueryManagerFactory;
+    }
+
+    public void setSnippetCache(final SnippetCache snippetCache) {
+        this.snippetCache = snippetCache;
+    }
+
+    public void setDateIndex(final DateIndex dateIndex) {
+        this.dateIndex = dateIndex;
+    }
+
+    public void setFullTextIndex(final FullTextIndex fullTextIndex) {
+        this.fullTextIndex = fullTextIndex;
+    }
+
+    public void setSlowQueryLog(final SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @return the metrics the queries of sampled requests are timed with, or <code>null</code>
+     */
+    public ComponentMetrics getComponentMetrics() {
+        return componentMetrics;
+    }
+
+    public void setComponentMetrics(final ComponentMetrics componentMetrics) {
+        this.componentMetrics = componentMetrics;
+    }
+
+    /**
+     * Searches for the hits of <code>search</code> and creates the result for the templates. When the result holds
+     * more hits than a page, the pagination is part of it.
+     * @param background whether to execute a query on the {@link SearchExecutor} and return a
+     *                   {@link DeferredSearchResult}, which completes when the template renders it. Cached searches,
+     *                   searches that need the session of the request (channel manager requests and subject based
+     *                   sessions) and searches that find the executor saturated are executed right away.
+     */
+    public SearchResult search(final HstRequestContext requestContext, final HippoBean scope,
+                               final SearchParameters search, final boolean background) throws HstComponentException {
+        // hits of a subject based session depend on the user, so they cannot be shared between users
+        final SearchResultCache cache = search.shared ? searchResultCache : null;
+        final long generation = cache == null ? 0 : cache.getGeneration();
+        final SearchHits cached = cache == null ? null : cache.get(search.key);
+
+        SearchResult result = null;
+        final SearchHits indexed = cached == null ? getIndexedHits(search) : null;
+        if (cached != null) {
+            log.debug("Serving cached hits for {}", search.key);
+            result = createResult(requestContext, search, cached, null, false, generation);
+        } else if (indexed != null) {
+            log.debug("Serving hits for {} from the date index", search.key);
+            result = createResult(requestContext, search, indexed, null, false, generation);
+        } else if (background) {
+            result = startBackgroundSearch(requestContext, scope, search, generation);
+        }
+        if (result == null) {
+            result = executeOnRequestSession(requestContext, scope, search, generation, true);
+        }
+        return result;
+    }
+
+    /**
+     * Executes the search on the session of the request
+     * @param coalesce whether to wait for an equal search that is already executing, see {@link #executeSearchOnce}
+     */
+    private SearchResult executeOnRequestSession(final HstRequestContext requestContext, final HippoBean scope,
+                                                 final SearchParameters search, final long generation,
+                                                 final boolean coalesce) throws HstComponentException {
+        final List<HippoBean> beans = new ArrayList<HippoBean>(search.maxHits);
+        final SearchHits hits;
+        try {
+            hits = coalesce ? executeSearchOnce(requestContext.getQueryManager(), scope.getNode(), search, beans)
+                    : executeSearch(requestContext.getQueryManager(), scope.getNode(), search, beans);
+        } catch (QueryException e) {
+            throw new HstComponentException("Exception occurred during creation or execution of HstQuery. ", e);
+        }
+        // a request that waited for an equal search of another request gets its hits, but no beans
+        final boolean executed = beans.size() == hits.getIdentifiers().size();
+        return createResult(requestContext, search, hits, executed ? beans : null, true, generation);
+    }
+
+    /**
+     * Submits the search to the {@link SearchExecutor}
+     * @return a deferred result of the search, or <code>null</code> when the search cannot run in the background
+     */
+    private SearchResult startBackgroundSearch(final HstRequestContext requestContext, final HippoBean scope,
+                                               final SearchParameters search, final long generation) {
+        final SearchExecutor executor = searchExecutor;
+        final HstQueryManagerFactory queryManagerFactory = hstQueryManagerFactory;
+        if (executor == null || queryManagerFactory == null || requestContext.isCmsRequest() || !search.shared) {
+            return null;
+        }
+        // the request context is not thread safe, the pool thread only gets what it needs from it
+        final ObjectConverter objectConverter = requestContext.getContentBeansTool().getObjectConverter();
+        final Future<SearchHits> future = executor.submit(search.preview,
+                new PooledSessionTemplate.SessionCallback<SearchHits>() {
+                    @Override
+                    public SearchHits doInSession(final Session session) throws Exception {
+                        // beans of a pooled session must not leave this callback, only their identifiers do
+                        return executeSearchOnce(queryManagerFactory.createQueryManager(session, objectConverter),
+                                session.getNode(search.scopePath), search, null);
+                    }
+                });
+        if (future == null) {
+            return null;
+        }
+        return new DeferredSearchResult(new Callable<SearchResult>() {
+            @Override
+            public SearchResult call() throws Exception {
+                final SearchHits hits;
+                try {
+                    hits = future.get(executor.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // interrupting a thread inside the repository is not safe, let it finish on its own
+                    future.cancel(false);
+                    log.warn("Background search for {} did not complete in time, searching on the request thread", search.key);
+                    // the slow search still owns its key in flight, waiting for it again would defeat the timeout
+                    return executeOnRequestSession(requestContext, scope, search, generation, false);
+                } catch (ExecutionException e) {
+                    throw new HstComponentException("Exception occurred during background execution of HstQuery. ", e.getCause());
+                }
+                return createResult(requestContext, search, hits, null, true, generation);
+            }
+        });
+    }
+
+    /**
+     * Executes the search with {@link #executeSearch}, unless an equal search is already executing for another
+     * request, in which case it waits for that search and shares its hits. During traffic peaks this turns a burst
+     * of identical queries into a single one. Searches on subject based sessions are never shared, because their hits
+     * depend on the user.
+     */
+    private SearchHits executeSearchOnce(final HstQueryManager queryManager, final Node scope, final SearchParameters search,
+                                         final List<HippoBean> beans) throws QueryException {
+        if (!search.shared) {
+            return executeSearch(queryManager, scope, search, beans);
+        }
+        try {
+            return searchesInFlight.execute(search.key, new Callable<SearchHits>() {
+                @Override
+                public SearchHits call() throws Exception {
+                    return executeSearch(queryManager, scope, search, beans);
+                }
+            });
+        } catch (QueryException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new QueryException("Search for " + search.key + " did not complete", e);
+        }
+    }
+
+    /**
+     * Executes a search with <code>queryManager</code>, which may belong to the session of the request or to a pooled
+     * session. The matched beans are added to <code>beans</code> when it is not <code>null</code>.
+     * @return the hits of the search
+     */
+    private SearchHits executeSearch(final HstQueryManager queryManager, final Node scope, final SearchParameters search,
+                                     final List<HippoBean> beans) throws QueryException {
+        if (search.fullText) {
+            final SearchHits indexHits = searchFullTextIndex(search);
+            if (indexHits != null) {
+                return indexHits;
+            }
+        }
+        final long start = System.nanoTime();
+        final HstQuery hstQuery = createQuery(queryManager, scope, search);
+        final long built = System.nanoTime();
+        HstQueryResult queryResult = hstQuery.execute();
+
+        final List<String> identifiers = new ArrayList<String>(search.maxHits);
+        final HippoBeanIterator it = queryResult.getHippoBeans();
+        if (search.countToLimit && search.offset > 0) {
+            it.skip(Math.min(search.offset, (int) it.getSize()));
+        }
+        while (it.hasNext() && identifiers.size() < search.maxHits) {
+            final HippoBean bean = it.nextHippoBean();
+            if (bean != null) {
+                identifiers.add(bean.getCanonicalUUID());
+                if (beans != null) {
+                    beans.add(bean);
+                }
+            }
+        }
+
+        int totalSize = -1;
+        boolean totalSizeExact = false;
+        if (search.cursorPaging) {
+            // with cursor paging the total size would only count the hits beyond the cursor
+            totalSize = -1;
+        } else if (search.exactCount) {
+            totalSize = queryResult.getTotalSize();
+            totalSizeExact = true;
+        } else if (search.countToLimit) {
+            // the size of a limited result is bounded by the limit, unlike its total size
+            final int size = queryResult.getSize();
+            totalSizeExact = size <= search.fetchLimit;
+            totalSize = totalSizeExact ? size : search.countLimit;
+        } else if (GeneralListInfo.COUNT_MODE_ESTIMATED.equals(search.countMode)) {
+            // beyond the count limit, the count limit is all an estimated count tells
+            totalSize = search.countLimit;
+        }
+        if (search.metrics != null) {
+            search.metrics.record(search.component, search.sitemapItem, ComponentMetrics.METRIC_QUERY_BUILD, (built - start) / 1000L);
+            search.metrics.record(search.component, search.sitemapItem, ComponentMetrics.METRIC_QUERY_EXECUTE,
+                    (System.nanoTime() - built) / 1000L);
+            if (totalSizeExact) {
+                search.metrics.record(search.component, search.sitemapItem, ComponentMetrics.METRIC_RESULT_SIZE, totalSize);
+            }
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - built);
+        if (slowQueryLog != null && slowQueryLog.isSlow(elapsedMillis)) {
+            logSlowQuery(hstQuery, search, totalSize, elapsedMillis);
+        }
+        return new SearchHits(identifiers, totalSize, totalSizeExact, null);
+    }
+
+    /**
+     * Adds the query of <code>search</code> to the slow query log, with the statement it was executed as
+     */
+    private void logSlowQuery(final HstQuery hstQuery, final SearchParameters search, final int totalSize,
+                              final long elapsedMillis) {
+        String statement;
+        try {
+            statement = hstQuery.getQueryAsString(true);
+        } catch (QueryException e) {
+            statement = "(" + e.getMessage() + ")";
+        }
+        final boolean paged = !search.cursorPaging && !search.countToLimit;
+        final int limit = search.countToLimit ? search.fetchLimit + 1 : search.maxHits;
+        slowQueryLog.add(new SlowQuery(System.currentTimeMillis(), elapsedMillis, search.component, statement,
+                search.scopePath, search.docType, search.sortBy, search.descending ? "descending" : "ascending",
+                paged ? search.offset : 0, limit, totalSize));
+    }
+
+    /**
+     * @return the hits of the page of <code>search</code> from the {@link FullTextIndex}, or <code>null</code> when the
+     * repository must be queried instead
+     */
+    SearchHits searchFullTextIndex(final SearchParameters search) {
+        final FullTextIndex index = fullTextIndex;
+        if (index == null || !index.isAvailable()) {
+            return null;
+        }
+        try {
+            return index.search(search.scopePath, search.docType, search.parsedQuery, search.offset, search.maxHits);
+        } catch (IOException e) {
+            log.warn("Full text search for {} failed, querying the repository: {}", search.key, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return the hits of the page of <code>search</code> from the {@link DateIndex}, counted as the count mode asks,
+     * or <code>null</code> when the index cannot answer it: it searches another scope, type or sort property, it has a
+     * date range on another property, it has a query, it is cursor paged, or it needs other than the published
+     * documents everybody can read, which the index holds
+     */
+    private SearchHits getIndexedHits(final SearchParameters search) {
+        final DateIndex index = dateIndex;
+        if (index == null || !isIndexed(index, search)
+                || search.cursorPaging || search.fullText || !index.matches(search.scopePath, search.docType, search.sortBy)
+                || (search.dateRange != null && !index.getDateProperty().equals(search.dateRangeProperty))) {
+            return null;
+        }
+        final SearchHits hits = search.dateRange == null
+                ? index.getHits(search.offset, search.maxHits, search.descending)
+                : index.getHits(search.dateRange, search.offset, search.maxHits, search.descending);
+        if (search.exactCount || (GeneralListInfo.COUNT_MODE_ESTIMATED.equals(search.countMode)
+                && hits.getTotalSize() <= search.countLimit)) {
+            return hits;
+        }
+        final int totalSize = GeneralListInfo.COUNT_MODE_ESTIMATED.equals(search.countMode) ? search.countLimit : -1;
+        return new SearchHits(hits.getIdentifiers(), totalSize, false, null);
+    }
+
+    /**
+     * @return <code>true</code> when <code>index</code> is available and holds the documents <code>search</code> can
+     * see: it has no query and reads the published documents everybody can read
+     */
+    static boolean isIndexed(final DateIndex index, final SearchParameters search) {
+        return index.isAvailable() && StringUtils.isEmpty(search.parsedQuery) && search.shared && !search.preview;
+    }
+
+    /**
+     * Creates the repository query of a search, with the sorting and the limit and offset of its page
+     */
+    HstQuery createQuery(final HstQueryManager queryManager, final Node scope, final SearchParameters search)
+            throws QueryException {
+        @SuppressWarnings("unchecked")
+        HstQuery hstQuery = queryManager.createQuery(scope, search.filterClass, true);
+        Filter f = hstQuery.createFilter();
+        final String sortBy = search.sortBy;
+        final PageCursor cursor = search.cursor;
+        if (search.cursorPaging) {
+            hstQuery.setLimit(search.maxHits);
+            final boolean reversed = cursor != null && cursor.isBefore();
+            if (search.descending != reversed) {
+                hstQuery.addOrderByDescending(sortBy);
+            } else {
+                hstQuery.addOrderByAscending(sortBy);
+            }
+            if (reversed) {
+                hstQuery.addOrderByDescending(PageCursor.IDENTIFIER_PROPERTY);
+            } else {
+                hstQuery.addOrderByAscending(PageCursor.IDENTIFIER_PROPERTY);
+            }
+            if (cursor != null) {
+                f.addAndFilter(cursor.createFilter(hstQuery, sortBy, search.descending));
+            }
+        } else {
+            if (search.countToLimit) {
+                hstQuery.setLimit(search.fetchLimit + 1);
+            } else {
+                hstQuery.setLimit(search.maxHits);
+                hstQuery.setOffset(search.offset);
+            }
+            if (sortBy != null && !sortBy.isEmpty()) {
+                if (search.descending) {
+                    hstQuery.addOrderByDescending(sortBy);
+                } else {
+                    hstQuery.addOrderByAscending(sortBy);
+                }
+            }
+        }
+
+        if (!StringUtils.isEmpty(search.parsedQuery)) {
+            f.addContains(".", search.parsedQuery);
+        }
+        search.addDateRange(f);
+        if (!StringUtils.isEmpty(search.parsedQuery) || cursor != null || search.dateRange != null) {
+            hstQuery.setFilter(f);
+        }
+        return hstQuery;
+    }
+
+    /**
+     * Creates the result for the templates from <code>hits</code>, on the request thread. Hits are projected when the
+     * search asks for it and they are not yet, and stored in the {@link SearchResultCache} when they are new.
+     * @param beans the beans of <code>hits</code> when they are at hand, otherwise <code>null</code>
+     * @param store whether <code>hits</code> have just been executed and should be cached
+     */
+    private SearchResult createResult(final HstRequestContext requestContext, final SearchParameters search,
+                                      final SearchHits hits, final List<HippoBean> beans, final boolean store,
+                                      final long generation) {
+        SearchHits resultHits = hits;
+        List<HippoBean> resultBeans = beans;
+        if (search.projection != null && hits.getProjections() == null) {
+            if (resultBeans == null) {
+                resultBeans = resolveHits(requestContext, hits);
+            }
+            final List<DocumentProjection> projections = new ArrayList<DocumentProjection>(resultBeans.size());
+            for (HippoBean bean : resultBeans) {
+                projections.add(DocumentProjection.create(bean, search.projection, createLink(requestContext, bean),
+                        createImage(requestContext, bean, search.projection)));
+            }
+            resultHits = new SearchHits(hits.getIdentifiers(), hits.getTotalSize(), hits.isTotalSizeExact(), projections,
+                    hits.getHighlights());
+        }
+        final SearchResultCache cache = search.shared ? searchResultCache : null;
+        if (cache != null && (store || resultHits != hits)) {
+            cache.put(search.key, resultHits, generation);
+        }
+
+        final List<DocumentProjection> projections = resultHits.getProjections();
+        if (projections == null && resultBeans == null) {
+            resultBeans = resolveHits(requestContext, resultHits);
+        }
+        if (search.cursorPaging) {
+            return createCursorPagedResult(resultBeans, search.pageSize, search.sortBy, search.cursor);
+        }
+
+        final int pageSize = search.pageSize;
+        final int totalSize = resultHits.getTotalSize();
+        final boolean totalSizeExact = resultHits.isTotalSizeExact();
+        final int hitCount = projections != null ? projections.size() : resultBeans.size();
+        // the hits known so far: the hits before this page, this page and the extra hit beyond it
+        final int knownSize = totalSizeExact ? totalSize : Math.max(totalSize, search.offset + hitCount);
+        Pagination pagination = null;
+        if (search.pagesWindow > 0 && knownSize > pageSize) {
+            pagination = new Pagination(search.crPage, pageSize, knownSize, search.pagesWindow, totalSizeExact);
+        }
+        if (projections != null) {
+            return new SearchResult(hitCount > pageSize ? projections.subList(0, pageSize) : projections,
+                    totalSize, totalSizeExact, pagination, resultHits.getHighlights());
+        }
+        final List<HippoBean> page = hitCount > pageSize ? resultBeans.subList(0, pageSize) : resultBeans;
+        Map<String, String> highlights = resultHits.getHighlights();
+        if (highlights.isEmpty() && search.snippetSource != null) {
+            highlights = createSnippets(search, page);
+        }
+        return new SearchResult(page, totalSize, totalSizeExact, pagination, null, null, highlights);
+    }
+
+    /**
+     * Creates the snippets of the beans of a page, by canonical identifier. A snippet is cached per version of its
+     * document and query, so a page that is requested again is not scanned again.
+     */
+    private Map<String, String> createSnippets(final SearchParameters search, final List<HippoBean> beans) {
+        final List<String> terms = SnippetExtractor.getTerms(search.parsedQuery);
+        if (terms.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final SnippetExtractor extractor = new SnippetExtractor(search.snippetScanChars, search.snippetLength);
+        final SnippetCache cache = snippetCache;
+        final Map<String, String> snippets = new HashMap<String, String>();
+        for (HippoBean bean : beans) {
+            final String identifier = bean.getCanonicalUUID();
+            final Object modified = bean.getProperty(MODIFICATION_DATE_PROPERTY);
+            final String key = cache == null || !(modified instanceof Calendar) ? null
+                    : identifier + '/' + ((Calendar) modified).getTimeInMillis() + '/' + search.snippetSource + '/'
+                    + search.snippetScanChars + '/' + search.snippetLength + '/' + search.parsedQuery;
+            String snippet = key == null ? null : cache.get(key);
+            if (snippet == null) {
+                snippet = extractor.extract(getSnippetText(bean, search.snippetSource), terms);
+                if (key != null) {
+                    cache.put(key, snippet);
+                }
+            }
+            if (!StringUtils.isEmpty(snippet)) {
+                snippets.put(identifier, snippet);
+            }
+        }
+        return snippets;
+    }
+
+    /**
+     * @return the content of the HTML node or the value of the string property <code>source</code> of
+     * <code>bean</code>, or <code>null</code> when it has neither
+     */
+    private static String getSnippetText(final HippoBean bean, final String source) {
+        final HippoBean child = bean.getBean(source);
+        if (child instanceof HippoHtml) {
+            return ((HippoHtml) child).getContent();
+        }
+        final Object value = bean.getProperty(source);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * Creates the result of a cursor paged search. <code>beans</code> holds at most one hit more than the page size,
+     * in query order, which is reversed for cursors pointing backwards.
+     */
+    private static SearchResult createCursorPagedResult(final List<HippoBean> beans, final int pageSize,
+                                                        final String sortBy, final PageCursor cursor) {
+        final boolean more = beans.size() > pageSize;
+        final List<HippoBean> page = new ArrayList<HippoBean>(more ? beans.subList(0, pageSize) : beans);
+        final boolean backwards = cursor != null && cursor.isBefore();
+        if (backwards) {
+            Collections.reverse(page);
+        }
+        if (page.isEmpty()) {
+            return new SearchResult(page, -1);
+        }
+
+        final HippoBean first = page.get(0);
+        final HippoBean last = page.get(page.size() - 1);
+        PageCursor previous = null;
+        PageCursor next = null;
+        if (backwards) {
+            previous = more ? PageCursor.before(first, sortBy) : null;
+            next = PageCursor.after(last, sortBy);
+        } else {
+            previous = cursor != null ? PageCursor.before(first, sortBy) : null;
+            next = more ? PageCursor.after(last, sortBy) : null;
+        }
+        return new SearchResult(page, -1, false, null,
+                previous == null ? null : previous.toToken(),
+                next == null ? null : next.toToken());
+    }
+
+    /**
+     * Resolves cached hits against the session of the current request. Documents that can no longer be read, for
+     * instance because they were depublished after the hits were cached, are skipped.
+     */
+    static List<HippoBean> resolveHits(final HstRequestContext requestContext, final SearchHits hits) {
+        final ObjectBeanManager objectBeanManager = requestContext.getObjectBeanManager();
+        final List<HippoBean> beans = new ArrayList<HippoBean>(hits.getIdentifiers().size());
+        for (String identifier : hits.getIdentifiers()) {
+            try {
+                final Object bean = objectBeanManager.getObjectByUuid(identifier);
+                if (bean instanceof HippoBean) {
+                    beans.add((HippoBean) bean);
+                } else {
+                    log.debug("Skipping cached hit '{}' because it no longer resolves to a bean", identifier);
+                }
+            } catch (ObjectBeanManagerException e) {
+                log.debug("Skipping cached hit '{}': {}", identifier, e.toString());
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * @return the url of <code>bean</code> in the mount of the current request, or <code>null</code> when no link can
+     * be created for it
+     */
+    static String createLink(final HstRequestContext requestContext, final HippoBean bean) {
+        final HstLink link = requestContext.getHstLinkCreator().create(bean, requestContext);
+        return link == null ? null : link.toUrlForm(requestContext, false);
+    }
+
+    /**
+     * @return the thumbnail of the image set one of <code>propertyNames</code> of <code>bean</code> links to, for lists
+     * that show images from projections, or <code>null</code> when none of them links to an image set
+     */
+    private static DocumentProjection.Image createImage(final HstRequestContext requestContext, final HippoBean bean,
+                                                        final List<String> propertyNames) {
+        for (String propertyName : propertyNames) {
+            final Object linked = bean.getBean(propertyName);
+            if (!(linked instanceof HippoMirrorBean)) {
+                continue;
+            }
+            final HippoBean referenced = ((HippoMirrorBean) linked).getReferencedBean();
+            if (referenced instanceof HippoGalleryImageSetBean) {
+                final HippoGalleryImageSetBean image = (HippoGalleryImageSetBean) referenced;
+                if (image.getThumbnail() == null) {
+                    return null;
+                }
+                final String thumbnail = createLink(requestContext, image.getThumbnail());
+                return thumbnail == null ? null : new DocumentProjection.Image(thumbnail, image.getFileName());
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.example.search;
+
+import java.util.Map;
+
+import org.example.cache.LruMap;
+
+/**
+ * Bounded cache of search snippets. The keys of the snippets hold the version of their document and the query, so
+ * entries never go stale: a new version of a document gets new keys and its old entries are evicted in time.
+ */
+public class SnippetCache {
+
+    /**
+     * Cached for snippets of documents that do not match, so they are not scanned again
+     */
+    public static final String NO_SNIPPET = "";
+
+    private final Map<String, String> entries;
+    private volatile boolean enabled = true;
+
+    public SnippetCache(final int maxSize) {
+        this.entries = new LruMap<String, String>(maxSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the cached snippet for <code>key</code>, {@link #NO_SNIPPET} when the document did not match, or
+     * <code>null</code> when there is none
+     */
+    public String get(final String key) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    public void put(final String key, final String snippet) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, snippet == null ? NO_SNIPPET : snippet);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package org.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Extracts a snippet around the first match of a query from the HTML or plain text of a document, with the matched
+ * terms in <code>strong</code> elements. Only the first <code>maxScanChars</code> characters of a document are
+ * scanned, so the cost per document is bounded however large the document is.
+ */
+public final class SnippetExtractor {
+
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String ELLIPSIS = "&hellip;";
+
+    private final int maxScanChars;
+    private final int snippetLength;
+
+    /**
+     * @param maxScanChars the maximum number of characters of a document to scan for a match
+     * @param snippetLength the maximum number of characters of text in a snippet
+     */
+    public SnippetExtractor(final int maxScanChars, final int snippetLength) {
+        this.maxScanChars = maxScanChars;
+        this.snippetLength = snippetLength;
+    }
+
+    /**
+     * @param parsedQuery a query as parsed by {@link org.hippoecm.hst.util.SearchInputParsingUtils}
+     * @return the distinct terms of <code>parsedQuery</code> in lower case, without excluded terms, operators, quotes
+     * and wildcards
+     */
+    public static List<String> getTerms(final String parsedQuery) {
+        final String[] words = StringUtils.split(parsedQuery);
+        if (words == null) {
+            return Collections.emptyList();
+        }
+        final List<String> terms = new ArrayList<String>(words.length);
+        for (String word : words) {
+            if (word.startsWith("-") || "OR".equals(word) || "AND".equals(word)) {
+                continue;
+            }
+            final String term = StringUtils.strip(word, "\"*?+()").toLowerCase(Locale.ENGLISH);
+            if (term.length() > 0 && !terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @param html the HTML or plain text of a document, may be <code>null</code>
+     * @param terms the terms to match, in lower case
+     * @return the escaped HTML of the snippet around the first match, or <code>null</code> when none of the terms
+     * matches within the scanned characters
+     */
+    public String extract(final String html, final List<String> terms) {
+        if (html == null || terms.isEmpty()) {
+            return null;
+        }
+        final String text = toText(html.length() > maxScanChars ? html.substring(0, maxScanChars) : html);
+
+        int first = -1;
+        for (String term : terms) {
+            final int index = indexOf(text, term, 0);
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        if (first < 0) {
+            return null;
+        }
+
+        // start a third of the snippet before the match, at the start of a word
+        int start = Math.max(0, first - snippetLength / 3);
+        if (start > 0) {
+            final int space = text.indexOf(' ', start);
+            start = space < 0 || space >= first ? start : space + 1;
+        }
+        int end = Math.min(text.length(), start + snippetLength);
+        if (end < text.length()) {
+            final int space = text.lastIndexOf(' ', end);
+            end = space <= first ? end : space;
+        }
+
+        final StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append(ELLIPSIS).append(' ');
+        }
+        highlight(snippet, text, start, end, terms);
+        if (end < text.length()) {
+            snippet.append(' ').append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    private static void highlight(final StringBuilder snippet, final String text, final int start, final int end,
+                                  final List<String> terms) {
+        int position = start;
+        while (position < end) {
+            int match = -1;
+            int matchLength = 0;
+            for (String term : terms) {
+                final int index = indexOf(text, term, position);
+                if (index >= 0 && index + term.length() <= end
+                        && (match < 0 || index < match || (index == match && term.length() > matchLength))) {
+                    match = index;
+                    matchLength = term.length();
+                }
+            }
+            if (match < 0) {
+                snippet.append(StringEscapeUtils.escapeHtml(text.substring(position, end)));
+                return;
+            }
+            snippet.append(StringEscapeUtils.escapeHtml(text.substring(position, match)));
+            snippet.append("<strong>").append(StringEscapeUtils.escapeHtml(text.substring(match, match + matchLength)))
+                    .append("</strong>");
+            position = match + matchLength;
+        }
+    }
+
+    /**
+     * Finds <code>term</code> in <code>text</code> ignoring case. Unlike searching a lower case copy, the index is
+     * always one of <code>text</code>, as lower casing may change the length of a string.
+     * @return the index of the first match at or after <code>from</code>, or <code>-1</code>
+     */
+    static int indexOf(final String text, final String term, final int from) {
+        final int last = text.length() - term.length();
+        for (int i = from; i <= last; i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the text of <code>html</code> without markup and with collapsed white space
+     */
+    static String toText(final String html) {
+        String markup = html;
+        // a scan limit in the middle of a tag leaves its start behind
+        final int lastOpen = markup.lastIndexOf('<');
+        if (lastOpen > markup.lastIndexOf('>')) {
+            markup = markup.substring(0, lastOpen);
+        }
+        final String text = StringEscapeUtils.unescapeHtml(TAGS.matcher(markup).replaceAll(" "));
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+}
@@ -0,0 +1,731 @@
+package org.example.sitemap;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.binaries.DiskCache;
+import org.example.jcr.ContentChangeSubscriber;
+import org.example.jcr.PooledSessionTemplate;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.linking.HstLink;
+import org.hippoecm.hst.core.linking.HstLinkCreator;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates the XML sitemaps and the RSS feed of the published documents below a root path into a {@link DiskCache},
+ * from where the {@link SitemapServlet} sends them.
+ * <p>
+ * The sitemap is split into sections: the folders at the section depth below the root, with all documents below them,
+ * and the folders above that depth, with only the documents directly in them. With the default depth of two, the news
+ * of a month is a section. Every section is written to one or more sitemap files of at most the maximum number of
+ * URLs, which the sitemap index lists. Documents are read while the folders are walked and their URLs are streamed to
+ * disk, so the memory used does not depend on the size of the content.
+ * <p>
+ * Files are only generated when they are requested. As a {@link ContentChangeSubscriber}, the service marks the
+ * sections touched by content changes, so that only those are generated again, together with the index and the feed.
+ * Generation is serialized, crawlers requesting a file that is being generated wait for it.
+ * <p>
+ * The URLs of documents are created by the {@link HstLinkCreator} for the live mount at the mount path of the host of
+ * the base URL, so they are the URLs the site links the documents with. The service is disabled as long as it has no
+ * base URL.
+ */
+public class SitemapService implements ContentChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(SitemapService.class);
+
+    private static final String SITEMAP_NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final String NT_HANDLE = "hippo:handle";
+    private static final String[] FOLDER_TYPES = {"hippostd:folder", "hippostd:directory"};
+    private static final String MODIFICATION_DATE_PROPERTY = "hippostdpubwf:lastModificationDate";
+    private static final String TITLE_PROPERTY = "myhippoproject:title";
+    private static final String SUMMARY_PROPERTY = "myhippoproject:summary";
+    private static final String DATE_PROPERTY = "myhippoproject:date";
+    private static final String FILE_PREFIX = "sitemap-";
+    private static final String FILE_SUFFIX = ".xml";
+
+    private final PooledSessionTemplate sessionTemplate;
+    private final DiskCache diskCache;
+    private final String rootPath;
+    private final String baseUrl;
+    // files of a previous run are left in the disk cache, their keys must not be reused
+    private final long startTime = System.currentTimeMillis();
+    private volatile boolean enabled = true;
+    private String mountPath = "/";
+    private int maxUrls = 50000;
+    private int sectionDepth = 2;
+    private int batchSize = 1000;
+    private String feedTitle = "News";
+    private String feedDocumentType = "myhippoproject:newsdocument";
+    private int feedSize = 50;
+    private int maxAge = 3600;
+
+    // the paths below the root of content changes that were not yet applied to the sections
+    private final Queue<String> changes = new ConcurrentLinkedQueue<String>();
+    // the sections by path relative to the root, guarded by this
+    private final Map<String, Section> sections = new TreeMap<String, Section>();
+    private boolean discovered;
+    private long version;
+    private String indexKey;
+    private String feedKey;
+
+    /**
+     * @param sessionTemplate   the template for the live sessions the files are generated with
+     * @param diskCache         the cache of the generated files
+     * @param rootPath          the path of the folder with the documents of the sitemap, for instance
+     *                          <code>/content/documents/myhippoproject/news</code>
+     * @param baseUrl           the absolute URL of the site, with its context path when URLs show it, below which the
+     *                          sitemaps are served, for instance <code>http://www.example.org/site</code>. The service
+     *                          is disabled when it is empty.
+     */
+    public SitemapService(final PooledSessionTemplate sessionTemplate, final DiskCache diskCache, final String rootPath,
+                          final String baseUrl) {
+        this.sessionTemplate = sessionTemplate;
+        this.diskCache = diskCache;
+        this.rootPath = rootPath;
+        this.baseUrl = stripTrailingSlash(StringUtils.trimToEmpty(baseUrl));
+    }
+
+    /**
+     * @return whether the service is enabled and has a base URL
+     */
+    public boolean isEnabled() {
+        return enabled && !baseUrl.isEmpty();
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+        if (enabled && baseUrl.isEmpty()) {
+            log.warn("The sitemaps and the feed of '{}' are disabled until their base URL is configured", rootPath);
+        }
+    }
+
+    /**
+     * @param mountPath the path of the live mount below the host of the base URL that documents are linked for, for
+     *                  instance <code>/</code> for the root mount
+     */
+    public void setMountPath(final String mountPath) {
+        this.mountPath = mountPath;
+    }
+
+    /**
+     * @param maxUrls the maximum number of URLs in a sitemap file, at most 50000 by the sitemap protocol
+     */
+    public void setMaxUrls(final int maxUrls) {
+        this.maxUrls = Math.max(1, Math.min(maxUrls, 50000));
+    }
+
+    /**
+     * @param sectionDepth the depth below the root of the folders that are a section with all documents below them
+     */
+    public void setSectionDepth(final int sectionDepth) {
+        this.sectionDepth = Math.max(0, sectionDepth);
+    }
+
+    /**
+     * @param batchSize the number of URLs after which the file that is generated is flushed to disk
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void setFeedTitle(final String feedTitle) {
+        this.feedTitle = feedTitle;
+    }
+
+    /**
+     * @param feedDocumentType the type of the documents of the feed
+     */
+    public void setFeedDocumentType(final String feedDocumentType) {
+        this.feedDocumentType = feedDocumentType;
+    }
+
+    /**
+     * @param feedSize the number of most recent documents in the feed
+     */
+    public void setFeedSize(final int feedSize) {
+        this.feedSize = feedSize;
+    }
+
+    /**
+     * @return the number of seconds clients may use a sitemap or feed without revalidating it
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(final int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public void contentChanged(final Set<String> paths) {
+        for (String path : paths) {
+            if (path.equals(rootPath)) {
+                changes.add("");
+            } else if (path.startsWith(rootPath + "/")) {
+                changes.add(path.substring(rootPath.length() + 1));
+            }
+        }
+    }
+
+    /**
+     * @return the sitemap index, listing the sitemap files of all sections
+     */
+    public synchronized File getIndex() throws Exception {
+        applyChanges();
+        final File cached = indexKey == null ? null : diskCache.get(indexKey);
+        if (cached != null) {
+            return cached;
+        }
+        return sessionTemplate.execute(false, new PooledSessionTemplate.SessionCallback<File>() {
+            @Override
+            public File doInSession(final Session session) throws Exception {
+                final long start = System.currentTimeMillis();
+                discover(session);
+                int generated = 0;
+                DocumentLinker linker = null;
+                for (Section section : sections.values()) {
+                    if (section.dirty) {
+                        if (linker == null) {
+                            linker = createLinker();
+                        }
+                        generate(session, section, linker);
+                        generated++;
+                    }
+                }
+                final File index = writeIndex();
+                log.info("Generated the sitemap index of '{}' and {} of its {} sections in {} ms", new Object[]{rootPath,
+                        generated, sections.size(), System.currentTimeMillis() - start});
+                return index;
+            }
+        });
+    }
+
+    /**
+     * @param fileName the name of a sitemap file as listed in the index, for instance <code>sitemap-2013-05-1.xml</code>
+     * @return the sitemap file, or <code>null</code> when there is no such file
+     */
+    public synchronized File getSitemap(final String fileName) throws Exception {
+        applyChanges();
+        if (discovered) {
+            final File cached = getCachedSitemap(fileName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return sessionTemplate.execute(false, new PooledSessionTemplate.SessionCallback<File>() {
+            @Override
+            public File doInSession(final Session session) throws Exception {
+                if (!discovered) {
+                    discover(session);
+                }
+                for (Section section : sections.values()) {
+                    final int number = section.getFileNumber(fileName);
+                    if (number > 0) {
+                        File file = section.dirty ? null : diskCache.get(section.getKey(number));
+                        if (file == null) {
+                            // the number of files may change, and with it the index
+                            indexKey = null;
+                            generate(session, section, createLinker());
+                            file = number <= section.files ? diskCache.get(section.getKey(number)) : null;
+                        }
+                        return file;
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @return the RSS feed of the most recent documents of the feed document type, by their date
+     */
+    public synchronized File getFeed() throws Exception {
+        applyChanges();
+        final File cached = feedKey == null ? null : diskCache.get(feedKey);
+        if (cached != null) {
+            return cached;
+        }
+        return sessionTemplate.execute(false, new PooledSessionTemplate.SessionCallback<File>() {
+            @Override
+            public File doInSession(final Session session) throws Exception {
+                return writeFeed(session, createLinker());
+            }
+        });
+    }
+
+    private File getCachedSitemap(final String fileName) {
+        for (Section section : sections.values()) {
+            final int number = section.getFileNumber(fileName);
+            if (number > 0) {
+                return section.dirty || number > section.files ? null : diskCache.get(section.getKey(number));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks the sections that hold the paths of the content changes since the last call. As a changed path does not
+     * tell which of its ancestors is a folder, every section that is an ancestor of it is marked.
+     */
+    private void applyChanges() {
+        String change;
+        boolean changed = false;
+        while ((change = changes.poll()) != null) {
+            changed = true;
+            for (Section section : sections.values()) {
+                if (section.path.isEmpty() || change.equals(section.path) || change.startsWith(section.path + "/")) {
+                    section.dirty = true;
+                }
+            }
+        }
+        if (changed) {
+            // folders may have been added or removed
+            discovered = false;
+            indexKey = null;
+            feedKey = null;
+        }
+    }
+
+    /**
+     * Updates the sections to the folders below the root, keeping the sections that still exist
+     */
+    private void discover(final Session session) throws RepositoryException {
+        final Set<String> paths = new HashSet<String>();
+        if (session.nodeExists(rootPath)) {
+            collectSections(session.getNode(rootPath), "", 0, paths);
+        } else {
+            log.warn("Root path '{}' of the sitemap does not exist", rootPath);
+        }
+        for (Iterator<String> iterator = sections.keySet().iterator(); iterator.hasNext(); ) {
+            if (!paths.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        for (String path : paths) {
+            if (!sections.containsKey(path)) {
+                sections.put(path, new Section(path));
+            }
+        }
+        discovered = true;
+    }
+
+    private void collectSections(final Node folder, final String path, final int depth, final Set<String> paths)
+            throws RepositoryException {
+        if (depth == sectionDepth) {
+            paths.add(path);
+            return;
+        }
+        boolean documents = false;
+        for (NodeIterator children = folder.getNodes(); children.hasNext(); ) {
+            final Node child = children.nextNode();
+            if (child == null) {
+                continue;
+            }
+            if (child.isNodeType(NT_HANDLE)) {
+                documents = true;
+            } else if (isFolder(child)) {
+                collectSections(child, append(path, child.getName()), depth + 1, paths);
+            }
+        }
+        if (documents) {
+            paths.add(path);
+        }
+    }
+
+    /**
+     * Writes the sitemap files of <code>section</code>
+     */
+    private void generate(final Session session, final Section section, final DocumentLinker linker)
+            throws IOException, RepositoryException {
+        section.version = ++version;
+        section.files = 0;
+        section.lastModified = 0L;
+        final String folderPath = section.path.isEmpty() ? rootPath : rootPath + "/" + section.path;
+        final SitemapWriter writer = new SitemapWriter(section);
+        try {
+            if (session.nodeExists(folderPath)) {
+                walk(session.getNode(folderPath), countDepth(section.path) == sectionDepth, linker, writer);
+            }
+            writer.close();
+        } finally {
+            writer.abort();
+        }
+        section.dirty = false;
+    }
+
+    private void walk(final Node folder, final boolean deep, final DocumentLinker linker, final SitemapWriter writer)
+            throws IOException, RepositoryException {
+        for (NodeIterator children = folder.getNodes(); children.hasNext(); ) {
+            final Node child = children.nextNode();
+            if (child == null) {
+                continue;
+            }
+            if (child.isNodeType(NT_HANDLE)) {
+                if (child.hasNode(child.getName())) {
+                    final Node document = child.getNode(child.getName());
+                    final String url = linker.getUrl(child);
+                    if (url != null) {
+                        writer.url(url, getDate(document, MODIFICATION_DATE_PROPERTY));
+                    }
+                }
+            } else if (deep && isFolder(child)) {
+                walk(child, true, linker, writer);
+            }
+        }
+    }
+
+    private File writeIndex() throws IOException {
+        final DateFormat dateFormat = createW3cDateFormat();
+        final File temp = diskCache.createTempFile();
+        try {
+            final Writer out = createWriter(temp);
+            try {
+                final XmlWriter xml = new XmlWriter(out);
+                xml.startDocument();
+                xml.startElement("sitemapindex").attribute("xmlns", SITEMAP_NAMESPACE);
+                for (Section section : sections.values()) {
+                    for (int number = 1; number <= section.files; number++) {
+                        xml.startElement("sitemap");
+                        xml.element("loc", baseUrl + "/sitemaps/" + section.getFileName(number));
+                        if (section.lastModified > 0L) {
+                            xml.element("lastmod", dateFormat.format(new Date(section.lastModified)));
+                        }
+                        xml.endElement("sitemap");
+                    }
+                }
+                xml.endElement("sitemapindex");
+            } finally {
+                out.close();
+            }
+            final String key = "sitemap-index/" + startTime + '/' + (++version);
+            final File index = diskCache.put(key, temp);
+            indexKey = key;
+            return index;
+        } finally {
+            deleteIfExists(temp);
+        }
+    }
+
+    private File writeFeed(final Session session, final DocumentLinker linker) throws IOException, RepositoryException {
+        final long start = System.currentTimeMillis();
+        final DateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss Z", Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final File temp = diskCache.createTempFile();
+        try {
+            final Writer out = createWriter(temp);
+            int items = 0;
+            try {
+                final XmlWriter xml = new XmlWriter(out);
+                xml.startDocument();
+                xml.startElement("rss").attribute("version", "2.0");
+                xml.startElement("channel");
+                xml.element("title", feedTitle);
+                final Node root = session.nodeExists(rootPath) ? session.getNode(rootPath) : null;
+                final String rootUrl = root == null ? null : linker.getUrl(root);
+                xml.element("link", rootUrl == null ? baseUrl + '/' : rootUrl);
+                xml.element("description", feedTitle);
+                xml.element("lastBuildDate", dateFormat.format(new Date()));
+                if (root != null) {
+                    final String statement = "//element(*," + feedDocumentType + ")[@hippo:paths='"
+                            + root.getIdentifier() + "'] order by @" + DATE_PROPERTY + " descending";
+                    @SuppressWarnings("deprecation")
+                    final Query query = session.getWorkspace().getQueryManager().createQuery(statement, Query.XPATH);
+                    query.setLimit(feedSize);
+                    for (NodeIterator nodes = query.execute().getNodes(); nodes.hasNext(); ) {
+                        final Node document = nodes.nextNode();
+                        if (document == null) {
+                            continue;
+                        }
+                        final Node handle = document.getParent();
+                        final String url = linker.getUrl(handle);
+                        if (url == null) {
+                            continue;
+                        }
+                        xml.startElement("item");
+                        xml.element("title", getString(document, TITLE_PROPERTY));
+                        xml.element("link", url);
+                        xml.element("description", getString(document, SUMMARY_PROPERTY));
+                        final long date = getDate(document, DATE_PROPERTY);
+                        if (date > 0L) {
+                            xml.element("pubDate", dateFormat.format(new Date(date)));
+                        }
+                        xml.startElement("guid").attribute("isPermaLink", "false").text(handle.getIdentifier())
+                                .endElement("guid");
+                        xml.endElement("item");
+                        items++;
+                    }
+                }
+                xml.endElement("channel");
+                xml.endElement("rss");
+            } finally {
+                out.close();
+            }
+            final String key = "feed/" + startTime + '/' + (++version);
+            final File feed = diskCache.put(key, temp);
+            feedKey = key;
+            log.info("Generated the feed of '{}' with {} items in {} ms", new Object[]{rootPath, items,
+                    System.currentTimeMillis() - start});
+            return feed;
+        } finally {
+            deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the linker for the live mount at the mount path of the host of the base URL
+     * @throws IllegalStateException when there is no such mount
+     */
+    private DocumentLinker createLinker() throws MalformedURLException {
+        final URL url = new URL(baseUrl);
+        final HstManager hstManager = HstServices.isAvailable()
+                ? HstServices.getComponentManager().<HstManager>getComponent(HstManager.class.getName()) : null;
+        final HstLinkCreator linkCreator = HstServices.isAvailable()
+                ? HstServices.getComponentManager().<HstLinkCreator>getComponent(HstLinkCreator.class.getName()) : null;
+        if (hstManager == null || linkCreator == null) {
+            throw new IllegalStateException("The HST is not available to link the documents of the sitemap");
+        }
+        final ResolvedMount resolvedMount;
+        try {
+            resolvedMount = hstManager.getVirtualHosts().matchMount(url.getHost(), url.getPath(), mountPath);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot resolve the mount of " + baseUrl + " at '" + mountPath + "'", e);
+        }
+        if (resolvedMount == null || resolvedMount.getMount().isPreview()) {
+            throw new IllegalStateException("There is no live mount for " + baseUrl + " at '" + mountPath + "'");
+        }
+        return new DocumentLinker(resolvedMount.getMount(), linkCreator);
+    }
+
+    private static long getDate(final Node node, final String property) throws RepositoryException {
+        return node.hasProperty(property) ? node.getProperty(property).getDate().getTimeInMillis() : 0L;
+    }
+
+    private static String getString(final Node node, final String property) throws RepositoryException {
+        return node.hasProperty(property) ? node.getProperty(property).getString() : null;
+    }
+
+    private static boolean isFolder(final Node node) throws RepositoryException {
+        for (String folderType : FOLDER_TYPES) {
+            if (node.isNodeType(folderType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String append(final String path, final String name) {
+        return path.isEmpty() ? name : path + '/' + name;
+    }
+
+    private static int countDepth(final String path) {
+        return path.isEmpty() ? 0 : path.split("/").length;
+    }
+
+    private static String stripTrailingSlash(final String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static DateFormat createW3cDateFormat() {
+        final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return dateFormat;
+    }
+
+    private static Writer createWriter(final File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+
+    private static void deleteIfExists(final File file) {
+        if (file.exists() && !file.delete()) {
+            log.warn("Cannot delete {}", file);
+        }
+    }
+
+    /**
+     * Creates the absolute URLs of documents and folders on a live mount, below the base URL
+     */
+    private final class DocumentLinker {
+
+        private final Mount mount;
+        private final HstLinkCreator linkCreator;
+
+        private DocumentLinker(final Mount mount, final HstLinkCreator linkCreator) {
+            this.mount = mount;
+            this.linkCreator = linkCreator;
+        }
+
+        /**
+         * @return the URL of the page of <code>node</code>, or <code>null</code> when the mount has no page for it
+         */
+        private String getUrl(final Node node) throws UnsupportedEncodingException, RepositoryException {
+            final HstLink link = linkCreator.create(node, mount);
+            if (link == null || link.isNotFound() || link.getPath() == null) {
+                log.debug("No link for '{}' on mount '{}'", node.getPath(), mount.getName());
+                return null;
+            }
+            final StringBuilder url = new StringBuilder(baseUrl).append(mount.getMountPath());
+            final String[] segments = StringUtils.split(link.getPath(), '/');
+            if (segments.length == 0) {
+                return url.append('/').toString();
+            }
+            for (String segment : segments) {
+                url.append('/').append(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+            }
+            return url.toString();
+        }
+
+    }
+
+    /**
+     * A folder below the root whose documents are listed in sitemap files of their own
+     */
+    private final class Section {
+
+        private final String path;
+        private boolean dirty = true;
+        private long version;
+        private int files;
+        private long lastModified;
+
+        private Section(final String path) {
+            this.path = path;
+        }
+
+        /**
+         * @return the name of sitemap file <code>number</code> of this section, counting from 1
+         */
+        private String getFileName(final int number) {
+            return FILE_PREFIX + (path.isEmpty() ? "root" : path.replace('/', '-')) + '-' + number + FILE_SUFFIX;
+        }
+
+        /**
+         * @return the number of the sitemap file named <code>fileName</code> of this section, or 0 when it is not
+         * a sitemap file of this section
+         */
+        private int getFileNumber(final String fileName) {
+            final int dash = fileName.lastIndexOf('-');
+            if (dash < 0 || !fileName.endsWith(FILE_SUFFIX)) {
+                return 0;
+            }
+            try {
+                final int number = Integer.parseInt(fileName.substring(dash + 1, fileName.length() - FILE_SUFFIX.length()));
+                return number > 0 && fileName.equals(getFileName(number)) ? number : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private String getKey(final int number) {
+            return "sitemap/" + startTime + '/' + version + '/' + number;
+        }
+
+    }
+
+    /**
+     * Streams the URLs of a section to sitemap files, starting a new file when one is full
+     */
+    private final class SitemapWriter {
+
+        private final Section section;
+        private final DateFormat dateFormat = createW3cDateFormat();
+        private File temp;
+        private Writer out;
+        private XmlWriter xml;
+        private int urls;
+
+        private SitemapWriter(final Section section) {
+            this.section = section;
+        }
+
+        private void url(final String loc, final long lastModified) throws IOException {
+            if (xml == null || urls == maxUrls) {
+                finishFile();
+                startFile();
+            }
+            xml.startElement("url");
+            xml.element("loc", loc);
+            if (lastModified > 0L) {
+                xml.element("lastmod", dateFormat.format(new Date(lastModified)));
+            }
+            xml.endElement("url");
+            section.lastModified = Math.max(section.lastModified, lastModified);
+            if (++urls % batchSize == 0) {
+                xml.flush();
+            }
+        }
+
+        private void close() throws IOException {
+            finishFile();
+        }
+
+        /**
+         * Deletes the file that is being written, if any, after a failure
+         */
+        private void abort() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    log.debug("Cannot close {}: {}", temp, e.toString());
+                }
+                deleteIfExists(temp);
+                out = null;
+            }
+        }
+
+        private void startFile() throws IOException {
+            temp = diskCache.createTempFile();
+            out = createWriter(temp);
+            xml = new XmlWriter(out);
+            xml.startDocument();
+            xml.startElement("urlset").attribute("xmlns", SITEMAP_NAMESPACE);
+            urls = 0;
+        }
+
+        private void finishFile() throws IOException {
+            if (xml == null) {
+                return;
+            }
+            xml.endElement("urlset");
+            out.close();
+            out = null;
+            xml = null;
+            diskCache.put(section.getKey(section.files + 1), temp);
+            section.files++;
+        }
+
+    }
+
+}
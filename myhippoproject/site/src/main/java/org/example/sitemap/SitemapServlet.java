@@ -0,0 +1,86 @@
+package org.example.sitemap;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.binaries.FileSender;
+import org.example.pagecache.Validator;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the files generated by the {@link SitemapService}: the sitemap index at <code>/sitemap.xml</code>, the
+ * sitemap files it lists at <code>/sitemaps/*</code> and the RSS feed at <code>/feed.xml</code>. Like the
+ * <code>SuggestServlet</code> it is mapped outside of the HST request processing.
+ */
+public class SitemapServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(SitemapServlet.class);
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+        final SitemapService service = getSitemapService();
+        if (service == null || !service.isEnabled()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        final String servletPath = request.getServletPath();
+        final File file;
+        final String contentType;
+        try {
+            if ("/feed.xml".equals(servletPath)) {
+                file = service.getFeed();
+                contentType = "application/rss+xml";
+            } else if ("/sitemap.xml".equals(servletPath)) {
+                file = service.getIndex();
+                contentType = "application/xml";
+            } else {
+                final String pathInfo = request.getPathInfo();
+                if (StringUtils.isEmpty(pathInfo) || pathInfo.indexOf('/', 1) >= 0) {
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    return;
+                }
+                file = service.getSitemap(pathInfo.substring(1));
+                contentType = "application/xml";
+            }
+        } catch (Exception e) {
+            log.warn("Cannot generate " + servletPath + StringUtils.defaultString(request.getPathInfo()), e);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // the name of a cached file is unique for its content
+        final Validator validator = new Validator(file.getName(), file.lastModified());
+        validator.apply(response);
+        response.setHeader("Cache-Control", "public, max-age=" + service.getMaxAge());
+        if (validator.isNotModified(request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(contentType);
+        response.setCharacterEncoding("UTF-8");
+        FileSender.send(request, response, file, 0L, file.length());
+    }
+
+    private SitemapService getSitemapService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().getComponent(SitemapService.class.getName());
+    }
+
+}
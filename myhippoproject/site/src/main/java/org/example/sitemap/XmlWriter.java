@@ -0,0 +1,118 @@
+package org.example.sitemap;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming XML generator that writes elements to a {@link Writer} as they are produced, so that a document of any
+ * size takes constant memory. Attributes must be written directly after their element is started. The writer does not
+ * check that elements are closed in the right order, callers must produce well formed output.
+ */
+public class XmlWriter {
+
+    private final Writer writer;
+    private boolean startTagOpen;
+
+    public XmlWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the XML declaration for UTF-8, which must be the encoding of the writer
+     */
+    public XmlWriter startDocument() throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        return this;
+    }
+
+    public XmlWriter startElement(final String name) throws IOException {
+        closeStartTag();
+        writer.write('<');
+        writer.write(name);
+        startTagOpen = true;
+        return this;
+    }
+
+    /**
+     * Writes an attribute of the element that was just started
+     */
+    public XmlWriter attribute(final String name, final String value) throws IOException {
+        if (!startTagOpen) {
+            throw new IllegalStateException("Attribute '" + name + "' must directly follow the start of its element");
+        }
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        escape(value);
+        writer.write('"');
+        return this;
+    }
+
+    public XmlWriter text(final String text) throws IOException {
+        closeStartTag();
+        escape(text);
+        return this;
+    }
+
+    public XmlWriter endElement(final String name) throws IOException {
+        if (startTagOpen) {
+            writer.write("/>");
+            startTagOpen = false;
+        } else {
+            writer.write("</");
+            writer.write(name);
+            writer.write('>');
+        }
+        return this;
+    }
+
+    /**
+     * Writes an element with text content, or nothing when <code>text</code> is <code>null</code>
+     */
+    public XmlWriter element(final String name, final String text) throws IOException {
+        if (text == null) {
+            return this;
+        }
+        return startElement(name).text(text).endElement(name);
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            writer.write('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void escape(final String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\'':
+                    writer.write("&apos;");
+                    break;
+                default:
+                    // characters that XML 1.0 does not allow are left out
+                    if (c >= 0x20 || c == '\n' || c == '\r' || c == '\t') {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+
+}
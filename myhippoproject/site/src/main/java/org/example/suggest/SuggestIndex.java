@@ -0,0 +1,174 @@
+package org.example.suggest;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.example.index.DocumentIndexer;
+import org.example.jcr.PooledSessionTemplate;
+
+/**
+ * In-memory prefix index of the titles of the published documents below a root path, answering typeahead queries
+ * without the repository. Titles are normalized (lower case, without accents and punctuation) and indexed from the
+ * start of each of their first words, so <code>"hip"</code> and <code>"new"</code> both suggest "Hippo news".
+ * <p>
+ * The phrases live in a sorted map, where the suggestions for a prefix are the contiguous range of keys that start
+ * with it. Reads do not lock and can run concurrently with updates. The index can hold the documents of several sites,
+ * suggestions are then limited to the content root of one of them.
+ */
+public class SuggestIndex extends DocumentIndexer {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final int MAX_WORDS = 8;
+
+    private final String titleProperty;
+    private final ConcurrentSkipListMap<String, String> phrases = new ConcurrentSkipListMap<String, String>();
+    private final ConcurrentMap<String, List<String>> phrasesByPath = new ConcurrentHashMap<String, List<String>>();
+
+    public SuggestIndex(final PooledSessionTemplate sessionTemplate, final String rootPath, final String titleProperty) {
+        super(sessionTemplate, rootPath);
+        this.titleProperty = titleProperty;
+    }
+
+    /**
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the distinct titles that have a word starting with <code>prefix</code>, in alphabetical order of the
+     * matching phrase
+     */
+    public List<String> suggest(final String prefix, final int limit) {
+        return suggest(null, prefix, limit);
+    }
+
+    /**
+     * @param contentPath the content root of the site to suggest titles of, for instance the content path of a mount,
+     *                    or <code>null</code> to suggest the titles of all sites
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the distinct titles of the documents below <code>contentPath</code> that have a word starting with
+     * <code>prefix</code>, in alphabetical order of the matching phrase
+     */
+    public List<String> suggest(final String contentPath, final String prefix, final int limit) {
+        final String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+        // the handle path follows the separator in a key
+        final String below = contentPath == null ? null : SEPARATOR + contentPath + "/";
+        final Set<String> titles = new LinkedHashSet<String>();
+        final ConcurrentNavigableMap<String, String> tail = phrases.tailMap(normalized);
+        for (Map.Entry<String, String> entry : tail.entrySet()) {
+            final String key = entry.getKey();
+            if (!key.startsWith(normalized)) {
+                break;
+            }
+            if (below != null && !key.startsWith(below, key.indexOf(SEPARATOR))) {
+                continue;
+            }
+            titles.add(entry.getValue());
+            if (titles.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<String>(titles);
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        return phrasesByPath.size();
+    }
+
+    /**
+     * Indexes <code>title</code> for the document with handle <code>handlePath</code>, replacing its previous title
+     */
+    public void add(final String handlePath, final String title) {
+        remove(handlePath);
+        final String normalized = normalize(title);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        final List<String> keys = new ArrayList<String>();
+        int start = 0;
+        while (start >= 0 && keys.size() < MAX_WORDS) {
+            final String key = normalized.substring(start) + SEPARATOR + handlePath;
+            keys.add(key);
+            phrases.put(key, title);
+            final int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        phrasesByPath.put(handlePath, keys);
+    }
+
+    @Override
+    public void remove(final String handlePath) {
+        final List<String> keys = phrasesByPath.remove(handlePath);
+        if (keys != null) {
+            for (String key : keys) {
+                phrases.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void removeBelow(final String path) {
+        final String below = path + "/";
+        for (String handlePath : phrasesByPath.keySet()) {
+            if (handlePath.equals(path) || handlePath.startsWith(below)) {
+                remove(handlePath);
+            }
+        }
+    }
+
+    @Override
+    protected void index(final Node handle, final Node document) throws RepositoryException {
+        if (document.hasProperty(titleProperty)) {
+            add(handle.getPath(), document.getProperty(titleProperty).getString());
+        } else {
+            remove(handle.getPath());
+        }
+    }
+
+    /**
+     * @return <code>text</code> in lower case, without accents and with every run of other characters than letters
+     * and digits replaced by a single space
+     */
+    static String normalize(final String text) {
+        if (text == null) {
+            return "";
+        }
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        final StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            final char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+}
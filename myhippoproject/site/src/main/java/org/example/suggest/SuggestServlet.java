@@ -0,0 +1,100 @@
+package org.example.suggest;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.json.JsonWriter;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.site.HstServices;
+import org.hippoecm.hst.util.HstRequestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers typeahead queries from the {@link SuggestIndex}, for instance <code>/suggest/?q=hip</code>, with a JSON array
+ * of titles. The path after the servlet path is the path of the mount to suggest the titles of, so
+ * <code>/suggest/subsite/?q=hip</code> only suggests documents below the content root of the <code>/subsite</code>
+ * mount. It is mapped outside of the HST request processing, so a keystroke does not resolve a sitemap or touch the
+ * repository.
+ */
+public class SuggestServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestServlet.class);
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 25;
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+        final SuggestIndex index = getSuggestIndex();
+        if (index == null || !index.isEnabled()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        int limit = DEFAULT_LIMIT;
+        final String limitParam = request.getParameter("limit");
+        if (StringUtils.isNotEmpty(limitParam)) {
+            try {
+                limit = Math.min(Integer.parseInt(limitParam), MAX_LIMIT);
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid limit '" + limitParam + "'");
+                return;
+            }
+        }
+
+        final String contentPath = getContentPath(request);
+        if (contentPath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        final List<String> suggestions = index.suggest(contentPath, request.getParameter("q"), limit);
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "public, max-age=60");
+        final JsonWriter json = new JsonWriter(response.getWriter());
+        json.beginArray();
+        for (String suggestion : suggestions) {
+            json.value(suggestion);
+        }
+        json.endArray();
+    }
+
+    /**
+     * @return the content path of the live mount whose path follows the servlet path, for instance <code>/subsite</code>
+     * in <code>/suggest/subsite/</code>, or <code>null</code> when there is none
+     */
+    private String getContentPath(final HttpServletRequest request) {
+        final String mountPath = StringUtils.defaultIfEmpty(request.getPathInfo(), "/");
+        try {
+            final HstManager hstManager = HstServices.getComponentManager().getComponent(HstManager.class.getName());
+            final ResolvedMount resolvedMount = hstManager.getVirtualHosts().matchMount(
+                    HstRequestUtils.getFarthestRequestHost(request), request.getContextPath(), mountPath);
+            if (resolvedMount == null || resolvedMount.getMount().isPreview()) {
+                return null;
+            }
+            return resolvedMount.getMount().getContentPath();
+        } catch (Exception e) {
+            log.debug("Cannot resolve the mount of '{}': {}", mountPath, e.toString());
+            return null;
+        }
+    }
+
+    private SuggestIndex getSuggestIndex() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+        return HstServices.getComponentManager().getComponent(SuggestIndex.class.getName());
+    }
+
+}
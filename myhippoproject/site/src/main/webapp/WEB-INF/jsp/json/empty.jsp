@@ -0,0 +1,2 @@
+<%@ page contentType="application/json; charset=UTF-8" trimDirectiveWhitespaces="true" %>
+<%-- the JSON of a list or search is written by its component, see org.example.components.BaseComponent#serveJson --%>
@@ -26,9 +26,12 @@
       </header>
       <hst:html hippohtml="${document.html}"/>
       <c:if test="${hst:isReadable(document, 'image.original')}">
-        <hst:link var="img" hippobean="${document.image.original}"/>
+        <%-- scaled down renditions of the original, so small screens do not download the full image --%>
+        <c:url var="img" value="/renditions${document.image.original.path}"><c:param name="w" value="800"/></c:url>
+        <c:url var="imgSmall" value="/renditions${document.image.original.path}"><c:param name="w" value="400"/></c:url>
         <figure>
-          <img src="${img}" title="${fn:escapeXml(document.image.fileName)}"
+          <img src="${fn:escapeXml(img)}" srcset="${fn:escapeXml(imgSmall)} 400w, ${fn:escapeXml(img)} 800w"
+            sizes="(max-width: 480px) 400px, 800px" title="${fn:escapeXml(document.image.fileName)}"
             alt="${fn:escapeXml(document.image.fileName)}"/>
           <figcaption>${fn:escapeXml(document.image.description)}</figcaption>
         </figure>
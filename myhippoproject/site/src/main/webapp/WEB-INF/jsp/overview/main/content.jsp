@@ -1,15 +1,22 @@
 <%@ include file="/WEB-INF/jspf/htmlTags.jspf" %>
+<%--@elvariable id="archive" type="org.example.search.FacetCounts"--%>
 <%--@elvariable id="crPage" type="java.lang.Integer"--%>
 <%--@elvariable id="info" type="${package}.componentsinfo.GeneralListInfo"--%>
-<%--@elvariable id="page" type="java.util.Collection<java.lang.Integer>"--%>
-<%--@elvariable id="pages" type="java.util.Collection<java.lang.Integer>"--%>
-<%--@elvariable id="result" type="org.hippoecm.hst.content.beans.query.HstQueryResult"--%>
+<%--@elvariable id="page" type="java.lang.Integer"--%>
+<%--@elvariable id="result" type="org.example.search.SearchResult"--%>
 
 <c:choose>
   <c:when test="${empty info}">
     <tag:pagenotfound/>
   </c:when>
   <c:otherwise>
+    <hst:resourceURL var="jsonUrl"/>
+    <hst:element var="jsonLink" name="link">
+      <hst:attribute name="rel" value="alternate"/>
+      <hst:attribute name="type" value="application/json"/>
+      <hst:attribute name="href" value="${jsonUrl}"/>
+    </hst:element>
+    <hst:headContribution element="${jsonLink}"/>
     <c:if test="${not empty info.title}">
       <hst:element var="headTitle" name="title">
         <c:out value="${info.title}"/>
@@ -19,13 +26,16 @@
 
     <h2>
       ${fn:escapeXml(info.title)}
-      <c:if test="${not empty result.totalSize}"> Total results ${result.totalSize}</c:if>
+      <c:if test="${result.totalSize ge 0}"> Total results ${result.totalSize}<c:if test="${not result.totalSizeExact}">+</c:if></c:if>
     </h2>
 
-    <c:forEach var="item" items="${result.hippoBeans}">
-      <hst:link var="link" hippobean="${item}"/>
+    <c:forEach var="item" items="${result.items}">
+      <c:choose>
+        <c:when test="${result.projected}"><c:set var="link" value="${item.link}"/></c:when>
+        <c:otherwise><hst:link var="link" hippobean="${item}"/></c:otherwise>
+      </c:choose>
       <article class="well well-large">
-        <hst:cmseditlink hippobean="${item}"/>
+        <c:if test="${not result.projected}"><hst:cmseditlink hippobean="${item}"/></c:if>
         <h3><a href="${link}">${fn:escapeXml(item.title)}</a></h3>
         <c:if test="${hst:isReadable(item, 'date.time')}">
           <p class="badge badge-info">
@@ -37,8 +47,33 @@
       </article>
     </c:forEach>
 
-    <!--if there are pages on the request, they will be printed by the tag:pages -->
-    <tag:pages pages="${pages}" page="${page}"/>
+    <c:if test="${not empty archive.facets.month}">
+      <aside class="archive">
+        <h4><fmt:message key="archive.title"/></h4>
+        <ul class="unstyled">
+          <hst:renderURL var="allMonthsLink"/>
+          <li><a href="${allMonthsLink}"><fmt:message key="archive.all"/></a></li>
+          <c:forEach var="month" items="${archive.facets.month}">
+            <hst:renderURL var="monthLink">
+              <hst:param name="from" value="${month.value}"/>
+              <hst:param name="to" value="${month.value}"/>
+            </hst:renderURL>
+            <fmt:parseDate var="monthDate" value="${month.value}" pattern="yyyy-MM"/>
+            <li<c:if test="${dateFrom eq month.value and dateTo eq month.value}"> class="active"</c:if>>
+              <a href="${monthLink}"><fmt:formatDate value="${monthDate}" pattern="MMMM yyyy"/></a>
+              <span class="badge">${month.count}</span>
+            </li>
+          </c:forEach>
+        </ul>
+        <c:if test="${not archive.complete}">
+          <p class="muted"><fmt:message key="facets.partial"/></p>
+        </c:if>
+      </aside>
+    </c:if>
+
+    <!--if the result has a pagination, it will be printed by the tag:pages -->
+    <tag:pages pagination="${result.pagination}"/>
+    <tag:cursorpages result="${result}"/>
 
   </c:otherwise>
 </c:choose>
\ No newline at end of file
@@ -1,10 +1,10 @@
 <%@ include file="/WEB-INF/jspf/htmlTags.jspf" %>
 <%--@elvariable id="crPage" type="java.lang.Integer"--%>
+<%--@elvariable id="facets" type="org.example.search.FacetCounts"--%>
 <%--@elvariable id="info" type="${package}.componentsinfo.GeneralListInfo"--%>
 <%--@elvariable id="page" type="java.lang.Integer"--%>
-<%--@elvariable id="pages" type="java.util.Collection<java.lang.Integer>"--%>
 <%--@elvariable id="query" type="java.lang.String"--%>
-<%--@elvariable id="result" type="org.hippoecm.hst.content.beans.query.HstQueryResult"--%>
+<%--@elvariable id="result" type="org.example.search.SearchResult"--%>
 
 <c:choose>
   <c:when test="${empty info}">
@@ -19,25 +19,52 @@
     </c:if>
 
     <h2>
-      ${fn:escapeXml(info.title)} for '${fn:escapeXml(query)}' : ${result.totalSize} results
+      ${fn:escapeXml(info.title)} for '${fn:escapeXml(query)}'<c:if test="${result.totalSize ge 0}"> : ${result.totalSize}<c:if test="${not result.totalSizeExact}">+</c:if> results</c:if>
     </h2>
 
-    <c:forEach var="item" items="${result.hippoBeans}">
-      <hst:link var="link" hippobean="${item}"/>
+    <c:if test="${not empty facets}">
+      <aside class="facets">
+        <c:forEach var="facet" items="${facets.facets}">
+          <c:if test="${not empty facet.value}">
+            <h4><fmt:message key="facet.${facet.key}"/></h4>
+            <ul class="unstyled">
+              <c:forEach var="value" items="${facet.value}">
+                <li>${fn:escapeXml(value.value)} <span class="badge">${value.count}</span></li>
+              </c:forEach>
+            </ul>
+          </c:if>
+        </c:forEach>
+        <c:if test="${not facets.complete}">
+          <p class="muted"><fmt:message key="facets.partial"/></p>
+        </c:if>
+      </aside>
+    </c:if>
+
+    <c:forEach var="item" items="${result.items}">
+      <c:choose>
+        <c:when test="${result.projected}"><c:set var="link" value="${item.link}"/></c:when>
+        <c:otherwise><hst:link var="link" hippobean="${item}"/></c:otherwise>
+      </c:choose>
       <article class="well well-large">
-        <hst:cmseditlink hippobean="${item}"/>
+        <c:if test="${not result.projected}"><hst:cmseditlink hippobean="${item}"/></c:if>
         <h3><a href="${link}">${fn:escapeXml(item.title)}</a></h3>
         <c:if test="${hst:isReadable(item, 'date.time')}">
           <p class="badge badge-info">
             <fmt:formatDate value="${item.date.time}" type="both" dateStyle="medium" timeStyle="short"/>
           </p>
         </c:if>
-        <p>${fn:escapeXml(item.summary)}</p>
+        <c:set var="highlight" value="${result.projected ? result.highlights[item.identifier] : result.highlights[item.canonicalUUID]}"/>
+        <c:choose>
+          <%-- highlights are HTML with the document text escaped --%>
+          <c:when test="${not empty highlight}"><p>${highlight}</p></c:when>
+          <c:otherwise><p>${fn:escapeXml(item.summary)}</p></c:otherwise>
+        </c:choose>
       </article>
     </c:forEach>
 
-    <!--if there are pages on the request, they will be printed by the tag:pages -->
-    <tag:pages pages="${pages}" page="${page}"/>
+    <!--if the result has a pagination, it will be printed by the tag:pages -->
+    <tag:pages pagination="${result.pagination}"/>
+    <tag:cursorpages result="${result}"/>
 
   </c:otherwise>
 </c:choose>
\ No newline at end of file
@@ -1,5 +1,8 @@
 <%@ include file="/WEB-INF/jspf/htmlTags.jspf" %>
 <%--@elvariable id="headerName" type="java.lang.String"--%>
+<%--@elvariable id="suggestMountPath" type="java.lang.String"--%>
+<%--@elvariable id="fragment" type="org.example.pagecache.Fragment"--%>
+<tag:fragment fragment="${fragment}">
 <div class="container-fluid">
   <div class="row-fluid">
     <div class="span2"></div>
@@ -17,7 +20,9 @@
 
                   <form class="navbar-search form-search" action="${link}" method="get">
                     <p>
-                      <input type="text" name="query" class="search-query input-xlarge" placeholder="${submitText}" required="required"/>
+                      <input type="text" name="query" class="search-query input-xlarge" placeholder="${submitText}" required="required"
+                             autocomplete="off" list="search-suggestions" data-suggest="${pageContext.request.contextPath}/suggest${suggestMountPath}/"/>
+                      <datalist id="search-suggestions"></datalist>
                       <button class="btn btn-primary inline" type="submit" value="${submitText}">${submitText}</button>
                     </p>
                   </form>
@@ -31,4 +36,9 @@
     </div>
     <div class="span2"></div>
   </div>
-</div>
\ No newline at end of file
+</div>
+</tag:fragment>
+<hst:link var="suggestScript" path="/js/suggest.js"/>
+<hst:headContribution keyHint="suggestScript" category="scripts">
+  <script type="text/javascript" src="${suggestScript}"></script>
+</hst:headContribution>
\ No newline at end of file
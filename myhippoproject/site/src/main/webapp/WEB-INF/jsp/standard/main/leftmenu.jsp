@@ -1,10 +1,13 @@
 <%@ include file="/WEB-INF/jspf/htmlTags.jspf" %>
 <%--@elvariable id="menu" type="org.hippoecm.hst.core.sitemenu.HstSiteMenu"--%>
+<%--@elvariable id="fragment" type="org.example.pagecache.Fragment"--%>
 
+<tag:fragment fragment="${fragment}">
 <c:if test="${not empty menu.siteMenuItems}">
   <ul class="nav nav-pills nav-stacked">
     <c:forEach var="item" items="${menu.siteMenuItems}">
       <tag:menuitem siteMenuItem="${item}"/>
     </c:forEach>
   </ul>
-</c:if>
\ No newline at end of file
+</c:if>
+</tag:fragment>
\ No newline at end of file
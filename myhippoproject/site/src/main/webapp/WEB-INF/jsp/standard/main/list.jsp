@@ -1,25 +1,43 @@
 <%@ include file="/WEB-INF/jspf/htmlTags.jspf" %>
 <%--@elvariable id="info" type="${package}.componentsinfo.ListInfo"--%>
-<%--@elvariable id="result" type="org.hippoecm.hst.content.beans.query.HstQueryResult"--%>
+<%--@elvariable id="result" type="org.example.search.SearchResult"--%>
 
 <c:choose>
   <c:when test="${empty info}">
     <tag:pagenotfound/>
   </c:when>
   <c:otherwise>
+    <hst:resourceURL var="jsonUrl"/>
+    <hst:element var="jsonLink" name="link">
+      <hst:attribute name="rel" value="alternate"/>
+      <hst:attribute name="type" value="application/json"/>
+      <hst:attribute name="href" value="${jsonUrl}"/>
+    </hst:element>
+    <hst:headContribution element="${jsonLink}"/>
     <div class="${fn:escapeXml(info.cssClass)}">
       <h2>${fn:escapeXml(info.title)}</h2>
 
-      <c:forEach var="item" items="${result.hippoBeans}" varStatus="status">
-        <hst:link var="link" hippobean="${item}"/>
+      <c:forEach var="item" items="${result.items}" varStatus="status">
+        <c:choose>
+          <c:when test="${result.projected}"><c:set var="link" value="${item.link}"/></c:when>
+          <c:otherwise><hst:link var="link" hippobean="${item}"/></c:otherwise>
+        </c:choose>
         <article class="well well-large" style="background-color:${info.bgColor};">
-          <hst:cmseditlink hippobean="${item}"/>
-          <c:if test="${status.first and hst:isReadable(item, 'image.thumbnail')}">
-            <hst:link var="img" hippobean="${item.image.thumbnail}"/>
-            <figure style="float:left;margin:0 10px 0 0;">
-              <img src="${img}" title="${fn:escapeXml(item.image.fileName)}"
-                alt="${fn:escapeXml(item.image.fileName)}"/>
-            </figure>
+          <c:if test="${not result.projected}"><hst:cmseditlink hippobean="${item}"/></c:if>
+          <c:if test="${status.first}">
+            <c:set var="img" value=""/>
+            <c:choose>
+              <c:when test="${result.projected}"><c:set var="img" value="${item.image.thumbnail}"/></c:when>
+              <c:when test="${hst:isReadable(item, 'image.thumbnail')}">
+                <hst:link var="img" hippobean="${item.image.thumbnail}"/>
+              </c:when>
+            </c:choose>
+            <c:if test="${not empty img}">
+              <figure style="float:left;margin:0 10px 0 0;">
+                <img src="${img}" title="${fn:escapeXml(item.image.fileName)}"
+                  alt="${fn:escapeXml(item.image.fileName)}"/>
+              </figure>
+            </c:if>
           </c:if>
           <h3><a href="${link}">${fn:escapeXml(item.title)}</a></h3>
           <c:if test="${hst:isReadable(item, 'date.time')}">
@@ -1,5 +1,7 @@
 <%@ include file="/WEB-INF/jspf/htmlTags.jspf" %>
 <%--@elvariable id="headerName" type="java.lang.String"--%>
+<%--@elvariable id="fragment" type="org.example.pagecache.Fragment"--%>
+<tag:fragment fragment="${fragment}">
 <div class="container-fluid">
   <div class="row-fluid">
     <div class="span2"></div>
@@ -15,4 +17,5 @@
     </div>
     <div class="span2"></div>
   </div>
-</div>
\ No newline at end of file
+</div>
+</tag:fragment>
\ No newline at end of file
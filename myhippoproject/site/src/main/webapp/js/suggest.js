@@ -0,0 +1,57 @@
+/*
+ * Fills the datalist of inputs with a data-suggest attribute with the titles the suggest servlet returns for the
+ * text typed so far.
+ */
+(function () {
+  var DELAY = 150;
+
+  function attach(input) {
+    var list = document.getElementById(input.getAttribute('list'));
+    var url = input.getAttribute('data-suggest');
+    var timer = null;
+    var request = null;
+
+    function render(titles) {
+      while (list.firstChild) {
+        list.removeChild(list.firstChild);
+      }
+      for (var i = 0; i < titles.length; i++) {
+        var option = document.createElement('option');
+        option.value = titles[i];
+        list.appendChild(option);
+      }
+    }
+
+    function fetch() {
+      var text = input.value;
+      if (text.length < 2) {
+        render([]);
+        return;
+      }
+      if (request) {
+        request.abort();
+      }
+      request = new XMLHttpRequest();
+      request.open('GET', url + '?q=' + encodeURIComponent(text), true);
+      request.onreadystatechange = function () {
+        if (this.readyState === 4 && this.status === 200 && this === request) {
+          render(JSON.parse(this.responseText));
+        }
+      };
+      request.send();
+    }
+
+    input.addEventListener('input', function () {
+      clearTimeout(timer);
+      timer = setTimeout(fetch, DELAY);
+    });
+  }
+
+  if (!window.JSON || !document.addEventListener) {
+    return;
+  }
+  var inputs = document.querySelectorAll('input[data-suggest]');
+  for (var i = 0; i < inputs.length; i++) {
+    attach(inputs[i]);
+  }
+})();
@@ -0,0 +1,60 @@
+package org.example.binaries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link ByteRange}
+ */
+public class ByteRangeTest {
+
+    @Test
+    public void closedRange() throws Exception {
+        final ByteRange range = ByteRange.parse("bytes=0-499", 1000);
+
+        assertEquals(0, range.getStart());
+        assertEquals(499, range.getEnd());
+        assertEquals(500, range.getLength());
+    }
+
+    @Test
+    public void openRange() throws Exception {
+        final ByteRange range = ByteRange.parse("bytes=500-", 1000);
+
+        assertEquals(500, range.getStart());
+        assertEquals(999, range.getEnd());
+    }
+
+    @Test
+    public void suffixRange() throws Exception {
+        final ByteRange range = ByteRange.parse("bytes=-300", 1000);
+
+        assertEquals(700, range.getStart());
+        assertEquals(999, range.getEnd());
+        assertEquals(0, ByteRange.parse("bytes=-3000", 1000).getStart());
+    }
+
+    @Test
+    public void endBeyondContent_Truncated() throws Exception {
+        assertEquals(999, ByteRange.parse("bytes=900-5000", 1000).getEnd());
+    }
+
+    @Test
+    public void startBeyondContent_Unsatisfiable() throws Exception {
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=1000-", 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", 1000));
+    }
+
+    @Test
+    public void invalidOrMultipleRanges_CompleteContent() throws Exception {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-1", 1000));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 1000));
+        assertNull(ByteRange.parse("bytes=5-1", 1000));
+        assertNull(ByteRange.parse("bytes=a-b", 1000));
+    }
+
+}
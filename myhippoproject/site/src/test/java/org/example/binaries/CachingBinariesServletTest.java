@@ -0,0 +1,145 @@
+package org.example.binaries;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.example.pagecache.Validator;
+import org.hippoecm.hst.core.container.ComponentManager;
+import org.hippoecm.hst.site.HstServices;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+/**
+ * Test class for {@link CachingBinariesServlet}
+ */
+public class CachingBinariesServletTest {
+
+    private static final String PATH = "/content/assets/myhippoproject/manual.pdf";
+    private static final long LAST_MODIFIED = 1500000000000L;
+
+    private File file;
+    private BinaryCache.CachedBinary binary;
+    private CachingBinariesServlet servlet;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("binary", ".pdf");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[100]);
+        } finally {
+            out.close();
+        }
+        binary = new BinaryCache.CachedBinary(file, "application/pdf", "manual.pdf",
+                Long.toHexString(LAST_MODIFIED), new Validator("id-1", LAST_MODIFIED, false));
+
+        final BinaryCache cache = createMock(BinaryCache.class);
+        expect(cache.isEnabled()).andReturn(true).anyTimes();
+        expect(cache.getBinary(PATH)).andReturn(binary).anyTimes();
+        expect(cache.getMaxAge()).andReturn(86400).anyTimes();
+        final ComponentManager componentManager = createNiceMock(ComponentManager.class);
+        expect(componentManager.getComponent(BinaryCache.class.getName())).andReturn(cache).anyTimes();
+        replay(cache, componentManager);
+        HstServices.setComponentManager(componentManager);
+        servlet = new CachingBinariesServlet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HstServices.setComponentManager(null);
+        file.delete();
+    }
+
+    @Test
+    public void range_PartialContent() throws Exception {
+        final HttpServletRequest request = createRequest("bytes=10-19", null, null);
+        final HttpServletResponse response = createNiceMock(HttpServletResponse.class);
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader("Content-Range", "bytes 10-19/100");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentLength(10);
+        replay(response);
+
+        servlet.doGet(request, response);
+        verify(response);
+    }
+
+    @Test
+    public void ifRangeMatches_PartialContent() throws Exception {
+        final HttpServletRequest request = createRequest("bytes=-10", binary.getValidator().getEntityTag(), null);
+        final HttpServletResponse response = createNiceMock(HttpServletResponse.class);
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader("Content-Range", "bytes 90-99/100");
+        replay(response);
+
+        servlet.doGet(request, response);
+        verify(response);
+    }
+
+    @Test
+    public void ifRangeChanged_CompleteContent() throws Exception {
+        final HttpServletRequest request = createRequest("bytes=10-19", "\"id-0\"", null);
+        final HttpServletResponse response = createMock(HttpServletResponse.class);
+        response.setHeader("ETag", "\"id-1\"");
+        response.setDateHeader("Last-Modified", LAST_MODIFIED);
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setContentType("application/pdf");
+        response.setContentLength(100);
+        // no status and no Content-Range
+        replay(response);
+
+        servlet.doGet(request, response);
+        verify(response);
+    }
+
+    @Test
+    public void rangeOutsideContent_NotSatisfiable() throws Exception {
+        final HttpServletRequest request = createRequest("bytes=100-", null, null);
+        final HttpServletResponse response = createNiceMock(HttpServletResponse.class);
+        response.setHeader("Content-Range", "bytes */100");
+        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        replay(response);
+
+        servlet.doGet(request, response);
+        verify(response);
+    }
+
+    @Test
+    public void versionedUrl_MaxAge() throws Exception {
+        final HttpServletRequest request = createRequest(null, null, Long.toHexString(LAST_MODIFIED));
+        final HttpServletResponse response = createNiceMock(HttpServletResponse.class);
+        response.setHeader("Cache-Control", "public, max-age=86400");
+        replay(response);
+
+        servlet.doGet(request, response);
+        verify(response);
+    }
+
+    /**
+     * @return a GET request for the binary at {@link #PATH} on a container that sends files itself
+     */
+    private static HttpServletRequest createRequest(final String range, final String ifRange, final String version) {
+        final HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+        expect(request.getMethod()).andReturn("GET").anyTimes();
+        expect(request.getPathInfo()).andReturn(PATH).anyTimes();
+        expect(request.getHeader("Range")).andReturn(range).anyTimes();
+        expect(request.getHeader("If-Range")).andReturn(ifRange).anyTimes();
+        expect(request.getDateHeader("If-Modified-Since")).andReturn(-1L).anyTimes();
+        expect(request.getParameter("v")).andReturn(version).anyTimes();
+        expect(request.getAttribute("org.apache.tomcat.sendfile.support")).andReturn(Boolean.TRUE).anyTimes();
+        replay(request);
+        return request;
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.example.binaries;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link DiskCache}
+ */
+public class DiskCacheTest {
+
+    private File directory;
+    private DiskCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("diskcache", "");
+        directory.delete();
+        cache = new DiskCache(directory.getAbsolutePath(), 10);
+        cache.setDeleteGraceMillis(0L);
+        cache.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void put_Get() throws Exception {
+        final File file = cache.put("a", new byte[]{1, 2, 3});
+
+        assertEquals(file, cache.get("a"));
+        assertEquals(3, file.length());
+        assertEquals(3, cache.getTotalBytes());
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void leastRecentlyUsed_Evicted() throws Exception {
+        final File a = cache.put("a", new byte[4]);
+        cache.put("b", new ByteArrayInputStream(new byte[4]));
+        cache.get("a");
+        cache.put("c", new byte[4]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.getTotalBytes());
+        assertTrue(a.isFile());
+    }
+
+    @Test
+    public void fileLargerThanCache_KeptUntilNextPut() throws Exception {
+        final File large = cache.put("large", new byte[20]);
+        assertTrue(large.isFile());
+
+        cache.put("a", new byte[1]);
+        assertFalse(large.isFile());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictedFile_KeptForGracePeriod() throws Exception {
+        cache.setDeleteGraceMillis(60000L);
+        final File a = cache.put("a", new byte[8]);
+        cache.put("b", new byte[8]);
+
+        assertNull(cache.get("a"));
+        assertTrue(a.isFile());
+        assertEquals(8, cache.getTotalBytes());
+
+        assertEquals(a, cache.put("a", new byte[8]));
+        cache.setDeleteGraceMillis(0L);
+        cache.put("c", new byte[1]);
+        assertTrue(a.isFile());
+        assertNotNull(cache.get("a"));
+    }
+
+    @Test
+    public void restart_KeepsFiles() throws Exception {
+        cache.put("a", new byte[4]);
+
+        final DiskCache restarted = new DiskCache(directory.getAbsolutePath(), 10);
+        restarted.start();
+
+        assertNotNull(restarted.get("a"));
+        assertEquals(4, restarted.getTotalBytes());
+    }
+
+    @Test
+    public void deletedFile_NotReturned() throws Exception {
+        cache.put("a", new byte[4]).delete();
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.example.binaries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link RenditionService}
+ */
+public class RenditionServiceTest {
+
+    @Test
+    public void isAllowed_ConfiguredSizesAndQualities() throws Exception {
+        final RenditionService service = new RenditionService(null, null, "/content/gallery");
+        service.setSizes("800, 400");
+        service.setQualities("60, 90");
+
+        assertEquals("[400, 800]", service.getSizes().toString());
+        assertTrue(service.isAllowed(new Rendition(400, 0, false, 60)));
+        assertTrue(service.isAllowed(new Rendition(800, 400, true, 90)));
+        assertTrue(service.isAllowed(new Rendition(0, 0, false, service.getDefaultQuality())));
+        assertFalse(service.isAllowed(new Rendition(401, 0, false, 60)));
+        assertFalse(service.isAllowed(new Rendition(400, 1999, false, 60)));
+        assertFalse(service.isAllowed(new Rendition(400, 0, false, 61)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getRendition_NotAllowed() throws Exception {
+        new RenditionService(null, null, "/content/gallery").getRendition("/content/gallery/image.jpg",
+                new Rendition(123, 0, false, 80));
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.example.binaries;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link Rendition}
+ */
+public class RenditionTest {
+
+    private static final long MAX_PIXELS = 10000000L;
+
+    @Test
+    public void scaledToFit() throws Exception {
+        final Rendition.RenderedImage image = new Rendition(200, 200, false, 80).render(jpeg(1000, 500), MAX_PIXELS);
+
+        assertEquals("image/jpeg", image.getMimeType());
+        final BufferedImage result = read(image);
+        assertEquals(200, result.getWidth());
+        assertEquals(100, result.getHeight());
+    }
+
+    @Test
+    public void croppedToFill() throws Exception {
+        final BufferedImage result = read(new Rendition(100, 100, true, 80).render(jpeg(1000, 500), MAX_PIXELS));
+
+        assertEquals(100, result.getWidth());
+        assertEquals(100, result.getHeight());
+    }
+
+    @Test
+    public void neverScaledUp() throws Exception {
+        final BufferedImage result = read(new Rendition(2000, 0, false, 80).render(jpeg(300, 200), MAX_PIXELS));
+
+        assertEquals(300, result.getWidth());
+        assertEquals(200, result.getHeight());
+    }
+
+    @Test
+    public void transparentImage_Png() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB), "png", out);
+
+        final Rendition.RenderedImage image = new Rendition(10, 10, false, 80)
+                .render(new ByteArrayInputStream(out.toByteArray()), MAX_PIXELS);
+
+        assertEquals("image/png", image.getMimeType());
+        assertEquals(10, read(image).getWidth());
+    }
+
+    @Test
+    public void tooManyPixels_NotRendered() throws Exception {
+        assertNull(new Rendition(100, 100, false, 80).render(jpeg(1000, 500), 100000L));
+    }
+
+    @Test
+    public void notAnImage_NotRendered() throws Exception {
+        assertNull(new Rendition(100, 100, false, 80).render(new ByteArrayInputStream(new byte[]{1, 2, 3}), MAX_PIXELS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidQuality() throws Exception {
+        new Rendition(100, 100, false, 0);
+    }
+
+    private static ByteArrayInputStream jpeg(final int width, final int height) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static BufferedImage read(final Rendition.RenderedImage image) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(image.getData()));
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.example.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for {@link SingleFlight}
+ */
+public class SingleFlightTest {
+
+    private SingleFlight<String, String> flights;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        flights = new SingleFlight<String, String>();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallers_ShareOneExecution() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> work = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "hits";
+            }
+        };
+
+        final Future<String> leader = executor.submit(new Caller("key", work));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Future<String> follower = executor.submit(new Caller("key", work));
+        // the follower has nothing to signal once it waits for the leader, give it a moment to get there
+        Thread.sleep(100);
+        assertFalse(follower.isDone());
+        release.countDown();
+
+        assertEquals("hits", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("hits", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(0, flights.size());
+    }
+
+    @Test
+    public void sequentialCallers_ExecuteAgain() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final Callable<String> work = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "hits-" + executions.incrementAndGet();
+            }
+        };
+
+        assertEquals("hits-1", flights.execute("key", work));
+        assertEquals("hits-2", flights.execute("key", work));
+        assertEquals("hits-3", flights.execute("other", work));
+    }
+
+    @Test
+    public void failure_PropagatedAndForgotten() throws Exception {
+        try {
+            flights.execute("key", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    throw new IllegalStateException("query failed");
+                }
+            });
+            fail("the failure of the work should propagate");
+        } catch (IllegalStateException expected) {
+            assertEquals("query failed", expected.getMessage());
+        }
+        assertEquals(0, flights.size());
+    }
+
+    private class Caller implements Callable<String> {
+
+        private final String key;
+        private final Callable<String> work;
+
+        private Caller(final String key, final Callable<String> work) {
+            this.key = key;
+            this.work = work;
+        }
+
+        @Override
+        public String call() throws Exception {
+            return flights.execute(key, work);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.example.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TimeZone;
+
+import org.example.search.DateRange;
+import org.example.search.SearchHits;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link DateIndex}
+ */
+public class DateIndexTest {
+
+    private static final String NEWS = "/content/documents/myhippoproject/news";
+
+    private DateIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new DateIndex(null, NEWS, "myhippoproject:newsdocument", "myhippoproject:date");
+        index.crawling();
+        index.add(NEWS + "/2013/05/b", 2000L, "id-b");
+        index.add(NEWS + "/2013/05/a", 3000L, "id-a");
+        index.add(NEWS + "/2013/06/c", 1000L, "id-c");
+        index.add(NEWS + "/undated", Long.MIN_VALUE, "id-u");
+        index.crawled(0L);
+    }
+
+    @Test
+    public void hits_NewestFirst() throws Exception {
+        assertTrue(index.isAvailable());
+        final SearchHits hits = index.getHits(0, 10, true);
+        assertEquals(Arrays.asList("id-a", "id-b", "id-c", "id-u"), hits.getIdentifiers());
+        assertEquals(4, hits.getTotalSize());
+        assertTrue(hits.isTotalSizeExact());
+    }
+
+    @Test
+    public void hits_SliceOfPage() throws Exception {
+        assertEquals(Arrays.asList("id-b", "id-c"), index.getHits(1, 2, true).getIdentifiers());
+        assertEquals(Arrays.asList("id-c", "id-b"), index.getHits(1, 2, false).getIdentifiers());
+        assertEquals(Collections.emptyList(), index.getHits(10, 2, true).getIdentifiers());
+    }
+
+    @Test
+    public void changes_MergedOnUpdate() throws Exception {
+        index.add(NEWS + "/2013/06/c", 4000L, "id-c");
+        index.add(NEWS + "/2013/06/d", 2500L, "id-d");
+        index.remove(NEWS + "/2013/05/a");
+        // not visible until the batch of changes is published
+        assertEquals(4, index.size());
+        index.updated();
+        assertEquals(Arrays.asList("id-c", "id-d", "id-b", "id-u"), index.getHits(0, 10, true).getIdentifiers());
+    }
+
+    @Test
+    public void removeBelow_RemovesFolder() throws Exception {
+        index.add(NEWS + "/2013/05/e", 5000L, "id-e");
+        index.removeBelow(NEWS + "/2013/05");
+        index.add(NEWS + "/2013/05/f", 500L, "id-f");
+        index.updated();
+        assertEquals(Arrays.asList("id-c", "id-f", "id-u"), index.getHits(0, 10, true).getIdentifiers());
+    }
+
+    @Test
+    public void hits_InDateRange() throws Exception {
+        final SearchHits hits = index.getHits(new DateRange(2000L, 3000L), 0, 10, true);
+        assertEquals(Arrays.asList("id-b"), hits.getIdentifiers());
+        assertEquals(1, hits.getTotalSize());
+        assertEquals(Arrays.asList("id-b", "id-c"), index.getHits(new DateRange(Long.MIN_VALUE, 2500L), 0, 10, true).getIdentifiers());
+        assertEquals(Arrays.asList("id-a", "id-b"), index.getHits(new DateRange(1500L, Long.MAX_VALUE), 0, 10, true).getIdentifiers());
+        assertEquals(Arrays.asList("id-c", "id-b"), index.getHits(new DateRange(0L, 2500L), 0, 10, false).getIdentifiers());
+        assertEquals(Collections.emptyList(), index.getHits(new DateRange(4000L, 5000L), 0, 10, true).getIdentifiers());
+    }
+
+    @Test
+    public void monthCounts_NewestFirst() throws Exception {
+        final TimeZone timeZone = TimeZone.getDefault();
+        index.crawling();
+        index.add(NEWS + "/a", DateRange.parse("2013-05-31", null, timeZone).getFrom(), "id-a");
+        index.add(NEWS + "/b", DateRange.parse("2013-05-01", null, timeZone).getFrom(), "id-b");
+        index.add(NEWS + "/c", DateRange.parse("2013-04-30", null, timeZone).getFrom(), "id-c");
+        index.add(NEWS + "/d", DateRange.parse("2012-12-15", null, timeZone).getFrom(), "id-d");
+        index.add(NEWS + "/undated", Long.MIN_VALUE, "id-u");
+        index.crawled(0L);
+        assertEquals("[2013-05=2, 2013-04=1, 2012-12=1]", index.getMonthCounts().toString());
+
+        final DateRange may = DateRange.parse("2013-05", "2013-05", timeZone);
+        assertEquals(Arrays.asList("id-a", "id-b"), index.getHits(may, 0, 10, true).getIdentifiers());
+    }
+
+    @Test
+    public void matches_ScopeTypeAndSort() throws Exception {
+        assertTrue(index.matches(NEWS, "myhippoproject:newsdocument", "myhippoproject:date"));
+        assertFalse(index.matches(NEWS + "/2013", "myhippoproject:newsdocument", "myhippoproject:date"));
+        assertFalse(index.matches(NEWS, "myhippoproject:basedocument", "myhippoproject:date"));
+        assertFalse(index.matches(NEWS, "myhippoproject:newsdocument", "myhippoproject:title"));
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.example.json;
+
+import java.io.StringWriter;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link JsonWriter}
+ */
+public class JsonWriterTest {
+
+    private final StringWriter out = new StringWriter();
+    private final JsonWriter json = new JsonWriter(out);
+
+    @Test
+    public void nestedObjectsAndArrays_Separated() throws Exception {
+        json.beginObject();
+        json.name("page").value(2L);
+        json.name("items").beginArray();
+        json.beginObject().name("id").value("a").endObject();
+        json.beginObject().name("id").value("b").name("more").value(false).endObject();
+        json.endArray();
+        json.name("empty").beginArray().endArray();
+        json.name("missing").nullValue();
+        json.endObject();
+        assertEquals("{\"page\":2,\"items\":[{\"id\":\"a\"},{\"id\":\"b\",\"more\":false}],\"empty\":[],\"missing\":null}",
+                out.toString());
+    }
+
+    @Test
+    public void strings_EscapedForHtml() throws Exception {
+        json.value("\"a\\b\"\n<script>&\u2028\u0001");
+        assertEquals("\"\\\"a\\\\b\\\"\\n\\u003cscript\\u003e\\u0026\\u2028\\u0001\"", out.toString());
+    }
+
+    @Test
+    public void objectValues_ByType() throws Exception {
+        final Calendar date = Calendar.getInstance(TimeZone.getTimeZone("Europe/Amsterdam"));
+        date.setTimeInMillis(1368523800000L);
+        json.value(new Object[]{"text", 3L, 1.5d, true, date, null, new Object()});
+        assertEquals("[\"text\",3,1.5,true,\"2013-05-14T09:30:00.000Z\",null,null]", out.toString());
+    }
+
+    @Test
+    public void notANumber_WrittenAsNull() throws Exception {
+        json.beginArray().value(Double.NaN).endArray();
+        assertEquals("[null]", out.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unbalancedClose_Fails() throws Exception {
+        json.beginArray().endArray().endObject();
+    }
+
+}
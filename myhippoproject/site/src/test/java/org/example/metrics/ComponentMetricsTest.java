@@ -0,0 +1,75 @@
+package org.example.metrics;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link ComponentMetrics}
+ */
+public class ComponentMetricsTest {
+
+    private static final String OVERVIEW = "org.example.components.Overview";
+
+    @Test
+    public void metrics_PerComponentAndSitemapItem() throws Exception {
+        final ComponentMetrics metrics = new ComponentMetrics(100);
+        metrics.record(OVERVIEW, "news/_default_", ComponentMetrics.METRIC_BEFORE_RENDER, 1200L);
+        metrics.record(OVERVIEW, "news/_default_", ComponentMetrics.METRIC_BEFORE_RENDER, 800L);
+        metrics.record(OVERVIEW, "_index_", ComponentMetrics.METRIC_RENDER, 300L);
+
+        final List<MetricSummary> summaries = metrics.getMetrics();
+        assertEquals(2, summaries.size());
+        assertEquals("_index_", summaries.get(0).getSitemapItem());
+        final MetricSummary beforeRender = summaries.get(1);
+        assertEquals(ComponentMetrics.METRIC_BEFORE_RENDER, beforeRender.getMetric());
+        assertEquals(2, beforeRender.getCount());
+        assertEquals(2000, beforeRender.getSum());
+        assertEquals(1200, beforeRender.getMax());
+    }
+
+    @Test
+    public void record_BoundedHistograms() throws Exception {
+        final ComponentMetrics metrics = new ComponentMetrics(2);
+        metrics.record(OVERVIEW, "a", ComponentMetrics.METRIC_RENDER, 1L);
+        metrics.record(OVERVIEW, "b", ComponentMetrics.METRIC_RENDER, 1L);
+        metrics.record(OVERVIEW, "c", ComponentMetrics.METRIC_RENDER, 1L);
+        metrics.record(OVERVIEW, "d", ComponentMetrics.METRIC_RENDER, 1L);
+        // the existing histograms are still recorded into
+        metrics.record(OVERVIEW, "a", ComponentMetrics.METRIC_RENDER, 1L);
+        assertEquals(3, metrics.getHistogramCount());
+        assertEquals(ComponentMetrics.OTHER_SITEMAP_ITEM, metrics.getMetrics().get(0).getSitemapItem());
+        assertEquals(2, metrics.getMetrics().get(0).getCount());
+        assertEquals(2, metrics.getMetrics().get(1).getCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getHistogramCount());
+    }
+
+    @Test
+    public void writeText_PrometheusFormat() throws Exception {
+        final ComponentMetrics metrics = new ComponentMetrics(100);
+        metrics.record(OVERVIEW, "news/\"x\"", ComponentMetrics.METRIC_RESULT_SIZE, 42L);
+        final StringWriter writer = new StringWriter();
+        metrics.writeText(writer);
+        final String labels = "{component=\"" + OVERVIEW + "\",sitemapitem=\"news/\\\"x\\\"\"";
+        final String text = writer.toString();
+        assertTrue(text, text.startsWith("# TYPE hst_component_result_size summary\n"));
+        assertTrue(text, text.contains("hst_component_result_size" + labels + ",quantile=\"0.5\"} 42\n"));
+        assertTrue(text, text.contains("hst_component_result_size_count" + labels + "} 1\n"));
+        assertTrue(text, text.endsWith("hst_component_result_size_max" + labels + "} 42\n"));
+    }
+
+    @Test
+    public void allowedAddresses_Split() throws Exception {
+        final ComponentMetrics metrics = new ComponentMetrics(100);
+        metrics.setAllowedAddresses("127.0.0.1, ::1");
+        assertEquals(2, metrics.getAllowedAddresses().size());
+        assertTrue(metrics.getAllowedAddresses().contains("::1"));
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.example.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link Histogram}
+ */
+public class HistogramTest {
+
+    @Test
+    public void buckets_Contiguous() throws Exception {
+        int previous = -1;
+        for (long value = 0; value < 100000; value++) {
+            final int index = Histogram.indexOf(value);
+            assertTrue("bucket of " + value, index == previous || index == previous + 1);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void buckets_MiddleWithinPrecision() throws Exception {
+        for (long value = 1; value < (1L << 39); value = value * 3 + 1) {
+            final long middle = Histogram.middleOf(Histogram.indexOf(value));
+            assertTrue("middle of the bucket of " + value, Math.abs(middle - value) <= value / Histogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void quantiles_OfUniformValues() throws Exception {
+        final Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(1000, histogram.getMax());
+        assertWithin(500, histogram.getQuantile(0.5d));
+        assertWithin(900, histogram.getQuantile(0.9d));
+        assertWithin(990, histogram.getQuantile(0.99d));
+        assertEquals(1000, histogram.getQuantile(1d));
+    }
+
+    @Test
+    public void record_ClampsValues() throws Exception {
+        final Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getQuantile(0.5d));
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertEquals(0, histogram.getQuantile(0.5d));
+        assertEquals(Long.MAX_VALUE / 2, histogram.getMax());
+        assertTrue(histogram.getQuantile(1d) > 1L << 39);
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / Histogram.SUB_BUCKETS);
+    }
+
+}
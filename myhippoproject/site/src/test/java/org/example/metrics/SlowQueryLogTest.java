@@ -0,0 +1,68 @@
+package org.example.metrics;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SlowQueryLog}
+ */
+public class SlowQueryLogTest {
+
+    @Test
+    public void isSlow_FromThreshold() throws Exception {
+        final SlowQueryLog log = new SlowQueryLog(10);
+        log.setThresholdMillis(500L);
+        assertFalse(log.isSlow(499L));
+        assertTrue(log.isSlow(500L));
+        log.setEnabled(false);
+        assertFalse(log.isSlow(5000L));
+    }
+
+    @Test
+    public void queries_RecentSlowestFirst() throws Exception {
+        final SlowQueryLog log = new SlowQueryLog(3);
+        log.add(query(1L, 900L));
+        log.add(query(2L, 600L));
+        log.add(query(3L, 700L));
+        // replaces the oldest query
+        log.add(query(4L, 800L));
+
+        final List<SlowQuery> queries = log.getQueries();
+        assertEquals(3, queries.size());
+        assertEquals(800L, queries.get(0).getElapsedMillis());
+        assertEquals(700L, queries.get(1).getElapsedMillis());
+        assertEquals(600L, queries.get(2).getElapsedMillis());
+
+        log.clear();
+        assertTrue(log.getQueries().isEmpty());
+    }
+
+    @Test
+    public void writeText_OneLinePerQuery() throws Exception {
+        final SlowQueryLog log = new SlowQueryLog(3);
+        log.setThresholdMillis(500L);
+        log.add(query(0L, 600L));
+        final StringWriter writer = new StringWriter();
+        log.writeText(writer);
+        final String[] lines = writer.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("# queries of at least 500 ms, slowest first", lines[0]);
+        assertTrue(lines[1], lines[1].startsWith("1970-01-01T00:00:00Z 600 ms org.example.components.Overview "
+                + "scope=/content/documents/myhippoproject/news"));
+        assertTrue(lines[1], lines[1].endsWith("statement=//element(*,myhippoproject:newsdocument) order by @myhippoproject:date descending"));
+    }
+
+    private static SlowQuery query(final long time, final long elapsedMillis) {
+        return new SlowQuery(time, elapsedMillis, "org.example.components.Overview",
+                "//element(*,myhippoproject:newsdocument)\norder by @myhippoproject:date descending",
+                "/content/documents/myhippoproject/news", "myhippoproject:newsdocument", "myhippoproject:date",
+                "descending", 0, 11, 1234);
+    }
+
+}
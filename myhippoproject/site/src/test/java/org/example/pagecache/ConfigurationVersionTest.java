@@ -0,0 +1,192 @@
+package org.example.pagecache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.Repository;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.easymock.IAnswer;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link ConfigurationVersion}
+ */
+public class ConfigurationVersionTest {
+
+    private static final long MODIFIED = 1500000000000L;
+
+    private final int[] reads = new int[1];
+
+    @Test
+    public void notRead_NoValidator() throws Exception {
+        final ConfigurationVersion version = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+
+        assertNull(version.getTag());
+        assertNull(version.createValidator("id", 1L, 0L));
+        assertEquals(0, reads[0]);
+    }
+
+    @Test
+    public void sameConfiguration_SameVersion() throws Exception {
+        final ConfigurationVersion version = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+        final ConfigurationVersion other = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+        version.update();
+        other.update();
+
+        assertEquals(version.getTag(), other.getTag());
+        assertEquals(MODIFIED, version.getLastModified());
+        assertEquals(version.createValidator("id", 1L, 0L).getEntityTag(),
+                other.createValidator("id", 1L, 0L).getEntityTag());
+    }
+
+    @Test
+    public void otherConfiguration_OtherVersion() throws Exception {
+        final ConfigurationVersion version = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+        final ConfigurationVersion other = new ConfigurationVersion(repository("changed"), null, "/hst:hst");
+        version.update();
+        other.update();
+
+        assertFalse(version.getTag().equals(other.getTag()));
+    }
+
+    @Test
+    public void lockProperties_SameVersion() throws Exception {
+        final ConfigurationVersion version = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+        final ConfigurationVersion locked = new ConfigurationVersion(repository("value", "hst:lockedby"), null, "/hst:hst");
+        version.update();
+        locked.update();
+
+        assertEquals(version.getTag(), locked.getTag());
+    }
+
+    @Test
+    public void changed_ServedUntilReadAgain() throws Exception {
+        final ConfigurationVersion version = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+        version.update();
+        final String tag = version.getTag();
+        assertEquals(1, reads[0]);
+
+        version.contentChanged(Collections.singleton("/hst:hst/hst:configurations/myhippoproject/hst:pages"));
+        assertEquals(tag, version.getTag());
+        assertEquals(1, reads[0]);
+
+        version.update();
+        assertEquals(tag, version.getTag());
+        assertEquals(2, reads[0]);
+    }
+
+    @Test
+    public void previewAndLockChanges_NotReadAgain() throws Exception {
+        final ConfigurationVersion version = new ConfigurationVersion(repository("value"), null, "/hst:hst");
+        version.update();
+
+        version.contentChanged(new HashSet<String>(Arrays.asList(
+                "/hst:hst/hst:configurations/myhippoproject-preview/hst:pages/home",
+                "/hst:hst/hst:configurations/myhippoproject/hst:lockedby")));
+        version.update();
+        assertEquals(1, reads[0]);
+    }
+
+    @Test
+    public void isIgnored() throws Exception {
+        assertTrue(ConfigurationVersion.isIgnored("/hst:hst/hst:configurations/myhippoproject-preview"));
+        assertTrue(ConfigurationVersion.isIgnored("/hst:hst/hst:configurations/myhippoproject/hst:lockedon"));
+        assertFalse(ConfigurationVersion.isIgnored("/hst:hst/hst:configurations/myhippoproject/hst:pages"));
+        assertFalse(ConfigurationVersion.isIgnored("/hst:hst/hst:configurations/myhippoproject/hst:lastmodified"));
+    }
+
+    /**
+     * @return a repository with a root node that has a date and a string property with <code>value</code>, and a
+     * string property with a value of its own for every one of <code>otherProperties</code>
+     */
+    private Repository repository(final String value, final String... otherProperties) throws Exception {
+        final Calendar modified = Calendar.getInstance();
+        modified.setTimeInMillis(MODIFIED);
+        final Value dateValue = createNiceMock(Value.class);
+        expect(dateValue.getType()).andReturn(PropertyType.DATE).anyTimes();
+        expect(dateValue.getDate()).andReturn(modified).anyTimes();
+        expect(dateValue.getString()).andReturn("2017-07-14T02:40:00.000Z").anyTimes();
+        final Value stringValue = createNiceMock(Value.class);
+        expect(stringValue.getType()).andReturn(PropertyType.STRING).anyTimes();
+        expect(stringValue.getString()).andReturn(value).anyTimes();
+        final Property date = property("hst:lastmodified", dateValue);
+        final Property string = property("hst:template", stringValue);
+        final List<Property> properties = new ArrayList<Property>(Arrays.asList(string, date));
+        for (String name : otherProperties) {
+            final Value otherValue = createNiceMock(Value.class);
+            expect(otherValue.getType()).andReturn(PropertyType.STRING).anyTimes();
+            expect(otherValue.getString()).andReturn("admin").anyTimes();
+            replay(otherValue);
+            properties.add(property(name, otherValue));
+        }
+
+        final Repository repository = createNiceMock(Repository.class);
+        final Session session = createNiceMock(Session.class);
+        final Node root = createNiceMock(Node.class);
+        final NodeIterator nodes = createNiceMock(NodeIterator.class);
+        expect(repository.login(anyObject(Credentials.class))).andReturn(session).anyTimes();
+        expect(session.nodeExists("/hst:hst")).andReturn(true).anyTimes();
+        expect(session.getNode("/hst:hst")).andReturn(root).anyTimes();
+        expect(root.getPath()).andReturn("/hst:hst").anyTimes();
+        expect(root.getProperties()).andAnswer(new IAnswer<PropertyIterator>() {
+            @Override
+            public PropertyIterator answer() throws Throwable {
+                reads[0]++;
+                return iterator(properties);
+            }
+        }).anyTimes();
+        expect(root.getNodes()).andReturn(nodes).anyTimes();
+        replay(dateValue, stringValue, repository, session, root, nodes);
+        return repository;
+    }
+
+    private static PropertyIterator iterator(final List<Property> properties) {
+        final Iterator<Property> it = properties.iterator();
+        final PropertyIterator iterator = createNiceMock(PropertyIterator.class);
+        expect(iterator.hasNext()).andAnswer(new IAnswer<Boolean>() {
+            @Override
+            public Boolean answer() throws Throwable {
+                return it.hasNext();
+            }
+        }).anyTimes();
+        expect(iterator.nextProperty()).andAnswer(new IAnswer<Property>() {
+            @Override
+            public Property answer() throws Throwable {
+                return it.next();
+            }
+        }).anyTimes();
+        replay(iterator);
+        return iterator;
+    }
+
+    private static Property property(final String name, final Value value) throws Exception {
+        final Property property = createNiceMock(Property.class);
+        expect(property.getName()).andReturn(name).anyTimes();
+        expect(property.getValue()).andReturn(value).anyTimes();
+        replay(property);
+        return property;
+    }
+
+}
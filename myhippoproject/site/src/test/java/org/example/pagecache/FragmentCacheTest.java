@@ -0,0 +1,62 @@
+package org.example.pagecache;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link FragmentCache}
+ */
+public class FragmentCacheTest {
+
+    private FragmentCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new FragmentCache(10);
+    }
+
+    @Test
+    public void renderedMarkup_Cached() throws Exception {
+        final Fragment fragment = cache.getFragment("key");
+        assertFalse(fragment.isCached());
+        fragment.setMarkup("<h1>header</h1>");
+
+        final Fragment cached = cache.getFragment("key");
+        assertTrue(cached.isCached());
+        assertEquals("<h1>header</h1>", cached.getMarkup());
+    }
+
+    @Test
+    public void configurationChange_Clears() throws Exception {
+        cache.getFragment("key").setMarkup("<h1>header</h1>");
+
+        cache.contentChanged(Collections.singleton("/hst:hst/hst:channels/myhippoproject"));
+
+        assertFalse(cache.getFragment("key").isCached());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void markupRenderedDuringChange_NotCached() throws Exception {
+        final Fragment fragment = cache.getFragment("key");
+        cache.clear();
+        fragment.setMarkup("<h1>header</h1>");
+
+        assertFalse(cache.getFragment("key").isCached());
+    }
+
+    @Test
+    public void disabled_NoFragment() throws Exception {
+        cache.setEnabled(false);
+
+        assertNull(cache.getFragment("key"));
+    }
+
+}
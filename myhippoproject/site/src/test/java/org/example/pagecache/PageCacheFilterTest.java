@@ -0,0 +1,126 @@
+package org.example.pagecache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.configuration.sitemap.HstSiteMapItem;
+import org.hippoecm.hst.core.container.ComponentManager;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.hippoecm.hst.site.HstServices;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link PageCacheFilter}
+ */
+public class PageCacheFilterTest {
+
+    private PageCacheFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        final HstSiteMapItem siteMapItem = createNiceMock(HstSiteMapItem.class);
+        expect(siteMapItem.getId()).andReturn("news").anyTimes();
+        final ResolvedSiteMapItem resolvedSiteMapItem = createNiceMock(ResolvedSiteMapItem.class);
+        expect(resolvedSiteMapItem.getHstSiteMapItem()).andReturn(siteMapItem).anyTimes();
+        final Mount mount = createNiceMock(Mount.class);
+        expect(mount.getIdentifier()).andReturn("mount").anyTimes();
+        final ResolvedMount resolvedMount = createNiceMock(ResolvedMount.class);
+        expect(resolvedMount.getMount()).andReturn(mount).anyTimes();
+        expect(resolvedMount.getResolvedMountPath()).andReturn("").anyTimes();
+        expect(resolvedMount.matchSiteMapItem("/news")).andReturn(resolvedSiteMapItem).anyTimes();
+        final VirtualHosts virtualHosts = createNiceMock(VirtualHosts.class);
+        expect(virtualHosts.matchMount((String) anyObject(), (String) anyObject(), (String) anyObject()))
+                .andReturn(resolvedMount).anyTimes();
+        final HstManager hstManager = createNiceMock(HstManager.class);
+        expect(hstManager.getVirtualHosts()).andReturn(virtualHosts).anyTimes();
+        final ComponentManager componentManager = createNiceMock(ComponentManager.class);
+        expect(componentManager.getComponent(HstManager.class.getName())).andReturn(hstManager).anyTimes();
+        replay(siteMapItem, resolvedSiteMapItem, mount, resolvedMount, virtualHosts, hstManager, componentManager);
+        HstServices.setComponentManager(componentManager);
+
+        final FilterConfig filterConfig = createNiceMock(FilterConfig.class);
+        replay(filterConfig);
+        filter = new PageCacheFilter();
+        filter.init(filterConfig);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HstServices.setComponentManager(null);
+    }
+
+    @Test
+    public void createKey_WithoutParameters() throws Exception {
+        assertEquals("mount news localhost/site/news", filter.createKey(createRequest("GET")));
+    }
+
+    @Test
+    public void createKey_NamespacedParameters() throws Exception {
+        final String key = filter.createKey(createRequest("GET", "r1_r2_r1:page", "2", "query", "hippo"));
+        assertEquals("mount news localhost/site/news?query=hippo&r1_r2_r1:page=2", key);
+        assertNotNull(filter.createKey(createRequest("GET", "r1_r2_r1:cursor", "abc")));
+    }
+
+    @Test
+    public void createKey_DateRange() throws Exception {
+        final String key = filter.createKey(createRequest("GET", "r1_r2_r1:from", "2013-03", "r1_r2_r1:to", "2013-04"));
+        assertEquals("mount news localhost/site/news?r1_r2_r1:from=2013-03&r1_r2_r1:to=2013-04", key);
+    }
+
+    @Test
+    public void createKey_NotCached() throws Exception {
+        assertNull(filter.createKey(createRequest("GET", "r1_r2_r1:sort", "title")));
+        assertNull(filter.createKey(createRequest("GET", "pages", "2")));
+        assertNull(filter.createKey(createRequest("POST", "page", "2")));
+    }
+
+    @Test
+    public void getLocalName() throws Exception {
+        assertEquals("page", PageCacheFilter.getLocalName("page"));
+        assertEquals("page", PageCacheFilter.getLocalName("r1_r2_r1:page"));
+        assertEquals("", PageCacheFilter.getLocalName("r1:"));
+    }
+
+    /**
+     * @return an anonymous request for <code>/site/news</code> on localhost with the parameters in
+     * <code>namesAndValues</code>
+     */
+    private static HttpServletRequest createRequest(final String method, final String... namesAndValues) {
+        final Map<String, String> parameters = new LinkedHashMap<String, String>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            parameters.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        final HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+        expect(request.getMethod()).andReturn(method).anyTimes();
+        expect(request.getContextPath()).andReturn("/site").anyTimes();
+        expect(request.getRequestURI()).andReturn("/site/news").anyTimes();
+        expect(request.getServerName()).andReturn("localhost").anyTimes();
+        expect(request.getHeader("Host")).andReturn("localhost").anyTimes();
+        expect(request.getParameterNames()).andReturn(Collections.enumeration(parameters.keySet())).anyTimes();
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            expect(request.getParameterValues(parameter.getKey()))
+                    .andReturn(new String[] {parameter.getValue()}).anyTimes();
+        }
+        replay(request);
+        return request;
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.example.pagecache;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link PageCache}
+ */
+public class PageCacheTest {
+
+    private PageCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new PageCache(10, 600, 60);
+    }
+
+    @Test
+    public void storedPage_Fresh() throws Exception {
+        final CachedPage page = new CachedPage("text/html", new byte[]{1});
+        cache.put("key", page, cache.getGeneration());
+
+        assertSame(page, cache.get("key"));
+        assertTrue(cache.isFresh(page));
+    }
+
+    @Test
+    public void contentChange_MarksStaleButKeepsServing() throws Exception {
+        final CachedPage page = new CachedPage("text/html", new byte[]{1});
+        cache.put("key", page, cache.getGeneration());
+
+        cache.contentChanged(Collections.singleton("/content/documents/myhippoproject/news"));
+
+        assertSame(page, cache.get("key"));
+        assertFalse(cache.isFresh(page));
+    }
+
+    @Test
+    public void pageRenderedDuringChange_StoredStale() throws Exception {
+        final long generation = cache.getGeneration();
+        cache.invalidate();
+        final CachedPage page = new CachedPage("text/html", new byte[]{1});
+        cache.put("key", page, generation);
+
+        assertFalse(cache.isFresh(page));
+    }
+
+    @Test
+    public void staleBeyondGrace_Dropped() throws Exception {
+        final long created = System.currentTimeMillis() - 661000L;
+        cache.put("key", new CachedPage("text/html", new byte[]{1}, created), cache.getGeneration());
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void expiredWithinGrace_Stale() throws Exception {
+        final long created = System.currentTimeMillis() - 630000L;
+        final CachedPage page = new CachedPage("text/html", new byte[]{1}, created);
+        cache.put("key", page, cache.getGeneration());
+
+        assertSame(page, cache.get("key"));
+        assertFalse(cache.isFresh(page));
+    }
+
+    @Test
+    public void rendering_OneRequestAtATime() throws Exception {
+        assertTrue(cache.startRendering("key"));
+        assertFalse(cache.startRendering("key"));
+        cache.endRendering("key");
+        assertTrue(cache.startRendering("key"));
+    }
+
+}
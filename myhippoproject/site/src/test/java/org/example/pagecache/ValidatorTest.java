@@ -0,0 +1,76 @@
+package org.example.pagecache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link Validator}
+ */
+public class ValidatorTest {
+
+    private final Validator validator = new Validator("abc-1", 1500000000123L);
+
+    @Test
+    public void weakEntityTag_SecondPrecision() throws Exception {
+        assertEquals("W/\"abc-1\"", validator.getEntityTag());
+        assertEquals(1500000000000L, validator.getLastModified());
+    }
+
+    @Test
+    public void ifNoneMatch_ComparedWeakly() throws Exception {
+        assertTrue(validator.isNotModified("W/\"abc-1\"", -1L));
+        assertTrue(validator.isNotModified("\"abc-1\"", -1L));
+        assertTrue(validator.isNotModified("\"other\", W/\"abc-1\"", -1L));
+        assertTrue(validator.isNotModified("*", -1L));
+        assertFalse(validator.isNotModified("W/\"abc-2\"", -1L));
+    }
+
+    @Test
+    public void ifNoneMatch_TakesPrecedence() throws Exception {
+        assertFalse(validator.isNotModified("W/\"abc-2\"", 1500000000000L));
+    }
+
+    @Test
+    public void ifModifiedSince() throws Exception {
+        assertTrue(validator.isNotModified(null, 1500000000000L));
+        assertTrue(validator.isNotModified(null, 1500000001000L));
+        assertFalse(validator.isNotModified(null, 1499999999000L));
+        assertFalse(validator.isNotModified(null, -1L));
+    }
+
+    @Test
+    public void fromHeaders() throws Exception {
+        assertNull(Validator.fromHeaders(null, -1L));
+
+        final Validator lastModifiedOnly = Validator.fromHeaders(null, 1500000000000L);
+        assertFalse(lastModifiedOnly.isNotModified("W/\"abc-1\"", 1500000000000L));
+        assertTrue(lastModifiedOnly.isNotModified(null, 1500000000000L));
+
+        final Validator entityTagOnly = Validator.fromHeaders("W/\"abc-1\"", -1L);
+        assertEquals(-1L, entityTagOnly.getLastModified());
+        assertFalse(entityTagOnly.isNotModified(null, 1500000000000L));
+    }
+
+    @Test
+    public void ifRange_OnlyStrongMatches() throws Exception {
+        final Validator strong = new Validator("abc-1", 1500000000123L, false);
+        assertEquals("\"abc-1\"", strong.getEntityTag());
+        assertTrue(strong.isRangeValid(null, -1L));
+        assertTrue(strong.isRangeValid("\"abc-1\"", -1L));
+        assertFalse(strong.isRangeValid("\"abc-2\"", -1L));
+        assertFalse(strong.isRangeValid("W/\"abc-1\"", -1L));
+        assertFalse(validator.isRangeValid("W/\"abc-1\"", -1L));
+    }
+
+    @Test
+    public void ifRange_Date() throws Exception {
+        final Validator strong = new Validator("abc-1", 1500000000123L, false);
+        assertTrue(strong.isRangeValid("Fri, 14 Jul 2017 02:40:00 GMT", 1500000000000L));
+        assertFalse(strong.isRangeValid("Fri, 14 Jul 2017 02:39:59 GMT", 1499999999000L));
+    }
+
+}
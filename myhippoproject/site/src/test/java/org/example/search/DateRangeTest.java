@@ -0,0 +1,67 @@
+package org.example.search;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for {@link DateRange}
+ */
+public class DateRangeTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Test
+    public void parse_MonthIncludesWholeMonth() throws Exception {
+        final DateRange range = DateRange.parse("2013-02", "2013-02", UTC);
+        assertEquals(utc(2013, Calendar.FEBRUARY, 1), range.getFrom());
+        assertEquals(utc(2013, Calendar.MARCH, 1), range.getTo());
+        assertTrue(range.contains(utc(2013, Calendar.FEBRUARY, 28)));
+        assertFalse(range.contains(utc(2013, Calendar.MARCH, 1)));
+    }
+
+    @Test
+    public void parse_YearsAndDays() throws Exception {
+        assertEquals(new DateRange(utc(2012, Calendar.JANUARY, 1), utc(2014, Calendar.JANUARY, 1)),
+                DateRange.parse("2012", "2013", UTC));
+        assertEquals(new DateRange(utc(2013, Calendar.DECEMBER, 31), utc(2014, Calendar.JANUARY, 1)),
+                DateRange.parse("2013-12-31", "2013-12-31", UTC));
+    }
+
+    @Test
+    public void parse_OpenRange() throws Exception {
+        assertNull(DateRange.parse(null, " ", UTC));
+        final DateRange range = DateRange.parse("2013", null, UTC);
+        assertTrue(range.hasFrom());
+        assertFalse(range.hasTo());
+        assertNull(range.getToCalendar());
+    }
+
+    @Test
+    public void parse_InvalidDates() throws Exception {
+        final String[] invalid = {"13", "2013-2", "2013-13", "2013-02-30", "2013-02-01-01", "abcd", "2013-"};
+        for (String value : invalid) {
+            try {
+                DateRange.parse(value, null, UTC);
+                fail("'" + value + "' should be invalid");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static long utc(final int year, final int month, final int day) {
+        final Calendar calendar = Calendar.getInstance(UTC);
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.example.search;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.component.HstComponentException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link DeferredSearchResult}
+ */
+public class DeferredSearchResultTest {
+
+    @Test
+    public void completesOnceOnFirstAccess() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final SearchResult completed = new SearchResult(Collections.<HippoBean>emptyList(), 42);
+        final DeferredSearchResult deferred = new DeferredSearchResult(new Callable<SearchResult>() {
+            @Override
+            public SearchResult call() throws Exception {
+                calls.incrementAndGet();
+                return completed;
+            }
+        });
+        assertEquals(0, calls.get());
+
+        assertEquals(42, deferred.getTotalSize());
+        assertFalse(deferred.isProjected());
+        assertSame(completed, deferred.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test(expected = HstComponentException.class)
+    public void failure_WrappedInComponentException() throws Exception {
+        new DeferredSearchResult(new Callable<SearchResult>() {
+            @Override
+            public SearchResult call() throws Exception {
+                throw new Exception("query failed");
+            }
+        }).getTotalSize();
+    }
+
+}
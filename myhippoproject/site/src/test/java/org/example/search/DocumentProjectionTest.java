@@ -0,0 +1,79 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link DocumentProjection}
+ */
+public class DocumentProjectionTest {
+
+    private Calendar date;
+    private HippoBean bean;
+
+    @Before
+    public void setUp() throws Exception {
+        date = Calendar.getInstance();
+        date.setTimeInMillis(1380000000000L);
+
+        bean = createMock(HippoBean.class);
+        expect(bean.getCanonicalUUID()).andReturn("uuid-1");
+        expect(bean.getProperty("myhippoproject:title")).andReturn("Title");
+        expect(bean.getProperty("myhippoproject:summary")).andReturn(null);
+        expect(bean.getProperty("myhippoproject:date")).andReturn(date);
+        replay(bean);
+    }
+
+    @Test
+    public void create_ReadsDeclaredProperties() throws Exception {
+        final DocumentProjection projection = DocumentProjection.create(bean,
+                Arrays.asList("myhippoproject:title", "myhippoproject:summary", "myhippoproject:date"), "/news/1.html");
+        verify(bean);
+
+        assertEquals("uuid-1", projection.getIdentifier());
+        assertEquals("/news/1.html", projection.getLink());
+        assertEquals("Title", projection.getTitle());
+        assertEquals("Title", projection.getProperties().get("title"));
+        assertNull(projection.getSummary());
+        assertFalse(projection.getProperties().containsKey("summary"));
+        assertEquals(1380000000000L, projection.getDate().getTimeInMillis());
+    }
+
+    @Test
+    public void create_KeepsImage() throws Exception {
+        final DocumentProjection projection = DocumentProjection.create(bean,
+                Arrays.asList("myhippoproject:title", "myhippoproject:summary", "myhippoproject:date"), "/news/1.html",
+                new DocumentProjection.Image("/binaries/thumbnail/image.jpg", "image.jpg"));
+
+        assertEquals("/binaries/thumbnail/image.jpg", projection.getImage().getThumbnail());
+        assertEquals("image.jpg", projection.getImage().getFileName());
+    }
+
+    @Test
+    public void dates_AreCopies() throws Exception {
+        final DocumentProjection projection = DocumentProjection.create(bean,
+                Arrays.asList("myhippoproject:title", "myhippoproject:summary", "myhippoproject:date"), "/news/1.html");
+
+        date.setTimeInMillis(0L);
+        final Calendar projected = projection.getDate();
+        assertEquals(1380000000000L, projected.getTimeInMillis());
+
+        projected.setTimeInMillis(0L);
+        assertNotSame(projected, projection.getDate());
+        assertEquals(1380000000000L, projection.getDate().getTimeInMillis());
+    }
+
+}
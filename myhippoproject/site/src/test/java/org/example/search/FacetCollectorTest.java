@@ -0,0 +1,86 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link FacetCollector}
+ */
+public class FacetCollectorTest {
+
+    @Test
+    public void values_SortedByCountThenValue() throws Exception {
+        final FacetCollector collector = new FacetCollector(Arrays.asList("year", "folder"));
+        collector.add("year", "2012");
+        collector.add("year", "2013");
+        collector.add("year", "2013");
+        collector.add("year", "2011");
+        collector.add("folder", "news");
+
+        final FacetCounts counts = collector.toFacetCounts(true, 10);
+        final List<FacetCounts.Value> years = counts.getFacets().get("year");
+        assertEquals(3, years.size());
+        assertEquals("2013", years.get(0).getValue());
+        assertEquals(2, years.get(0).getCount());
+        assertEquals("2011", years.get(1).getValue());
+        assertEquals("2012", years.get(2).getValue());
+        assertEquals(1, counts.getFacets().get("folder").size());
+        assertEquals(Arrays.asList("year", "folder"), Arrays.asList(counts.getFacets().keySet().toArray()));
+    }
+
+    @Test
+    public void unknownFacetsAndNullValues_Ignored() throws Exception {
+        final FacetCollector collector = new FacetCollector(Arrays.asList("year"));
+        collector.add("month", "2013-01");
+        collector.add("year", null);
+
+        assertFalse(collector.isCollecting("month"));
+        final FacetCounts counts = collector.toFacetCounts(true, 10);
+        assertTrue(counts.getFacets().get("year").isEmpty());
+        assertNull(counts.getFacets().get("month"));
+    }
+
+    @Test
+    public void maxValues_KeepsHighestCounts() throws Exception {
+        final FacetCollector collector = new FacetCollector(Arrays.asList("docType"));
+        collector.add("docType", "a");
+        collector.add("docType", "b");
+        collector.add("docType", "b");
+        collector.add("docType", "c");
+        collector.add("docType", "c");
+        collector.add("docType", "c");
+
+        final List<FacetCounts.Value> values = collector.toFacetCounts(true, 2).getFacets().get("docType");
+        assertEquals(2, values.size());
+        assertEquals("c", values.get(0).getValue());
+        assertEquals("b", values.get(1).getValue());
+    }
+
+    @Test
+    public void scannedAndComplete_Reported() throws Exception {
+        final FacetCollector collector = new FacetCollector(Arrays.asList("year"));
+        collector.hitDone();
+        collector.hitDone();
+
+        final FacetCounts counts = collector.toFacetCounts(false, 10);
+        assertEquals(2, counts.getScanned());
+        assertFalse(counts.isComplete());
+    }
+
+    @Test
+    public void folder_FirstSegmentBelowScope() throws Exception {
+        final String scope = "/content/documents/myhippoproject";
+        assertEquals("news", FacetCollector.getFolder(scope + "/news/2013/item/item", scope));
+        assertEquals("news", FacetCollector.getFolder(scope + "/news/item/item", scope));
+        assertNull(FacetCollector.getFolder(scope + "/item/item", scope));
+        assertNull(FacetCollector.getFolder("/content/documents/other/news/item/item", scope));
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.example.componentsinfo.SearchInfo;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link FacetCounter}
+ */
+public class FacetCounterTest {
+
+    private static final String DATE = "myhippoproject:date";
+
+    private TimeZone defaultTimeZone;
+
+    @Before
+    public void setUp() throws Exception {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Amsterdam"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    @Test
+    public void collectFacetValues_YearAndMonthInTimeZoneOfDateRange() throws Exception {
+        // 31 December 2013 23:30 in New York is 1 January 2014 05:30 in Amsterdam
+        final Calendar date = Calendar.getInstance(TimeZone.getTimeZone("America/New_York"));
+        date.clear();
+        date.set(2013, Calendar.DECEMBER, 31, 23, 30);
+        final HippoBean bean = createNiceMock(HippoBean.class);
+        expect(bean.getProperty(DATE)).andReturn(date);
+        replay(bean);
+
+        final FacetCollector collector = new FacetCollector(Arrays.asList(SearchInfo.FACET_YEAR, SearchInfo.FACET_MONTH));
+        FacetCounter.collectFacetValues(collector, bean, "/content", DATE, Calendar.getInstance(DateRange.getTimeZone()));
+        collector.hitDone();
+
+        final FacetCounts counts = collector.toFacetCounts(true, 10);
+        assertEquals("2014", getOnlyValue(counts, SearchInfo.FACET_YEAR));
+        assertEquals("2014-01", getOnlyValue(counts, SearchInfo.FACET_MONTH));
+        // the month the date range of the link in the facet selects
+        final DateRange range = DateRange.parse("2014-01", "2014-01", DateRange.getTimeZone());
+        assertTrue(range.getFromCalendar().getTimeInMillis() <= date.getTimeInMillis()
+                && date.getTimeInMillis() < range.getToCalendar().getTimeInMillis());
+    }
+
+    private static String getOnlyValue(final FacetCounts counts, final String facet) {
+        final List<FacetCounts.Value> values = counts.getFacets().get(facet);
+        assertEquals(1, values.size());
+        return values.get(0).getValue();
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.example.search;
+
+import java.util.Calendar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link PageCursor}
+ */
+public class PageCursorTest {
+
+    private static final String UUID = "cafebabe-0000-4000-8000-000000000001";
+
+    @Test
+    public void token_RoundTripDate() throws Exception {
+        final Calendar date = Calendar.getInstance();
+        date.setTimeInMillis(1394640000000L);
+
+        final String token = new PageCursor(PageCursor.Direction.AFTER, date, UUID).toToken();
+        final PageCursor parsed = PageCursor.parse(token);
+
+        assertFalse(parsed.isBefore());
+        assertEquals(UUID, parsed.getIdentifier());
+        assertEquals(1394640000000L, ((Calendar) parsed.getSortValue()).getTimeInMillis());
+    }
+
+    @Test
+    public void token_RoundTripString() throws Exception {
+        final String title = "Title with | separators, /slashes/ & unicode é";
+
+        final String token = new PageCursor(PageCursor.Direction.BEFORE, title, UUID).toToken();
+        final PageCursor parsed = PageCursor.parse(token);
+
+        assertTrue(parsed.isBefore());
+        assertEquals(title, parsed.getSortValue());
+        assertEquals(UUID, parsed.getIdentifier());
+    }
+
+    @Test
+    public void token_IsUrlSafe() throws Exception {
+        final String token = new PageCursor(PageCursor.Direction.AFTER, "???>>>~~~", UUID).toToken();
+
+        assertTrue(token, token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_Invalid() throws Exception {
+        PageCursor.parse("bm90LWEtY3Vyc29y");
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.example.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link Pagination}
+ */
+public class PaginationTest {
+
+    @Test
+    public void window_CenteredOnCurrent() throws Exception {
+        final Pagination pagination = new Pagination(2500, 10, 50000, 10);
+
+        assertEquals(5000, pagination.getLast());
+        assertEquals(2495, pagination.getWindowStart());
+        assertEquals(2504, pagination.getWindowEnd());
+        assertEquals(2499, pagination.getPrevious());
+        assertEquals(2501, pagination.getNext());
+    }
+
+    @Test
+    public void window_ClampedAtStart() throws Exception {
+        final Pagination pagination = new Pagination(2, 10, 50000, 10);
+
+        assertEquals(1, pagination.getWindowStart());
+        assertEquals(10, pagination.getWindowEnd());
+    }
+
+    @Test
+    public void window_ClampedAtEnd() throws Exception {
+        final Pagination pagination = new Pagination(5000, 10, 50000, 10);
+
+        assertEquals(4991, pagination.getWindowStart());
+        assertEquals(5000, pagination.getWindowEnd());
+        assertEquals(0, pagination.getNext());
+    }
+
+    @Test
+    public void window_LargerThanPages() throws Exception {
+        final Pagination pagination = new Pagination(1, 10, 31, 10);
+
+        assertEquals(4, pagination.getLast());
+        assertEquals(1, pagination.getWindowStart());
+        assertEquals(4, pagination.getWindowEnd());
+        assertEquals(0, pagination.getPrevious());
+        assertTrue(pagination.isVisible());
+    }
+
+    @Test
+    public void lastUnknown_WindowEndsAtKnownPages() throws Exception {
+        final Pagination pagination = new Pagination(20, 10, 201, 10, false);
+
+        assertFalse(pagination.isLastKnown());
+        assertEquals(21, pagination.getLast());
+        assertEquals(12, pagination.getWindowStart());
+        assertEquals(21, pagination.getWindowEnd());
+        assertEquals(21, pagination.getNext());
+    }
+
+    @Test
+    public void singlePage_NotVisible() throws Exception {
+        assertFalse(new Pagination(1, 10, 10, 10).isVisible());
+    }
+
+    @Test
+    public void current_BeyondLast() throws Exception {
+        assertEquals(3, new Pagination(7, 10, 25, 10).getCurrent());
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link SearchResultCache}
+ */
+public class SearchResultCacheTest {
+
+    private static final String NEWS = "/content/documents/myhippoproject/news";
+
+    private SearchResultCache cache;
+    private SearchKey newsKey;
+    private SearchHits hits;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new SearchResultCache(10, 60);
+        newsKey = new SearchKey("mount", false, NEWS, "myhippoproject:newsdocument", 10, 1);
+        hits = new SearchHits(Arrays.asList("uuid-1", "uuid-2"), 2);
+    }
+
+    @Test
+    public void put_ThenGet() throws Exception {
+        cache.put(newsKey, hits, cache.getGeneration());
+
+        assertSame(hits, cache.get(new SearchKey("mount", false, NEWS, "myhippoproject:newsdocument", 10, 1)));
+        assertNull(cache.get(new SearchKey("mount", true, NEWS, "myhippoproject:newsdocument", 10, 1)));
+        assertNull(cache.get(new SearchKey("mount", false, NEWS, "myhippoproject:newsdocument", 10, 2)));
+    }
+
+    @Test
+    public void contentChanged_BelowScope() throws Exception {
+        cache.put(newsKey, hits, cache.getGeneration());
+
+        cache.contentChanged(Collections.singleton(NEWS + "/2013/article/article/myhippoproject:title"));
+
+        assertNull(cache.get(newsKey));
+    }
+
+    @Test
+    public void contentChanged_AboveScope() throws Exception {
+        cache.put(newsKey, hits, cache.getGeneration());
+
+        cache.contentChanged(Collections.singleton("/content/documents/myhippoproject"));
+
+        assertNull(cache.get(newsKey));
+    }
+
+    @Test
+    public void contentChanged_OutsideScope() throws Exception {
+        cache.put(newsKey, hits, cache.getGeneration());
+
+        cache.contentChanged(Collections.singleton("/content/documents/myhippoproject/newsletters/item"));
+
+        assertNotNull(cache.get(newsKey));
+    }
+
+    @Test
+    public void put_AfterConcurrentInvalidation() throws Exception {
+        final long generation = cache.getGeneration();
+        cache.contentChanged(Collections.singleton(NEWS));
+
+        cache.put(newsKey, hits, generation);
+
+        assertNull(cache.get(newsKey));
+    }
+
+}
@@ -0,0 +1,273 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.example.componentsinfo.GeneralListInfo;
+import org.example.fulltext.FullTextIndex;
+import org.example.index.DateIndex;
+import org.example.jcr.PooledSessionTemplate;
+import org.easymock.Capture;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManager;
+import org.hippoecm.hst.content.beans.manager.ObjectConverter;
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.HstQueryManager;
+import org.hippoecm.hst.content.beans.query.HstQueryManagerFactory;
+import org.hippoecm.hst.content.beans.query.HstQueryResult;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.hippoecm.hst.content.tool.ContentBeansTool;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.anyBoolean;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SearchService}
+ */
+public class SearchServiceTest {
+
+    private static final String NEWS = "/content/documents/myhippoproject/news";
+    private static final String NEWS_TYPE = "myhippoproject:newsdocument";
+    private static final String DATE = "myhippoproject:date";
+
+    private SearchService service;
+    private SearchParameters search;
+    private HippoBean scope;
+    private HippoBean hit;
+    private HstRequestContext requestContext;
+    private ObjectConverter objectConverter;
+    private ContentBeansTool contentBeansTool;
+
+    @Before
+    public void setUp() throws Exception {
+        service = new SearchService();
+        search = new SearchParameters();
+        search.component = "test";
+        search.scopePath = NEWS;
+        search.docType = NEWS_TYPE;
+        search.sortBy = DATE;
+        search.descending = true;
+        search.pageSize = 10;
+        search.crPage = 1;
+        search.maxHits = 10;
+        search.countMode = GeneralListInfo.COUNT_MODE_EXACT;
+        search.exactCount = true;
+        search.shared = true;
+        search.key = new SearchKey("mount", false, NEWS, NEWS_TYPE, DATE);
+
+        scope = createNiceMock(HippoBean.class);
+        expect(scope.getNode()).andReturn(createNiceMock(Node.class)).anyTimes();
+        hit = createNiceMock(HippoBean.class);
+        replay(scope, hit);
+        // strict, so a query on the session of the request fails the tests that must not execute one
+        requestContext = createMock(HstRequestContext.class);
+        objectConverter = createMock(ObjectConverter.class);
+        contentBeansTool = createMock(ContentBeansTool.class);
+        expect(contentBeansTool.getObjectConverter()).andReturn(objectConverter).anyTimes();
+        replay(objectConverter, contentBeansTool);
+    }
+
+    @Test
+    public void search_ServesCachedHitsWithoutQuery() throws Exception {
+        final SearchResultCache cache = new SearchResultCache(10, 60);
+        cache.put(search.key, new SearchHits(Arrays.asList("id-a"), 1), cache.getGeneration());
+        service.setSearchResultCache(cache);
+        expectResolved("id-a");
+
+        final SearchResult result = service.search(requestContext, scope, search, true);
+        verify(requestContext);
+        assertEquals(Arrays.asList(hit), result.getHippoBeans());
+        assertEquals(1, result.getTotalSize());
+    }
+
+    @Test
+    public void search_CacheWinsOverDateIndex() throws Exception {
+        final SearchResultCache cache = new SearchResultCache(10, 60);
+        cache.put(search.key, new SearchHits(Arrays.asList("id-a"), 1), cache.getGeneration());
+        service.setSearchResultCache(cache);
+        service.setDateIndex(createDateIndex("id-b"));
+        expectResolved("id-a");
+
+        service.search(requestContext, scope, search, false);
+        verify(requestContext);
+    }
+
+    @Test
+    public void search_ServesDateIndexWithoutQuery() throws Exception {
+        service.setSearchResultCache(new SearchResultCache(10, 60));
+        service.setDateIndex(createDateIndex("id-b"));
+        expectResolved("id-b");
+
+        final SearchResult result = service.search(requestContext, scope, search, true);
+        verify(requestContext);
+        assertEquals(Arrays.asList(hit), result.getHippoBeans());
+    }
+
+    @Test
+    public void search_SkipsDateIndexForQueries() throws Exception {
+        service.setDateIndex(createDateIndex("id-b"));
+        search.parsedQuery = "hippo";
+        expectQuery();
+
+        final SearchResult result = service.search(requestContext, scope, search, false);
+        verify(requestContext);
+        assertEquals(0, result.getSize());
+    }
+
+    @Test
+    public void search_ServesFullTextIndexBeforeQuery() throws Exception {
+        search.parsedQuery = "hippo";
+        search.fullText = true;
+        final FullTextIndex index = createMock(FullTextIndex.class);
+        expect(index.isAvailable()).andReturn(true);
+        expect(index.search(NEWS, NEWS_TYPE, "hippo", 0, 10)).andReturn(new SearchHits(Arrays.asList("id-c"), 1));
+        replay(index);
+        service.setFullTextIndex(index);
+        // the query manager of the request is at hand, but not executed
+        expect(requestContext.getQueryManager()).andReturn(createMock(HstQueryManager.class));
+        expectResolved("id-c");
+
+        final SearchResult result = service.search(requestContext, scope, search, false);
+        verify(requestContext, index);
+        assertEquals(Arrays.asList(hit), result.getHippoBeans());
+    }
+
+    @Test
+    public void search_StartsBackgroundSearchOnExecutor() throws Exception {
+        final SearchExecutor executor = createMock(SearchExecutor.class);
+        final FutureTask<SearchHits> future = new FutureTask<SearchHits>(new Callable<SearchHits>() {
+            @Override
+            public SearchHits call() throws Exception {
+                return new SearchHits(Collections.<String>emptyList(), 0);
+            }
+        });
+        expect(executor.submit(eq(false), isA(PooledSessionTemplate.SessionCallback.class))).andReturn(future);
+        replay(executor);
+        service.setSearchExecutor(executor);
+        service.setHstQueryManagerFactory(createMock(HstQueryManagerFactory.class));
+        expect(requestContext.isCmsRequest()).andReturn(false);
+        expect(requestContext.getContentBeansTool()).andReturn(contentBeansTool);
+        replay(requestContext);
+
+        final SearchResult result = service.search(requestContext, scope, search, true);
+        verify(requestContext, executor);
+        assertTrue(result instanceof DeferredSearchResult);
+    }
+
+    @Test
+    public void search_CreatesBackgroundQueryManagerWithoutRequestContext() throws Exception {
+        final Session session = createMock(Session.class);
+        expect(session.getNode(NEWS)).andReturn(createNiceMock(Node.class));
+        final HstQueryManagerFactory queryManagerFactory = createMock(HstQueryManagerFactory.class);
+        expect(queryManagerFactory.createQueryManager(session, objectConverter)).andReturn(createQueryManager());
+        final SearchExecutor executor = createMock(SearchExecutor.class);
+        final Capture<PooledSessionTemplate.SessionCallback<SearchHits>> callback =
+                new Capture<PooledSessionTemplate.SessionCallback<SearchHits>>();
+        expect(executor.submit(eq(false), capture(callback))).andReturn(null);
+        replay(session, queryManagerFactory, executor);
+        service.setSearchExecutor(executor);
+        service.setHstQueryManagerFactory(queryManagerFactory);
+        expect(requestContext.isCmsRequest()).andReturn(false);
+        expect(requestContext.getContentBeansTool()).andReturn(contentBeansTool);
+        expectQuery();
+
+        service.search(requestContext, scope, search, true);
+        // the pool thread creates its query manager from what the request thread handed it
+        reset(requestContext);
+        replay(requestContext);
+        assertEquals(0, callback.getValue().doInSession(session).getTotalSize());
+        verify(requestContext, queryManagerFactory, session);
+    }
+
+    @Test
+    public void search_QueriesRequestSessionWhenExecutorSaturated() throws Exception {
+        final SearchExecutor executor = createMock(SearchExecutor.class);
+        expect(executor.submit(eq(false), isA(PooledSessionTemplate.SessionCallback.class))).andReturn(null);
+        replay(executor);
+        service.setSearchExecutor(executor);
+        service.setHstQueryManagerFactory(createMock(HstQueryManagerFactory.class));
+        expect(requestContext.isCmsRequest()).andReturn(false);
+        expect(requestContext.getContentBeansTool()).andReturn(contentBeansTool);
+        expectQuery();
+
+        final SearchResult result = service.search(requestContext, scope, search, true);
+        verify(requestContext, executor);
+        assertSame(SearchResult.class, result.getClass());
+    }
+
+    @Test
+    public void search_QueriesRequestSessionWithoutCollaborators() throws Exception {
+        expectQuery();
+
+        final SearchResult result = service.search(requestContext, scope, search, true);
+        verify(requestContext);
+        assertEquals(0, result.getTotalSize());
+    }
+
+    private DateIndex createDateIndex(final String identifier) {
+        return new DateIndex(null, NEWS, NEWS_TYPE, DATE) {
+            {
+                crawling();
+                add(NEWS + "/2013/05/" + identifier, 1000L, identifier);
+                crawled(0L);
+            }
+        };
+    }
+
+    /**
+     * Expects the hit <code>identifier</code> to be resolved against the session of the request
+     */
+    private void expectResolved(final String identifier) throws Exception {
+        final ObjectBeanManager objectBeanManager = createMock(ObjectBeanManager.class);
+        expect(objectBeanManager.getObjectByUuid(identifier)).andReturn(hit);
+        replay(objectBeanManager);
+        expect(requestContext.getObjectBeanManager()).andReturn(objectBeanManager);
+        replay(requestContext);
+    }
+
+    /**
+     * Expects a query without hits on the session of the request
+     */
+    private void expectQuery() throws Exception {
+        expect(requestContext.getQueryManager()).andReturn(createQueryManager());
+        replay(requestContext);
+    }
+
+    /**
+     * @return a query manager whose query has no hits
+     */
+    private HstQueryManager createQueryManager() throws Exception {
+        final HippoBeanIterator it = createNiceMock(HippoBeanIterator.class);
+        final HstQueryResult queryResult = createNiceMock(HstQueryResult.class);
+        expect(queryResult.getHippoBeans()).andReturn(it);
+        final HstQuery query = createNiceMock(HstQuery.class);
+        expect(query.createFilter()).andReturn(createNiceMock(Filter.class));
+        expect(query.execute()).andReturn(queryResult);
+        final HstQueryManager queryManager = createMock(HstQueryManager.class);
+        expect(queryManager.createQuery(isA(Node.class), (Class) anyObject(), anyBoolean())).andReturn(query);
+        replay(it, queryResult, query, queryManager);
+        return queryManager;
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SnippetExtractor}
+ */
+public class SnippetExtractorTest {
+
+    @Test
+    public void terms_WithoutExclusionsOperatorsAndWildcards() throws Exception {
+        assertEquals(Arrays.asList("hippo", "news", "docs"),
+                SnippetExtractor.getTerms("Hippo -cms \"news\" OR docs* hippo"));
+        assertTrue(SnippetExtractor.getTerms(null).isEmpty());
+    }
+
+    @Test
+    public void match_HighlightedAndEscaped() throws Exception {
+        final SnippetExtractor extractor = new SnippetExtractor(1000, 200);
+        assertEquals("The <strong>Hippo</strong> CMS &amp; site",
+                extractor.extract("<p>The <b>Hippo</b> CMS &amp; site</p>", Collections.singletonList("hippo")));
+    }
+
+    @Test
+    public void noMatch_NoSnippet() throws Exception {
+        final SnippetExtractor extractor = new SnippetExtractor(1000, 200);
+        assertNull(extractor.extract("<p>Nothing to see</p>", Collections.singletonList("hippo")));
+        assertNull(extractor.extract(null, Collections.singletonList("hippo")));
+    }
+
+    @Test
+    public void matchBeyondScanLimit_NoSnippet() throws Exception {
+        final SnippetExtractor extractor = new SnippetExtractor(20, 200);
+        assertNull(extractor.extract("<p>Some long introduction before the word hippo</p>",
+                Collections.singletonList("hippo")));
+    }
+
+    @Test
+    public void longText_CutAroundMatch() throws Exception {
+        final StringBuilder html = new StringBuilder("<p>");
+        for (int i = 0; i < 50; i++) {
+            html.append("word ");
+        }
+        html.append("hippo");
+        for (int i = 0; i < 50; i++) {
+            html.append(" word");
+        }
+        html.append("</p>");
+
+        final String snippet = new SnippetExtractor(10000, 30).extract(html.toString(), Collections.singletonList("hippo"));
+        assertTrue(snippet, snippet.startsWith("&hellip; word"));
+        assertTrue(snippet, snippet.endsWith("word &hellip;"));
+        assertTrue(snippet, snippet.contains("<strong>hippo</strong>"));
+    }
+
+    @Test
+    public void lowerCaseLonger_HighlightAtMatch() throws Exception {
+        // lower case \u0130 takes two chars, which shifted matches found in a lower case copy
+        final SnippetExtractor extractor = new SnippetExtractor(1000, 200);
+        final String snippet = extractor.extract("<p>\u0130\u0130 Hippo site</p>", Collections.singletonList("hippo"));
+        assertTrue(snippet, snippet.endsWith(" <strong>Hippo</strong> site"));
+        final String end = extractor.extract("\u0130\u0130\u0130\u0130 hippo", Collections.singletonList("hippo"));
+        assertTrue(end, end.endsWith(" <strong>hippo</strong>"));
+    }
+
+    @Test
+    public void scanLimitInsideTag_TagDropped() throws Exception {
+        assertEquals("Hippo", SnippetExtractor.toText("<p>Hippo</p><a hre"));
+    }
+
+}
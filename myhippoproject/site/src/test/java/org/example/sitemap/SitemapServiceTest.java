@@ -0,0 +1,253 @@
+package org.example.sitemap;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.Session;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.example.binaries.DiskCache;
+import org.example.jcr.PooledSessionTemplate;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.container.ComponentManager;
+import org.hippoecm.hst.core.linking.HstLink;
+import org.hippoecm.hst.core.linking.HstLinkCreator;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.hst.site.HstServices;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link SitemapService}
+ */
+public class SitemapServiceTest {
+
+    private static final String ROOT = "/content/documents/myhippoproject/news";
+    private static final String BASE_URL = "http://www.example.org/site";
+
+    // the number of times the documents of a folder were listed, by path
+    private final Map<String, Integer> listings = new HashMap<String, Integer>();
+    private final Map<String, Node> nodes = new HashMap<String, Node>();
+    private File directory;
+    private SitemapService service;
+
+    @Before
+    public void setUp() throws Exception {
+        folder(ROOT, folder(ROOT + "/2013",
+                folder(ROOT + "/2013/05", handle(ROOT + "/2013/05/a"), handle(ROOT + "/2013/05/b"),
+                        handle(ROOT + "/2013/05/c"), handle(ROOT + "/2013/05/d"), handle(ROOT + "/2013/05/e")),
+                folder(ROOT + "/2013/06", handle(ROOT + "/2013/06/f"))));
+
+        final Session session = createNiceMock(Session.class);
+        expect(session.nodeExists((String) anyObject())).andAnswer(new IAnswer<Boolean>() {
+            @Override
+            public Boolean answer() throws Throwable {
+                return nodes.containsKey(EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        expect(session.getNode((String) anyObject())).andAnswer(new IAnswer<Node>() {
+            @Override
+            public Node answer() throws Throwable {
+                return nodes.get(EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        final Repository repository = createNiceMock(Repository.class);
+        expect(repository.login((Credentials) anyObject())).andReturn(session).anyTimes();
+        replay(session, repository);
+
+        directory = File.createTempFile("sitemaps", "");
+        directory.delete();
+        final DiskCache diskCache = new DiskCache(directory.getAbsolutePath(), 1000000L);
+        diskCache.start();
+        service = new SitemapService(new PooledSessionTemplate(repository, null, null), diskCache, ROOT, BASE_URL + "/");
+        service.setMaxUrls(2);
+
+        final Mount mount = createNiceMock(Mount.class);
+        expect(mount.getMountPath()).andReturn("").anyTimes();
+        final ResolvedMount resolvedMount = createNiceMock(ResolvedMount.class);
+        expect(resolvedMount.getMount()).andReturn(mount).anyTimes();
+        final VirtualHosts virtualHosts = createNiceMock(VirtualHosts.class);
+        expect(virtualHosts.matchMount("www.example.org", "/site", "/")).andReturn(resolvedMount).anyTimes();
+        final HstManager hstManager = createNiceMock(HstManager.class);
+        expect(hstManager.getVirtualHosts()).andReturn(virtualHosts).anyTimes();
+        final HstLinkCreator linkCreator = createNiceMock(HstLinkCreator.class);
+        // the site links the news folder at /news, and its documents with an extension
+        expect(linkCreator.create(isA(Node.class), eq(mount))).andAnswer(new IAnswer<HstLink>() {
+            @Override
+            public HstLink answer() throws Throwable {
+                final String path = ((Node) EasyMock.getCurrentArguments()[0]).getPath();
+                final HstLink link = createNiceMock(HstLink.class);
+                expect(link.getPath()).andReturn("news" + path.substring(ROOT.length())
+                        + (path.equals(ROOT) ? "" : ".html")).anyTimes();
+                replay(link);
+                return link;
+            }
+        }).anyTimes();
+        final ComponentManager componentManager = createNiceMock(ComponentManager.class);
+        expect(componentManager.getComponent(HstManager.class.getName())).andReturn(hstManager).anyTimes();
+        expect(componentManager.getComponent(HstLinkCreator.class.getName())).andReturn(linkCreator).anyTimes();
+        replay(mount, resolvedMount, virtualHosts, hstManager, linkCreator, componentManager);
+        HstServices.setComponentManager(componentManager);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HstServices.setComponentManager(null);
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void withoutBaseUrl_Disabled() throws Exception {
+        assertTrue(service.isEnabled());
+        assertFalse(new SitemapService(null, null, ROOT, " ").isEnabled());
+    }
+
+    @Test
+    public void getIndex_SectionsSplitAtMaxUrls() throws Exception {
+        final String index = read(service.getIndex());
+        assertTrue(index.contains("<loc>" + BASE_URL + "/sitemaps/sitemap-2013-05-1.xml</loc>"));
+        assertTrue(index.contains("<loc>" + BASE_URL + "/sitemaps/sitemap-2013-05-2.xml</loc>"));
+        assertTrue(index.contains("<loc>" + BASE_URL + "/sitemaps/sitemap-2013-05-3.xml</loc>"));
+        assertTrue(index.contains("<loc>" + BASE_URL + "/sitemaps/sitemap-2013-06-1.xml</loc>"));
+        assertFalse(index.contains("sitemap-2013-05-4.xml"));
+        assertFalse(index.contains("sitemap-2013-06-2.xml"));
+
+        assertEquals(2, countUrls(read(service.getSitemap("sitemap-2013-05-1.xml"))));
+        assertEquals(2, countUrls(read(service.getSitemap("sitemap-2013-05-2.xml"))));
+        final String last = read(service.getSitemap("sitemap-2013-05-3.xml"));
+        assertEquals(1, countUrls(last));
+        assertTrue(last.contains("<loc>" + BASE_URL + "/news/2013/05/e.html</loc>"));
+        assertNull(service.getSitemap("sitemap-2013-05-4.xml"));
+    }
+
+    @Test
+    public void contentChanged_OnlyChangedSectionGeneratedAgain() throws Exception {
+        service.getIndex();
+        assertEquals(1, listings.get(ROOT + "/2013/05").intValue());
+        assertEquals(1, listings.get(ROOT + "/2013/06").intValue());
+
+        // served from disk while nothing changed
+        service.getIndex();
+        service.getSitemap("sitemap-2013-06-1.xml");
+        assertEquals(1, listings.get(ROOT + "/2013/06").intValue());
+
+        service.contentChanged(Collections.singleton(ROOT + "/2013/06/f/f/myhippoproject:title"));
+        final String index = read(service.getIndex());
+        assertEquals(1, listings.get(ROOT + "/2013/05").intValue());
+        assertEquals(2, listings.get(ROOT + "/2013/06").intValue());
+        assertTrue(index.contains("sitemap-2013-05-3.xml"));
+        assertTrue(read(service.getSitemap("sitemap-2013-06-1.xml")).contains("/news/2013/06/f.html"));
+    }
+
+    /**
+     * Adds a folder with <code>children</code> at <code>path</code>, whose listings are counted
+     */
+    private Node folder(final String path, final Node... children) throws Exception {
+        final Node folder = node(path);
+        expect(folder.isNodeType("hippostd:folder")).andReturn(true).anyTimes();
+        listings.put(path, 0);
+        expect(folder.getNodes()).andAnswer(new IAnswer<NodeIterator>() {
+            @Override
+            public NodeIterator answer() throws Throwable {
+                listings.put(path, listings.get(path) + 1);
+                return iterator(Arrays.asList(children));
+            }
+        }).anyTimes();
+        replay(folder);
+        return folder;
+    }
+
+    /**
+     * Adds the handle of a published document without dates at <code>path</code>
+     */
+    private Node handle(final String path) throws Exception {
+        final Node handle = node(path);
+        final String name = path.substring(path.lastIndexOf('/') + 1);
+        final Node document = createNiceMock(Node.class);
+        replay(document);
+        expect(handle.isNodeType("hippo:handle")).andReturn(true).anyTimes();
+        expect(handle.hasNode(name)).andReturn(true).anyTimes();
+        expect(handle.getNode(name)).andReturn(document).anyTimes();
+        replay(handle);
+        return handle;
+    }
+
+    private Node node(final String path) throws Exception {
+        final Node node = createNiceMock(Node.class);
+        expect(node.getPath()).andReturn(path).anyTimes();
+        expect(node.getName()).andReturn(path.substring(path.lastIndexOf('/') + 1)).anyTimes();
+        nodes.put(path, node);
+        return node;
+    }
+
+    private static NodeIterator iterator(final List<Node> children) {
+        final Iterator<Node> it = children.iterator();
+        final NodeIterator iterator = createNiceMock(NodeIterator.class);
+        expect(iterator.hasNext()).andAnswer(new IAnswer<Boolean>() {
+            @Override
+            public Boolean answer() throws Throwable {
+                return it.hasNext();
+            }
+        }).anyTimes();
+        expect(iterator.nextNode()).andAnswer(new IAnswer<Node>() {
+            @Override
+            public Node answer() throws Throwable {
+                return it.next();
+            }
+        }).anyTimes();
+        replay(iterator);
+        return iterator;
+    }
+
+    private static int countUrls(final String sitemap) {
+        return sitemap.split("<url>", -1).length - 1;
+    }
+
+    private static String read(final File file) throws Exception {
+        final StringBuilder content = new StringBuilder();
+        final Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            final char[] buffer = new char[4096];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                content.append(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return content.toString();
+    }
+
+}
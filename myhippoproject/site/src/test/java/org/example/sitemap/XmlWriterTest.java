@@ -0,0 +1,38 @@
+package org.example.sitemap;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link XmlWriter}
+ */
+public class XmlWriterTest {
+
+    private final StringWriter out = new StringWriter();
+    private final XmlWriter xml = new XmlWriter(out);
+
+    @Test
+    public void elementsAndAttributes_Nested() throws Exception {
+        xml.startElement("urlset").attribute("xmlns", "http://www.sitemaps.org/schemas/sitemap/0.9");
+        xml.startElement("url").element("loc", "http://www.example.org/").element("lastmod", null).endElement("url");
+        xml.startElement("empty").endElement("empty");
+        xml.endElement("urlset");
+        assertEquals("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\"><url><loc>http://www.example.org/</loc>"
+                + "</url><empty/></urlset>", out.toString());
+    }
+
+    @Test
+    public void textAndAttributes_Escaped() throws Exception {
+        xml.startElement("a").attribute("title", "\"it's\"").text("<b> & \u0001c").endElement("a");
+        assertEquals("<a title=\"&quot;it&apos;s&quot;\">&lt;b&gt; &amp; c</a>", out.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void attributeAfterContent_Fails() throws Exception {
+        xml.startElement("a").text("text").attribute("title", "title");
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.example.suggest;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link SuggestIndex}
+ */
+public class SuggestIndexTest {
+
+    private static final String NEWS = "/content/documents/myhippoproject/news";
+
+    private SuggestIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new SuggestIndex(null, "/content/documents", "myhippoproject:title");
+        index.add(NEWS + "/2013/hippo", "Hippo news");
+        index.add(NEWS + "/2013/release", "Hippo CMS 7.8 released");
+        index.add(NEWS + "/2013/cafe", "Café opening");
+    }
+
+    @Test
+    public void suggest_MatchesStartOfWords() throws Exception {
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released", "Hippo news"), index.suggest("hip", 10));
+        assertEquals(Arrays.asList("Hippo news"), index.suggest("NEW", 10));
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released"), index.suggest("cms 7", 10));
+        assertEquals(Collections.emptyList(), index.suggest("ews", 10));
+    }
+
+    @Test
+    public void suggest_IgnoresAccentsAndPunctuation() throws Exception {
+        assertEquals(Arrays.asList("Café opening"), index.suggest("cafe", 10));
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released"), index.suggest("7 8", 10));
+    }
+
+    @Test
+    public void suggest_Limited() throws Exception {
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released"), index.suggest("hippo", 1));
+        assertEquals(Collections.emptyList(), index.suggest("", 10));
+        assertEquals(Collections.emptyList(), index.suggest(null, 10));
+    }
+
+    @Test
+    public void suggest_LimitedToContentPath() throws Exception {
+        index.add("/content/documents/subsite/news/hippos", "Hippos in the subsite");
+
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released", "Hippo news"),
+                index.suggest("/content/documents/myhippoproject", "hip", 10));
+        assertEquals(Arrays.asList("Hippos in the subsite"), index.suggest("/content/documents/subsite", "hip", 10));
+        assertEquals(Collections.emptyList(), index.suggest("/content/documents/sub", "hip", 10));
+        assertEquals(3, index.suggest(null, "hip", 10).size());
+    }
+
+    @Test
+    public void add_ReplacesPreviousTitle() throws Exception {
+        index.add(NEWS + "/2013/hippo", "Elephant news");
+
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released"), index.suggest("hippo", 10));
+        assertEquals(Arrays.asList("Elephant news"), index.suggest("news", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void remove() throws Exception {
+        index.remove(NEWS + "/2013/hippo");
+        assertEquals(Arrays.asList("Hippo CMS 7.8 released"), index.suggest("hippo", 10));
+
+        index.removeBelow(NEWS);
+        assertEquals(Collections.emptyList(), index.suggest("hippo", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void normalize() throws Exception {
+        assertEquals("hippo cms 7 8 released", SuggestIndex.normalize("  Hippo CMS 7.8 -- released! "));
+        assertEquals("cafe", SuggestIndex.normalize("Café"));
+    }
+
+}